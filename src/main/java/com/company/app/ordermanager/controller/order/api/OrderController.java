@@ -1,7 +1,13 @@
 package com.company.app.ordermanager.controller.order.api;
 
+import com.company.app.ordermanager.dto.order.CreateOrderBatchResultDto;
 import com.company.app.ordermanager.dto.order.CreateOrderDto;
+import com.company.app.ordermanager.dto.order.OrderCursorPageDto;
+import com.company.app.ordermanager.dto.order.OrderExportFormat;
+import com.company.app.ordermanager.dto.order.OrderIntakeStatusDto;
+import com.company.app.ordermanager.dto.order.OrderSummaryDto;
 import com.company.app.ordermanager.entity.order.Order;
+import com.company.app.ordermanager.search.dto.OrderReindexStatusDto;
 import com.company.app.ordermanager.search.dto.OrderSearchRequest;
 import com.company.app.ordermanager.search.dto.OrderSearchResult;
 import com.querydsl.core.types.Predicate;
@@ -9,19 +15,36 @@ import jakarta.validation.Valid;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.querydsl.binding.QuerydslPredicate;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.util.List;
 import java.util.UUID;
 
 public interface OrderController {
-    Page<Order> getOrdersList(@QuerydslPredicate(root = Order.class) Predicate predicate, Pageable pageable);
+    Page<OrderSummaryDto> getOrdersList(@QuerydslPredicate(root = Order.class) Predicate predicate, Pageable pageable);
+
+    OrderCursorPageDto scrollOrders(@QuerydslPredicate(root = Order.class) Predicate predicate, String cursor, int size);
+
+    ResponseEntity<StreamingResponseBody> exportOrders(@QuerydslPredicate(root = Order.class) Predicate predicate, OrderExportFormat format, boolean includeItems);
 
     Page<OrderSearchResult> searchOrders(OrderSearchRequest searchRequest, Pageable pageable);
 
-    Order getOrderById(@PathVariable("id") UUID id);
+    ResponseEntity<OrderReindexStatusDto> reindexOrders(boolean resume);
+
+    OrderReindexStatusDto getReindexStatus();
+
+    String getOrderById(@PathVariable("id") UUID id);
 
     Order createOrder(@Valid @RequestBody CreateOrderDto order);
 
+    CreateOrderBatchResultDto createOrders(@RequestBody List<CreateOrderDto> orders);
+
+    ResponseEntity<OrderIntakeStatusDto> submitOrder(@Valid @RequestBody CreateOrderDto order);
+
+    OrderIntakeStatusDto getOrderIntakeStatus(@PathVariable("id") UUID id);
+
     void deleteOrderById(@PathVariable("id") UUID id);
 }
@@ -1,12 +1,21 @@
 package com.company.app.ordermanager.controller.order.impl;
 
 import com.company.app.ordermanager.controller.order.api.OrderController;
+import com.company.app.ordermanager.dto.order.CreateOrderBatchResultDto;
 import com.company.app.ordermanager.dto.order.CreateOrderDto;
+import com.company.app.ordermanager.dto.order.OrderCursorPageDto;
+import com.company.app.ordermanager.dto.order.OrderExportFormat;
+import com.company.app.ordermanager.dto.order.OrderIntakeStatusDto;
+import com.company.app.ordermanager.dto.order.OrderSummaryDto;
 import com.company.app.ordermanager.entity.order.Order;
 import com.company.app.ordermanager.entity.view.JsonViews;
+import com.company.app.ordermanager.search.dto.OrderReindexStatusDto;
 import com.company.app.ordermanager.search.dto.OrderSearchRequest;
 import com.company.app.ordermanager.search.dto.OrderSearchResult;
+import com.company.app.ordermanager.search.service.api.OrderReindexService;
 import com.company.app.ordermanager.search.service.api.OrderSearchService;
+import com.company.app.ordermanager.service.api.order.OrderExportService;
+import com.company.app.ordermanager.service.api.order.OrderIntakeService;
 import com.company.app.ordermanager.service.api.order.OrderService;
 import com.fasterxml.jackson.annotation.JsonView;
 import com.querydsl.core.types.Predicate;
@@ -21,9 +30,15 @@ import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.querydsl.binding.QuerydslPredicate;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
+import java.util.List;
 import java.util.UUID;
 
 @RestController
@@ -32,10 +47,12 @@ import java.util.UUID;
 @Tag(name = "Orders", description = "Order management endpoints")
 public class OrderControllerImpl implements OrderController {
     private final OrderService orderService;
+    private final OrderIntakeService orderIntakeService;
+    private final OrderExportService orderExportService;
     private final OrderSearchService orderSearchService;
+    private final OrderReindexService orderReindexService;
 
     @GetMapping
-    @JsonView(JsonViews.ListView.class)
     @Operation(
             summary = "Get orders list",
             description = "Retrieves a paginated list of orders with optional filtering using QueryDSL predicates"
@@ -45,12 +62,61 @@ public class OrderControllerImpl implements OrderController {
             description = "Successfully retrieved orders",
             useReturnTypeSchema = true
     )
-    public Page<Order> getOrdersList(
+    public Page<OrderSummaryDto> getOrdersList(
             @Parameter(description = "Filter criteria using QueryDSL") @QuerydslPredicate(root = Order.class) Predicate predicate,
             @Parameter(description = "Pagination parameters") Pageable pageable) {
         return orderService.findAll(predicate, pageable);
     }
 
+    @GetMapping("/scroll")
+    @Operation(
+            summary = "Scroll orders list",
+            description = "Retrieves orders newest first with keyset pagination and optional filtering using QueryDSL predicates. " +
+                    "Pass the returned next cursor to retrieve the following page, no total count is computed"
+    )
+    @ApiResponse(
+            responseCode = "200",
+            description = "Successfully retrieved orders",
+            useReturnTypeSchema = true
+    )
+    @ApiResponse(responseCode = "400", description = "Invalid cursor")
+    public OrderCursorPageDto scrollOrders(
+            @Parameter(description = "Filter criteria using QueryDSL") @QuerydslPredicate(root = Order.class) Predicate predicate,
+            @Parameter(description = "Continuation token of the page, omit for the first page") @RequestParam(name = "cursor", required = false) String cursor,
+            @Parameter(description = "Maximum number of orders of the page, at most 100") @RequestParam(name = "size", defaultValue = "20") int size) {
+        return orderService.scroll(predicate, cursor, size);
+    }
+
+    @GetMapping("/export")
+    @Operation(
+            summary = "Export orders",
+            description = "Streams every order matching the optional QueryDSL predicates, in ID order, as newline-delimited JSON or CSV. " +
+                    "Orders are read from a database cursor and written as they are read, whatever their number"
+    )
+    @ApiResponse(
+            responseCode = "200",
+            description = "Export streamed",
+            content = {
+                    @Content(mediaType = "application/x-ndjson"),
+                    @Content(mediaType = "text/csv")
+            }
+    )
+    public ResponseEntity<StreamingResponseBody> exportOrders(
+            @Parameter(description = "Filter criteria using QueryDSL") @QuerydslPredicate(root = Order.class) Predicate predicate,
+            @Parameter(description = "Format of the export") @RequestParam(name = "format", defaultValue = "NDJSON") OrderExportFormat format,
+            @Parameter(description = "Whether to export the items of the orders, one CSV line per item") @RequestParam(name = "includeItems", defaultValue = "false") boolean includeItems) {
+        // Written on an async request thread, without tying up a servlet container thread
+        StreamingResponseBody body = outputStream -> orderExportService.export(predicate, format, includeItems, outputStream);
+
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(format.getContentType()))
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                        .filename("orders." + format.getFileExtension())
+                        .build()
+                        .toString())
+                .body(body);
+    }
+
     @GetMapping("/search")
     @JsonView(JsonViews.ListView.class)
     @Operation(
@@ -69,11 +135,41 @@ public class OrderControllerImpl implements OrderController {
         return orderSearchService.searchOrders(searchRequest, pageable);
     }
 
-    @GetMapping("/{id}")
-    @JsonView(JsonViews.DetailView.class)
+    @PostMapping("/search/reindex")
+    @Operation(
+            summary = "Rebuild the search index",
+            description = "Starts rebuilding the order search index from the database into a shadow index, " +
+                    "swapped with the live index once complete. Searches keep being served meanwhile"
+    )
+    @ApiResponse(
+            responseCode = "202",
+            description = "Reindex started",
+            useReturnTypeSchema = true
+    )
+    @ApiResponse(responseCode = "409", description = "A reindex is already running")
+    public ResponseEntity<OrderReindexStatusDto> reindexOrders(
+            @Parameter(description = "Whether to resume the last reindex from its checkpoint if it did not complete") @RequestParam(name = "resume", defaultValue = "true") boolean resume) {
+        return ResponseEntity.accepted().body(orderReindexService.start(resume));
+    }
+
+    @GetMapping("/search/reindex")
+    @Operation(
+            summary = "Get search index rebuild progress",
+            description = "Retrieves the progress, throughput and checkpoint of the last rebuild of the order search index"
+    )
+    @ApiResponse(
+            responseCode = "200",
+            description = "Progress retrieved",
+            useReturnTypeSchema = true
+    )
+    public OrderReindexStatusDto getReindexStatus() {
+        return orderReindexService.getStatus();
+    }
+
+    @GetMapping(value = "/{id}", produces = MediaType.APPLICATION_JSON_VALUE)
     @Operation(
             summary = "Get order by ID",
-            description = "Retrieves detailed information about a specific order"
+            description = "Retrieves detailed information about a specific order, served from the order detail cache when possible"
     )
     @ApiResponse(
             responseCode = "200",
@@ -84,8 +180,8 @@ public class OrderControllerImpl implements OrderController {
             )
     )
     @ApiResponse(responseCode = "404", description = "Order not found")
-    public Order getOrderById(@Parameter(description = "UUID of the order to retrieve") @PathVariable("id") UUID id) {
-        return orderService.findById(id);
+    public String getOrderById(@Parameter(description = "UUID of the order to retrieve") @PathVariable("id") UUID id) {
+        return orderService.findDetailJsonById(id);
     }
 
     @PostMapping
@@ -105,6 +201,58 @@ public class OrderControllerImpl implements OrderController {
         return orderService.createOrder(order);
     }
 
+    @PostMapping("/batch")
+    @Operation(
+            summary = "Create a batch of orders",
+            description = "Creates many orders in a single transaction and initiates their stock reservation. " +
+                    "Orders are validated individually, an invalid order is reported without failing the rest of the batch"
+    )
+    @ApiResponse(
+            responseCode = "200",
+            description = "Batch processed, see the outcome of each order",
+            useReturnTypeSchema = true
+    )
+    @ApiResponse(responseCode = "400", description = "Batch contains more than 1000 orders")
+    public CreateOrderBatchResultDto createOrders(@Parameter(description = "Details of the orders to create, at most 1000", required = true) @RequestBody List<CreateOrderDto> orders) {
+        return orderService.createOrders(orders);
+    }
+
+    @PostMapping("/intake")
+    @Operation(
+            summary = "Queue a new order",
+            description = "Validates the order, assigns its ID and queues it for creation by the intake workers, " +
+                    "without waiting for the database. Follow the Location header to track its creation"
+    )
+    @ApiResponse(
+            responseCode = "202",
+            description = "Order queued for creation",
+            useReturnTypeSchema = true
+    )
+    @ApiResponse(responseCode = "400", description = "Invalid order data")
+    @ApiResponse(responseCode = "503", description = "Order intake queue unavailable")
+    public ResponseEntity<OrderIntakeStatusDto> submitOrder(@Parameter(description = "Order creation details", required = true) @Valid @RequestBody CreateOrderDto order) {
+        OrderIntakeStatusDto status = orderIntakeService.submit(order);
+
+        return ResponseEntity.accepted()
+                .location(ServletUriComponentsBuilder.fromCurrentRequestUri().path("/{id}").buildAndExpand(status.orderId()).toUri())
+                .body(status);
+    }
+
+    @GetMapping("/intake/{id}")
+    @Operation(
+            summary = "Get queued order status",
+            description = "Retrieves the creation status of an order queued through the intake endpoint"
+    )
+    @ApiResponse(
+            responseCode = "200",
+            description = "Status found",
+            useReturnTypeSchema = true
+    )
+    @ApiResponse(responseCode = "404", description = "Order not found")
+    public OrderIntakeStatusDto getOrderIntakeStatus(@Parameter(description = "UUID assigned to the queued order") @PathVariable("id") UUID id) {
+        return orderIntakeService.getStatus(id);
+    }
+
     @DeleteMapping("/{id}")
     @Operation(
             summary = "Cancel order by ID",
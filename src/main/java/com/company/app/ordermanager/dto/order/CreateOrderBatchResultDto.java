@@ -0,0 +1,24 @@
+package com.company.app.ordermanager.dto.order;
+
+import com.company.app.ordermanager.entity.order.Order;
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * Represents the outcome of creating a batch of {@link Order}s. Orders are validated individually,
+ * so an invalid order is reported without failing the rest of the batch.
+ */
+@Data
+@Builder
+public class CreateOrderBatchResultDto {
+    private int created;
+
+    private int failed;
+
+    /**
+     * Outcome of each order, in batch order.
+     */
+    private List<CreateOrderResultDto> results;
+}
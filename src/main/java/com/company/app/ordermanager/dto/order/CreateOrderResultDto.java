@@ -0,0 +1,27 @@
+package com.company.app.ordermanager.dto.order;
+
+import com.company.app.ordermanager.entity.order.Order;
+
+import java.util.UUID;
+
+/**
+ * Outcome of creating a single {@link Order} of a batch.
+ *
+ * @param index   the position of the order in the batch
+ * @param orderId the unique identifier of the created order, or null if the order has not been created
+ * @param error   the reason the order has not been created, or null if it has been created
+ */
+public record CreateOrderResultDto(int index, UUID orderId, String error) {
+
+    public static CreateOrderResultDto created(int index, UUID orderId) {
+        return new CreateOrderResultDto(index, orderId, null);
+    }
+
+    public static CreateOrderResultDto failed(int index, String error) {
+        return new CreateOrderResultDto(index, null, error);
+    }
+
+    public boolean isCreated() {
+        return error == null;
+    }
+}
@@ -0,0 +1,73 @@
+package com.company.app.ordermanager.dto.order;
+
+import com.company.app.ordermanager.entity.order.Order;
+import com.company.app.ordermanager.exception.order.InvalidOrderCursorException;
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.ScrollPosition;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Position of the last {@link Order} of a page in the {@code (createdAt, id)} order, from which
+ * the next page continues.
+ * <p>
+ * Clients only see the opaque, URL-safe token produced by {@link #encode()}.
+ *
+ * @param createdAt the creation time of the last order of the page
+ * @param id        the unique identifier of the last order of the page
+ */
+public record OrderCursor(Instant createdAt, UUID id) {
+    private static final char SEPARATOR = '|';
+
+    /**
+     * Creates the cursor of the scroll position of an {@link Order} keyed on {@code (createdAt, id)}.
+     *
+     * @param position the keyset position of the order
+     * @return the cursor of the position
+     */
+    public static OrderCursor of(KeysetScrollPosition position) {
+        return new OrderCursor((Instant) position.getKeys().get("createdAt"), (UUID) position.getKeys().get("id"));
+    }
+
+    /**
+     * Decodes a continuation token produced by {@link #encode()}.
+     *
+     * @param token the continuation token
+     * @return the decoded cursor
+     * @throws InvalidOrderCursorException if the token is malformed
+     */
+    public static OrderCursor decode(String token) {
+        try {
+            String value = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int separator = value.indexOf(SEPARATOR);
+
+            return new OrderCursor(Instant.parse(value.substring(0, separator)), UUID.fromString(value.substring(separator + 1)));
+        } catch (RuntimeException e) {
+            throw new InvalidOrderCursorException(token);
+        }
+    }
+
+    /**
+     * Encodes the cursor into an opaque continuation token.
+     *
+     * @return the URL-safe continuation token
+     */
+    public String encode() {
+        String value = createdAt.toString() + SEPARATOR + id;
+
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Converts the cursor into the keyset position the next page starts after.
+     *
+     * @return the keyset scroll position
+     */
+    public ScrollPosition toScrollPosition() {
+        return ScrollPosition.forward(Map.of("createdAt", createdAt, "id", id));
+    }
+}
@@ -0,0 +1,23 @@
+package com.company.app.ordermanager.dto.order;
+
+import com.company.app.ordermanager.entity.order.Order;
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * Represents a page of {@link Order} summaries retrieved with keyset pagination.
+ * Unlike a {@code Page}, it has no total count, and the next page is requested with its
+ * continuation token rather than a page number.
+ */
+@Data
+@Builder
+public class OrderCursorPageDto {
+    private List<OrderSummaryDto> content;
+
+    /**
+     * Continuation token of the next page, or {@code null} if this is the last page.
+     */
+    private String nextCursor;
+}
@@ -0,0 +1,46 @@
+package com.company.app.ordermanager.dto.order;
+
+import com.company.app.ordermanager.entity.order.Order;
+import com.company.app.ordermanager.entity.order.OrderStatus;
+import com.company.app.ordermanager.entity.orderitem.OrderItemStatus;
+import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Exported {@link Order}, written as a single NDJSON line.
+ *
+ * @param id           the unique identifier of the order
+ * @param customerName the name of the customer
+ * @param description  the description of the order
+ * @param status       the status of the order
+ * @param createdAt    the creation time of the order
+ * @param items        the items of the order, or null if items are not exported
+ */
+public record OrderExportDto(
+        UUID id,
+        String customerName,
+        String description,
+        OrderStatus status,
+        @JsonFormat(shape = JsonFormat.Shape.STRING, pattern = "yyyy-MM-dd'T'HH:mm:ss.SSS'Z'", timezone = "UTC")
+        Instant createdAt,
+        @JsonInclude(JsonInclude.Include.NON_NULL)
+        List<Item> items
+) {
+
+    /**
+     * Exported item of an order.
+     *
+     * @param id            the unique identifier of the item
+     * @param productId     the unique identifier of the product
+     * @param quantity      the ordered quantity
+     * @param purchasePrice the price of the product when ordered
+     * @param status        the status of the item
+     */
+    public record Item(UUID id, UUID productId, int quantity, BigDecimal purchasePrice, OrderItemStatus status) {
+    }
+}
@@ -0,0 +1,25 @@
+package com.company.app.ordermanager.dto.order;
+
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Represents the formats orders can be exported in.
+ */
+@Getter
+@AllArgsConstructor(access = AccessLevel.PRIVATE)
+public enum OrderExportFormat {
+    /**
+     * One JSON object per order and line, with its items nested when included.
+     */
+    NDJSON("application/x-ndjson", "ndjson"),
+    /**
+     * One line per order, or per item when items are included, with the order columns repeated.
+     */
+    CSV("text/csv", "csv");
+
+    private final String contentType;
+
+    private final String fileExtension;
+}
@@ -0,0 +1,47 @@
+package com.company.app.ordermanager.dto.order;
+
+import com.company.app.ordermanager.entity.order.Order;
+import com.company.app.ordermanager.entity.order.OrderStatus;
+import com.company.app.ordermanager.entity.orderitem.OrderItemStatus;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Row of an {@link Order} export, selected directly by the query rather than mapped from managed
+ * entities. When items are exported, there is one row per item, and the item columns of an order
+ * without items are null.
+ *
+ * @param orderId       the unique identifier of the order
+ * @param customerName  the name of the customer
+ * @param description   the description of the order
+ * @param status        the status of the order
+ * @param createdAt     the creation time of the order
+ * @param itemId        the unique identifier of the item, or null
+ * @param productId     the unique identifier of the product of the item, or null
+ * @param quantity      the ordered quantity of the item, or null
+ * @param purchasePrice the price of the product when ordered, or null
+ * @param itemStatus    the status of the item, or null
+ */
+public record OrderExportRow(
+        UUID orderId,
+        String customerName,
+        String description,
+        OrderStatus status,
+        Instant createdAt,
+        UUID itemId,
+        UUID productId,
+        Integer quantity,
+        BigDecimal purchasePrice,
+        OrderItemStatus itemStatus
+) {
+
+    public OrderExportRow(UUID orderId, String customerName, String description, OrderStatus status, Instant createdAt) {
+        this(orderId, customerName, description, status, createdAt, null, null, null, null, null);
+    }
+
+    public boolean hasItem() {
+        return itemId != null;
+    }
+}
@@ -0,0 +1,19 @@
+package com.company.app.ordermanager.dto.order;
+
+/**
+ * Represents the progress of an order submitted for deferred creation.
+ */
+public enum OrderIntakeStatus {
+    /**
+     * The order has been queued and is waiting for an intake worker.
+     */
+    QUEUED,
+    /**
+     * The order has been created.
+     */
+    CREATED,
+    /**
+     * The order could not be created, typically because it references missing products.
+     */
+    FAILED
+}
@@ -0,0 +1,25 @@
+package com.company.app.ordermanager.dto.order;
+
+import java.util.UUID;
+
+/**
+ * Status of an order submitted for deferred creation.
+ *
+ * @param orderId the identifier assigned to the order when it has been queued
+ * @param status  the progress of the order
+ * @param error   the reason the order could not be created, or null unless the order failed
+ */
+public record OrderIntakeStatusDto(UUID orderId, OrderIntakeStatus status, String error) {
+
+    public static OrderIntakeStatusDto queued(UUID orderId) {
+        return new OrderIntakeStatusDto(orderId, OrderIntakeStatus.QUEUED, null);
+    }
+
+    public static OrderIntakeStatusDto created(UUID orderId) {
+        return new OrderIntakeStatusDto(orderId, OrderIntakeStatus.CREATED, null);
+    }
+
+    public static OrderIntakeStatusDto failed(UUID orderId, String error) {
+        return new OrderIntakeStatusDto(orderId, OrderIntakeStatus.FAILED, error);
+    }
+}
@@ -0,0 +1,28 @@
+package com.company.app.ordermanager.dto.order;
+
+import com.company.app.ordermanager.entity.order.Order;
+import com.company.app.ordermanager.entity.order.OrderStatus;
+import com.fasterxml.jackson.annotation.JsonFormat;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Read-only projection of an {@link Order} for order lists, selected directly by the query
+ * rather than mapped from managed entities.
+ *
+ * @param id           the unique identifier of the order
+ * @param customerName the name of the customer
+ * @param description  the description of the order
+ * @param status       the status of the order
+ * @param createdAt    the creation time of the order
+ */
+public record OrderSummaryDto(
+        UUID id,
+        String customerName,
+        String description,
+        OrderStatus status,
+        @JsonFormat(shape = JsonFormat.Shape.STRING, pattern = "yyyy-MM-dd'T'HH:mm:ss.SSS'Z'", timezone = "UTC")
+        Instant createdAt
+) {
+}
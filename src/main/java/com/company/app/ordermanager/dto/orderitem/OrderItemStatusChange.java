@@ -0,0 +1,15 @@
+package com.company.app.ordermanager.dto.orderitem;
+
+import com.company.app.ordermanager.entity.orderitem.OrderItemStatus;
+
+import java.util.UUID;
+
+/**
+ * Represents an applied status transition of an order item, as seen by the item counts of its order.
+ *
+ * @param orderId        the unique identifier of the order of the order item
+ * @param previousStatus the status of the order item before the transition
+ * @param status         the status of the order item after the transition
+ */
+public record OrderItemStatusChange(UUID orderId, OrderItemStatus previousStatus, OrderItemStatus status) {
+}
@@ -0,0 +1,16 @@
+package com.company.app.ordermanager.dto.orderitem;
+
+import com.company.app.ordermanager.entity.orderitem.OrderItemStatus;
+
+import java.util.UUID;
+
+/**
+ * Represents the current status and version of an order item, along with its order.
+ *
+ * @param orderItemId the unique identifier of the order item
+ * @param orderId     the unique identifier of the order of the order item
+ * @param status      the current status of the order item
+ * @param version     the current version of the order item
+ */
+public record OrderItemStatusSnapshot(UUID orderItemId, UUID orderId, OrderItemStatus status, long version) {
+}
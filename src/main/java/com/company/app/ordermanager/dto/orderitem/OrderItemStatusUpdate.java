@@ -0,0 +1,20 @@
+package com.company.app.ordermanager.dto.orderitem;
+
+import com.company.app.ordermanager.entity.orderitem.OrderItemStatus;
+import com.company.app.ordermanager.entity.orderitem.OrderItemStatusReason;
+
+import java.util.UUID;
+
+/**
+ * Represents a versioned status transition of an order item.
+ *
+ * @param orderItemId     the unique identifier of the order item
+ * @param expectedVersion the version the order item must have for the transition to apply
+ * @param status          the new status of the order item
+ * @param reason          the new status reason of the order item, or null to keep its current reason
+ */
+public record OrderItemStatusUpdate(UUID orderItemId, long expectedVersion, OrderItemStatus status, OrderItemStatusReason reason) {
+    public static OrderItemStatusUpdate of(UUID orderItemId, long expectedVersion, OrderItemStatus status) {
+        return new OrderItemStatusUpdate(orderItemId, expectedVersion, status, null);
+    }
+}
@@ -0,0 +1,31 @@
+package com.company.app.ordermanager.dto.stock;
+
+/**
+ * Represents a single change to apply to the stock level of a product.
+ *
+ * @param type     whether the quantity has to be reserved or released
+ * @param quantity the quantity to reserve or release
+ */
+public record StockAdjustment(Type type, int quantity) {
+    public static StockAdjustment reserve(int quantity) {
+        return new StockAdjustment(Type.RESERVE, quantity);
+    }
+
+    public static StockAdjustment release(int quantity) {
+        return new StockAdjustment(Type.RELEASE, quantity);
+    }
+
+    /**
+     * Returns the signed change this adjustment applies to the stock level when accepted.
+     *
+     * @return the negated quantity for reservations, the quantity for releases
+     */
+    public int delta() {
+        return type == Type.RESERVE ? -quantity : quantity;
+    }
+
+    public enum Type {
+        RESERVE,
+        RELEASE
+    }
+}
@@ -0,0 +1,73 @@
+package com.company.app.ordermanager.dto.stock;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Represents the outcome of a sequence of {@link StockAdjustment}s applied to the same product.
+ *
+ * @param accepted   whether each adjustment has been applied, in the order the adjustments were given.
+ *                   Releases are always accepted, reservations are refused when the stock is insufficient.
+ * @param stockLevel the stock level after all accepted adjustments have been applied
+ */
+public record StockAdjustmentResult(List<Boolean> accepted, int stockLevel) {
+    /**
+     * Decides a sequence of adjustments in order against a running stock level, so a release
+     * makes its quantity available to the reservations following it.
+     *
+     * @param stockLevel         the stock level before the adjustments
+     * @param adjustments        the adjustments to decide, in order
+     * @param refuseReservations whether every reservation must be refused, only applying the releases
+     * @return the decided result
+     */
+    public static StockAdjustmentResult decide(int stockLevel, List<StockAdjustment> adjustments, boolean refuseReservations) {
+        int updatedStockLevel = stockLevel;
+
+        List<Boolean> accepted = new ArrayList<>(adjustments.size());
+
+        for (StockAdjustment adjustment : adjustments) {
+            if (adjustment.type() == StockAdjustment.Type.RESERVE && (refuseReservations || updatedStockLevel < adjustment.quantity())) {
+                accepted.add(false);
+            } else {
+                updatedStockLevel += adjustment.delta();
+                accepted.add(true);
+            }
+        }
+
+        return new StockAdjustmentResult(accepted, updatedStockLevel);
+    }
+
+    /**
+     * Checks whether every reservation has been accepted.
+     *
+     * @param adjustments the adjustments this result has been produced for
+     * @return {@code true} if no reservation has been refused
+     */
+    public boolean allReserved(List<StockAdjustment> adjustments) {
+        for (int i = 0; i < adjustments.size(); i++) {
+            if (adjustments.get(i).type() == StockAdjustment.Type.RESERVE && !accepted.get(i)) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Computes the net change applied to the stock level by the accepted adjustments.
+     *
+     * @param adjustments the adjustments this result has been produced for
+     * @return the sum of the deltas of the accepted adjustments
+     */
+    public int netDelta(List<StockAdjustment> adjustments) {
+        int delta = 0;
+
+        for (int i = 0; i < adjustments.size(); i++) {
+            if (accepted.get(i)) {
+                delta += adjustments.get(i).delta();
+            }
+        }
+
+        return delta;
+    }
+}
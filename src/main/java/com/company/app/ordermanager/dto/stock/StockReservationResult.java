@@ -0,0 +1,18 @@
+package com.company.app.ordermanager.dto.stock;
+
+/**
+ * Represents the outcome of a stock reservation attempt.
+ *
+ * @param reserved   whether the requested quantity has been reserved
+ * @param stockLevel the stock level after the reservation, or the available stock level
+ *                   if the reservation has been refused
+ */
+public record StockReservationResult(boolean reserved, int stockLevel) {
+    public static StockReservationResult reserved(int stockLevel) {
+        return new StockReservationResult(true, stockLevel);
+    }
+
+    public static StockReservationResult insufficientStock(int stockLevel) {
+        return new StockReservationResult(false, stockLevel);
+    }
+}
@@ -0,0 +1,17 @@
+package com.company.app.ordermanager.entity.common;
+
+import org.hibernate.annotations.IdGeneratorType;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks an identifier generated by the {@link AssignableTimeOrderedUuidGenerator}.
+ */
+@IdGeneratorType(AssignableTimeOrderedUuidGenerator.class)
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.FIELD, ElementType.METHOD})
+public @interface AssignableTimeOrderedUuid {
+}
@@ -0,0 +1,36 @@
+package com.company.app.ordermanager.entity.common;
+
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.generator.BeforeExecutionGenerator;
+import org.hibernate.generator.EventType;
+import org.hibernate.generator.EventTypeSets;
+
+import java.util.EnumSet;
+
+/**
+ * Generates time-ordered version 7 UUIDs like {@link TimeOrderedUuidGenerator}, unless the entity
+ * is persisted with an identifier already assigned, which is then kept. This lets an identifier be
+ * handed out before the entity is persisted, typically when its creation is deferred.
+ * <p>
+ * Entities using it must be persisted rather than merged when their identifier is assigned,
+ * as a merge would first look the identifier up in the database.
+ */
+public class AssignableTimeOrderedUuidGenerator implements BeforeExecutionGenerator {
+
+    @Override
+    public Object generate(SharedSessionContractImplementor session, Object owner, Object currentValue, EventType eventType) {
+        // Identifier generators are not handed the current value, read it from the entity instead
+        Object assignedId = owner != null ? session.getEntityPersister(null, owner).getIdentifier(owner, session) : null;
+        return assignedId != null ? assignedId : TimeOrderedUuidGenerator.generate();
+    }
+
+    @Override
+    public EnumSet<EventType> getEventTypes() {
+        return EventTypeSets.INSERT_ONLY;
+    }
+
+    @Override
+    public boolean allowAssignedIdentifiers() {
+        return true;
+    }
+}
@@ -0,0 +1,65 @@
+package com.company.app.ordermanager.entity.common;
+
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.id.uuid.UuidValueGenerator;
+
+import java.security.SecureRandom;
+import java.util.UUID;
+
+/**
+ * Generates time-ordered version 7 UUIDs, as defined by RFC 9562, for entity identifiers.
+ * <p>
+ * The 48 most significant bits hold the Unix timestamp in milliseconds, followed by a 12 bit
+ * counter seeded randomly every millisecond and 62 random bits. Identifiers generated by the same
+ * JVM are strictly increasing, even within a millisecond or if the clock goes backwards, so new
+ * rows are appended to the right edge of the primary key index instead of splitting random pages.
+ * <p>
+ * MariaDB stores UUIDs of version 6 and above in their natural byte order in its 16 byte
+ * {@code UUID} column type, so the index order matches the generation order. Version 4 identifiers
+ * of existing rows remain valid and are stored in the same columns.
+ */
+public class TimeOrderedUuidGenerator implements UuidValueGenerator {
+    private static final SecureRandom RANDOM = new SecureRandom();
+
+    private static final int MAX_COUNTER = 0xFFF;
+
+    private static long lastTimestamp;
+    private static long lastCounter;
+
+    @Override
+    public UUID generateUuid(SharedSessionContractImplementor session) {
+        return generate();
+    }
+
+    /**
+     * Generates a new time-ordered UUID.
+     *
+     * @return a version 7 UUID greater than every UUID previously generated by this JVM
+     */
+    public static UUID generate() {
+        long timestamp;
+        long counter;
+
+        synchronized (TimeOrderedUuidGenerator.class) {
+            long now = System.currentTimeMillis();
+
+            if (now > lastTimestamp) {
+                lastTimestamp = now;
+                // Seed in the lower half, leaving room for the identifiers of the same millisecond
+                lastCounter = RANDOM.nextInt((MAX_COUNTER + 1) / 2);
+            } else if (++lastCounter > MAX_COUNTER) {
+                // Counter exhausted or clock moved backwards, borrow from the next millisecond
+                lastTimestamp++;
+                lastCounter = 0;
+            }
+
+            timestamp = lastTimestamp;
+            counter = lastCounter;
+        }
+
+        long mostSignificantBits = (timestamp << 16) | 0x7000L | counter;
+        long leastSignificantBits = (RANDOM.nextLong() & 0x3FFFFFFFFFFFFFFFL) | 0x8000000000000000L;
+
+        return new UUID(mostSignificantBits, leastSignificantBits);
+    }
+}
@@ -1,8 +1,8 @@
 package com.company.app.ordermanager.entity.order;
 
+import com.company.app.ordermanager.entity.common.AssignableTimeOrderedUuid;
 import com.company.app.ordermanager.entity.common.Auditable;
 import com.company.app.ordermanager.entity.orderitem.OrderItem;
-import com.company.app.ordermanager.entity.orderitem.OrderItemStatus;
 import com.company.app.ordermanager.entity.view.JsonViews;
 import com.fasterxml.jackson.annotation.JsonView;
 import com.querydsl.core.annotations.QueryEntity;
@@ -10,7 +10,7 @@ import jakarta.persistence.*;
 import lombok.*;
 import lombok.experimental.SuperBuilder;
 
-import java.util.Arrays;
+import java.time.Instant;
 import java.util.HashSet;
 import java.util.Set;
 import java.util.UUID;
@@ -20,6 +20,9 @@ import java.util.UUID;
  * <p>
  * The {@code Order} class is responsible for encapsulating all details about a customer's order,
  * including the customer's name, order status, and associated {@link OrderItem}s.
+ * The status is persisted along with the number of items in each status, so it can be
+ * filtered and sorted on without loading the items. A deleted order is kept, marked with
+ * its deletion time, so the deletion is known to every node and to the search index rebuilds.
  * It extends the {@link Auditable} class to provide audit details such as creation and modification timestamps.
  * </p>
  */
@@ -33,10 +36,14 @@ import java.util.UUID;
 @JsonView(JsonViews.ListView.class)
 @Entity
 @QueryEntity
-@Table(name = "orders")
+@Table(name = "orders", indexes = {
+        @Index(name = "idx_orders_created_at", columnList = "created_at, id"),
+        @Index(name = "idx_orders_status_created_at", columnList = "status, created_at, id")
+})
 public class Order extends Auditable {
+    // Assigned beforehand when the order is queued for deferred creation
     @Id
-    @GeneratedValue(strategy = GenerationType.UUID)
+    @AssignableTimeOrderedUuid
     private UUID id;
 
     @Column(name = "customer_name", nullable = false)
@@ -45,38 +52,34 @@ public class Order extends Auditable {
     @Column(length = 1000)
     private String description;
 
+    // Derived from the item counts, an order without items is confirmed
+    @Builder.Default
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, updatable = false)
+    private OrderStatus status = OrderStatus.CONFIRMED;
+
+    @JsonView(JsonViews.InternalView.class)
+    @Builder.Default
+    @Embedded
+    private OrderItemCounts itemCounts = new OrderItemCounts();
+
+    // Set once the order is deleted, deleted orders are left out of the search index
+    @JsonView(JsonViews.InternalView.class)
+    @Column(name = "deleted_at", columnDefinition = "TIMESTAMP")
+    private Instant deletedAt;
+
     @JsonView(JsonViews.DetailView.class)
     @Builder.Default
     @OneToMany(mappedBy = "order", fetch = FetchType.LAZY, cascade = CascadeType.ALL, orphanRemoval = true)
     private Set<OrderItem> orderItems = new HashSet<>();
 
-    @JsonView(JsonViews.DetailView.class)
-    @Transient
-    public OrderStatus getStatus() {
-        if (allItemsHaveStatus(OrderItemStatus.CONFIRMED)) {
-            return OrderStatus.CONFIRMED;
-        }
-        if (allItemsHaveStatus(OrderItemStatus.CANCELLED)) {
-            return OrderStatus.CANCELLED;
-        }
-        if (hasItemsWithStatus(OrderItemStatus.PROCESSING, OrderItemStatus.CANCELLING)) {
-            return OrderStatus.PROCESSING;
-        }
-        if (hasItemsWithStatus(OrderItemStatus.PROCESSING_FAILED, OrderItemStatus.CANCELLED)) {
-            return OrderStatus.PARTIALLY_CONFIRMED;
-        }
-        return OrderStatus.UNKNOWN;
-    }
-
-    private boolean hasItemsWithStatus(OrderItemStatus... statuses) {
-        return orderItems.stream()
-                .map(OrderItem::getStatus)
-                .anyMatch(status -> Arrays.asList(statuses).contains(status));
-    }
-
-    private boolean allItemsHaveStatus(OrderItemStatus status) {
-        return orderItems.stream()
-                .map(OrderItem::getStatus)
-                .allMatch(status::equals);
+    /**
+     * Sets the item counts of the order, along with the status derived from them.
+     *
+     * @param itemCounts the number of items of the order in each status
+     */
+    public void setItemCounts(OrderItemCounts itemCounts) {
+        this.itemCounts = itemCounts;
+        this.status = itemCounts.toStatus();
     }
 }
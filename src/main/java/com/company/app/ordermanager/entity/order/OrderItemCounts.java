@@ -0,0 +1,75 @@
+package com.company.app.ordermanager.entity.order;
+
+import com.company.app.ordermanager.entity.orderitem.OrderItem;
+import com.company.app.ordermanager.entity.orderitem.OrderItemStatus;
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+import lombok.*;
+
+/**
+ * Represents the number of {@link OrderItem}s of an {@link Order} in each {@link OrderItemStatus}.
+ * <p>
+ * The counts are maintained by the database with relative updates, in the same transaction as the
+ * status transitions of the order items, so they are never written back by Hibernate.
+ * </p>
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@EqualsAndHashCode
+@ToString
+@Builder
+@Embeddable
+public class OrderItemCounts {
+    @Column(name = "processing_items", nullable = false, updatable = false)
+    private int processing;
+
+    @Column(name = "processing_failed_items", nullable = false, updatable = false)
+    private int processingFailed;
+
+    @Column(name = "confirmed_items", nullable = false, updatable = false)
+    private int confirmed;
+
+    @Column(name = "cancelling_items", nullable = false, updatable = false)
+    private int cancelling;
+
+    @Column(name = "cancelled_items", nullable = false, updatable = false)
+    private int cancelled;
+
+    /**
+     * Creates the counts of a new order, whose items are all being processed.
+     *
+     * @param itemCount the number of items of the order
+     * @return the counts of the new order
+     */
+    public static OrderItemCounts processing(int itemCount) {
+        return OrderItemCounts.builder().processing(itemCount).build();
+    }
+
+    public int total() {
+        return processing + processingFailed + confirmed + cancelling + cancelled;
+    }
+
+    /**
+     * Derives the status of an order from the statuses of its items.
+     * Must be kept in sync with {@code OrderRepositoryCustomImpl} and the schema migrations.
+     *
+     * @return the status of the order
+     */
+    public OrderStatus toStatus() {
+        if (confirmed == total()) {
+            return OrderStatus.CONFIRMED;
+        }
+        if (cancelled == total()) {
+            return OrderStatus.CANCELLED;
+        }
+        if (processing + cancelling > 0) {
+            return OrderStatus.PROCESSING;
+        }
+        if (processingFailed + cancelled > 0) {
+            return OrderStatus.PARTIALLY_CONFIRMED;
+        }
+        return OrderStatus.UNKNOWN;
+    }
+}
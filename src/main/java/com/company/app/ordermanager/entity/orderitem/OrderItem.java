@@ -1,11 +1,13 @@
 package com.company.app.ordermanager.entity.orderitem;
 
+import com.company.app.ordermanager.entity.common.TimeOrderedUuidGenerator;
 import com.company.app.ordermanager.entity.order.Order;
 import com.company.app.ordermanager.entity.product.Product;
 import com.company.app.ordermanager.entity.view.JsonViews;
 import com.fasterxml.jackson.annotation.JsonView;
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.UuidGenerator;
 
 import java.math.BigDecimal;
 import java.util.UUID;
@@ -26,10 +28,14 @@ import java.util.UUID;
 @Builder
 @JsonView(JsonViews.ListView.class)
 @Entity
-@Table(name = "order_items")
+@Table(name = "order_items", indexes = {
+        @Index(name = "idx_order_items_order_status", columnList = "order_id, status"),
+        @Index(name = "idx_order_items_product_status", columnList = "product_id, status, quantity"),
+        @Index(name = "idx_order_items_status", columnList = "status")
+})
 public class OrderItem {
     @Id
-    @GeneratedValue(strategy = GenerationType.UUID)
+    @UuidGenerator(algorithm = TimeOrderedUuidGenerator.class)
     private UUID id;
 
     @JsonView(JsonViews.InternalView.class)
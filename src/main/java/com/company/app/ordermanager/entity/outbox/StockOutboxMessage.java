@@ -0,0 +1,37 @@
+package com.company.app.ordermanager.entity.outbox;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.Instant;
+
+/**
+ * Represents a stock update message waiting to be relayed to the message broker.
+ * <p>
+ * Outbox messages are written in the same transaction as the order item changes they describe,
+ * so a message is only relayed once these changes are committed, and never if they are rolled back.
+ * Identifiers come from a single auto-increment column, so a message written after another one has
+ * committed always gets a higher identifier, whichever node writes it, and they define the relay
+ * order. In particular, the messages of an order are relayed in the order they have been written.
+ * </p>
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@ToString
+@Builder
+@Entity
+@Table(name = "stock_outbox")
+public class StockOutboxMessage {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Lob
+    @Column(nullable = false)
+    private String payload;
+
+    @Column(name = "created_at", nullable = false, columnDefinition = "TIMESTAMP")
+    private Instant createdAt;
+}
@@ -1,9 +1,11 @@
 package com.company.app.ordermanager.entity.product;
 
 import com.company.app.ordermanager.entity.common.Auditable;
+import com.company.app.ordermanager.entity.common.TimeOrderedUuidGenerator;
 import jakarta.persistence.*;
 import lombok.*;
 import lombok.experimental.SuperBuilder;
+import org.hibernate.annotations.UuidGenerator;
 
 import java.math.BigDecimal;
 import java.util.UUID;
@@ -27,7 +29,7 @@ import java.util.UUID;
 @Table(name = "products")
 public class Product extends Auditable {
     @Id
-    @GeneratedValue(strategy = GenerationType.UUID)
+    @UuidGenerator(algorithm = TimeOrderedUuidGenerator.class)
     private UUID id;
 
     @Column(nullable = false)
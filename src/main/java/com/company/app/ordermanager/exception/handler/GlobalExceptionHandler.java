@@ -2,8 +2,12 @@ package com.company.app.ordermanager.exception.handler;
 
 import com.company.app.ordermanager.exception.dto.ErrorResponseDto;
 import com.company.app.ordermanager.exception.dto.ValidationErrorResponseDto;
+import com.company.app.ordermanager.exception.order.InvalidOrderCursorException;
+import com.company.app.ordermanager.exception.order.OrderBatchTooLargeException;
+import com.company.app.ordermanager.exception.order.OrderIntakeUnavailableException;
 import com.company.app.ordermanager.exception.order.OrderNotFoundException;
 import com.company.app.ordermanager.exception.product.ProductNotFoundException;
+import com.company.app.ordermanager.search.exception.ReindexInProgressException;
 import jakarta.servlet.http.HttpServletRequest;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpStatus;
@@ -44,6 +48,48 @@ public class GlobalExceptionHandler {
         );
     }
 
+    @ExceptionHandler(InvalidOrderCursorException.class)
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    public ErrorResponseDto handleInvalidOrderCursor(InvalidOrderCursorException ex, HttpServletRequest request) {
+        return ErrorResponseDto.of(
+                HttpStatus.BAD_REQUEST,
+                ex.getMessage(),
+                request.getRequestURI()
+        );
+    }
+
+    @ExceptionHandler(OrderBatchTooLargeException.class)
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    public ErrorResponseDto handleOrderBatchTooLarge(OrderBatchTooLargeException ex, HttpServletRequest request) {
+        return ErrorResponseDto.of(
+                HttpStatus.BAD_REQUEST,
+                ex.getMessage(),
+                request.getRequestURI()
+        );
+    }
+
+    @ExceptionHandler(OrderIntakeUnavailableException.class)
+    @ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+    public ErrorResponseDto handleOrderIntakeUnavailable(OrderIntakeUnavailableException ex, HttpServletRequest request) {
+        log.error("Order intake unavailable: {}", ex.getMessage());
+
+        return ErrorResponseDto.of(
+                HttpStatus.SERVICE_UNAVAILABLE,
+                ex.getMessage(),
+                request.getRequestURI()
+        );
+    }
+
+    @ExceptionHandler(ReindexInProgressException.class)
+    @ResponseStatus(HttpStatus.CONFLICT)
+    public ErrorResponseDto handleReindexInProgress(ReindexInProgressException ex, HttpServletRequest request) {
+        return ErrorResponseDto.of(
+                HttpStatus.CONFLICT,
+                ex.getMessage(),
+                request.getRequestURI()
+        );
+    }
+
     @ExceptionHandler(Exception.class)
     @ResponseStatus(HttpStatus.INTERNAL_SERVER_ERROR)
     public ErrorResponseDto handleAllUncaughtException(Exception ex, HttpServletRequest request) {
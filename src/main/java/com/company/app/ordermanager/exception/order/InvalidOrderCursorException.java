@@ -0,0 +1,18 @@
+package com.company.app.ordermanager.exception.order;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * Exception thrown when the continuation token of an order list page cannot be decoded,
+ * typically because it has been altered or has not been produced by this application.
+ * <p>
+ * It returns a HTTP 400 Bad Request status code when used in a
+ * Spring Web environment, as specified by the {@link ResponseStatus} annotation.
+ */
+@ResponseStatus(HttpStatus.BAD_REQUEST)
+public class InvalidOrderCursorException extends RuntimeException {
+    public InvalidOrderCursorException(String cursor) {
+        super(String.format("Invalid order cursor %s", cursor));
+    }
+}
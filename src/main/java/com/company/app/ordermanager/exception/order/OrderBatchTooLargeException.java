@@ -0,0 +1,17 @@
+package com.company.app.ordermanager.exception.order;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * Exception thrown when a batch of orders to create contains more orders than allowed.
+ * <p>
+ * It returns a HTTP 400 Bad Request status code when used in a
+ * Spring Web environment, as specified by the {@link ResponseStatus} annotation.
+ */
+@ResponseStatus(HttpStatus.BAD_REQUEST)
+public class OrderBatchTooLargeException extends RuntimeException {
+    public OrderBatchTooLargeException(int size, int maxSize) {
+        super(String.format("Batch of %d orders exceeds the maximum of %d orders", size, maxSize));
+    }
+}
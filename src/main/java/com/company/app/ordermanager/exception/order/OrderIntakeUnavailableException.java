@@ -0,0 +1,18 @@
+package com.company.app.ordermanager.exception.order;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * Exception thrown when an order cannot be queued for deferred creation, typically because
+ * the intake queue cannot be reached.
+ * <p>
+ * It returns a HTTP 503 Service Unavailable status code when used in a
+ * Spring Web environment, as specified by the {@link ResponseStatus} annotation.
+ */
+@ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+public class OrderIntakeUnavailableException extends RuntimeException {
+    public OrderIntakeUnavailableException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
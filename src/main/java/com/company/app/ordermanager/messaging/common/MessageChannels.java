@@ -8,7 +8,8 @@ import lombok.Getter;
  * Represents a collection of channels used for message communication within the application.
  *
  * <ul>
- *   <li>{@link #STOCK_UPDATE_QUEUE} - Represents the stream used for stock update messages.</li>
+ *   <li>{@link #STOCK_UPDATE_QUEUE} - Represents the streams used for stock update messages. The key is the
+ *   prefix of the partition streams, see {@code StockStreamPartitioner}.</li>
  * </ul>
  */
 @Getter
@@ -0,0 +1,14 @@
+package com.company.app.ordermanager.messaging.dto;
+
+import com.company.app.ordermanager.dto.order.CreateOrderDto;
+
+import java.util.UUID;
+
+/**
+ * Message of the order intake stream, carrying an order submitted for deferred creation.
+ *
+ * @param orderId the identifier assigned to the order when it has been queued
+ * @param order   the validated details of the order to create
+ */
+public record OrderIntakeMessage(UUID orderId, CreateOrderDto order) {
+}
@@ -0,0 +1,104 @@
+package com.company.app.ordermanager.messaging.dto;
+
+import com.company.app.ordermanager.entity.orderitem.OrderItem;
+import lombok.Builder;
+import lombok.Data;
+import lombok.extern.jackson.Jacksonized;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+/**
+ * Represents a stock update operation covering several items of the same order, such as reserving
+ * the stock of a whole order at once. The stock of every product of the order is locked together,
+ * so the order is settled in a single step.
+ * <p>
+ * In all-or-nothing mode, reservations are only applied if every item of the message can be
+ * reserved, otherwise none of them is.
+ */
+@Data
+@Builder
+@Jacksonized
+public class OrderStockUpdateMessage {
+    private UUID orderId;
+    private StockUpdateMessage.UpdateType updateType;
+    private boolean allOrNothing;
+    private List<Item> items;
+
+    /**
+     * Builds one stock update message per order for the given order items, expecting their current versions.
+     *
+     * @param orderItems   the {@link OrderItem}s whose stock should be updated, possibly of several orders
+     * @param updateType   the type of stock update
+     * @param allOrNothing whether reservations must be applied for every item of an order or for none
+     * @return the stock update messages, one per order
+     */
+    public static List<OrderStockUpdateMessage> forOrderItems(Collection<OrderItem> orderItems, StockUpdateMessage.UpdateType updateType, boolean allOrNothing) {
+        Map<UUID, List<OrderItem>> orderItemsByOrder = orderItems.stream()
+                .collect(Collectors.groupingBy(orderItem -> orderItem.getOrder().getId(), LinkedHashMap::new, Collectors.toList()));
+
+        return orderItemsByOrder.entrySet().stream()
+                .map(order -> of(order.getKey(), order.getValue(), updateType, allOrNothing))
+                .toList();
+    }
+
+    private static OrderStockUpdateMessage of(UUID orderId, Collection<OrderItem> orderItems, StockUpdateMessage.UpdateType updateType, boolean allOrNothing) {
+        return OrderStockUpdateMessage.builder()
+                .orderId(orderId)
+                .updateType(updateType)
+                .allOrNothing(allOrNothing)
+                .items(orderItems.stream()
+                        .map(orderItem -> Item.builder()
+                                .orderItemId(orderItem.getId())
+                                .expectedOrderItemVersion(orderItem.getVersion())
+                                .productId(orderItem.getProduct().getId())
+                                .quantity(orderItem.getQuantity())
+                                .build())
+                        .toList())
+                .build();
+    }
+
+    /**
+     * Converts a single item stock update message, as published before order level messages.
+     *
+     * @param message the {@link StockUpdateMessage} to convert
+     * @return the equivalent order level message
+     */
+    public static OrderStockUpdateMessage of(StockUpdateMessage message) {
+        return OrderStockUpdateMessage.builder()
+                .orderId(message.getOrderId())
+                .updateType(message.getUpdateType())
+                .items(List.of(Item.builder()
+                        .orderItemId(message.getOrderItemId())
+                        .expectedOrderItemVersion(message.getExpectedOrderItemVersion())
+                        .productId(message.getProductId())
+                        .quantity(message.getQuantity())
+                        .build()))
+                .build();
+    }
+
+    /**
+     * Gets the key messages are routed by, so that every message of the same order is published
+     * to the same partition stream and processed by the same worker, in order. Messages without
+     * order are routed by the product of their single item.
+     *
+     * @return the order ID, or the product ID of the first item if the order is unknown
+     */
+    public UUID routingKey() {
+        return orderId != null ? orderId : items.get(0).getProductId();
+    }
+
+    @Data
+    @Builder
+    @Jacksonized
+    public static class Item {
+        private UUID orderItemId;
+        private long expectedOrderItemVersion;
+        private UUID productId;
+        private int quantity;
+    }
+}
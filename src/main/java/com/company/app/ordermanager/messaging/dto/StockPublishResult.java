@@ -0,0 +1,53 @@
+package com.company.app.ordermanager.messaging.dto;
+
+import java.util.List;
+
+/**
+ * Outcome of publishing a set of {@link OrderStockUpdateMessage}s, with one entry per message in
+ * publishing order.
+ *
+ * @param outcomes the outcome of each message
+ */
+public record StockPublishResult(List<Outcome> outcomes) {
+
+    /**
+     * Checks whether every message has been published.
+     *
+     * @return {@code true} if no message failed
+     */
+    public boolean allPublished() {
+        return outcomes.stream().allMatch(Outcome::published);
+    }
+
+    /**
+     * Lists the outcomes of the messages which could not be published.
+     *
+     * @return the failed outcomes, in publishing order
+     */
+    public List<Outcome> failures() {
+        return outcomes.stream().filter(outcome -> !outcome.published()).toList();
+    }
+
+    /**
+     * Outcome of publishing a single message.
+     *
+     * @param message   the published message
+     * @param messageId the ID of the stream entry, or null if the message could not be published or
+     *                  has been written to the outbox
+     * @param error     the cause of the failure, or null if the message has been published
+     */
+    public record Outcome(OrderStockUpdateMessage message, String messageId, Exception error) {
+
+        public static Outcome published(OrderStockUpdateMessage message, String messageId) {
+            return new Outcome(message, messageId, null);
+        }
+
+        public static Outcome failed(OrderStockUpdateMessage message, Exception error) {
+            return new Outcome(message, null, error);
+        }
+
+        public boolean published() {
+            return error == null;
+        }
+    }
+}
@@ -2,6 +2,7 @@ package com.company.app.ordermanager.messaging.dto;
 
 import lombok.Builder;
 import lombok.Data;
+import lombok.extern.jackson.Jacksonized;
 
 import java.util.UUID;
 
@@ -9,9 +10,13 @@ import java.util.UUID;
  * Represents a message detailing a stock update operation, such as reserving or canceling
  * stock for a specific product and order item. This class serves as a data transfer object
  * encapsulating all necessary details for such operations.
+ * <p>
+ * Stock updates are published as {@link OrderStockUpdateMessage}s, single item messages are only
+ * read back from stream entries published by previous versions.
  */
 @Data
 @Builder
+@Jacksonized
 public class StockUpdateMessage {
     private UUID orderId;
     private UUID orderItemId;
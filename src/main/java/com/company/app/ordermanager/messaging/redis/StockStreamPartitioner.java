@@ -0,0 +1,74 @@
+package com.company.app.ordermanager.messaging.redis;
+
+import com.company.app.ordermanager.messaging.common.MessageChannels;
+import lombok.Getter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.Assert;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.IntStream;
+
+/**
+ * Maps routing keys to the partition streams of the {@link MessageChannels#STOCK_UPDATE_QUEUE} channel.
+ * <p>
+ * Stock update messages are routed by order, so every message of an order is published to the same
+ * partition, a single consumer owns each order at any time and the messages of an order keep their
+ * publishing order. The consumer coalesces the updates of a product across the orders of a batch,
+ * and concurrent updates of the same product by different consumers are serialized by the product locks.
+ * The partition count must be the same on every node, and must not be changed while partition
+ * streams still contain unprocessed messages.
+ */
+@Getter
+@Component
+public class StockStreamPartitioner {
+    private final int partitionCount;
+
+    public StockStreamPartitioner(@Value("${messaging.stock.partitions:8}") int partitionCount) {
+        Assert.isTrue(partitionCount > 0, "Stock stream partition count must be greater than 0");
+
+        this.partitionCount = partitionCount;
+    }
+
+    /**
+     * Determines the partition the stock update messages with a routing key are published to.
+     *
+     * @param routingKey the routing key of the messages, typically the unique identifier of their order
+     * @return the partition index, between 0 (inclusive) and the partition count (exclusive)
+     */
+    public int partitionOf(UUID routingKey) {
+        Assert.notNull(routingKey, "Routing key must not be null");
+
+        return Math.floorMod(routingKey.hashCode(), partitionCount);
+    }
+
+    /**
+     * Builds the key of the stream backing a partition.
+     *
+     * @param partition the partition index
+     * @return the Redis key of the partition stream
+     */
+    public String streamKey(int partition) {
+        return MessageChannels.STOCK_UPDATE_QUEUE.getKey() + ":" + partition;
+    }
+
+    /**
+     * Builds the key of the stream the stock update messages with a routing key are published to.
+     *
+     * @param routingKey the routing key of the messages, typically the unique identifier of their order
+     * @return the Redis key of the partition stream
+     */
+    public String streamKey(UUID routingKey) {
+        return streamKey(partitionOf(routingKey));
+    }
+
+    /**
+     * Lists the keys of all partition streams.
+     *
+     * @return the Redis keys of the partition streams, ordered by partition index
+     */
+    public List<String> streamKeys() {
+        return IntStream.range(0, partitionCount).mapToObj(this::streamKey).toList();
+    }
+}
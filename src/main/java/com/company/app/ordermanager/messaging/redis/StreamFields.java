@@ -11,7 +11,12 @@ import lombok.Getter;
 @Getter
 @AllArgsConstructor(access = AccessLevel.PRIVATE)
 public enum StreamFields {
-    MESSAGE("message");
+    MESSAGE("message"),
+    /**
+     * Discriminates the type of the message, see {@link StreamMessageType}. Entries without
+     * type carry a single item stock update message.
+     */
+    TYPE("type");
 
     private final String field;
 }
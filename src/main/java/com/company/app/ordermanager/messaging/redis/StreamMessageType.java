@@ -0,0 +1,16 @@
+package com.company.app.ordermanager.messaging.redis;
+
+/**
+ * Represents the types of message carried by stock update stream entries, stored in the
+ * {@link StreamFields#TYPE} field.
+ */
+public enum StreamMessageType {
+    /**
+     * A {@link com.company.app.ordermanager.messaging.dto.StockUpdateMessage} for a single order item.
+     */
+    ITEM_STOCK_UPDATE,
+    /**
+     * An {@link com.company.app.ordermanager.messaging.dto.OrderStockUpdateMessage} for several items of an order.
+     */
+    ORDER_STOCK_UPDATE
+}
@@ -1,11 +1,16 @@
 package com.company.app.ordermanager.messaging.service.api.stock;
 
 import com.company.app.ordermanager.entity.orderitem.OrderItem;
+import com.company.app.ordermanager.messaging.dto.OrderStockUpdateMessage;
+import com.company.app.ordermanager.messaging.dto.StockPublishResult;
 
+import java.util.List;
 import java.util.Set;
 
 public interface StockMessageProducerService {
-    void sendStockReservationMessage(Set<OrderItem> orderItems);
+    StockPublishResult sendStockReservationMessage(Set<OrderItem> orderItems);
 
-    void sendStockCancellationMessage(Set<OrderItem> orderItems);
+    StockPublishResult sendStockCancellationMessage(Set<OrderItem> orderItems);
+
+    StockPublishResult publishStockUpdateMessages(List<OrderStockUpdateMessage> messages);
 }
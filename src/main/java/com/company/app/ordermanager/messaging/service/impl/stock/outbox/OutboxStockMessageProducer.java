@@ -0,0 +1,122 @@
+package com.company.app.ordermanager.messaging.service.impl.stock.outbox;
+
+import com.company.app.ordermanager.entity.orderitem.OrderItem;
+import com.company.app.ordermanager.entity.outbox.StockOutboxMessage;
+import com.company.app.ordermanager.messaging.dto.OrderStockUpdateMessage;
+import com.company.app.ordermanager.messaging.dto.StockPublishResult;
+import com.company.app.ordermanager.messaging.dto.StockUpdateMessage;
+import com.company.app.ordermanager.messaging.service.api.stock.StockMessageProducerService;
+import com.company.app.ordermanager.repository.api.outbox.StockOutboxRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Primary;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.util.Assert;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Writes stock update messages to the {@code stock_outbox} table, within the transaction changing
+ * the order items they describe. Messages are published to the stock update streams by the
+ * {@link StockOutboxRelay} once this transaction has committed, so consumers never see a message
+ * before its order item, and messages of rolled back transactions are never published.
+ */
+@Slf4j
+@Primary
+@Service
+@RequiredArgsConstructor
+public class OutboxStockMessageProducer implements StockMessageProducerService {
+    private final ObjectMapper objectMapper;
+    private final EntityManager entityManager;
+    private final StockOutboxRepository stockOutboxRepository;
+
+    @Value("${stock.reservation.all-or-nothing:false}")
+    private boolean allOrNothing;
+
+    /**
+     * Writes stock reservation messages for the provided set of order items to the outbox, one per order.
+     *
+     * @param orderItems the set of {@link OrderItem} objects for which stock reservation messages should be sent
+     * @return the {@link StockPublishResult} reporting each message as written
+     * @throws IllegalArgumentException if the input set of order items is null
+     */
+    @Override
+    @Transactional(propagation = Propagation.MANDATORY)
+    public StockPublishResult sendStockReservationMessage(Set<OrderItem> orderItems) {
+        Assert.notNull(orderItems, "Order items must not be null");
+
+        return publishStockUpdateMessages(toStockUpdateMessages(orderItems, StockUpdateMessage.UpdateType.RESERVE));
+    }
+
+    /**
+     * Writes stock cancellation messages for the provided set of order items to the outbox, one per order.
+     *
+     * @param orderItems the set of {@link OrderItem} objects for which stock cancellation messages should be sent
+     * @return the {@link StockPublishResult} reporting each message as written
+     * @throws IllegalArgumentException if the input set of order items is null
+     */
+    @Override
+    @Transactional(propagation = Propagation.MANDATORY)
+    public StockPublishResult sendStockCancellationMessage(Set<OrderItem> orderItems) {
+        Assert.notNull(orderItems, "Items must not be null");
+
+        return publishStockUpdateMessages(toStockUpdateMessages(orderItems, StockUpdateMessage.UpdateType.CANCEL));
+    }
+
+    /**
+     * Writes stock update messages to the outbox with a single JDBC batch, each insert getting its ID
+     * from the database, so messages are relayed in commit order. Must be called within the transaction
+     * changing the order items, as a message must never be published unless this transaction commits.
+     * The outbox IDs are not read back, so the outcomes carry no message ID.
+     *
+     * @param messages the {@link OrderStockUpdateMessage}s to publish
+     * @return the {@link StockPublishResult} reporting each message as written
+     * @throws IllegalArgumentException if {@code messages} is null
+     * @throws IllegalStateException    if a message cannot be serialized, rolling back the transaction
+     */
+    @Override
+    @Transactional(propagation = Propagation.MANDATORY)
+    public StockPublishResult publishStockUpdateMessages(List<OrderStockUpdateMessage> messages) {
+        Assert.notNull(messages, "Messages must not be null");
+
+        Instant now = Instant.now();
+        List<StockOutboxMessage> outboxMessages = new ArrayList<>(messages.size());
+
+        for (OrderStockUpdateMessage message : messages) {
+            try {
+                outboxMessages.add(StockOutboxMessage.builder()
+                        .payload(objectMapper.writeValueAsString(message))
+                        .createdAt(now)
+                        .build());
+            } catch (JsonProcessingException e) {
+                throw new IllegalStateException("Failed to serialize " + message.getUpdateType() + " message for order " + message.getOrderId(), e);
+            }
+        }
+
+        stockOutboxRepository.insertAll(outboxMessages);
+
+        List<StockPublishResult.Outcome> outcomes = messages.stream()
+                .map(message -> StockPublishResult.Outcome.published(message, null))
+                .toList();
+
+        log.debug("Wrote {} stock update messages to the outbox", outcomes.size());
+
+        return new StockPublishResult(outcomes);
+    }
+
+    private List<OrderStockUpdateMessage> toStockUpdateMessages(Set<OrderItem> orderItems, StockUpdateMessage.UpdateType updateType) {
+        // Flush pending order item changes first, so messages expect the versions they are committed with
+        entityManager.flush();
+
+        return OrderStockUpdateMessage.forOrderItems(orderItems, updateType, updateType == StockUpdateMessage.UpdateType.RESERVE && allOrNothing);
+    }
+}
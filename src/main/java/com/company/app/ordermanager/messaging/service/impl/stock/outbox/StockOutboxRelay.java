@@ -0,0 +1,148 @@
+package com.company.app.ordermanager.messaging.service.impl.stock.outbox;
+
+import com.company.app.ordermanager.entity.outbox.StockOutboxMessage;
+import com.company.app.ordermanager.messaging.dto.OrderStockUpdateMessage;
+import com.company.app.ordermanager.messaging.dto.StockPublishResult;
+import com.company.app.ordermanager.messaging.service.impl.stock.redis.RedisStreamStockMessageProducer;
+import com.company.app.ordermanager.repository.api.outbox.StockOutboxRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.redisson.api.RLock;
+import org.redisson.api.RedissonClient;
+import org.redisson.client.RedisException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.util.Assert;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Relays the committed stock update messages of the {@code stock_outbox} table to the stock update
+ * streams.
+ * <p>
+ * Outbox messages are read in insertion order, in batches published with a single pipelined round
+ * trip, and deleted once published. When a message of a batch fails, only the messages published
+ * before it are deleted, so the following ones are published again after it by the next run. A Redisson lock ensures a single node relays at a time, so
+ * messages are published in the order they have been written. Delivery is at-least-once: a message
+ * published right before a crash is published again by the next run, which consumers tolerate as
+ * they skip the order items no longer at their expected version, before adjusting any stock.
+ * <p>
+ * Exposes the {@code stock.outbox.relayed} counter.
+ */
+@Slf4j
+@Component
+public class StockOutboxRelay {
+    private static final String RELAY_LOCK_KEY = "stock:outbox:relay:lock";
+
+    private final RedissonClient redissonClient;
+    private final ObjectMapper objectMapper;
+    private final StockOutboxRepository stockOutboxRepository;
+    private final RedisStreamStockMessageProducer redisStreamStockMessageProducer;
+
+    private final int batchSize;
+    private final int maxBatches;
+
+    private final Counter relayedCounter;
+
+    public StockOutboxRelay(RedissonClient redissonClient,
+                            ObjectMapper objectMapper,
+                            StockOutboxRepository stockOutboxRepository,
+                            RedisStreamStockMessageProducer redisStreamStockMessageProducer,
+                            MeterRegistry meterRegistry,
+                            @Value("${messaging.stock.outbox.batch-size:500}") int batchSize,
+                            @Value("${messaging.stock.outbox.max-batches:20}") int maxBatches) {
+        Assert.isTrue(batchSize > 0, "Outbox batch size must be greater than 0");
+        Assert.isTrue(maxBatches > 0, "Outbox max batches must be greater than 0");
+
+        this.redissonClient = redissonClient;
+        this.objectMapper = objectMapper;
+        this.stockOutboxRepository = stockOutboxRepository;
+        this.redisStreamStockMessageProducer = redisStreamStockMessageProducer;
+        this.batchSize = batchSize;
+        this.maxBatches = maxBatches;
+
+        this.relayedCounter = Counter.builder("stock.outbox.relayed")
+                .description("Number of outbox messages published to the stock update streams")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Relays up to the configured number of batches, unless another node is relaying.
+     */
+    @Scheduled(fixedDelayString = "${messaging.stock.outbox.relay-interval:100ms}")
+    public void relay() {
+        RLock lock = redissonClient.getLock(RELAY_LOCK_KEY);
+
+        try {
+            if (!lock.tryLock()) {
+                return;
+            }
+        } catch (RedisException e) {
+            log.error("Failed to acquire the outbox relay lock. Error: {}", e.getMessage());
+            return;
+        }
+
+        try {
+            for (int batch = 0; batch < maxBatches; batch++) {
+                if (!relayBatch()) {
+                    break;
+                }
+            }
+        } catch (RedisException | DataAccessException e) {
+            log.error("Failed to relay outbox messages. Error: {}", e.getMessage());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Publishes the oldest outbox messages and deletes the messages published before the first failure.
+     *
+     * @return {@code true} if a full batch has been published and more messages may be waiting
+     */
+    private boolean relayBatch() {
+        List<StockOutboxMessage> outboxMessages = stockOutboxRepository.findAllByOrderByIdAsc(PageRequest.ofSize(batchSize));
+
+        if (outboxMessages.isEmpty()) {
+            return false;
+        }
+
+        List<Long> processedIds = new ArrayList<>(outboxMessages.size());
+        List<Long> messageIds = new ArrayList<>(outboxMessages.size());
+        List<OrderStockUpdateMessage> messages = new ArrayList<>(outboxMessages.size());
+
+        for (StockOutboxMessage outboxMessage : outboxMessages) {
+            try {
+                messages.add(objectMapper.readValue(outboxMessage.getPayload(), OrderStockUpdateMessage.class));
+                messageIds.add(outboxMessage.getId());
+            } catch (JsonProcessingException e) {
+                // Never publishable, drop it rather than retrying it forever
+                log.error("Dropping unreadable outbox message {}. Error: {}", outboxMessage.getId(), e.getMessage());
+                processedIds.add(outboxMessage.getId());
+            }
+        }
+
+        StockPublishResult result = redisStreamStockMessageProducer.publishStockUpdateMessages(messages);
+
+        int published = 0;
+
+        // Stop at the first failure, a later message, such as the cancellation of the same order, must not overtake it
+        while (published < messageIds.size() && result.outcomes().get(published).published()) {
+            processedIds.add(messageIds.get(published));
+            published++;
+        }
+
+        stockOutboxRepository.deleteAllByIdInBatch(processedIds);
+        relayedCounter.increment(published);
+
+        // Leave the failed message and the following ones for the next run, they are retried first
+        return published == messageIds.size() && outboxMessages.size() == batchSize;
+    }
+}
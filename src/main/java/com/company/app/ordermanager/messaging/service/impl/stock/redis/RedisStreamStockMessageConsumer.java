@@ -1,287 +1,713 @@
 package com.company.app.ordermanager.messaging.service.impl.stock.redis;
 
+import com.company.app.ordermanager.dto.orderitem.OrderItemStatusUpdate;
+import com.company.app.ordermanager.dto.stock.StockAdjustment;
+import com.company.app.ordermanager.dto.stock.StockAdjustmentResult;
 import com.company.app.ordermanager.entity.orderitem.OrderItemStatus;
 import com.company.app.ordermanager.entity.orderitem.OrderItemStatusReason;
 import com.company.app.ordermanager.exception.product.ProductNotFoundException;
 import com.company.app.ordermanager.exception.stock.StockLockException;
-import com.company.app.ordermanager.messaging.common.MessageChannels;
+import com.company.app.ordermanager.messaging.dto.OrderStockUpdateMessage;
 import com.company.app.ordermanager.messaging.dto.StockUpdateMessage;
+import com.company.app.ordermanager.messaging.redis.StockStreamPartitioner;
 import com.company.app.ordermanager.messaging.redis.StreamFields;
+import com.company.app.ordermanager.messaging.redis.StreamMessageType;
 import com.company.app.ordermanager.messaging.service.api.stock.StockMessageConsumerService;
 import com.company.app.ordermanager.service.api.orderitem.OrderItemService;
-import com.company.app.ordermanager.service.api.product.ProductService;
+import com.company.app.ordermanager.service.api.stock.StockReservationService;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.redisson.api.RLock;
+import org.redisson.api.AutoClaimResult;
 import org.redisson.api.RStream;
 import org.redisson.api.RedissonClient;
 import org.redisson.api.StreamMessageId;
 import org.redisson.api.stream.StreamCreateGroupArgs;
-import org.redisson.api.stream.StreamReadGroupArgs;
-import org.redisson.api.stream.StreamTrimArgs;
+import org.redisson.api.stream.StreamMultiReadGroupArgs;
 import org.redisson.client.RedisException;
-import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Queue;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.TimeUnit;
 
 @Slf4j
 @Service
 @RequiredArgsConstructor
-public class RedisStreamStockMessageConsumer implements StockMessageConsumerService {
-    private static final String GROUP_NAME = "stock-processor-group";
-    private static final String CONSUMER_NAME = "consumer" + UUID.randomUUID();
+public class RedisStreamStockMessageConsumer implements StockMessageConsumerService, SmartLifecycle {
+    static final String GROUP_NAME = "stock-processor-group";
+    private static final String CONSUMER_THREAD_NAME = "stock-consumer";
 
-    private static final String PRODUCT_LOCK_KEY_PREFIX = "product:lock:";
-    private static final Duration LOCK_TIMEOUT = Duration.ofSeconds(10);
-
-    private static final int STREAM_BATCH_SIZE = 1;
-    private static final Duration STREAM_WAIT_TIMEOUT = Duration.ofSeconds(10);
+    private static final Duration READ_FAILURE_BACKOFF = Duration.ofSeconds(1);
 
     private final RedissonClient redissonClient;
     private final ObjectMapper objectMapper;
     private final OrderItemService orderItemService;
-    private final ProductService productService;
+    private final StockReservationService stockReservationService;
+    private final TransactionTemplate transactionTemplate;
+    private final StockStreamPartitioner stockStreamPartitioner;
+    private final StockPartitionCoordinator stockPartitionCoordinator;
+    private final StockUpdateWorkerPool stockUpdateWorkerPool;
+    private final StockPendingMessageReclaimer stockPendingMessageReclaimer;
+
+    @Value("${messaging.stock.consumer.batch-size:100}")
+    private int batchSize;
+
+    @Value("${messaging.stock.consumer.wait-timeout:2s}")
+    private Duration waitTimeout;
+
+    @Value("${messaging.stock.consumer.shutdown-timeout:30s}")
+    private Duration shutdownTimeout;
 
-    private RStream<String, String> stream;
+    private final Queue<ProcessedMessage> processedMessages = new ConcurrentLinkedQueue<>();
+
+    private volatile boolean running;
+    private Thread consumerThread;
 
     @PostConstruct
     private void init() {
-        initializeStream();
+        stockStreamPartitioner.streamKeys().forEach(this::initializeStream);
+    }
+
+    /**
+     * Joins the partition assignment and starts the dedicated consumer thread which continuously
+     * reads stock update messages from the owned partition streams until {@link #stop()} is invoked.
+     */
+    @Override
+    public synchronized void start() {
+        if (running) {
+            return;
+        }
+
+        running = true;
+
+        stockPartitionCoordinator.join();
+
+        consumerThread = new Thread(this::consumeStockUpdateMessages, CONSUMER_THREAD_NAME);
+        consumerThread.start();
+
+        log.info("Started stock update consumer {} (batch size: {}, wait timeout: {}, workers: {})",
+                getConsumerName(),
+                batchSize,
+                waitTimeout,
+                stockUpdateWorkerPool.getWorkerCount());
+    }
+
+    /**
+     * Signals the consumer thread to stop and waits for it to drain the messages currently in flight.
+     * Neither the consumer thread nor the workers are interrupted while processing, so every message
+     * already read is either processed and acknowledged or left pending for redelivery. Once drained,
+     * the owned partitions are released so other nodes can take them over immediately.
+     */
+    @Override
+    public synchronized void stop() {
+        if (!running) {
+            return;
+        }
+
+        running = false;
+
+        try {
+            consumerThread.join(shutdownTimeout.toMillis());
+
+            if (consumerThread.isAlive()) {
+                // Keep the partitions leased until they expire, the in-flight batch may still be acknowledged
+                log.warn("Stock update consumer did not drain within {}", shutdownTimeout);
+            } else {
+                stockPartitionCoordinator.leave();
+
+                log.info("Stopped stock update consumer {}", getConsumerName());
+            }
+        } catch (InterruptedException e) {
+            log.warn("Interrupted while waiting for the stock update consumer to drain");
+
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
     }
 
     /**
-     * Periodically processes stock update messages from a message stream.
-     * This method reads stock update messages from a stream, parses them,
-     * processes the corresponding stock updates, and acknowledges the messages
-     * to mark them as processed. Messages that cause exceptions during processing
-     * are either skipped for reprocessing (in some cases) or acknowledged
-     * to prevent indefinite retries. It also performs stream trimming to limit
-     * its size and maintain performance.
+     * Continuously reads batches of stock update messages from the owned partition streams and
+     * dispatches them to the worker pool. The read blocks for at most the configured wait timeout,
+     * so new messages are picked up as soon as they are published and the stop flag is re-evaluated
+     * regularly. Messages processed by the workers are acknowledged in bulk before each read, and
+     * the messages reclaimed by the {@link StockPendingMessageReclaimer} are dispatched along.
      * <p>
-     * This method is automatically invoked with a fixed delay of 2000ms.
+     * Partition ownership is reconciled once the workers are idle, so a released partition has no
+     * message in flight, and the pending messages of newly acquired partitions are dispatched before
+     * any new message is read from them.
      */
-    @Scheduled(fixedDelay = 2000)
-    @Transactional
-    public void processStockUpdateMessages() {
-        // Read new messages from the stream using the new API
-        Map<StreamMessageId, Map<String, String>> entries = stream.readGroup(
+    private void consumeStockUpdateMessages() {
+        while (running) {
+            acknowledgeProcessedMessages();
+
+            if (stockPartitionCoordinator.isRebalanceDue()) {
+                if (!awaitWorkers()) {
+                    continue;
+                }
+
+                stockPartitionCoordinator.rebalance().forEach(this::recoverPendingMessages);
+            }
+
+            List<Integer> ownedPartitions = stockPartitionCoordinator.getOwnedPartitions();
+
+            dispatchReclaimedMessages(ownedPartitions);
+
+            if (ownedPartitions.isEmpty()) {
+                // No partition assigned, wait for the next rebalance
+                pause(waitTimeout);
+                continue;
+            }
+
+            Map<String, Map<StreamMessageId, Map<String, String>>> entries;
+
+            try {
+                entries = readNewMessages(ownedPartitions);
+            } catch (RedisException e) {
+                log.error("Failed to read stock update messages from stream. Error: {}", e.getMessage());
+
+                pause(READ_FAILURE_BACKOFF);
+                continue;
+            }
+
+            if (entries.isEmpty()) {
+                continue;
+            }
+
+            log.debug("Read {} messages from {} streams", entries.values().stream().mapToInt(Map::size).sum(), entries.size());
+
+            dispatchStockUpdateMessages(entries, false);
+        }
+
+        // Drain the messages dispatched before the stop signal
+        awaitWorkers();
+    }
+
+    /**
+     * Waits for the workers to settle every dispatched group before the next batch is dispatched.
+     * The messages of an order may be coalesced with different orders from one batch to the next,
+     * so a batch never overlaps the previous one, which keeps the messages of every order in order.
+     */
+    private void awaitDispatchedBatch() {
+        while (!awaitWorkers() && running) {
+            log.warn("Still waiting for the previous stock update batch before dispatching the next one");
+        }
+    }
+
+    /**
+     * Waits for the workers to process every dispatched message, then acknowledges them.
+     *
+     * @return {@code true} if the workers are idle, {@code false} if they did not drain within the shutdown timeout
+     */
+    private boolean awaitWorkers() {
+        boolean idle;
+
+        try {
+            idle = stockUpdateWorkerPool.awaitIdle(shutdownTimeout);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            running = false;
+            idle = false;
+        }
+
+        if (!idle) {
+            log.warn("Stock update workers did not drain within {}", shutdownTimeout);
+        }
+
+        acknowledgeProcessedMessages();
+
+        return idle;
+    }
+
+    /**
+     * Reads up to a batch of never delivered messages from the given partition streams with a single
+     * blocking {@code XREADGROUP} call.
+     *
+     * @param partitions the owned partitions to read from, must not be empty
+     * @return the messages read, keyed by stream key and stream message ID
+     */
+    private Map<String, Map<StreamMessageId, Map<String, String>>> readNewMessages(List<Integer> partitions) {
+        RStream<String, String> stream = getStream(partitions.get(0));
+
+        Map<String, StreamMessageId> otherStreams = new LinkedHashMap<>();
+        partitions.subList(1, partitions.size())
+                .forEach(partition -> otherStreams.put(stockStreamPartitioner.streamKey(partition), StreamMessageId.NEVER_DELIVERED));
+
+        return stream.readGroup(
                 GROUP_NAME,
-                CONSUMER_NAME,
-                StreamReadGroupArgs.neverDelivered()
-                        .count(STREAM_BATCH_SIZE)
-                        .timeout(STREAM_WAIT_TIMEOUT)
+                getConsumerName(),
+                StreamMultiReadGroupArgs.greaterThan(StreamMessageId.NEVER_DELIVERED, otherStreams)
+                        .count(batchSize)
+                        .timeout(waitTimeout)
         );
+    }
+
+    /**
+     * Claims and processes every message of a partition stream which has been delivered but not
+     * acknowledged, typically by the previous owner of the partition, before this consumer reads
+     * new messages from it. This keeps the messages of each order in order across a handover.
+     *
+     * @param partition the newly acquired partition
+     */
+    private void recoverPendingMessages(int partition) {
+        RStream<String, String> stream = getStream(partition);
+        StreamMessageId startId = StreamMessageId.MIN;
+
+        try {
+            do {
+                AutoClaimResult<String, String> claimed = stream.autoClaim(
+                        GROUP_NAME, getConsumerName(), 0, TimeUnit.MILLISECONDS, startId, batchSize);
 
-        log.debug("Read {} messages from stream", entries.size());
+                if (!claimed.getMessages().isEmpty()) {
+                    log.info("Recovering {} pending stock update messages of partition {}", claimed.getMessages().size(), partition);
 
-        for (Map.Entry<StreamMessageId, Map<String, String>> entry : entries.entrySet()) {
-            StreamMessageId messageId = entry.getKey();
-            Map<String, String> message = entry.getValue();
+                    dispatchStockUpdateMessages(Map.of(stream.getName(), claimed.getMessages()), true);
+                }
 
+                startId = claimed.getNextId();
+            } while (running && !StreamMessageId.MIN.equals(startId));
+        } catch (RedisException e) {
+            log.error("Failed to recover pending stock update messages of partition {}. Error: {}", partition, e.getMessage());
+        }
+    }
+
+    /**
+     * Dispatches the messages claimed by the {@link StockPendingMessageReclaimer} since the last call.
+     * Messages of partitions released in the meantime are skipped, the new owner recovers them.
+     *
+     * @param ownedPartitions the partitions currently owned by this consumer
+     */
+    private void dispatchReclaimedMessages(List<Integer> ownedPartitions) {
+        Map<String, Map<StreamMessageId, Map<String, String>>> reclaimed;
+
+        while ((reclaimed = stockPendingMessageReclaimer.pollReclaimedMessages()) != null) {
+            Map<String, Map<StreamMessageId, Map<String, String>>> owned = new LinkedHashMap<>(reclaimed);
+            owned.keySet().removeIf(streamKey -> ownedPartitions.stream()
+                    .noneMatch(partition -> stockStreamPartitioner.streamKey(partition).equals(streamKey)));
+
+            dispatchStockUpdateMessages(owned, true);
+        }
+    }
+
+    /**
+     * Dispatches a batch of stock update messages read from the partition streams to the workers.
+     * Messages sharing a product or an order are coalesced into the same group, so each product of
+     * the batch belongs to a single group, and groups are processed in parallel by the workers
+     * without contending on product locks. A group locks the union of its products at once and
+     * applies the updates of each product in stream order, so a hot product is locked and written
+     * once per batch rather than once per order. The batch is settled before the next one is
+     * dispatched, so the messages of an order are processed in stream order across batches as well.
+     * Processed messages, as well as messages that failed with a non-recoverable error, are
+     * acknowledged by the consumer thread once their worker has handled them. Messages whose
+     * product locks could not be acquired are left unacknowledged and scheduled for a delayed retry.
+     *
+     * @param entries the stream entries to process, keyed by stream key and stream message ID
+     * @param retried whether the entries have been claimed again after a previous delivery
+     */
+    private void dispatchStockUpdateMessages(Map<String, Map<StreamMessageId, Map<String, String>>> entries, boolean retried) {
+        List<StockUpdateEntry> stockUpdateEntries = new ArrayList<>();
+
+        entries.forEach((streamKey, streamEntries) -> {
+            for (Map.Entry<StreamMessageId, Map<String, String>> entry : streamEntries.entrySet()) {
+                try {
+                    OrderStockUpdateMessage stockUpdateMessage = parseMessage(entry.getValue());
+
+                    stockUpdateEntries.add(new StockUpdateEntry(streamKey, entry.getKey(), stockUpdateMessage, retried));
+                } catch (Exception e) {
+                    log.error("Failed to parse stock update message: {}. Error: {}", entry.getValue(), e.getMessage());
+
+                    // Malformed message, acknowledge it to avoid reprocessing
+                    processedMessages.add(new ProcessedMessage(streamKey, entry.getKey(), retried));
+                }
+            }
+        });
+
+        awaitDispatchedBatch();
+
+        for (Map.Entry<UUID, List<StockUpdateEntry>> group : groupBySharedProducts(stockUpdateEntries).entrySet()) {
             try {
-                log.debug("Processing stock update message: {}", message);
+                stockUpdateWorkerPool.submit(group.getKey(), () ->
+                        processStockUpdates(group.getValue()).forEach(entry ->
+                                processedMessages.add(new ProcessedMessage(entry.streamKey(), entry.messageId(), entry.retried()))));
+            } catch (InterruptedException e) {
+                log.warn("Interrupted while dispatching stock update messages, remaining messages stay pending");
+
+                Thread.currentThread().interrupt();
+                running = false;
+                return;
+            }
+        }
+    }
 
-                StockUpdateMessage stockUpdateMessage = parseMessage(message);
+    /**
+     * Groups stock update entries sharing a product or a routing key, transitively, so that no product
+     * and no order is split across groups. Groups and the entries of each group keep the order of
+     * the entries.
+     *
+     * @param entries the stream entries to group, in stream order
+     * @return the groups of entries, keyed by the routing key of their first entry
+     */
+    private Map<UUID, List<StockUpdateEntry>> groupBySharedProducts(List<StockUpdateEntry> entries) {
+        // Union-find over routing keys and product IDs, linking every product of a message to its routing key
+        Map<UUID, UUID> parents = new HashMap<>();
 
-                processStockUpdateMessage(stockUpdateMessage);
+        for (StockUpdateEntry entry : entries) {
+            UUID routingKey = entry.message().routingKey();
 
-                // Acknowledge the message to mark it as processed
-                stream.ack(GROUP_NAME, messageId);
+            for (OrderStockUpdateMessage.Item item : entry.message().getItems()) {
+                UUID root = findRoot(parents, routingKey);
+                UUID productRoot = findRoot(parents, item.getProductId());
 
-                log.debug("Processed stock update message with id: {}", messageId.toString());
+                if (!root.equals(productRoot)) {
+                    parents.put(productRoot, root);
+                }
+            }
+        }
 
-                // Trim the stream to ensure it doesn't grow indefinitely.
-                stream.trim(StreamTrimArgs.maxLen(1000).noLimit());
-            } catch (StockLockException e) {
-                log.warn("Failed to acquire lock for product within stock update message: {}. Error: {}", message, e.getMessage());
+        Map<UUID, UUID> groupKeys = new HashMap<>();
+        Map<UUID, List<StockUpdateEntry>> groups = new LinkedHashMap<>();
 
-                // Don't send ack so message could be reprocessed later
-            } catch (Exception e) {
-                log.error("Failed to process stock update message: {}. Error: {}", message, e.getMessage());
+        for (StockUpdateEntry entry : entries) {
+            UUID groupKey = groupKeys.computeIfAbsent(findRoot(parents, entry.message().routingKey()), root -> entry.message().routingKey());
 
-                // Unexpected exception occur, acknowledge the message to avoid reprocessing
-                stream.ack(GROUP_NAME, messageId);
+            groups.computeIfAbsent(groupKey, key -> new ArrayList<>()).add(entry);
+        }
+
+        return groups;
+    }
+
+    private UUID findRoot(Map<UUID, UUID> parents, UUID key) {
+        UUID root = key;
+        UUID parent;
+
+        while ((parent = parents.get(root)) != null) {
+            root = parent;
+        }
+
+        // Compress the path, so later lookups are direct
+        if (!root.equals(key)) {
+            parents.put(key, root);
+        }
+
+        return root;
+    }
+
+    /**
+     * Acknowledges the messages processed since the last call, with a single call per stream.
+     * The retry attempts recorded for retried messages are cleared along.
+     */
+    private void acknowledgeProcessedMessages() {
+        Map<String, List<StreamMessageId>> processedIds = new LinkedHashMap<>();
+        Map<String, List<StreamMessageId>> retriedIds = new LinkedHashMap<>();
 
-                // Trim the stream to ensure it doesn't grow indefinitely.
-                stream.trim(StreamTrimArgs.maxLen(1000).noLimit());
+        ProcessedMessage processed;
+        while ((processed = processedMessages.poll()) != null) {
+            processedIds.computeIfAbsent(processed.streamKey(), key -> new ArrayList<>()).add(processed.messageId());
+
+            if (processed.retried()) {
+                retriedIds.computeIfAbsent(processed.streamKey(), key -> new ArrayList<>()).add(processed.messageId());
             }
         }
+
+        processedIds.forEach(this::acknowledge);
+
+        retriedIds.forEach((streamKey, messageIds) -> {
+            try {
+                stockPendingMessageReclaimer.clearRetries(streamKey, messageIds);
+            } catch (RedisException e) {
+                log.warn("Failed to clear retry attempts of {} stock update messages. Error: {}", messageIds.size(), e.getMessage());
+            }
+        });
     }
 
     /**
-     * Processes a stock update based on the type of the received message.
+     * Acknowledges processed messages of a partition stream. Acknowledged entries are removed from
+     * the stream later by the {@link StockStreamTrimmer}.
      *
-     * @param message the {@link StockUpdateMessage} containing details about the stock update.
-     * @throws IllegalArgumentException if the {@code message} contains invalid or inconsistent data.
-     * @throws ProductNotFoundException if no product is found with the product ID within the stock update message
-     * @throws StockLockException if the method is interrupted while acquiring the product lock
+     * @param streamKey  the key of the partition stream
+     * @param messageIds the IDs of the messages to acknowledge
      */
-    @Override
-    public void processStockUpdateMessage(StockUpdateMessage message) {
-        switch (message.getUpdateType()) {
-            case RESERVE -> handleStockReservation(message);
-            case CANCEL -> handleStockCancellation(message);
+    private void acknowledge(String streamKey, List<StreamMessageId> messageIds) {
+        RStream<String, String> stream = redissonClient.getStream(streamKey);
+
+        try {
+            // Acknowledge the whole batch to mark messages as processed
+            stream.ack(GROUP_NAME, messageIds.toArray(new StreamMessageId[0]));
+        } catch (RedisException e) {
+            log.error("Failed to acknowledge {} stock update messages of stream {}. Error: {}", messageIds.size(), streamKey, e.getMessage());
         }
     }
 
     /**
-     * Handles the reservation of stock for a given product. Determines if the requested quantity
-     * can be reserved and updates the stock levels and order item status accordingly.
+     * Processes a group of stock update messages sharing products. The messages are applied together
+     * within a single database transaction, unless they are decided all-or-nothing, which is decided
+     * per message. If the product locks could not be acquired, every message of the group is
+     * scheduled for a delayed retry, and given up once it has reached the maximum number of attempts.
+     * If the group is rejected as a product is unknown or a message is invalid, its messages are
+     * processed one by one instead, so only the invalid ones are given up. A group failing with
+     * another unexpected error is acknowledged.
      *
-     * @param message the {@link StockUpdateMessage} object containing details for stock reservation such as
-     *                the product ID, order item ID, quantity to be reserver, and expected order item version.
-     * @throws IllegalArgumentException if the {@code message} contains invalid or inconsistent data.
-     * @throws ProductNotFoundException if no product is found with the product ID within the stock update message
-     * @throws StockLockException       if the method is interrupted while acquiring the product lock
+     * @param entries the stream entries of the group, in stream order
+     * @return the entries to acknowledge
      */
-    private void handleStockReservation(StockUpdateMessage message) {
-        // Get product lock
-        RLock lock = redissonClient.getLock(getProductLockKey(message.getProductId()));
+    private List<StockUpdateEntry> processStockUpdates(List<StockUpdateEntry> entries) {
+        if (entries.size() == 1 || entries.stream().anyMatch(entry -> entry.message().isAllOrNothing())) {
+            return processStockUpdatesOneByOne(entries);
+        }
+
+        List<OrderStockUpdateMessage> messages = entries.stream().map(StockUpdateEntry::message).toList();
 
         try {
-            tryLock(message.getProductId(), lock);
-
-            int available = productService.getProductStockLevel(message.getProductId());
-
-            if (available < message.getQuantity()) {
-                log.debug("Insufficient stock for product: {}. Available: {}, Requested: {}",
-                        message.getProductId(),
-                        available,
-                        message.getQuantity());
-
-                // Update order item status to cancelled
-                orderItemService.updateOrderItemStatusAndReason(
-                        message.getOrderItemId(),
-                        OrderItemStatus.CANCELLED,
-                        message.getExpectedOrderItemVersion(),
-                        OrderItemStatusReason.INSUFFICIENT_STOCK
-                );
-            } else {
-                log.debug("Stock available for product: {}. Available: {}, Requested: {}",
-                        message.getProductId(),
-                        available,
-                        message.getQuantity());
-
-                // Update order item status to confirmed
-                orderItemService.updateOrderItemStatus(
-                        message.getOrderItemId(),
-                        OrderItemStatus.CONFIRMED,
-                        message.getExpectedOrderItemVersion()
-                );
-
-                // Calc new stock level
-                int updatedStockLevel = available - message.getQuantity();
-
-                // Update stock level
-                productService.updateProductStockLevel(message.getProductId(), updatedStockLevel);
-
-                log.debug("Updated stock level for product: {}. Available: {}, Requested: {}, New: {}",
-                        message.getProductId(),
-                        available,
-                        message.getQuantity(),
-                        updatedStockLevel);
-            }
-        } catch (InterruptedException e) {
-            log.warn("Interrupted while acquiring lock for product: {}. Error: {}", message.getProductId(), e.getMessage());
+            log.debug("Processing {} coalesced stock update messages", messages.size());
 
-            handleStockLockAcquisitionFailure(message.getProductId());
-        } finally {
-            log.debug("Releasing lock for product: {}", message.getProductId());
+            transactionTemplate.executeWithoutResult(status -> applyStockUpdates(messages, false));
 
-            releaseLock(lock);
-        }
+            return entries;
+        } catch (StockLockException e) {
+            log.warn("Failed to acquire product locks for {} coalesced stock update messages. Error: {}", entries.size(), e.getMessage());
 
+            // Don't send ack so messages could be reprocessed later, unless they ran out of attempts
+            return entries.stream().filter(entry -> !scheduleRetry(entry)).toList();
+        } catch (ProductNotFoundException | IllegalArgumentException e) {
+            // Rejected before any stock was applied, only the invalid messages must be given up
+            log.warn("Failed to process {} coalesced stock update messages, processing them one by one. Error: {}", entries.size(), e.getMessage());
+
+            return processStockUpdatesOneByOne(entries);
+        } catch (Exception e) {
+            log.error("Failed to process {} coalesced stock update messages. Error: {}", entries.size(), e.getMessage());
+
+            // Unexpected exception occur, acknowledge the messages to avoid reprocessing
+            return entries;
+        }
     }
 
     /**
-     * Handles the stock cancellation process by updating stock levels and order item status.
+     * Processes stock update messages in stream order, each within its own database transaction.
+     * A message failing with an unexpected error is acknowledged, so it does not block the following
+     * ones. If the product locks of a message could not be acquired, the message and every message
+     * following it are scheduled for a delayed retry, so they keep their order, and given up once
+     * they have reached the maximum number of attempts.
      *
-     * @param message the {@link StockUpdateMessage} object containing details for stock cancellation such as
-     *                the product ID, order item ID, quantity to be cancelled, and expected order item version.
-     * @throws IllegalArgumentException if the {@code message} contains invalid or inconsistent data.
-     * @throws ProductNotFoundException if no product is found with the product ID within the stock update message
-     * @throws StockLockException       if the method is interrupted while acquiring the product lock
+     * @param entries the stream entries to process, in stream order
+     * @return the entries to acknowledge
      */
-    private void handleStockCancellation(StockUpdateMessage message) {
-        // Get product lock
-        RLock lock = redissonClient.getLock(getProductLockKey(message.getProductId()));
+    private List<StockUpdateEntry> processStockUpdatesOneByOne(List<StockUpdateEntry> entries) {
+        List<StockUpdateEntry> processed = new ArrayList<>(entries.size());
 
-        try {
-            tryLock(message.getProductId(), lock);
+        for (int i = 0; i < entries.size(); i++) {
+            StockUpdateEntry entry = entries.get(i);
+            OrderStockUpdateMessage message = entry.message();
 
-            // Update order item status to cancelled
-            orderItemService.updateOrderItemStatus(
-                    message.getOrderItemId(),
-                    OrderItemStatus.CANCELLED,
-                    message.getExpectedOrderItemVersion()
-            );
+            try {
+                log.debug("Processing {} stock update message {} for order {} with {} items",
+                        message.getUpdateType(),
+                        entry.messageId(),
+                        message.getOrderId(),
+                        message.getItems().size());
 
-            int available = productService.getProductStockLevel(message.getProductId());
+                transactionTemplate.executeWithoutResult(status -> applyStockUpdates(List.of(message), message.isAllOrNothing()));
 
-            // Calc new stock level
-            int updatedStockLevel = available + message.getQuantity();
+                processed.add(entry);
+            } catch (StockLockException e) {
+                log.warn("Failed to acquire product locks for stock update message {}. Error: {}", entry.messageId(), e.getMessage());
 
-            // Update stock level
-            productService.updateProductStockLevel(message.getProductId(), updatedStockLevel);
+                // Don't send ack so messages could be reprocessed later, unless they ran out of attempts
+                entries.subList(i, entries.size()).stream()
+                        .filter(remaining -> !scheduleRetry(remaining))
+                        .forEach(processed::add);
+                break;
+            } catch (Exception e) {
+                log.error("Failed to process stock update message: {}. Error: {}", message, e.getMessage());
 
-            log.debug("Updated stock level for product: {}. Available: {}, Requested: {}, New: {}",
-                    message.getProductId(),
-                    available,
-                    message.getQuantity(),
-                    updatedStockLevel);
-        } catch (InterruptedException e) {
-            log.warn("Interrupted while acquiring lock for product: {}. Error: {}", message.getProductId(), e.getMessage());
+                // Unexpected exception occur, acknowledge the message to avoid reprocessing
+                processed.add(entry);
+            }
+        }
 
-            handleStockLockAcquisitionFailure(message.getProductId());
-        } finally {
-            log.debug("Releasing lock for product: {}", message.getProductId());
+        return processed;
+    }
 
-            releaseLock(lock);
+    /**
+     * Schedules a delayed retry of a message that could not be processed, and marks its order items
+     * as failed if the message has reached the maximum number of attempts.
+     *
+     * @param entry the stream entry to retry
+     * @return {@code true} if the message stays pending for a retry, {@code false} if it has been given up and must be acknowledged
+     */
+    private boolean scheduleRetry(StockUpdateEntry entry) {
+        try {
+            if (stockPendingMessageReclaimer.scheduleRetry(entry.streamKey(), entry.messageId())) {
+                return true;
+            }
+        } catch (RedisException e) {
+            log.error("Failed to schedule retry of stock update message {}, leaving it pending. Error: {}", entry.messageId(), e.getMessage());
+
+            // Reclaimed once idle for longer than the reclaim idle time
+            return true;
         }
+
+        OrderStockUpdateMessage message = entry.message();
+
+        if (message.getUpdateType() == StockUpdateMessage.UpdateType.CANCEL) {
+            // The order items still hold their stock, leave them cancelling for manual resolution
+            log.error("Giving up stock release for {} items of order: {} after the maximum number of attempts", message.getItems().size(), message.getOrderId());
+        } else {
+            log.error("Giving up stock reservation for {} items of order: {} after the maximum number of attempts", message.getItems().size(), message.getOrderId());
+
+            try {
+                transactionTemplate.executeWithoutResult(status -> orderItemService.updateOrderItemStatuses(message.getItems().stream()
+                        .map(item -> OrderItemStatusUpdate.of(item.getOrderItemId(), item.getExpectedOrderItemVersion(), OrderItemStatus.PROCESSING_FAILED))
+                        .toList()));
+            } catch (Exception e) {
+                log.error("Failed to mark items of order {} as failed. Error: {}", message.getOrderId(), e.getMessage());
+            }
+        }
+
+        return false;
     }
 
     /**
-     * Attempts to acquire a lock for a specified product within a defined timeout period.
-     * Throws an exception if the lock cannot be acquired within the timeout.
+     * Waits before the next read attempt when the streams could not be read or no partition is
+     * owned, so the consumer loop does not turn into a busy loop.
      *
-     * @param productId the unique identifier of the product for which the lock is being attempted
-     * @param lock the lock object representing the lock to be acquired
-     * @throws InterruptedException if the current thread is interrupted while waiting to acquire the lock
+     * @param duration the duration to wait for
      */
-    private void tryLock(UUID productId, RLock lock) throws InterruptedException {
-        if (!lock.tryLock(LOCK_TIMEOUT.getSeconds(), TimeUnit.SECONDS)) {
-            throw new StockLockException("Could not acquire lock for product: " + productId.toString());
+    private void pause(Duration duration) {
+        try {
+            Thread.sleep(duration.toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            running = false;
         }
     }
 
     /**
-     * Releases the provided lock if it is held by the current thread.
+     * Processes a stock update based on the type of the received message.
      *
-     * @param lock the RLock instance to be released
+     * @param message the {@link StockUpdateMessage} containing details about the stock update.
+     * @throws IllegalArgumentException if the {@code message} contains invalid or inconsistent data.
+     * @throws ProductNotFoundException if no product is found with the product ID within the stock update message
+     * @throws StockLockException if the product stock could not be locked
+     */
+    @Override
+    public void processStockUpdateMessage(StockUpdateMessage message) {
+        applyStockUpdates(List.of(OrderStockUpdateMessage.of(message)), false);
+    }
+
+    /**
+     * Applies the stock updates of the items of one or more messages with one call to the configured
+     * {@link StockReservationService}, holding the stock of every product of the messages at once,
+     * and updates the status of every order item with a single batch. Items of the same product are
+     * decided in message order against the running stock level.
+     * <p>
+     * The order items are locked first, and items no longer at their expected version are skipped
+     * altogether. Their status transition would not be applied, so a message delivered again, by the
+     * reclaimer or by the outbox relay after a crash, must not adjust the stock a second time.
+     *
+     * @param messages     the {@link OrderStockUpdateMessage}s to apply, in stream order
+     * @param allOrNothing whether reservations must be accepted for every item or for none, only for a single message
+     * @throws IllegalArgumentException if a message contains invalid or inconsistent data.
+     * @throws ProductNotFoundException if no product is found with one of the product IDs
+     * @throws StockLockException       if the product stock could not be locked
      */
-    private void releaseLock(RLock lock) {
-        if (lock.isHeldByCurrentThread()) {
-            lock.unlock();
+    private void applyStockUpdates(List<OrderStockUpdateMessage> messages, boolean allOrNothing) {
+        Map<UUID, Long> versions = orderItemService.lockOrderItemVersions(messages.stream()
+                .flatMap(message -> message.getItems().stream())
+                .map(OrderStockUpdateMessage.Item::getOrderItemId)
+                .toList());
+        Map<UUID, List<StockAdjustment>> adjustments = new LinkedHashMap<>();
+
+        for (OrderStockUpdateMessage message : messages) {
+            for (OrderStockUpdateMessage.Item item : message.getItems()) {
+                if (!isExpectedVersion(item, versions)) {
+                    log.debug("Skipping stock update of order item: {}, already updated past version {}", item.getOrderItemId(), item.getExpectedOrderItemVersion());
+                    continue;
+                }
+
+                adjustments.computeIfAbsent(item.getProductId(), productId -> new ArrayList<>()).add(switch (message.getUpdateType()) {
+                    case RESERVE -> StockAdjustment.reserve(item.getQuantity());
+                    case CANCEL -> StockAdjustment.release(item.getQuantity());
+                });
+            }
         }
+
+        if (adjustments.isEmpty()) {
+            return;
+        }
+
+        Map<UUID, StockAdjustmentResult> results = stockReservationService.applyAll(adjustments, allOrNothing);
+
+        // Position of the next item of each product within the adjustments of the product
+        Map<UUID, Integer> positions = new HashMap<>();
+        List<OrderItemStatusUpdate> statusUpdates = new ArrayList<>();
+
+        for (OrderStockUpdateMessage message : messages) {
+            for (OrderStockUpdateMessage.Item item : message.getItems()) {
+                if (!isExpectedVersion(item, versions)) {
+                    continue;
+                }
+
+                int position = positions.merge(item.getProductId(), 1, Integer::sum) - 1;
+
+                statusUpdates.add(toStatusUpdate(message.getUpdateType(), item, results.get(item.getProductId()).accepted().get(position)));
+            }
+        }
+
+        // Update the status of every order item with a single batch
+        orderItemService.updateOrderItemStatuses(statusUpdates);
+    }
+
+    private boolean isExpectedVersion(OrderStockUpdateMessage.Item item, Map<UUID, Long> versions) {
+        Long version = versions.get(item.getOrderItemId());
+
+        return version != null && version == item.getExpectedOrderItemVersion();
     }
 
     /**
-     * Handles the failure to acquire a stock lock for a given product and throw a custom exception.
+     * Builds the status transition of an order item referenced by a stock update message, based
+     * on the outcome of its stock adjustment.
      *
-     * @param productId the unique identifier of the product for which the lock acquisition failed
-     * @throws StockLockException
+     * @param updateType the type of the stock update
+     * @param item       the item containing the order item ID and expected version
+     * @param accepted   whether the stock adjustment of the item has been applied
+     * @return the status transition of the order item
      */
-    private void handleStockLockAcquisitionFailure(UUID productId) {
-        Thread.currentThread().interrupt();
-        throw new StockLockException("Failed to acquire lock for product: " + productId.toString());
+    private OrderItemStatusUpdate toStatusUpdate(StockUpdateMessage.UpdateType updateType, OrderStockUpdateMessage.Item item, boolean accepted) {
+        if (updateType == StockUpdateMessage.UpdateType.CANCEL) {
+            // Update order item status to cancelled
+            return OrderItemStatusUpdate.of(item.getOrderItemId(), item.getExpectedOrderItemVersion(), OrderItemStatus.CANCELLED);
+        }
+
+        if (accepted) {
+            // Update order item status to confirmed
+            return OrderItemStatusUpdate.of(item.getOrderItemId(), item.getExpectedOrderItemVersion(), OrderItemStatus.CONFIRMED);
+        }
+
+        log.debug("Insufficient stock for order item: {}. Requested: {}", item.getOrderItemId(), item.getQuantity());
+
+        // Update order item status to cancelled
+        return new OrderItemStatusUpdate(
+                item.getOrderItemId(),
+                item.getExpectedOrderItemVersion(),
+                OrderItemStatus.CANCELLED,
+                OrderItemStatusReason.INSUFFICIENT_STOCK
+        );
     }
 
     /**
@@ -291,7 +717,7 @@ public class RedisStreamStockMessageConsumer implements StockMessageConsumerServ
      * Any errors encountered during the initialization are logged appropriately.
      * <p>
      * The stream is retrieved using the configured Redisson client and
-     * is associated with a message channel defined in the `MessageChannels` enum.
+     * is one of the partition streams of the message channel defined in the `MessageChannels` enum.
      * The consumer group is created to start consuming messages from the beginning of the stream.
      * <p>
      * Exception Handling:
@@ -299,8 +725,8 @@ public class RedisStreamStockMessageConsumer implements StockMessageConsumerServ
      *   a log entry is generated stating that the group already exists.
      * - For other Redis-related errors, an error log is generated with the exception details.
      */
-    private void initializeStream() {
-        stream = redissonClient.getStream(MessageChannels.STOCK_UPDATE_QUEUE.getKey());
+    private void initializeStream(String streamKey) {
+        RStream<String, String> stream = redissonClient.getStream(streamKey);
         try {
             StreamCreateGroupArgs groupArgs = StreamCreateGroupArgs
                     .name(GROUP_NAME)
@@ -309,37 +735,53 @@ public class RedisStreamStockMessageConsumer implements StockMessageConsumerServ
 
             stream.createGroup(groupArgs);
 
-            log.info("Created consumer group: {}", GROUP_NAME);
+            log.info("Created consumer group: {} on stream: {}", GROUP_NAME, streamKey);
         } catch (RedisException e) {
             if (e.getMessage() != null && e.getMessage().contains("BUSYGROUP")) {
-                log.info("Consumer group {} already exists", GROUP_NAME);
+                log.debug("Consumer group {} already exists on stream: {}", GROUP_NAME, streamKey);
             } else {
-                log.error("Failed to initialize consumer group. Error: {}", e.getMessage());
+                log.error("Failed to initialize consumer group on stream: {}. Error: {}", streamKey, e.getMessage());
             }
         }
     }
 
+    private RStream<String, String> getStream(int partition) {
+        return redissonClient.getStream(stockStreamPartitioner.streamKey(partition));
+    }
+
+    private String getConsumerName() {
+        return stockPartitionCoordinator.getMemberId();
+    }
+
     /**
-     * Parses a given message map to extract and deserialize a stock update message.
+     * Parses a given message map to extract and deserialize a stock update message. Entries without
+     * type carry a single item message published by a previous version, which is converted.
      *
      * @param message the map containing the message details, with keys representing
      *                message fields and values representing their contents
-     * @return the deserialized StockUpdateMessage object extracted from the message map
+     * @return the deserialized OrderStockUpdateMessage object extracted from the message map
      * @throws JsonProcessingException if there is an error during the deserialization process
      */
-    private StockUpdateMessage parseMessage(Map<String, String> message) throws JsonProcessingException {
+    private OrderStockUpdateMessage parseMessage(Map<String, String> message) throws JsonProcessingException {
         String messageJson = message.get(StreamFields.MESSAGE.getField());
-        return objectMapper.readValue(messageJson, StockUpdateMessage.class);
+        String type = message.get(StreamFields.TYPE.getField());
+
+        if (type == null || StreamMessageType.valueOf(type) == StreamMessageType.ITEM_STOCK_UPDATE) {
+            return OrderStockUpdateMessage.of(objectMapper.readValue(messageJson, StockUpdateMessage.class));
+        }
+
+        return objectMapper.readValue(messageJson, OrderStockUpdateMessage.class);
     }
 
     /**
-     * Generates a lock key for the given product ID by combining a predefined prefix
-     * with the string representation of the product ID.
-     *
-     * @param productId the UUID of the product for which the lock key is generated
-     * @return the generated lock key as a string
+     * Associates a parsed {@link OrderStockUpdateMessage} with the stream and the ID of the stream entry it was read from.
+     */
+    private record StockUpdateEntry(String streamKey, StreamMessageId messageId, OrderStockUpdateMessage message, boolean retried) {
+    }
+
+    /**
+     * Identifies a stream entry which has been handled and is waiting to be acknowledged.
      */
-    private String getProductLockKey(UUID productId) {
-        return PRODUCT_LOCK_KEY_PREFIX + productId.toString();
+    private record ProcessedMessage(String streamKey, StreamMessageId messageId, boolean retried) {
     }
 }
@@ -1,23 +1,35 @@
 package com.company.app.ordermanager.messaging.service.impl.stock.redis;
 
 import com.company.app.ordermanager.entity.orderitem.OrderItem;
-import com.company.app.ordermanager.messaging.common.MessageChannels;
+import com.company.app.ordermanager.messaging.dto.OrderStockUpdateMessage;
+import com.company.app.ordermanager.messaging.dto.StockPublishResult;
 import com.company.app.ordermanager.messaging.dto.StockUpdateMessage;
+import com.company.app.ordermanager.messaging.redis.StockStreamPartitioner;
 import com.company.app.ordermanager.messaging.redis.StreamFields;
+import com.company.app.ordermanager.messaging.redis.StreamMessageType;
 import com.company.app.ordermanager.messaging.service.api.stock.StockMessageProducerService;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.redisson.api.RStream;
+import org.redisson.api.BatchOptions;
+import org.redisson.api.RBatch;
+import org.redisson.api.RFuture;
+import org.redisson.api.RStreamAsync;
 import org.redisson.api.RedissonClient;
 import org.redisson.api.StreamMessageId;
 import org.redisson.api.stream.StreamAddArgs;
+import org.redisson.client.RedisException;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.util.Assert;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 @Slf4j
 @Service
@@ -25,88 +37,132 @@ import java.util.Set;
 public class RedisStreamStockMessageProducer implements StockMessageProducerService {
     private final ObjectMapper objectMapper;
     private final RedissonClient redissonClient;
+    private final StockStreamPartitioner stockStreamPartitioner;
+
+    @Value("${stock.reservation.all-or-nothing:false}")
+    private boolean allOrNothing;
 
     /**
      * Sends stock reservation messages for the provided set of order items.
-     * This method generates reservation messages for the given order items and publishes them
-     * to a Redis stream for processing by downstream consumers.
+     * This method generates one reservation message per order, carrying all its items, and publishes
+     * them to a Redis stream for processing by downstream consumers, in a single pipelined batch.
      *
      * @param orderItems the set of {@link OrderItem} objects for which stock reservation messages should be sent
+     * @return the {@link StockPublishResult} reporting the outcome of each message
      * @throws IllegalArgumentException if the input set of order items is null
      */
     @Override
-    public void sendStockReservationMessage(Set<OrderItem> orderItems) {
+    public StockPublishResult sendStockReservationMessage(Set<OrderItem> orderItems) {
         Assert.notNull(orderItems, "Order items must not be null");
 
-        List<StockUpdateMessage> stockUpdateMessages = orderItems.stream()
-                .map(item -> StockUpdateMessage.builder()
-                        .orderItemId(item.getId())
-                        .expectedOrderItemVersion(item.getVersion())
-                        .updateType(StockUpdateMessage.UpdateType.RESERVE)
-                        .productId(item.getProduct().getId())
-                        .quantity(item.getQuantity())
-                        .build()
-                ).toList();
-
-        stockUpdateMessages.forEach(me -> {
-            try {
-                publishStockUpdateMessages(me);
-            } catch (JsonProcessingException e) {
-                log.error("Failed to publish reservation message for order item {}. Error: {}", me.getOrderItemId(), e.getMessage());
-            }
-        });
+        return publishStockUpdateMessages(toStockUpdateMessages(orderItems, StockUpdateMessage.UpdateType.RESERVE));
     }
 
     /**
      * Sends stock cancellation messages for the provided set of order items.
-     * This method generates cancellation messages for the supplied order items and publishes them
-     * to a Redis stream for further processing.
+     * This method generates one cancellation message per order for the supplied order items and
+     * publishes them to a Redis stream for further processing, in a single pipelined batch.
      *
      * @param orderItems the set of {@link OrderItem} objects for which stock cancellation messages should be sent
+     * @return the {@link StockPublishResult} reporting the outcome of each message
      * @throws IllegalArgumentException if the input set of order items is null
      */
     @Override
-    public void sendStockCancellationMessage(Set<OrderItem> orderItems) {
+    public StockPublishResult sendStockCancellationMessage(Set<OrderItem> orderItems) {
         Assert.notNull(orderItems, "Items must not be null");
 
-        List<StockUpdateMessage> stockUpdateMessages = orderItems.stream()
-                .map(item -> StockUpdateMessage.builder()
-                        .orderItemId(item.getId())
-                        .expectedOrderItemVersion(item.getVersion())
-                        .updateType(StockUpdateMessage.UpdateType.CANCEL)
-                        .productId(item.getProduct().getId())
-                        .quantity(item.getQuantity())
-                        .build()
-                )
-                .toList();
-
-        stockUpdateMessages.forEach(me -> {
+        return publishStockUpdateMessages(toStockUpdateMessages(orderItems, StockUpdateMessage.UpdateType.CANCEL));
+    }
+
+    /**
+     * Publishes stock update messages, possibly of many orders, to the partition streams of their
+     * orders with a single pipelined round trip. Messages which cannot be serialized are reported
+     * as failed without preventing the others from being published. If the batch fails, every
+     * message whose entry has not been added is reported as failed.
+     *
+     * @param messages the {@link OrderStockUpdateMessage}s to publish
+     * @return the {@link StockPublishResult} reporting the outcome of each message, in the given order
+     * @throws IllegalArgumentException if {@code messages} is null
+     */
+    @Override
+    public StockPublishResult publishStockUpdateMessages(List<OrderStockUpdateMessage> messages) {
+        Assert.notNull(messages, "Messages must not be null");
+
+        if (messages.isEmpty()) {
+            return new StockPublishResult(List.of());
+        }
+
+        RBatch batch = redissonClient.createBatch(BatchOptions.defaults());
+
+        List<StockPublishResult.Outcome> serializationFailures = new ArrayList<>(messages.size());
+        List<RFuture<StreamMessageId>> futures = new ArrayList<>(messages.size());
+
+        for (OrderStockUpdateMessage message : messages) {
             try {
-                publishStockUpdateMessages(me);
+                String messageJson = objectMapper.writeValueAsString(message);
+
+                RStreamAsync<String, String> stream = batch.getStream(stockStreamPartitioner.streamKey(message.routingKey()));
+                futures.add(stream.addAsync(StreamAddArgs.entries(Map.of(
+                        StreamFields.TYPE.getField(), StreamMessageType.ORDER_STOCK_UPDATE.name(),
+                        StreamFields.MESSAGE.getField(), messageJson
+                ))));
+                serializationFailures.add(null);
             } catch (JsonProcessingException e) {
-                log.error("Failed to publish cancellation message for order item {}. Error: {}", me.getOrderItemId(), e.getMessage());
+                futures.add(null);
+                serializationFailures.add(StockPublishResult.Outcome.failed(message, e));
+            }
+        }
+
+        RedisException batchFailure = null;
+
+        try {
+            batch.execute();
+        } catch (RedisException e) {
+            batchFailure = e;
+        }
+
+        List<StockPublishResult.Outcome> outcomes = new ArrayList<>(messages.size());
+
+        for (int i = 0; i < messages.size(); i++) {
+            OrderStockUpdateMessage message = messages.get(i);
+            StockPublishResult.Outcome outcome = serializationFailures.get(i) != null
+                    ? serializationFailures.get(i)
+                    : toOutcome(message, futures.get(i), batchFailure);
+
+            if (outcome.published()) {
+                log.debug("Published {} message for order {} with ID {}", message.getUpdateType(), message.getOrderId(), outcome.messageId());
+            } else {
+                log.error("Failed to publish {} message for order {}. Error: {}", message.getUpdateType(), message.getOrderId(), outcome.error().getMessage());
             }
-        });
+
+            outcomes.add(outcome);
+        }
+
+        return new StockPublishResult(outcomes);
     }
 
     /**
-     * Publishes a stock update message to the stock update queue using the Redisson stream API.
-     * This method serializes the provided {@link StockUpdateMessage} into JSON format and writes
-     * it to a Redis stream for further processing.
-     *
-     * @param message the {@link StockUpdateMessage} containing stock update details
-     * @return the {@link StreamMessageId} of the published message
-     * @throws JsonProcessingException if the {@link ObjectMapper} fails to serialize the message
+     * Resolves the outcome of a message from the future of its pipelined {@code XADD}.
      */
-    private StreamMessageId publishStockUpdateMessages(StockUpdateMessage message) throws JsonProcessingException {
-        RStream<String, String> stream = redissonClient.getStream(MessageChannels.STOCK_UPDATE_QUEUE.getKey());
+    private StockPublishResult.Outcome toOutcome(OrderStockUpdateMessage message, RFuture<StreamMessageId> future, RedisException batchFailure) {
+        CompletableFuture<StreamMessageId> result = future.toCompletableFuture();
 
-        String messageJson = objectMapper.writeValueAsString(message);
+        if (result.isDone() && !result.isCompletedExceptionally()) {
+            return StockPublishResult.Outcome.published(message, result.join().toString());
+        }
 
-        StreamMessageId id = stream.add(StreamAddArgs.entry(StreamFields.MESSAGE.getField(), messageJson));
+        if (result.isCompletedExceptionally()) {
+            try {
+                result.join();
+            } catch (CompletionException e) {
+                return StockPublishResult.Outcome.failed(message, e.getCause() instanceof Exception cause ? cause : e);
+            }
+        }
 
-        log.debug("Published stock update message with ID {}. Message: {}", id, messageJson);
+        return StockPublishResult.Outcome.failed(message, batchFailure != null ? batchFailure : new IllegalStateException("Stock update message not published"));
+    }
 
-        return id;
+    private List<OrderStockUpdateMessage> toStockUpdateMessages(Set<OrderItem> orderItems, StockUpdateMessage.UpdateType updateType) {
+        return OrderStockUpdateMessage.forOrderItems(orderItems, updateType, updateType == StockUpdateMessage.UpdateType.RESERVE && allOrNothing);
     }
 }
@@ -0,0 +1,289 @@
+package com.company.app.ordermanager.messaging.service.impl.stock.redis;
+
+import com.company.app.ordermanager.messaging.redis.StockStreamPartitioner;
+import jakarta.annotation.PostConstruct;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.redisson.api.RScoredSortedSet;
+import org.redisson.api.RScript;
+import org.redisson.api.RedissonClient;
+import org.redisson.client.RedisException;
+import org.redisson.client.codec.StringCodec;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Distributes the stock update partition streams among the running stock update consumers,
+ * so that each partition, and therefore each order, is consumed by a single node at a time.
+ * <p>
+ * Consumers register in a sorted set scored by their last heartbeat. Partitions are assigned
+ * round-robin over the live members in name order, and ownership is held through a lease key
+ * per partition which expires if its owner stops renewing it. A partition assigned to another
+ * member is only taken over once its previous owner released it after finishing its in-flight
+ * batch, or once the lease of a failed owner expired, which preserves the order of the messages
+ * of each order across rebalances.
+ * <p>
+ * Lease renewals and rebalances are serialized, so a lease being released is never renewed again.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class StockPartitionCoordinator {
+    private static final String MEMBERS_KEY = "stock:consumers";
+    private static final String PARTITION_OWNER_KEY_PREFIX = "stock:partition:owner:";
+
+    /*
+     * KEYS[1] - partition lease key, ARGV[1] - member ID, ARGV[2] - lease duration in milliseconds.
+     * Acquires the lease if it is free, or renews it if it is already held by the member.
+     */
+    private static final String ACQUIRE_SCRIPT = """
+            local owner = redis.call('GET', KEYS[1])
+            if not owner or owner == ARGV[1] then
+                redis.call('SET', KEYS[1], ARGV[1], 'PX', ARGV[2])
+                return 1
+            end
+            return 0
+            """;
+
+    /*
+     * KEYS[1] - partition lease key, ARGV[1] - member ID.
+     * Releases the lease only if it is held by the member.
+     */
+    private static final String RELEASE_SCRIPT = """
+            if redis.call('GET', KEYS[1]) == ARGV[1] then
+                return redis.call('DEL', KEYS[1])
+            end
+            return 0
+            """;
+
+    private final RedissonClient redissonClient;
+    private final StockStreamPartitioner stockStreamPartitioner;
+
+    @Value("${messaging.stock.consumer.name:}")
+    private String configuredMemberId;
+
+    @Value("${messaging.stock.consumer.member-timeout:30s}")
+    private Duration memberTimeout;
+
+    @Value("${messaging.stock.consumer.rebalance-interval:5s}")
+    private Duration rebalanceInterval;
+
+    private final Set<Integer> ownedPartitions = ConcurrentHashMap.newKeySet();
+
+    @Getter
+    private String memberId;
+
+    private volatile boolean joined;
+    private long lastRebalance;
+
+    /**
+     * Resolves the identity of this consumer, which is kept across restarts so that a restarted node
+     * resumes its partition leases and its pending messages. The configured name is used if any,
+     * otherwise the host name, which is unique per container in a typical deployment.
+     */
+    @PostConstruct
+    private void init() {
+        if (StringUtils.hasText(configuredMemberId)) {
+            memberId = configuredMemberId;
+            return;
+        }
+
+        try {
+            memberId = "consumer-" + InetAddress.getLocalHost().getHostName();
+        } catch (UnknownHostException e) {
+            memberId = "consumer-" + UUID.randomUUID();
+
+            log.warn("Could not resolve host name, using random stock consumer name {}. Error: {}", memberId, e.getMessage());
+        }
+    }
+
+    /**
+     * Registers this node as a live stock update consumer. Partitions are acquired by the
+     * following calls to {@link #rebalance()}.
+     */
+    public void join() {
+        joined = true;
+        lastRebalance = 0;
+
+        heartbeat();
+
+        log.info("Stock consumer {} joined partition assignment ({} partitions)", memberId, stockStreamPartitioner.getPartitionCount());
+    }
+
+    /**
+     * Releases every partition owned by this node and removes it from the live members, so the
+     * remaining consumers can take over its partitions without waiting for the leases to expire.
+     * Must only be called once the consumer has finished processing its in-flight batch.
+     */
+    public synchronized void leave() {
+        joined = false;
+
+        try {
+            new ArrayList<>(ownedPartitions).forEach(this::releasePartition);
+            members().remove(memberId);
+
+            log.info("Stock consumer {} left partition assignment", memberId);
+        } catch (RedisException e) {
+            log.error("Failed to leave partition assignment. Error: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Refreshes the membership of this node and renews the leases of its partitions.
+     * Partitions whose lease could not be renewed are dropped, as another member may own them by now.
+     */
+    @Scheduled(fixedDelayString = "${messaging.stock.consumer.heartbeat-interval:5s}")
+    public synchronized void heartbeat() {
+        if (!joined) {
+            return;
+        }
+
+        try {
+            members().add(System.currentTimeMillis(), memberId);
+
+            for (Integer partition : ownedPartitions) {
+                if (!acquirePartition(partition)) {
+                    ownedPartitions.remove(partition);
+
+                    log.warn("Stock consumer {} lost the lease of partition {}", memberId, partition);
+                }
+            }
+        } catch (RedisException e) {
+            log.error("Failed to send stock consumer heartbeat. Error: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Checks whether the rebalance interval has elapsed since the last rebalance.
+     *
+     * @return {@code true} if {@link #rebalance()} should be called
+     */
+    public boolean isRebalanceDue() {
+        return System.currentTimeMillis() - lastRebalance >= rebalanceInterval.toMillis();
+    }
+
+    /**
+     * Releases the owned partitions that are no longer assigned to this node and acquires the
+     * assigned partitions whose lease is free. Must be called from the consumer thread, once every
+     * message read from the owned partitions has been processed and acknowledged.
+     *
+     * @return the partitions newly acquired by this call, whose pending messages must be recovered
+     */
+    public synchronized List<Integer> rebalance() {
+        lastRebalance = System.currentTimeMillis();
+
+        List<Integer> acquired = new ArrayList<>();
+
+        try {
+            Set<Integer> assigned = assignedPartitions();
+
+            for (Integer partition : ownedPartitions) {
+                if (!assigned.contains(partition)) {
+                    releasePartition(partition);
+                }
+            }
+
+            for (Integer partition : assigned) {
+                if (!ownedPartitions.contains(partition) && acquirePartition(partition)) {
+                    ownedPartitions.add(partition);
+                    acquired.add(partition);
+                }
+            }
+        } catch (RedisException e) {
+            log.error("Failed to rebalance stock partitions. Error: {}", e.getMessage());
+        }
+
+        if (!acquired.isEmpty()) {
+            log.info("Stock consumer {} acquired partitions {}, now owning {}", memberId, acquired, ownedPartitions);
+        }
+
+        return acquired;
+    }
+
+    /**
+     * Lists the partitions currently owned by this node.
+     *
+     * @return the owned partition indexes, in ascending order
+     */
+    public List<Integer> getOwnedPartitions() {
+        return ownedPartitions.stream().sorted().toList();
+    }
+
+    /**
+     * Determines the partitions assigned to this node among the live members. Members whose
+     * heartbeat is older than the member timeout are evicted from the membership first.
+     */
+    private Set<Integer> assignedPartitions() {
+        RScoredSortedSet<String> members = members();
+        long liveSince = System.currentTimeMillis() - memberTimeout.toMillis();
+
+        members.removeRangeByScore(Double.NEGATIVE_INFINITY, true, liveSince, false);
+
+        Collection<String> liveMembers = members.valueRange(liveSince, true, Double.POSITIVE_INFINITY, true);
+        List<String> sortedMembers = liveMembers.stream().sorted().toList();
+        int index = sortedMembers.indexOf(memberId);
+
+        if (index < 0) {
+            return Set.of();
+        }
+
+        Set<Integer> assigned = new HashSet<>();
+
+        for (int partition = 0; partition < stockStreamPartitioner.getPartitionCount(); partition++) {
+            if (partition % sortedMembers.size() == index) {
+                assigned.add(partition);
+            }
+        }
+
+        return assigned;
+    }
+
+    private boolean acquirePartition(int partition) {
+        Long acquired = redissonClient.getScript(StringCodec.INSTANCE).eval(
+                RScript.Mode.READ_WRITE,
+                ACQUIRE_SCRIPT,
+                RScript.ReturnType.INTEGER,
+                List.of(getPartitionOwnerKey(partition)),
+                memberId,
+                String.valueOf(memberTimeout.toMillis())
+        );
+
+        return acquired != null && acquired == 1;
+    }
+
+    private void releasePartition(int partition) {
+        ownedPartitions.remove(partition);
+
+        redissonClient.getScript(StringCodec.INSTANCE).eval(
+                RScript.Mode.READ_WRITE,
+                RELEASE_SCRIPT,
+                RScript.ReturnType.INTEGER,
+                List.of(getPartitionOwnerKey(partition)),
+                memberId
+        );
+
+        log.info("Stock consumer {} released partition {}", memberId, partition);
+    }
+
+    private RScoredSortedSet<String> members() {
+        return redissonClient.getScoredSortedSet(MEMBERS_KEY, StringCodec.INSTANCE);
+    }
+
+    private String getPartitionOwnerKey(int partition) {
+        return PARTITION_OWNER_KEY_PREFIX + partition;
+    }
+}
@@ -0,0 +1,323 @@
+package com.company.app.ordermanager.messaging.service.impl.stock.redis;
+
+import com.company.app.ordermanager.messaging.redis.StockStreamPartitioner;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.redisson.api.AutoClaimResult;
+import org.redisson.api.RMap;
+import org.redisson.api.RScoredSortedSet;
+import org.redisson.api.RStream;
+import org.redisson.api.RedissonClient;
+import org.redisson.api.StreamConsumer;
+import org.redisson.api.StreamMessageId;
+import org.redisson.client.RedisException;
+import org.redisson.client.codec.LongCodec;
+import org.redisson.client.codec.StringCodec;
+import org.redisson.codec.CompositeCodec;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Recovers stock update messages that have been delivered to a consumer but never acknowledged.
+ * <p>
+ * Messages whose processing failed with a recoverable error are scheduled for a retry in a delay
+ * set, with an exponential backoff based on the number of attempts so far. Messages stuck in the
+ * pending entries list for longer than the reclaim idle time, e.g. because an acknowledgement was
+ * lost, are claimed as well. Both stages run on the scheduler and only cover the partitions owned by
+ * this node; the claimed messages are handed over to the consumer thread, which dispatches them to
+ * the workers in bulk. Consumers which have been idle for a long time and hold no pending message
+ * are removed from the consumer groups.
+ * <p>
+ * Exposes the {@code stock.consumer.retry.scheduled}, {@code stock.consumer.retry.exhausted} and
+ * {@code stock.consumer.reclaimed} counters.
+ */
+@Slf4j
+@Component
+public class StockPendingMessageReclaimer {
+    private static final String RETRY_DELAY_KEY = "stock:retry:delayed";
+    private static final String RETRY_ATTEMPTS_KEY = "stock:retry:attempts";
+    private static final String MEMBER_SEPARATOR = "|";
+
+    private final RedissonClient redissonClient;
+    private final StockStreamPartitioner stockStreamPartitioner;
+    private final StockPartitionCoordinator stockPartitionCoordinator;
+
+    private final Counter retryScheduledCounter;
+    private final Counter retryExhaustedCounter;
+    private final Counter reclaimedCounter;
+
+    private final BlockingQueue<Map<String, Map<StreamMessageId, Map<String, String>>>> reclaimedMessages = new LinkedBlockingQueue<>();
+
+    @Value("${messaging.stock.consumer.batch-size:100}")
+    private int batchSize;
+
+    @Value("${messaging.stock.consumer.max-attempts:5}")
+    private int maxAttempts;
+
+    @Value("${messaging.stock.consumer.retry-initial-backoff:1s}")
+    private Duration retryInitialBackoff;
+
+    @Value("${messaging.stock.consumer.retry-max-backoff:1m}")
+    private Duration retryMaxBackoff;
+
+    @Value("${messaging.stock.consumer.reclaim-idle-time:5m}")
+    private Duration reclaimIdleTime;
+
+    @Value("${messaging.stock.consumer.dead-consumer-timeout:1h}")
+    private Duration deadConsumerTimeout;
+
+    public StockPendingMessageReclaimer(RedissonClient redissonClient,
+                                        StockStreamPartitioner stockStreamPartitioner,
+                                        StockPartitionCoordinator stockPartitionCoordinator,
+                                        MeterRegistry meterRegistry) {
+        this.redissonClient = redissonClient;
+        this.stockStreamPartitioner = stockStreamPartitioner;
+        this.stockPartitionCoordinator = stockPartitionCoordinator;
+
+        this.retryScheduledCounter = Counter.builder("stock.consumer.retry.scheduled")
+                .description("Number of stock update messages scheduled for a delayed retry")
+                .register(meterRegistry);
+        this.retryExhaustedCounter = Counter.builder("stock.consumer.retry.exhausted")
+                .description("Number of stock update messages given up after the maximum number of attempts")
+                .register(meterRegistry);
+        this.reclaimedCounter = Counter.builder("stock.consumer.reclaimed")
+                .description("Number of pending stock update messages claimed for reprocessing")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Schedules a failed message for a retry after an exponential backoff. The message stays in the
+     * pending entries list of this consumer until it is claimed again by {@link #reclaim()}.
+     *
+     * @param streamKey the key of the partition stream of the message
+     * @param messageId the ID of the message
+     * @return {@code true} if the retry has been scheduled, {@code false} if the maximum number of
+     * attempts has been reached and the message should be given up
+     * @throws RedisException if the retry could not be recorded
+     */
+    public boolean scheduleRetry(String streamKey, StreamMessageId messageId) {
+        String member = toMember(streamKey, messageId);
+        long attempt = retryAttempts().addAndGet(member, 1L);
+
+        if (attempt >= maxAttempts) {
+            retryExhaustedCounter.increment();
+            return false;
+        }
+
+        long dueAt = System.currentTimeMillis() + backoff(attempt).toMillis();
+        retryDelays().add(dueAt, member);
+        retryScheduledCounter.increment();
+
+        log.debug("Scheduled retry {} of stock update message {} on stream {} in {} ms",
+                attempt,
+                messageId,
+                streamKey,
+                dueAt - System.currentTimeMillis());
+
+        return true;
+    }
+
+    /**
+     * Forgets the retry attempts of messages which have been acknowledged or given up.
+     *
+     * @param streamKey  the key of the partition stream of the messages
+     * @param messageIds the IDs of the messages
+     */
+    public void clearRetries(String streamKey, Collection<StreamMessageId> messageIds) {
+        String[] members = messageIds.stream().map(messageId -> toMember(streamKey, messageId)).toArray(String[]::new);
+
+        retryAttempts().fastRemove(members);
+    }
+
+    /**
+     * Takes the next set of reclaimed messages waiting to be processed, without blocking.
+     *
+     * @return the reclaimed messages keyed by stream key and stream message ID, or {@code null} if there is none
+     */
+    public Map<String, Map<StreamMessageId, Map<String, String>>> pollReclaimedMessages() {
+        return reclaimedMessages.poll();
+    }
+
+    /**
+     * Claims the messages of the owned partitions whose retry is due, as well as the messages that
+     * have been pending for longer than the reclaim idle time, and hands them over to the consumer.
+     * At most one batch of each kind is claimed per partition and run.
+     */
+    @Scheduled(fixedDelayString = "${messaging.stock.consumer.reclaim-interval:1s}")
+    public void reclaim() {
+        List<Integer> ownedPartitions = stockPartitionCoordinator.getOwnedPartitions();
+
+        if (ownedPartitions.isEmpty()) {
+            return;
+        }
+
+        try {
+            claimDueRetries(ownedPartitions);
+
+            for (Integer partition : ownedPartitions) {
+                claimIdleMessages(stockStreamPartitioner.streamKey(partition));
+            }
+        } catch (RedisException e) {
+            log.error("Failed to reclaim pending stock update messages. Error: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Removes the consumers of the owned partition streams which have been idle for longer than the
+     * dead consumer timeout. Consumers still holding pending messages are kept until their messages
+     * have been reclaimed, as removing them would drop their pending entries.
+     */
+    @Scheduled(fixedDelayString = "${messaging.stock.consumer.dead-consumer-check-interval:10m}")
+    public void removeDeadConsumers() {
+        for (Integer partition : stockPartitionCoordinator.getOwnedPartitions()) {
+            RStream<String, String> stream = redissonClient.getStream(stockStreamPartitioner.streamKey(partition));
+
+            try {
+                for (StreamConsumer consumer : stream.listConsumers(RedisStreamStockMessageConsumer.GROUP_NAME)) {
+                    if (!consumer.getName().equals(stockPartitionCoordinator.getMemberId())
+                            && consumer.getPending() == 0
+                            && consumer.getIdleTime() > deadConsumerTimeout.toMillis()) {
+                        stream.removeConsumer(RedisStreamStockMessageConsumer.GROUP_NAME, consumer.getName());
+
+                        log.info("Removed dead stock consumer {} from stream {}", consumer.getName(), stream.getName());
+                    }
+                }
+            } catch (RedisException e) {
+                log.error("Failed to remove dead consumers from stream {}. Error: {}", stream.getName(), e.getMessage());
+            }
+        }
+    }
+
+    private void claimDueRetries(List<Integer> ownedPartitions) {
+        RScoredSortedSet<String> retryDelays = retryDelays();
+        Collection<String> dueMembers = retryDelays.valueRange(0, true, System.currentTimeMillis(), true, 0, batchSize);
+
+        if (dueMembers.isEmpty()) {
+            return;
+        }
+
+        List<String> ownedStreamKeys = ownedPartitions.stream().map(stockStreamPartitioner::streamKey).toList();
+        Map<String, List<StreamMessageId>> dueIds = new LinkedHashMap<>();
+        List<String> claimedMembers = new ArrayList<>();
+
+        for (String member : dueMembers) {
+            int separator = member.lastIndexOf(MEMBER_SEPARATOR);
+            String streamKey = member.substring(0, separator);
+
+            // Retries of partitions owned by another node are claimed by their owner
+            if (ownedStreamKeys.contains(streamKey)) {
+                dueIds.computeIfAbsent(streamKey, key -> new ArrayList<>())
+                        .add(parseMessageId(member.substring(separator + 1)));
+                claimedMembers.add(member);
+            }
+        }
+
+        Map<String, Map<StreamMessageId, Map<String, String>>> claimed = new LinkedHashMap<>();
+
+        dueIds.forEach((streamKey, messageIds) -> {
+            Map<StreamMessageId, Map<String, String>> messages = redissonClient.<String, String>getStream(streamKey).claim(
+                    RedisStreamStockMessageConsumer.GROUP_NAME,
+                    stockPartitionCoordinator.getMemberId(),
+                    0,
+                    TimeUnit.MILLISECONDS,
+                    messageIds.toArray(new StreamMessageId[0])
+            );
+
+            if (!messages.isEmpty()) {
+                claimed.put(streamKey, messages);
+            }
+        });
+
+        retryDelays.removeAll(claimedMembers);
+
+        handOver(claimed);
+    }
+
+    private void claimIdleMessages(String streamKey) {
+        AutoClaimResult<String, String> result = redissonClient.<String, String>getStream(streamKey).autoClaim(
+                RedisStreamStockMessageConsumer.GROUP_NAME,
+                stockPartitionCoordinator.getMemberId(),
+                reclaimIdleTime.toMillis(),
+                TimeUnit.MILLISECONDS,
+                StreamMessageId.MIN,
+                batchSize
+        );
+
+        if (result.getMessages().isEmpty()) {
+            return;
+        }
+
+        // Messages waiting for a scheduled retry are pending on purpose
+        List<StreamMessageId> messageIds = new ArrayList<>(result.getMessages().keySet());
+        List<Double> retryScores = retryDelays().getScore(messageIds.stream().map(messageId -> toMember(streamKey, messageId)).toList());
+
+        Map<StreamMessageId, Map<String, String>> messages = new LinkedHashMap<>();
+
+        for (int i = 0; i < messageIds.size(); i++) {
+            if (retryScores.get(i) == null) {
+                StreamMessageId messageId = messageIds.get(i);
+
+                retryAttempts().addAndGet(toMember(streamKey, messageId), 1L);
+                messages.put(messageId, result.getMessages().get(messageId));
+            }
+        }
+
+        if (!messages.isEmpty()) {
+            log.warn("Claimed {} stock update messages pending for more than {} on stream {}", messages.size(), reclaimIdleTime, streamKey);
+
+            handOver(Map.of(streamKey, messages));
+        }
+    }
+
+    private void handOver(Map<String, Map<StreamMessageId, Map<String, String>>> messages) {
+        if (messages.isEmpty()) {
+            return;
+        }
+
+        reclaimedCounter.increment(messages.values().stream().mapToInt(Map::size).sum());
+        reclaimedMessages.add(messages);
+    }
+
+    /**
+     * Computes the delay before a retry, doubling with each attempt up to the maximum backoff,
+     * with a random jitter of up to a quarter of the delay so retries of the same product spread out.
+     */
+    private Duration backoff(long attempt) {
+        long delay = retryInitialBackoff.toMillis() << Math.min(attempt - 1, 20);
+        delay = Math.min(delay, retryMaxBackoff.toMillis());
+
+        return Duration.ofMillis(delay + ThreadLocalRandom.current().nextLong(delay / 4 + 1));
+    }
+
+    private RScoredSortedSet<String> retryDelays() {
+        return redissonClient.getScoredSortedSet(RETRY_DELAY_KEY, StringCodec.INSTANCE);
+    }
+
+    private RMap<String, Long> retryAttempts() {
+        return redissonClient.getMap(RETRY_ATTEMPTS_KEY, new CompositeCodec(StringCodec.INSTANCE, LongCodec.INSTANCE));
+    }
+
+    private StreamMessageId parseMessageId(String messageId) {
+        int separator = messageId.indexOf('-');
+
+        return new StreamMessageId(Long.parseLong(messageId.substring(0, separator)), Long.parseLong(messageId.substring(separator + 1)));
+    }
+
+    private String toMember(String streamKey, StreamMessageId messageId) {
+        return Objects.requireNonNull(streamKey) + MEMBER_SEPARATOR + messageId;
+    }
+}
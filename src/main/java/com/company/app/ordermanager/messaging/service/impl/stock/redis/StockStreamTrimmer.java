@@ -0,0 +1,160 @@
+package com.company.app.ordermanager.messaging.service.impl.stock.redis;
+
+import com.company.app.ordermanager.messaging.redis.StockStreamPartitioner;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.redisson.api.PendingResult;
+import org.redisson.api.RStream;
+import org.redisson.api.RedissonClient;
+import org.redisson.api.StreamGroup;
+import org.redisson.api.StreamMessageId;
+import org.redisson.api.stream.StreamTrimArgs;
+import org.redisson.client.RedisException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Periodically trims the stock update partition streams owned by this node, removing only the
+ * entries every consumer group is done with.
+ * <p>
+ * The safe trim point of a stream is the lowest of, across its consumer groups, the last delivered
+ * ID and the ID of the oldest pending entry, so neither undelivered nor unacknowledged entries are
+ * ever removed, however large the backlog is. Streams are trimmed approximately ({@code MINID ~})
+ * with a bounded number of evictions per call, so a trim never blocks the Redis server for long.
+ * <p>
+ * Exposes the {@code stock.stream.length} gauge, tagged by partition, and the
+ * {@code stock.stream.trimmed} counter.
+ */
+@Slf4j
+@Component
+public class StockStreamTrimmer {
+    private static final Comparator<StreamMessageId> MESSAGE_ID_ORDER =
+            Comparator.comparingLong(StreamMessageId::getId0).thenComparingLong(StreamMessageId::getId1);
+
+    private final RedissonClient redissonClient;
+    private final StockStreamPartitioner stockStreamPartitioner;
+    private final StockPartitionCoordinator stockPartitionCoordinator;
+
+    private final List<AtomicLong> streamLengths;
+    private final Counter trimmedCounter;
+
+    @Value("${messaging.stock.trim.chunk-size:1000}")
+    private int chunkSize;
+
+    @Value("${messaging.stock.trim.max-chunks:10}")
+    private int maxChunks;
+
+    public StockStreamTrimmer(RedissonClient redissonClient,
+                              StockStreamPartitioner stockStreamPartitioner,
+                              StockPartitionCoordinator stockPartitionCoordinator,
+                              MeterRegistry meterRegistry) {
+        this.redissonClient = redissonClient;
+        this.stockStreamPartitioner = stockStreamPartitioner;
+        this.stockPartitionCoordinator = stockPartitionCoordinator;
+
+        this.streamLengths = new ArrayList<>(stockStreamPartitioner.getPartitionCount());
+
+        for (int partition = 0; partition < stockStreamPartitioner.getPartitionCount(); partition++) {
+            AtomicLong streamLength = new AtomicLong();
+            streamLengths.add(streamLength);
+
+            Gauge.builder("stock.stream.length", streamLength, AtomicLong::get)
+                    .description("Number of entries of the stock update partition stream, as of the last trim")
+                    .tag("partition", String.valueOf(partition))
+                    .register(meterRegistry);
+        }
+
+        this.trimmedCounter = Counter.builder("stock.stream.trimmed")
+                .description("Number of entries trimmed from the stock update partition streams")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Trims every partition stream owned by this node up to its safe trim point.
+     */
+    @Scheduled(fixedDelayString = "${messaging.stock.trim.interval:30s}")
+    public void trimOwnedStreams() {
+        for (Integer partition : stockPartitionCoordinator.getOwnedPartitions()) {
+            RStream<String, String> stream = redissonClient.getStream(stockStreamPartitioner.streamKey(partition));
+
+            try {
+                long trimmed = trim(stream);
+
+                streamLengths.get(partition).set(stream.size());
+
+                if (trimmed > 0) {
+                    trimmedCounter.increment(trimmed);
+
+                    log.debug("Trimmed {} entries from stream {}", trimmed, stream.getName());
+                }
+            } catch (RedisException e) {
+                log.error("Failed to trim stream {}. Error: {}", stream.getName(), e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Trims a stream up to its safe trim point, in chunks of at most the configured number of
+     * evictions and up to the configured number of chunks.
+     *
+     * @param stream the stream to trim
+     * @return the number of entries removed
+     */
+    private long trim(RStream<String, String> stream) {
+        StreamMessageId minId = safeTrimId(stream);
+
+        if (minId == null) {
+            return 0;
+        }
+
+        long trimmed = 0;
+
+        for (int chunk = 0; chunk < maxChunks; chunk++) {
+            long removed = stream.trimNonStrict(StreamTrimArgs.minId(minId).limit(chunkSize));
+            trimmed += removed;
+
+            if (removed == 0) {
+                break;
+            }
+        }
+
+        return trimmed;
+    }
+
+    /**
+     * Computes the ID below which every entry of the stream has been delivered to and acknowledged
+     * by every consumer group.
+     *
+     * @param stream the stream to inspect
+     * @return the safe trim point, or {@code null} if the stream has no consumer group
+     */
+    private StreamMessageId safeTrimId(RStream<String, String> stream) {
+        StreamMessageId minId = null;
+
+        for (StreamGroup group : stream.listGroups()) {
+            StreamMessageId groupMinId = group.getLastDeliveredId();
+
+            if (group.getPending() > 0) {
+                PendingResult pendingInfo = stream.getPendingInfo(group.getName());
+
+                if (pendingInfo.getLowestId() != null && MESSAGE_ID_ORDER.compare(pendingInfo.getLowestId(), groupMinId) < 0) {
+                    groupMinId = pendingInfo.getLowestId();
+                }
+            }
+
+            if (minId == null || MESSAGE_ID_ORDER.compare(groupMinId, minId) < 0) {
+                minId = groupMinId;
+            }
+        }
+
+        return minId;
+    }
+}
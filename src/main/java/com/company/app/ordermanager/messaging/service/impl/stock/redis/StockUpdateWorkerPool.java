@@ -0,0 +1,197 @@
+package com.company.app.ordermanager.messaging.service.impl.stock.redis;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.Assert;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Pool of serial workers processing groups of stock updates in parallel.
+ * <p>
+ * Each worker owns a bounded FIFO queue, and all the tasks with the same routing key are routed to
+ * the same worker by hashing the key, so tasks with the same key are applied in submission order
+ * while different keys are processed concurrently. Submitting blocks while the target
+ * queue is full, which applies backpressure to the stream reader.
+ * <p>
+ * Exposes the following metrics:
+ * <ul>
+ *   <li>{@code stock.consumer.worker.queue.depth} - number of queued tasks, tagged by worker.</li>
+ *   <li>{@code stock.consumer.worker.busy} - number of workers currently running a task.</li>
+ *   <li>{@code stock.consumer.worker.busy.time} - cumulative time spent running tasks, in seconds.
+ *   Its rate divided by the worker count is the pool utilization.</li>
+ * </ul>
+ */
+@Slf4j
+@Component
+public class StockUpdateWorkerPool {
+    private static final String WORKER_THREAD_NAME_PREFIX = "stock-worker-";
+
+    private final List<Worker> workers;
+    private final AtomicLong busyNanos = new AtomicLong();
+
+    private final Object idleMonitor = new Object();
+    private long inFlight;
+
+    public StockUpdateWorkerPool(@Value("${messaging.stock.consumer.workers:4}") int workerCount,
+                                 @Value("${messaging.stock.consumer.worker-queue-capacity:1000}") int queueCapacity,
+                                 MeterRegistry meterRegistry) {
+        Assert.isTrue(workerCount > 0, "Stock worker count must be greater than 0");
+        Assert.isTrue(queueCapacity > 0, "Stock worker queue capacity must be greater than 0");
+
+        workers = new ArrayList<>(workerCount);
+
+        for (int i = 0; i < workerCount; i++) {
+            Worker worker = new Worker(WORKER_THREAD_NAME_PREFIX + i, new ArrayBlockingQueue<>(queueCapacity));
+            workers.add(worker);
+
+            Gauge.builder("stock.consumer.worker.queue.depth", worker.queue, BlockingQueue::size)
+                    .description("Number of stock update tasks waiting for a worker")
+                    .tag("worker", String.valueOf(i))
+                    .register(meterRegistry);
+        }
+
+        Gauge.builder("stock.consumer.worker.busy", workers, pool -> pool.stream().filter(worker -> worker.busy).count())
+                .description("Number of stock update workers currently running a task")
+                .register(meterRegistry);
+
+        FunctionCounter.builder("stock.consumer.worker.busy.time", busyNanos, nanos -> nanos.get() / (double) TimeUnit.SECONDS.toNanos(1))
+                .description("Cumulative time spent by stock update workers running tasks")
+                .baseUnit("seconds")
+                .register(meterRegistry);
+
+        workers.forEach(worker -> worker.thread.start());
+    }
+
+    /**
+     * Queues a task on the worker owning the given routing key, blocking while its queue is full.
+     *
+     * @param routingKey the routing key of the updates the task applies, typically the order ID of its first update
+     * @param task       the task to run
+     * @throws InterruptedException if the current thread is interrupted while waiting for queue space
+     */
+    public void submit(UUID routingKey, Runnable task) throws InterruptedException {
+        Assert.notNull(routingKey, "Routing key must not be null");
+
+        Worker worker = workers.get(Math.floorMod(routingKey.hashCode(), workers.size()));
+
+        synchronized (idleMonitor) {
+            inFlight++;
+        }
+
+        try {
+            worker.queue.put(task);
+        } catch (InterruptedException e) {
+            completed();
+            throw e;
+        }
+    }
+
+    /**
+     * Waits until every submitted task has completed.
+     *
+     * @param timeout the maximum time to wait
+     * @return {@code true} if the pool is idle, {@code false} if the timeout elapsed first
+     * @throws InterruptedException if the current thread is interrupted while waiting
+     */
+    public boolean awaitIdle(Duration timeout) throws InterruptedException {
+        long deadline = System.nanoTime() + timeout.toNanos();
+
+        synchronized (idleMonitor) {
+            while (inFlight > 0) {
+                long remaining = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+
+                if (remaining <= 0) {
+                    return false;
+                }
+
+                idleMonitor.wait(remaining);
+            }
+
+            return true;
+        }
+    }
+
+    /**
+     * Stops the worker threads. Tasks still queued are discarded, their messages stay pending.
+     */
+    @PreDestroy
+    public void shutdown() {
+        workers.forEach(worker -> worker.thread.interrupt());
+    }
+
+    /**
+     * Gets the number of workers of the pool.
+     *
+     * @return the worker count
+     */
+    public int getWorkerCount() {
+        return workers.size();
+    }
+
+    private void completed() {
+        synchronized (idleMonitor) {
+            inFlight--;
+
+            if (inFlight == 0) {
+                idleMonitor.notifyAll();
+            }
+        }
+    }
+
+    /**
+     * Single worker thread running the tasks of its queue one at a time, in order.
+     */
+    private final class Worker implements Runnable {
+        private final BlockingQueue<Runnable> queue;
+        private final Thread thread;
+
+        private volatile boolean busy;
+
+        private Worker(String name, BlockingQueue<Runnable> queue) {
+            this.queue = queue;
+            this.thread = new Thread(this, name);
+            this.thread.setDaemon(true);
+        }
+
+        @Override
+        public void run() {
+            while (!Thread.currentThread().isInterrupted()) {
+                Runnable task;
+
+                try {
+                    task = queue.take();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+
+                busy = true;
+                long start = System.nanoTime();
+
+                try {
+                    task.run();
+                } catch (Exception e) {
+                    log.error("Stock update task failed on {}. Error: {}", thread.getName(), e.getMessage());
+                } finally {
+                    busyNanos.addAndGet(System.nanoTime() - start);
+                    busy = false;
+
+                    completed();
+                }
+            }
+        }
+    }
+}
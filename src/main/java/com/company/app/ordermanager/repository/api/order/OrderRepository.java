@@ -3,17 +3,59 @@ package com.company.app.ordermanager.repository.api.order;
 import com.company.app.ordermanager.entity.order.Order;
 import com.company.app.ordermanager.entity.order.QOrder;
 import com.querydsl.core.types.dsl.StringExpression;
+import com.company.app.ordermanager.entity.orderitem.OrderItem;
+import com.company.app.ordermanager.entity.product.Product;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.querydsl.QuerydslPredicateExecutor;
 import org.springframework.data.querydsl.binding.QuerydslBinderCustomizer;
 import org.springframework.data.querydsl.binding.QuerydslBindings;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.Instant;
+import java.util.Collection;
 import java.util.Iterator;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
 
-public interface OrderRepository extends JpaRepository<Order, UUID>, QuerydslPredicateExecutor<Order>, QuerydslBinderCustomizer<QOrder> {
+public interface OrderRepository extends JpaRepository<Order, UUID>, QuerydslPredicateExecutor<Order>, QuerydslBinderCustomizer<QOrder>, OrderRepositoryCustom {
+    /**
+     * Stable order of the keyset pagination, newest first. The ID breaks ties between orders
+     * created at the same time, and both columns are covered by the {@code idx_orders_created_at} index.
+     * See {@link OrderRepositoryCustom#scrollSummariesNewestFirst}.
+     */
+    Sort KEYSET_SORT = Sort.by(Sort.Order.desc("createdAt"), Sort.Order.desc("id"));
+
+    /**
+     * Retrieves an {@link Order} with its {@link OrderItem}s and their {@link Product}s in a single query.
+     *
+     * @param id the unique identifier of the order
+     * @return the order with its items, if found
+     */
+    @Transactional(readOnly = true)
+    @EntityGraph(attributePaths = {"orderItems", "orderItems.product"})
+    Optional<Order> findWithItemsById(UUID id);
+
+    /**
+     * Retrieves which of the given identifiers belong to existing {@link Order}s, from the primary key index only.
+     *
+     * @param ids the identifiers to look up
+     * @return the identifiers of the existing orders
+     */
+    @Query("SELECT o.id FROM Order o WHERE o.id IN :ids")
+    Set<UUID> findExistingIds(@Param("ids") Collection<UUID> ids);
+
+    /**
+     * Counts the {@link Order}s which have not been deleted.
+     *
+     * @return the number of orders not deleted
+     */
+    long countByDeletedAtIsNull();
+
     @Override
     default void customize(QuerydslBindings bindings, QOrder order) {
         /*
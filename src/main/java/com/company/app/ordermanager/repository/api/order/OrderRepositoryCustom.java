@@ -0,0 +1,86 @@
+package com.company.app.ordermanager.repository.api.order;
+
+import com.company.app.ordermanager.dto.order.OrderCursor;
+import com.company.app.ordermanager.dto.order.OrderExportRow;
+import com.company.app.ordermanager.dto.order.OrderSummaryDto;
+import com.company.app.ordermanager.dto.orderitem.OrderItemStatusChange;
+import com.company.app.ordermanager.entity.order.Order;
+import com.querydsl.core.types.Predicate;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Window;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+public interface OrderRepositoryCustom {
+    /**
+     * Retrieves a page of {@link OrderSummaryDto} projections of the {@link Order}s matching the
+     * predicate, without loading any entity. The count query is skipped when the page is not full.
+     *
+     * @param predicate the condition to filter orders
+     * @param pageable  the pagination and sorting information
+     * @return the page of matching order summaries
+     */
+    Page<OrderSummaryDto> findSummaries(Predicate predicate, Pageable pageable);
+
+    /**
+     * Retrieves {@link OrderSummaryDto} projections of the {@link Order}s matching the predicate
+     * which follow a cursor, newest first. The cursor is applied as a {@code (createdAt, id)}
+     * condition rather than an offset, and no count query is run, so every page costs the same.
+     *
+     * @param predicate the condition to filter orders
+     * @param after     the cursor of the last order of the previous page, or null for the first page
+     * @param limit     the maximum number of orders to retrieve
+     * @return the window of matching order summaries, telling whether more orders follow
+     */
+    Window<OrderSummaryDto> scrollSummariesNewestFirst(Predicate predicate, OrderCursor after, int limit);
+
+    /**
+     * Streams {@link OrderExportRow} projections of the {@link Order}s matching the predicate, with one
+     * row per item when items are included, in primary key order so the rows of an order are adjacent.
+     * Rows are read from a forward-only cursor, fetching the given number of rows at a time, and no
+     * entity is managed, so memory use does not depend on the number of rows. The stream must be
+     * consumed and closed within the read-only transaction it was opened in.
+     *
+     * @param predicate    the condition to filter orders
+     * @param includeItems whether to return one row per item rather than per order
+     * @param fetchSize    the number of rows fetched from the database at a time
+     * @return the stream of export rows
+     */
+    Stream<OrderExportRow> streamExportRows(Predicate predicate, boolean includeItems, int fetchSize);
+
+    /**
+     * Retrieves a chunk of {@link Order}s in primary key order, following the given ID. The previous
+     * chunk is skipped with a {@code id > after} condition rather than an offset, so every chunk costs
+     * the same. Deleted orders are skipped, and the items of the orders are not loaded.
+     *
+     * @param after the ID of the last order of the previous chunk, or null for the first chunk
+     * @param limit the maximum number of orders to retrieve
+     * @return the orders of the chunk, read-only
+     * @throws IllegalArgumentException if limit is not positive
+     */
+    List<Order> findChunkAfter(UUID after, int limit);
+
+    /**
+     * Applies status transitions of order items to the item counts and status of their
+     * {@link Order}s, with relative updates batched per order, bypassing the persistence context.
+     * Must run in the transaction applying the transitions themselves.
+     *
+     * @param changes the applied status transitions of the order items
+     * @throws IllegalArgumentException if {@code changes} is null
+     */
+    void applyItemStatusChanges(List<OrderItemStatusChange> changes);
+
+    /**
+     * Persists new {@link Order}s along with their items, keeping the identifiers already assigned.
+     * Unlike {@code saveAll}, an assigned identifier does not cause a lookup of the order first.
+     * The inserts are sent in JDBC batches on flush.
+     *
+     * @param orders the new orders to persist
+     * @throws IllegalArgumentException if {@code orders} is null
+     */
+    void persistAll(Collection<Order> orders);
+}
@@ -0,0 +1,211 @@
+package com.company.app.ordermanager.repository.api.order;
+
+import com.company.app.ordermanager.dto.order.OrderCursor;
+import com.company.app.ordermanager.dto.order.OrderExportRow;
+import com.company.app.ordermanager.dto.order.OrderSummaryDto;
+import com.company.app.ordermanager.dto.orderitem.OrderItemStatusChange;
+import com.company.app.ordermanager.entity.order.Order;
+import com.company.app.ordermanager.entity.order.QOrder;
+import com.company.app.ordermanager.entity.orderitem.OrderItemStatus;
+import com.company.app.ordermanager.entity.orderitem.QOrderItem;
+import com.company.app.ordermanager.repository.api.order.OrderRepositoryCustom;
+import com.querydsl.core.types.ConstructorExpression;
+import com.querydsl.core.types.Predicate;
+import com.querydsl.core.types.Projections;
+import com.querydsl.core.types.dsl.PathBuilder;
+import com.querydsl.jpa.impl.JPAQuery;
+import jakarta.persistence.EntityManager;
+import org.hibernate.jpa.AvailableHints;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Window;
+import org.springframework.data.jpa.repository.support.Querydsl;
+import org.springframework.data.support.PageableExecutionUtils;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.util.Assert;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+/**
+ * Querydsl implementation of the projection queries and JDBC implementation of the bulk
+ * operations of the order repository.
+ * UUIDs are bound from their string form, which MariaDB converts to its UUID column type.
+ */
+public class OrderRepositoryCustomImpl implements OrderRepositoryCustom {
+    private static final QOrder ORDER = QOrder.order;
+    private static final QOrderItem ORDER_ITEM = QOrderItem.orderItem;
+
+    private static final ConstructorExpression<OrderSummaryDto> SUMMARY = Projections.constructor(
+            OrderSummaryDto.class, ORDER.id, ORDER.customerName, ORDER.description, ORDER.status, ORDER.createdAt);
+
+    private static final ConstructorExpression<OrderExportRow> EXPORT_ROW = Projections.constructor(
+            OrderExportRow.class, ORDER.id, ORDER.customerName, ORDER.description, ORDER.status, ORDER.createdAt);
+
+    private static final ConstructorExpression<OrderExportRow> EXPORT_ROW_WITH_ITEM = Projections.constructor(
+            OrderExportRow.class, ORDER.id, ORDER.customerName, ORDER.description, ORDER.status, ORDER.createdAt,
+            ORDER_ITEM.id, ORDER_ITEM.product.id, ORDER_ITEM.quantity, ORDER_ITEM.purchasePrice, ORDER_ITEM.status);
+
+    private static final String ADJUST_ITEM_COUNTS_SQL = "UPDATE orders SET " +
+            "processing_items = processing_items + ?, " +
+            "processing_failed_items = processing_failed_items + ?, " +
+            "confirmed_items = confirmed_items + ?, " +
+            "cancelling_items = cancelling_items + ?, " +
+            "cancelled_items = cancelled_items + ? " +
+            "WHERE id = ?";
+
+    /*
+     * Same derivation as OrderItemCounts.toStatus(). Run as a separate statement, as databases
+     * disagree on whether an assignment sees the columns updated by the previous ones.
+     */
+    private static final String UPDATE_STATUS_SQL = "UPDATE orders SET status = CASE " +
+            "WHEN confirmed_items = processing_items + processing_failed_items + confirmed_items + cancelling_items + cancelled_items THEN 'CONFIRMED' " +
+            "WHEN cancelled_items = processing_items + processing_failed_items + confirmed_items + cancelling_items + cancelled_items THEN 'CANCELLED' " +
+            "WHEN processing_items + cancelling_items > 0 THEN 'PROCESSING' " +
+            "WHEN processing_failed_items + cancelled_items > 0 THEN 'PARTIALLY_CONFIRMED' " +
+            "ELSE 'UNKNOWN' END " +
+            "WHERE id = ?";
+
+    private final EntityManager entityManager;
+    private final JdbcTemplate jdbcTemplate;
+    private final Querydsl querydsl;
+
+    public OrderRepositoryCustomImpl(EntityManager entityManager, JdbcTemplate jdbcTemplate) {
+        this.entityManager = entityManager;
+        this.jdbcTemplate = jdbcTemplate;
+        // Sort on the same alias as the queried QOrder, "order" being a reserved word
+        this.querydsl = new Querydsl(entityManager, new PathBuilder<>(Order.class, ORDER.getMetadata()));
+    }
+
+    @Override
+    public Page<OrderSummaryDto> findSummaries(Predicate predicate, Pageable pageable) {
+        Assert.notNull(pageable, "Pageable must not be null");
+
+        JPAQuery<OrderSummaryDto> query = new JPAQuery<>(entityManager).select(SUMMARY).from(ORDER).where(predicate);
+        List<OrderSummaryDto> content = querydsl.applyPagination(pageable, query).fetch();
+
+        return PageableExecutionUtils.getPage(content, pageable,
+                () -> new JPAQuery<>(entityManager).select(ORDER.count()).from(ORDER).where(predicate).fetchOne());
+    }
+
+    /**
+     * Retrieves one more order than the limit, to tell whether more orders follow without a count.
+     * The order of the query is the {@code OrderRepository.KEYSET_SORT} order.
+     */
+    @Override
+    public Window<OrderSummaryDto> scrollSummariesNewestFirst(Predicate predicate, OrderCursor after, int limit) {
+        Assert.isTrue(limit > 0, "Limit must be greater than 0");
+
+        Predicate afterCursor = after == null ? null : ORDER.createdAt.lt(after.createdAt())
+                .or(ORDER.createdAt.eq(after.createdAt()).and(ORDER.id.lt(after.id())));
+
+        List<OrderSummaryDto> summaries = new JPAQuery<>(entityManager)
+                .select(SUMMARY)
+                .from(ORDER)
+                .where(predicate, afterCursor)
+                .orderBy(ORDER.createdAt.desc(), ORDER.id.desc())
+                .limit(limit + 1L)
+                .fetch();
+
+        boolean hasNext = summaries.size() > limit;
+        List<OrderSummaryDto> content = hasNext ? summaries.subList(0, limit) : summaries;
+
+        return Window.from(content, index -> new OrderCursor(content.get(index).createdAt(), content.get(index).id()).toScrollPosition(), hasNext);
+    }
+
+    /**
+     * Orders by primary key, which the database scans in index order without sorting, so the first
+     * rows are sent right away however many rows match.
+     */
+    @Override
+    public Stream<OrderExportRow> streamExportRows(Predicate predicate, boolean includeItems, int fetchSize) {
+        Assert.isTrue(fetchSize > 0, "Fetch size must be greater than 0");
+
+        JPAQuery<OrderExportRow> query = new JPAQuery<>(entityManager).select(includeItems ? EXPORT_ROW_WITH_ITEM : EXPORT_ROW).from(ORDER);
+
+        if (includeItems) {
+            query.leftJoin(ORDER.orderItems, ORDER_ITEM).orderBy(ORDER.id.asc(), ORDER_ITEM.id.asc());
+        } else {
+            query.orderBy(ORDER.id.asc());
+        }
+
+        return query.where(predicate)
+                .setHint(AvailableHints.HINT_FETCH_SIZE, fetchSize)
+                .setHint(AvailableHints.HINT_READ_ONLY, true)
+                .stream();
+    }
+
+    @Override
+    public List<Order> findChunkAfter(UUID after, int limit) {
+        Assert.isTrue(limit > 0, "Limit must be greater than 0");
+
+        return new JPAQuery<>(entityManager)
+                .select(ORDER)
+                .from(ORDER)
+                .where(ORDER.deletedAt.isNull(), after == null ? null : ORDER.id.gt(after))
+                .orderBy(ORDER.id.asc())
+                .limit(limit)
+                .setHint(AvailableHints.HINT_READ_ONLY, true)
+                .fetch();
+    }
+
+    /**
+     * Sums the transitions per order, then adjusts the item counts and recomputes the status of
+     * every affected order with two JDBC batches. Orders are updated in ID order, so concurrent
+     * calls lock them in the same order.
+     *
+     * @param changes the applied status transitions of the order items
+     * @throws IllegalArgumentException if {@code changes} is null
+     */
+    @Override
+    public void applyItemStatusChanges(List<OrderItemStatusChange> changes) {
+        Assert.notNull(changes, "Order item status changes must not be null");
+
+        Map<UUID, Map<OrderItemStatus, Integer>> deltas = new TreeMap<>();
+
+        for (OrderItemStatusChange change : changes) {
+            if (change.previousStatus() == change.status()) {
+                continue;
+            }
+
+            Map<OrderItemStatus, Integer> orderDeltas = deltas.computeIfAbsent(change.orderId(), id -> new EnumMap<>(OrderItemStatus.class));
+            orderDeltas.merge(change.previousStatus(), -1, Integer::sum);
+            orderDeltas.merge(change.status(), 1, Integer::sum);
+        }
+
+        if (deltas.isEmpty()) {
+            return;
+        }
+
+        List<Object[]> countArgs = new ArrayList<>(deltas.size());
+        List<Object[]> statusArgs = new ArrayList<>(deltas.size());
+
+        deltas.forEach((orderId, orderDeltas) -> {
+            countArgs.add(new Object[]{
+                    orderDeltas.getOrDefault(OrderItemStatus.PROCESSING, 0),
+                    orderDeltas.getOrDefault(OrderItemStatus.PROCESSING_FAILED, 0),
+                    orderDeltas.getOrDefault(OrderItemStatus.CONFIRMED, 0),
+                    orderDeltas.getOrDefault(OrderItemStatus.CANCELLING, 0),
+                    orderDeltas.getOrDefault(OrderItemStatus.CANCELLED, 0),
+                    orderId.toString()
+            });
+            statusArgs.add(new Object[]{orderId.toString()});
+        });
+
+        jdbcTemplate.batchUpdate(ADJUST_ITEM_COUNTS_SQL, countArgs);
+        jdbcTemplate.batchUpdate(UPDATE_STATUS_SQL, statusArgs);
+    }
+
+    @Override
+    public void persistAll(Collection<Order> orders) {
+        Assert.notNull(orders, "Orders must not be null");
+
+        orders.forEach(entityManager::persist);
+    }
+}
@@ -1,21 +1,27 @@
 package com.company.app.ordermanager.repository.api.orderitem;
 
+import com.company.app.ordermanager.dto.orderitem.OrderItemStatusSnapshot;
 import com.company.app.ordermanager.entity.orderitem.OrderItem;
 import com.company.app.ordermanager.entity.orderitem.OrderItemStatus;
 import com.company.app.ordermanager.entity.orderitem.OrderItemStatusReason;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
-public interface OrderItemRepository extends JpaRepository<OrderItem, UUID> {
+public interface OrderItemRepository extends JpaRepository<OrderItem, UUID>, OrderItemRepositoryCustom {
     /**
      * Updates the status of an {@link OrderItem} in the database based on its unique identifier
      * and version. This method ensures that the update is atomic by considering the current
-     * version of the {@link OrderItem}.
+     * version of the {@link OrderItem}. The item counts of the order are not maintained, which is left
+     * to the caller.
      *
      * @param orderItemId the unique identifier of the {@link OrderItem}.
      * @param status      the new status to set for the {@link OrderItem}.
@@ -34,7 +40,7 @@ public interface OrderItemRepository extends JpaRepository<OrderItem, UUID> {
     /**
      * Updates the status and reason of an {@link OrderItem} in the database based on its unique
      * identifier and version. Ensures the operation is atomic by considering the current version of
-     * the {@link OrderItem}.
+     * the {@link OrderItem}. The item counts of the order are not maintained, which is left to the caller.
      *
      * @param orderItemId the unique identifier of the {@link OrderItem}.
      * @param status the new status to set for the {@link OrderItem}.
@@ -61,4 +67,19 @@ public interface OrderItemRepository extends JpaRepository<OrderItem, UUID> {
      */
     @Query("SELECT oi.version FROM OrderItem oi WHERE oi.id = :orderItemId")
     Optional<Long> findVersionById(@Param("orderItemId") UUID orderItemId);
+
+    /**
+     * Retrieves the current status, version and order of {@link OrderItem}s, locking them until the end of
+     * the transaction, so the status transitions applied next start from the retrieved statuses.
+     * Order items are locked in ID order.
+     *
+     * @param orderItemIds the unique identifiers of the {@link OrderItem}s.
+     * @return the statuses of the existing {@link OrderItem}s.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT new com.company.app.ordermanager.dto.orderitem.OrderItemStatusSnapshot(oi.id, oi.order.id, oi.status, oi.version) " +
+            "FROM OrderItem oi " +
+            "WHERE oi.id IN :orderItemIds " +
+            "ORDER BY oi.id")
+    List<OrderItemStatusSnapshot> findStatusSnapshotsForUpdate(@Param("orderItemIds") Collection<UUID> orderItemIds);
 }
@@ -0,0 +1,20 @@
+package com.company.app.ordermanager.repository.api.orderitem;
+
+import com.company.app.ordermanager.dto.orderitem.OrderItemStatusUpdate;
+import com.company.app.ordermanager.entity.orderitem.OrderItem;
+
+import java.util.List;
+
+public interface OrderItemRepositoryCustom {
+    /**
+     * Applies versioned status transitions to many {@link OrderItem}s with a single JDBC batch,
+     * bypassing the persistence context. Each transition increments the version of its order item.
+     * The item counts of the orders are not maintained, which is left to the caller.
+     *
+     * @param updates the status transitions to apply
+     * @return whether each transition has been applied, in the given order. A transition is not
+     * applied if the {@link OrderItem} does not exist or its version differs from the expected one.
+     * @throws IllegalArgumentException if {@code updates} is null
+     */
+    List<Boolean> updateStatuses(List<OrderItemStatusUpdate> updates);
+}
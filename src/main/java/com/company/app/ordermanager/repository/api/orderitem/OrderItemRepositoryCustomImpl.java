@@ -0,0 +1,95 @@
+package com.company.app.ordermanager.repository.api.orderitem;
+
+import com.company.app.ordermanager.dto.orderitem.OrderItemStatusUpdate;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.util.Assert;
+
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * JDBC implementation of the bulk operations of the order item repository.
+ * UUIDs are bound from their string form, which MariaDB converts to its UUID column type.
+ */
+@RequiredArgsConstructor
+public class OrderItemRepositoryCustomImpl implements OrderItemRepositoryCustom {
+    private static final String UPDATE_STATUS_SQL = "UPDATE order_items " +
+            "SET status = ?, reason = COALESCE(?, reason), version = version + 1 " +
+            "WHERE id = ? AND version = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Applies versioned status transitions with a single JDBC batch of the same statement.
+     * When the driver does not report the update count of a statement, the transition is checked
+     * against the version of the order item, which a successful update has incremented.
+     *
+     * @param updates the status transitions to apply
+     * @return whether each transition has been applied, in the given order
+     * @throws IllegalArgumentException if {@code updates} is null
+     */
+    @Override
+    public List<Boolean> updateStatuses(List<OrderItemStatusUpdate> updates) {
+        Assert.notNull(updates, "Order item status updates must not be null");
+
+        if (updates.isEmpty()) {
+            return List.of();
+        }
+
+        List<Object[]> batchArgs = new ArrayList<>(updates.size());
+
+        for (OrderItemStatusUpdate update : updates) {
+            batchArgs.add(new Object[]{
+                    update.status().name(),
+                    update.reason() != null ? update.reason().name() : null,
+                    update.orderItemId().toString(),
+                    update.expectedVersion()
+            });
+        }
+
+        int[] updateCounts = jdbcTemplate.batchUpdate(UPDATE_STATUS_SQL, batchArgs);
+
+        List<Boolean> applied = new ArrayList<>(updates.size());
+        List<Integer> unknown = new ArrayList<>();
+
+        for (int i = 0; i < updates.size(); i++) {
+            if (updateCounts[i] == Statement.SUCCESS_NO_INFO) {
+                unknown.add(i);
+            }
+
+            applied.add(updateCounts[i] > 0);
+        }
+
+        if (!unknown.isEmpty()) {
+            Map<String, Long> versions = findVersions(unknown.stream().map(i -> updates.get(i).orderItemId().toString()).toList());
+
+            for (int i : unknown) {
+                Long version = versions.get(updates.get(i).orderItemId().toString());
+
+                applied.set(i, version != null && version == updates.get(i).expectedVersion() + 1);
+            }
+        }
+
+        return applied;
+    }
+
+    private Map<String, Long> findVersions(List<String> orderItemIds) {
+        String placeholders = String.join(", ", Collections.nCopies(orderItemIds.size(), "?"));
+        Map<String, Long> versions = new HashMap<>();
+
+        jdbcTemplate.query(
+                "SELECT id, version FROM order_items WHERE id IN (" + placeholders + ")",
+                rs -> {
+                    versions.put(rs.getString("id"), rs.getLong("version"));
+                },
+                orderItemIds.toArray()
+        );
+
+        return versions;
+    }
+}
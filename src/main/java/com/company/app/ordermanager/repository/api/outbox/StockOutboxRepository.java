@@ -0,0 +1,17 @@
+package com.company.app.ordermanager.repository.api.outbox;
+
+import com.company.app.ordermanager.entity.outbox.StockOutboxMessage;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.List;
+
+public interface StockOutboxRepository extends JpaRepository<StockOutboxMessage, Long>, StockOutboxRepositoryCustom {
+    /**
+     * Retrieves the oldest {@link StockOutboxMessage}s, in insertion order.
+     *
+     * @param pageable the page limiting the number of messages to retrieve
+     * @return the oldest outbox messages, ordered by ID
+     */
+    List<StockOutboxMessage> findAllByOrderByIdAsc(Pageable pageable);
+}
@@ -0,0 +1,16 @@
+package com.company.app.ordermanager.repository.api.outbox;
+
+import com.company.app.ordermanager.entity.outbox.StockOutboxMessage;
+
+import java.util.List;
+
+public interface StockOutboxRepositoryCustom {
+    /**
+     * Inserts {@link StockOutboxMessage}s with a single JDBC batch, bypassing the persistence context.
+     * Their identifiers are assigned by the database in the given order and are not read back.
+     *
+     * @param messages the messages to insert, without identifier
+     * @throws IllegalArgumentException if {@code messages} is null
+     */
+    void insertAll(List<StockOutboxMessage> messages);
+}
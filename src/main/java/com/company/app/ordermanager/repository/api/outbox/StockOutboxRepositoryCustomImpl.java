@@ -0,0 +1,40 @@
+package com.company.app.ordermanager.repository.api.outbox;
+
+import com.company.app.ordermanager.entity.outbox.StockOutboxMessage;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.util.Assert;
+
+import java.sql.Timestamp;
+import java.util.List;
+
+/**
+ * JDBC implementation of the bulk operations of the stock outbox repository.
+ */
+@RequiredArgsConstructor
+public class StockOutboxRepositoryCustomImpl implements StockOutboxRepositoryCustom {
+    private static final String INSERT_SQL = "INSERT INTO stock_outbox (payload, created_at) VALUES (?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Inserts the messages with a single JDBC batch of the same statement, which the driver may send
+     * as one bulk command. The statements of the batch are executed in order, so the auto-increment
+     * identifiers follow the order of the messages.
+     *
+     * @param messages the messages to insert, without identifier
+     * @throws IllegalArgumentException if {@code messages} is null
+     */
+    @Override
+    public void insertAll(List<StockOutboxMessage> messages) {
+        Assert.notNull(messages, "Outbox messages must not be null");
+
+        if (messages.isEmpty()) {
+            return;
+        }
+
+        jdbcTemplate.batchUpdate(INSERT_SQL, messages.stream()
+                .map(message -> new Object[]{message.getPayload(), Timestamp.from(message.getCreatedAt())})
+                .toList());
+    }
+}
@@ -21,4 +21,18 @@ public interface ProductRepository extends JpaRepository<Product, UUID> {
     @Query("UPDATE Product p SET p.stockLevel = :stockLevel, p.version = p.version + 1 " +
             "WHERE p.id = :productId")
     int updateStockLevel(@Param("productId") UUID productId, @Param("stockLevel") int stockLevel);
+
+    /**
+     * Applies a relative change to the stock level of a product with the specified ID in the database.
+     * Being relative, concurrent adjustments of the same product can be applied in any order.
+     *
+     * @param productId the unique identifier of the product whose stock level is to be adjusted
+     * @param delta     the quantity to add to the stock level, negative to subtract
+     * @return the number of rows affected by the update operation
+     * @throws IllegalArgumentException if {@code productId} is invalid
+     */
+    @Modifying
+    @Query("UPDATE Product p SET p.stockLevel = p.stockLevel + :delta, p.version = p.version + 1 " +
+            "WHERE p.id = :productId")
+    int adjustStockLevel(@Param("productId") UUID productId, @Param("delta") int delta);
 }
@@ -1,6 +1,7 @@
 package com.company.app.ordermanager.search.document;
 
 import com.company.app.ordermanager.entity.order.Order;
+import com.company.app.ordermanager.entity.order.OrderStatus;
 import lombok.Builder;
 import lombok.Data;
 
@@ -13,7 +14,7 @@ import java.util.UUID;
  * optimized for search operations.
  */
 @Data
-@Builder
+@Builder(toBuilder = true)
 public class OrderDocument {
     private UUID id;
 
@@ -23,10 +24,23 @@ public class OrderDocument {
 
     private Instant createdAt;
 
+    private OrderStatus status;
+
     private int totalItems;
 
+    private int processingItems;
+
+    private int processingFailedItems;
+
+    private int confirmedItems;
+
+    private int cancellingItems;
+
+    private int cancelledItems;
+
     /**
      * Converts an {@link Order} entity into an {@link OrderDocument} for search index purposes.
+     * The status and the number of items are taken from the persisted item counts, so the items are not loaded.
      *
      * @param order the {@link Order} entity to be converted
      * @return a new instance of {@link OrderDocument} representing the given order
@@ -37,7 +51,25 @@ public class OrderDocument {
                 .customerName(order.getCustomerName())
                 .description(order.getDescription())
                 .createdAt(order.getCreatedAt())
-                .totalItems(order.getOrderItems().size())
+                .build()
+                .withStatus(OrderStatusDocument.fromEntity(order));
+    }
+
+    /**
+     * Creates a copy of this document with the status and item counts of a partial status document.
+     *
+     * @param statusDocument the partial status document of the same order
+     * @return a new instance of {@link OrderDocument} with the given status
+     */
+    public OrderDocument withStatus(OrderStatusDocument statusDocument) {
+        return toBuilder()
+                .status(statusDocument.getStatus())
+                .totalItems(statusDocument.getTotalItems())
+                .processingItems(statusDocument.getProcessingItems())
+                .processingFailedItems(statusDocument.getProcessingFailedItems())
+                .confirmedItems(statusDocument.getConfirmedItems())
+                .cancellingItems(statusDocument.getCancellingItems())
+                .cancelledItems(statusDocument.getCancelledItems())
                 .build();
     }
 }
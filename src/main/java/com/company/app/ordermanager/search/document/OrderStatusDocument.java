@@ -0,0 +1,56 @@
+package com.company.app.ordermanager.search.document;
+
+import com.company.app.ordermanager.entity.order.Order;
+import com.company.app.ordermanager.entity.order.OrderItemCounts;
+import com.company.app.ordermanager.entity.order.OrderStatus;
+import lombok.Builder;
+import lombok.Value;
+
+import java.util.UUID;
+
+/**
+ * Represents a partial {@link OrderDocument} in the Meilisearch index, holding the status of an order
+ * and the number of its items in each status. Sent as a partial update, so the other attributes of
+ * the document are left as they are.
+ */
+@Value
+@Builder
+public class OrderStatusDocument {
+    UUID id;
+
+    OrderStatus status;
+
+    int totalItems;
+
+    int processingItems;
+
+    int processingFailedItems;
+
+    int confirmedItems;
+
+    int cancellingItems;
+
+    int cancelledItems;
+
+    /**
+     * Converts the persisted item counts of an {@link Order} into an {@link OrderStatusDocument},
+     * so the items are not loaded.
+     *
+     * @param order the {@link Order} entity to be converted
+     * @return a new instance of {@link OrderStatusDocument} representing the status of the given order
+     */
+    public static OrderStatusDocument fromEntity(Order order) {
+        OrderItemCounts itemCounts = order.getItemCounts();
+
+        return OrderStatusDocument.builder()
+                .id(order.getId())
+                .status(itemCounts.toStatus())
+                .totalItems(itemCounts.total())
+                .processingItems(itemCounts.getProcessing())
+                .processingFailedItems(itemCounts.getProcessingFailed())
+                .confirmedItems(itemCounts.getConfirmed())
+                .cancellingItems(itemCounts.getCancelling())
+                .cancelledItems(itemCounts.getCancelled())
+                .build();
+    }
+}
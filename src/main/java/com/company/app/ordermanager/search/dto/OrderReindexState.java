@@ -0,0 +1,36 @@
+package com.company.app.ordermanager.search.dto;
+
+/**
+ * Represents the progress of a rebuild of the order search index.
+ */
+public enum OrderReindexState {
+    /**
+     * No reindex has been run.
+     */
+    IDLE,
+    /**
+     * The orders are being loaded into the shadow index.
+     */
+    RUNNING,
+    /**
+     * The orders changed during the load are being loaded again.
+     */
+    CATCHING_UP,
+    /**
+     * The shadow index is being swapped with the live index.
+     */
+    SWAPPING,
+    /**
+     * The shadow index has replaced the live index.
+     */
+    COMPLETED,
+    /**
+     * The reindex failed, it can be resumed from its checkpoint unless its shadow index expired.
+     */
+    FAILED,
+    /**
+     * The reindex stopped without completing, typically because its node stopped, it can be resumed
+     * from its checkpoint unless its shadow index expired.
+     */
+    INTERRUPTED
+}
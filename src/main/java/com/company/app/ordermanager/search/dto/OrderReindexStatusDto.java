@@ -0,0 +1,48 @@
+package com.company.app.ordermanager.search.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import lombok.Builder;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Progress of a rebuild of the order search index, also used as its checkpoint.
+ *
+ * @param state           the progress of the reindex
+ * @param shadowIndex     the UID of the index being built
+ * @param lastOrderId     the ID of the last order loaded, the checkpoint the load resumes after
+ * @param indexedOrders   the number of orders loaded so far
+ * @param totalOrders     the number of orders when the reindex started
+ * @param ordersPerSecond the number of orders loaded per second since the reindex was last started or resumed
+ * @param startedAt       the time the reindex started
+ * @param updatedAt       the time the progress was last updated
+ * @param error           the reason the reindex failed, or null unless it failed
+ */
+@Builder(toBuilder = true)
+public record OrderReindexStatusDto(
+        OrderReindexState state,
+        String shadowIndex,
+        UUID lastOrderId,
+        long indexedOrders,
+        long totalOrders,
+        double ordersPerSecond,
+        Instant startedAt,
+        Instant updatedAt,
+        String error
+) {
+
+    public static OrderReindexStatusDto idle() {
+        return OrderReindexStatusDto.builder().state(OrderReindexState.IDLE).build();
+    }
+
+    /**
+     * Checks whether the reindex has been started and has neither completed nor failed.
+     *
+     * @return {@code true} if the reindex is loading, catching up or swapping
+     */
+    @JsonIgnore
+    public boolean isActive() {
+        return state == OrderReindexState.RUNNING || state == OrderReindexState.CATCHING_UP || state == OrderReindexState.SWAPPING;
+    }
+}
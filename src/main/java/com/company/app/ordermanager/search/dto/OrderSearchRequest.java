@@ -1,9 +1,11 @@
 package com.company.app.ordermanager.search.dto;
 
+import com.company.app.ordermanager.entity.order.OrderStatus;
 import com.fasterxml.jackson.annotation.JsonFormat;
 import lombok.Data;
 
 import java.time.Instant;
+import java.util.Set;
 
 @Data
 public class OrderSearchRequest {
@@ -14,4 +16,6 @@ public class OrderSearchRequest {
 
     @JsonFormat(shape = JsonFormat.Shape.STRING, pattern = "yyyy-MM-dd'T'HH:mm:ss.SSS'Z'", timezone = "UTC")
     private Instant dateTo;
+
+    private Set<OrderStatus> statuses;
 }
@@ -1,6 +1,7 @@
 package com.company.app.ordermanager.search.dto;
 
 
+import com.company.app.ordermanager.entity.order.OrderStatus;
 import com.fasterxml.jackson.annotation.JsonFormat;
 import lombok.Builder;
 import lombok.Data;
@@ -18,5 +19,8 @@ public class OrderSearchResult {
     @JsonFormat(shape = JsonFormat.Shape.STRING, pattern = "yyyy-MM-dd'T'HH:mm:ss.SSS'Z'", timezone = "UTC")
     private Instant createdAt;
 
+    private OrderStatus status;
     private int totalItems;
+    private int confirmedItems;
+    private int cancelledItems;
 }
@@ -0,0 +1,18 @@
+package com.company.app.ordermanager.search.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * Exception thrown when a rebuild of the search index is requested while another one is running,
+ * on any node.
+ * <p>
+ * It returns a HTTP 409 Conflict status code when used in a Spring Web environment, as specified
+ * by the {@link ResponseStatus} annotation.
+ */
+@ResponseStatus(HttpStatus.CONFLICT)
+public class ReindexInProgressException extends RuntimeException {
+    public ReindexInProgressException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,9 @@
+package com.company.app.ordermanager.search.service.api;
+
+import com.company.app.ordermanager.search.dto.OrderReindexStatusDto;
+
+public interface OrderReindexService {
+    OrderReindexStatusDto start(boolean resume);
+
+    OrderReindexStatusDto getStatus();
+}
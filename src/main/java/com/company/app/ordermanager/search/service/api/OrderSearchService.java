@@ -6,6 +6,7 @@ import com.company.app.ordermanager.search.dto.OrderSearchResult;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 
+import java.util.Collection;
 import java.util.UUID;
 
 public interface OrderSearchService {
@@ -13,7 +14,11 @@ public interface OrderSearchService {
 
     void indexOrder(Order order);
 
+    void indexOrders(Collection<Order> orders);
+
     void updateOrder(Order order);
 
+    void updateOrderStatuses(Collection<UUID> orderIds);
+
     void deleteOrder(UUID orderId);
 }
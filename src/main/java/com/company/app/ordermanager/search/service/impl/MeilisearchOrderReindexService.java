@@ -0,0 +1,530 @@
+package com.company.app.ordermanager.search.service.impl;
+
+import com.company.app.ordermanager.entity.order.Order;
+import com.company.app.ordermanager.repository.api.order.OrderRepository;
+import com.company.app.ordermanager.search.document.OrderDocument;
+import com.company.app.ordermanager.search.dto.OrderReindexState;
+import com.company.app.ordermanager.search.dto.OrderReindexStatusDto;
+import com.company.app.ordermanager.search.exception.ReindexInProgressException;
+import com.company.app.ordermanager.search.exception.SearchException;
+import com.company.app.ordermanager.search.service.api.OrderReindexService;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.meilisearch.sdk.Client;
+import com.meilisearch.sdk.Index;
+import com.meilisearch.sdk.exceptions.MeilisearchException;
+import com.meilisearch.sdk.model.SwapIndexesParams;
+import com.meilisearch.sdk.model.Task;
+import com.meilisearch.sdk.model.TaskStatus;
+import com.meilisearch.sdk.model.TasksQuery;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.redisson.api.RBucket;
+import org.redisson.api.RedissonClient;
+import org.redisson.client.RedisException;
+import org.redisson.client.codec.StringCodec;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.util.Assert;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Rebuilds the order search index from the database without downtime.
+ * <p>
+ * Orders are read in primary key order, in keyset chunks, and loaded into a fresh shadow index with
+ * the settings of the live index. Each chunk is converted and sent as a single {@code addDocuments}
+ * request by a pool of writers, while the next chunks are read. Meanwhile, the changes made to the
+ * live index are mirrored to the shadow index by the {@link OrderShadowIndex}, and the orders changed
+ * during the load are loaded again once it is done. Once every task of the shadow index has
+ * succeeded, the shadow index is swapped with the live index in a single atomic Meilisearch task, so
+ * searches keep being served by the live index until then. The former live index is then deleted.
+ * <p>
+ * The progress is saved in Redis after every chunk, as the ID of the last order of the chunks loaded
+ * so far, and a reindex which failed or stopped can be resumed from it as long as its shadow index
+ * is still active. A lease ensures a single reindex runs at a time across the nodes.
+ * <p>
+ * Exposes the {@code search.reindex.orders} counter.
+ */
+@Slf4j
+@Service
+public class MeilisearchOrderReindexService implements OrderReindexService {
+    static final String SHADOW_INDEX = MeilisearchOrderSearchService.ORDER_INDEX + "_reindex";
+
+    private static final String STATUS_KEY = "search:reindex:status";
+    private static final String LEASE_KEY = "search:reindex:lease";
+
+    private static final String PRIMARY_KEY = "id";
+    private static final String[] DOCUMENT_TASK_TYPES = {"documentAdditionOrUpdate", "documentDeletion"};
+
+    private final Client meilisearchClient;
+    private final RedissonClient redissonClient;
+    private final OrderRepository orderRepository;
+    private final OrderShadowIndex orderShadowIndex;
+    private final ObjectMapper objectMapper;
+
+    private final int chunkSize;
+    private final int parallelism;
+    private final Duration leaseTtl;
+    private final Duration shadowTtl;
+    private final Duration taskPollInterval;
+
+    private final Counter indexedCounter;
+
+    private final ExecutorService runner = Executors.newSingleThreadExecutor(runnable -> new Thread(runnable, "order-reindex"));
+    private final ExecutorService writers;
+
+    // Progress of the running reindex, only updated while holding the lock of this service
+    private OrderReindexStatusDto status;
+    private final Map<Long, UUID> completedChunks = new TreeMap<>();
+    private long nextCheckpointChunk;
+    private long indexedAtStart;
+    private Instant resumedAt;
+
+    public MeilisearchOrderReindexService(Client meilisearchClient,
+                                          RedissonClient redissonClient,
+                                          OrderRepository orderRepository,
+                                          OrderShadowIndex orderShadowIndex,
+                                          ObjectMapper objectMapper,
+                                          MeterRegistry meterRegistry,
+                                          @Value("${meilisearch.reindex.chunk-size:5000}") int chunkSize,
+                                          @Value("${meilisearch.reindex.parallelism:4}") int parallelism,
+                                          @Value("${meilisearch.reindex.lease-ttl:1m}") Duration leaseTtl,
+                                          @Value("${meilisearch.reindex.shadow-ttl:1h}") Duration shadowTtl,
+                                          @Value("${meilisearch.reindex.task-poll-interval:1s}") Duration taskPollInterval) {
+        Assert.isTrue(chunkSize > 0, "Reindex chunk size must be greater than 0");
+        Assert.isTrue(parallelism > 0, "Reindex parallelism must be greater than 0");
+
+        this.meilisearchClient = meilisearchClient;
+        this.redissonClient = redissonClient;
+        this.orderRepository = orderRepository;
+        this.orderShadowIndex = orderShadowIndex;
+        this.objectMapper = objectMapper;
+        this.chunkSize = chunkSize;
+        this.parallelism = parallelism;
+        this.leaseTtl = leaseTtl;
+        this.shadowTtl = shadowTtl;
+        this.taskPollInterval = taskPollInterval;
+
+        AtomicInteger writerCount = new AtomicInteger();
+        this.writers = Executors.newFixedThreadPool(parallelism,
+                runnable -> new Thread(runnable, "order-reindex-writer-" + writerCount.getAndIncrement()));
+
+        this.indexedCounter = Counter.builder("search.reindex.orders")
+                .description("Number of orders loaded into the shadow index by the reindex")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Starts rebuilding the order search index in the background.
+     *
+     * @param resume whether to resume the last reindex from its checkpoint, if it failed or stopped
+     *               and its shadow index is still active, rather than starting over
+     * @return the initial progress of the reindex
+     * @throws ReindexInProgressException if a reindex is already running on any node
+     */
+    @Override
+    public synchronized OrderReindexStatusDto start(boolean resume) {
+        String leaseOwner = UUID.randomUUID().toString();
+
+        if (!lease().setIfAbsent(leaseOwner, leaseTtl)) {
+            throw new ReindexInProgressException("A reindex of the orders is already running");
+        }
+
+        try {
+            OrderReindexStatusDto previous = loadStatus();
+            boolean resumable = resume && previous != null && previous.lastOrderId() != null
+                    && previous.state() != OrderReindexState.COMPLETED
+                    && SHADOW_INDEX.equals(orderShadowIndex.getActiveIndexUid());
+
+            Instant now = Instant.now();
+
+            status = resumable
+                    ? previous.toBuilder().state(OrderReindexState.RUNNING).error(null).updatedAt(now).build()
+                    : OrderReindexStatusDto.builder()
+                    .state(OrderReindexState.RUNNING)
+                    .shadowIndex(SHADOW_INDEX)
+                    .startedAt(now)
+                    .updatedAt(now)
+                    .build();
+            completedChunks.clear();
+            nextCheckpointChunk = 0;
+            indexedAtStart = status.indexedOrders();
+            resumedAt = now;
+
+            saveStatus();
+        } catch (RuntimeException e) {
+            lease().compareAndSet(leaseOwner, null);
+            throw e;
+        }
+
+        boolean resumed = status.lastOrderId() != null;
+        runner.execute(() -> run(leaseOwner, resumed));
+
+        if (resumed) {
+            log.info("Resuming reindex of the orders after order {}", status.lastOrderId());
+        } else {
+            log.info("Starting reindex of the orders into {}", SHADOW_INDEX);
+        }
+
+        return status;
+    }
+
+    /**
+     * Gets the progress of the last reindex. A reindex whose lease expired before it completed is
+     * reported as interrupted.
+     *
+     * @return the progress of the last reindex, idle if none has been run
+     */
+    @Override
+    public OrderReindexStatusDto getStatus() {
+        OrderReindexStatusDto current = loadStatus();
+
+        if (current == null) {
+            return OrderReindexStatusDto.idle();
+        }
+
+        if (current.isActive() && !lease().isExists()) {
+            return current.toBuilder().state(OrderReindexState.INTERRUPTED).build();
+        }
+
+        return current;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        // Interrupted reindexes keep their checkpoint and can be resumed
+        runner.shutdownNow();
+        writers.shutdownNow();
+    }
+
+    private void run(String leaseOwner, boolean resumed) {
+        try {
+            if (!resumed) {
+                prepareShadowIndex(leaseOwner);
+            }
+
+            loadOrders(leaseOwner);
+            catchUp(leaseOwner);
+            swap(leaseOwner);
+
+            updateStatus(builder -> builder.state(OrderReindexState.COMPLETED));
+
+            log.info("Completed reindex of {} orders", status.indexedOrders());
+        } catch (InterruptedException e) {
+            log.warn("Reindex of the orders interrupted after order {}", status.lastOrderId());
+
+            Thread.currentThread().interrupt();
+        } catch (RuntimeException e) {
+            log.error("Reindex of the orders failed after order {}", status.lastOrderId(), e);
+
+            try {
+                updateStatus(builder -> builder.state(OrderReindexState.FAILED).error(e.getMessage()));
+            } catch (RedisException statusException) {
+                log.error("Failed to save the reindex failure. Error: {}", statusException.getMessage());
+            }
+        } finally {
+            try {
+                lease().compareAndSet(leaseOwner, null);
+            } catch (RedisException e) {
+                log.warn("Failed to release the reindex lease, it will expire. Error: {}", e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Recreates the shadow index empty, with the settings of the live index, then activates it so
+     * the changes to the live index are mirrored to it from now on.
+     */
+    private void prepareShadowIndex(String leaseOwner) throws InterruptedException {
+        orderShadowIndex.deactivate();
+
+        // Left over by a previous reindex, deleting a missing index just fails its task
+        awaitTask(meilisearchClient.deleteIndex(SHADOW_INDEX).getTaskUid(), leaseOwner);
+        awaitSucceeded(meilisearchClient.createIndex(SHADOW_INDEX, PRIMARY_KEY).getTaskUid(), leaseOwner);
+        awaitSucceeded(MeilisearchOrderSearchService.applySettings(meilisearchClient.index(SHADOW_INDEX)).getTaskUid(), leaseOwner);
+
+        orderShadowIndex.activate(SHADOW_INDEX, shadowTtl);
+
+        long totalOrders = orderRepository.countByDeletedAtIsNull();
+        updateStatus(builder -> builder.totalOrders(totalOrders));
+    }
+
+    /**
+     * Reads the orders following the checkpoint chunk by chunk and hands each chunk to the writers,
+     * with a bounded number of chunks in flight, then waits for every chunk to be sent.
+     */
+    private void loadOrders(String leaseOwner) throws InterruptedException {
+        Index shadowIndex = meilisearchClient.index(SHADOW_INDEX);
+        int maxInFlight = parallelism * 2;
+        Semaphore inFlight = new Semaphore(maxInFlight);
+        AtomicReference<RuntimeException> failure = new AtomicReference<>();
+
+        UUID after = status.lastOrderId();
+        long chunk = 0;
+
+        while (failure.get() == null) {
+            List<Order> orders = orderRepository.findChunkAfter(after, chunkSize);
+
+            if (orders.isEmpty()) {
+                break;
+            }
+
+            after = orders.get(orders.size() - 1).getId();
+
+            long chunkNumber = chunk++;
+            UUID lastOrderId = after;
+
+            inFlight.acquire();
+            writers.execute(() -> {
+                try {
+                    addDocuments(shadowIndex, orders);
+                    completeChunk(chunkNumber, lastOrderId, orders.size());
+                } catch (RuntimeException e) {
+                    failure.compareAndSet(null, e);
+                } finally {
+                    inFlight.release();
+                }
+            });
+
+            refresh(leaseOwner);
+        }
+
+        // Wait for the chunks in flight
+        inFlight.acquire(maxInFlight);
+        inFlight.release(maxInFlight);
+
+        if (failure.get() != null) {
+            throw failure.get();
+        }
+    }
+
+    /**
+     * Loads again the orders changed since the load started, as a chunk may have been read before an
+     * order changed but sent after the change was mirrored. Orders deleted or missing from the database
+     * are deleted from the shadow index instead. Stops once fewer orders than a chunk are left, their
+     * changes having been mirrored after the load.
+     */
+    private void catchUp(String leaseOwner) {
+        updateStatus(builder -> builder.state(OrderReindexState.CATCHING_UP));
+
+        Index shadowIndex = meilisearchClient.index(SHADOW_INDEX);
+        Set<String> orderIds;
+        int caughtUp = 0;
+
+        do {
+            orderIds = orderShadowIndex.pollChangedOrderIds(chunkSize);
+
+            if (orderIds.isEmpty()) {
+                break;
+            }
+
+            List<UUID> ids = orderIds.stream().map(UUID::fromString).toList();
+            Map<UUID, Order> orders = orderRepository.findAllById(ids).stream()
+                    .filter(order -> order.getDeletedAt() == null)
+                    .collect(Collectors.toMap(Order::getId, Function.identity()));
+
+            addDocuments(shadowIndex, new ArrayList<>(orders.values()));
+
+            List<String> deletedIds = ids.stream().filter(id -> !orders.containsKey(id)).map(UUID::toString).toList();
+
+            if (!deletedIds.isEmpty()) {
+                shadowIndex.deleteDocumentsByFilter(MeilisearchOrderSearchService.idFilter(deletedIds));
+            }
+
+            caughtUp += ids.size();
+            refresh(leaseOwner);
+        } while (orderIds.size() == chunkSize);
+
+        log.debug("Loaded {} orders changed during the reindex again", caughtUp);
+    }
+
+    /**
+     * Waits for every task of the shadow index, then swaps it with the live index and deletes the
+     * former live index, now named after the shadow index.
+     */
+    private void swap(String leaseOwner) throws InterruptedException {
+        awaitShadowTasks(leaseOwner);
+
+        updateStatus(builder -> builder.state(OrderReindexState.SWAPPING));
+
+        SwapIndexesParams swap = new SwapIndexesParams().setIndexes(new String[]{MeilisearchOrderSearchService.ORDER_INDEX, SHADOW_INDEX});
+        awaitSucceeded(meilisearchClient.swapIndexes(new SwapIndexesParams[]{swap}).getTaskUid(), leaseOwner);
+
+        orderShadowIndex.deactivate();
+
+        try {
+            meilisearchClient.deleteIndex(SHADOW_INDEX);
+        } catch (MeilisearchException e) {
+            log.warn("Failed to delete the former order index {}. Error: {}", SHADOW_INDEX, e.getMessage());
+        }
+    }
+
+    /**
+     * Waits for the tasks enqueued on the shadow index so far, which are processed in order, then
+     * checks none of them failed since the reindex started.
+     */
+    private void awaitShadowTasks(String leaseOwner) throws InterruptedException {
+        TasksQuery enqueued = new TasksQuery()
+                .setIndexUids(new String[]{SHADOW_INDEX})
+                .setLimit(1);
+        Task[] lastTasks = meilisearchClient.getTasks(enqueued).getResults();
+
+        if (lastTasks.length > 0) {
+            awaitTask(lastTasks[0].getUid(), leaseOwner);
+        }
+
+        // Only document tasks, deleting a missing shadow index is expected to fail
+        TasksQuery failed = new TasksQuery()
+                .setIndexUids(new String[]{SHADOW_INDEX})
+                .setTypes(DOCUMENT_TASK_TYPES)
+                .setStatuses(new String[]{TaskStatus.FAILED.taskStatus})
+                .setAfterEnqueuedAt(Date.from(status.startedAt()))
+                .setLimit(1);
+        Task[] failedTasks = meilisearchClient.getTasks(failed).getResults();
+
+        if (failedTasks.length > 0) {
+            throw new SearchException("Task " + failedTasks[0].getUid() + " of the shadow index failed: "
+                    + (failedTasks[0].getError() != null ? failedTasks[0].getError().getMessage() : "unknown error"));
+        }
+    }
+
+    /**
+     * Converts orders into documents and sends them to an index in a single request.
+     */
+    private void addDocuments(Index index, List<Order> orders) {
+        if (orders.isEmpty()) {
+            return;
+        }
+
+        try {
+            List<OrderDocument> documents = orders.stream().map(OrderDocument::fromEntity).toList();
+            index.addDocuments(objectMapper.writeValueAsString(documents), PRIMARY_KEY);
+        } catch (JsonProcessingException e) {
+            throw new SearchException("Failed to serialize " + orders.size() + " orders to JSON", e);
+        }
+    }
+
+    /**
+     * Records a chunk as sent and advances the checkpoint past every chunk sent without gap, as the
+     * writers may complete the chunks out of order.
+     */
+    private synchronized void completeChunk(long chunkNumber, UUID lastOrderId, int count) {
+        completedChunks.put(chunkNumber, lastOrderId);
+
+        UUID checkpoint = status.lastOrderId();
+
+        while (completedChunks.containsKey(nextCheckpointChunk)) {
+            checkpoint = completedChunks.remove(nextCheckpointChunk++);
+        }
+
+        UUID lastOrderIdWithoutGap = checkpoint;
+        long indexedOrders = status.indexedOrders() + count;
+        double seconds = Math.max(Duration.between(resumedAt, Instant.now()).toMillis(), 1) / 1000.0;
+
+        indexedCounter.increment(count);
+        updateStatus(builder -> builder
+                .lastOrderId(lastOrderIdWithoutGap)
+                .indexedOrders(indexedOrders)
+                .ordersPerSecond((indexedOrders - indexedAtStart) / seconds));
+    }
+
+    private synchronized void updateStatus(Function<OrderReindexStatusDto.OrderReindexStatusDtoBuilder, OrderReindexStatusDto.OrderReindexStatusDtoBuilder> update) {
+        status = update.apply(status.toBuilder()).updatedAt(Instant.now()).build();
+
+        saveStatus();
+    }
+
+    private void saveStatus() {
+        try {
+            redissonClient.<String>getBucket(STATUS_KEY, StringCodec.INSTANCE).set(objectMapper.writeValueAsString(status));
+        } catch (JsonProcessingException e) {
+            log.error("Failed to serialize the reindex progress. Error: {}", e.getMessage());
+        }
+    }
+
+    private OrderReindexStatusDto loadStatus() {
+        String json = redissonClient.<String>getBucket(STATUS_KEY, StringCodec.INSTANCE).get();
+
+        if (json == null) {
+            return null;
+        }
+
+        try {
+            return objectMapper.readValue(json, OrderReindexStatusDto.class);
+        } catch (JsonProcessingException e) {
+            log.error("Failed to parse the reindex progress, ignoring it. Error: {}", e.getMessage());
+
+            return null;
+        }
+    }
+
+    /**
+     * Waits for a task to succeed.
+     *
+     * @throws SearchException if the task failed or was cancelled
+     */
+    private void awaitSucceeded(int taskUid, String leaseOwner) throws InterruptedException {
+        Task task = awaitTask(taskUid, leaseOwner);
+
+        if (task.getStatus() != TaskStatus.SUCCEEDED) {
+            throw new SearchException("Task " + taskUid + " of type " + task.getType() + " did not succeed: "
+                    + (task.getError() != null ? task.getError().getMessage() : task.getStatus()));
+        }
+    }
+
+    /**
+     * Polls a task until it is processed, refreshing the lease of the reindex meanwhile.
+     *
+     * @return the processed task
+     */
+    private Task awaitTask(int taskUid, String leaseOwner) throws InterruptedException {
+        while (true) {
+            Task task = meilisearchClient.getTask(taskUid);
+
+            if (task.getStatus() != TaskStatus.ENQUEUED && task.getStatus() != TaskStatus.PROCESSING) {
+                return task;
+            }
+
+            refresh(leaseOwner);
+            Thread.sleep(taskPollInterval.toMillis());
+        }
+    }
+
+    /**
+     * Extends the lease of the reindex and the activation of its shadow index.
+     *
+     * @throws ReindexInProgressException if the lease expired and was taken by another reindex
+     */
+    private void refresh(String leaseOwner) {
+        RBucket<String> lease = lease();
+
+        if (!leaseOwner.equals(lease.get())) {
+            throw new ReindexInProgressException("The reindex lease expired and was taken over");
+        }
+
+        lease.expire(leaseTtl);
+        orderShadowIndex.activate(SHADOW_INDEX, shadowTtl);
+    }
+
+    private RBucket<String> lease() {
+        return redissonClient.getBucket(LEASE_KEY, StringCodec.INSTANCE);
+    }
+}
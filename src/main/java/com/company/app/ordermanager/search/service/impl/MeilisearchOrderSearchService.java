@@ -13,14 +13,16 @@ import com.meilisearch.sdk.Index;
 import com.meilisearch.sdk.SearchRequest;
 import com.meilisearch.sdk.exceptions.MeilisearchException;
 import com.meilisearch.sdk.model.SearchResultPaginated;
+import com.meilisearch.sdk.model.TaskInfo;
 import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
-import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.util.*;
 import java.util.stream.Collectors;
@@ -30,10 +32,12 @@ import java.util.stream.Collectors;
 @RequiredArgsConstructor
 public class MeilisearchOrderSearchService implements OrderSearchService {
     private static final long DEFAULT_PAGE_NUMBER = 1;
-    private static final String ORDER_INDEX = "orders";
+    static final String ORDER_INDEX = "orders";
 
     private final Client meilisearchClient;
     private final ObjectMapper objectMapper;
+    private final OrderIndexingBuffer orderIndexingBuffer;
+    private final OrderStatusUpdateDebouncer orderStatusUpdateDebouncer;
 
     private Index orderIndex;
 
@@ -88,59 +92,70 @@ public class MeilisearchOrderSearchService implements OrderSearchService {
 
 
     /**
-     * Indexes an order in Meilisearch.
+     * Indexes an order in Meilisearch. The document is built immediately and sent with the next
+     * batch of the {@link OrderIndexingBuffer}.
      *
      * @param order the {@link Order} entity to be indexed in the search system
      */
     @Override
-    @Async
     public void indexOrder(Order order) {
-        try {
-            OrderDocument document = OrderDocument.fromEntity(order);
-            String jsonDocument = objectMapper.writeValueAsString(document);
-            orderIndex.addDocuments(jsonDocument);
-            log.debug("Successfully indexed order: {}", order.getId());
-        } catch (MeilisearchException e) {
-            log.error("Failed to index order with id {} : {}", order.getId(), e.getMessage());
-        } catch (JsonProcessingException e) {
-            log.error("Failed to serialize order with id {} to JSON: {}", order.getId(), e.getMessage());
-        }
+        orderIndexingBuffer.add(OrderDocument.fromEntity(order));
+    }
+
+    /**
+     * Indexes many orders in Meilisearch, sent with the next batches of the {@link OrderIndexingBuffer}.
+     *
+     * @param orders the {@link Order} entities to be indexed in the search system
+     */
+    @Override
+    public void indexOrders(Collection<Order> orders) {
+        orders.forEach(this::indexOrder);
     }
 
     /**
-     * Updates an existing order in the search index.
+     * Updates an existing order in the search index, replacing its document with the next batch
+     * of the {@link OrderIndexingBuffer}.
      *
      * @param order the updated {@link Order} to be reflected in the search system
      */
     @Override
-    @Async
     public void updateOrder(Order order) {
-        try {
-            OrderDocument document = OrderDocument.fromEntity(order);
-            String jsonDocument = objectMapper.writeValueAsString(document);
-            orderIndex.updateDocuments(jsonDocument);
-            log.debug("Successfully updated order in search index: {}", order.getId());
-        } catch (MeilisearchException e) {
-            log.error("Failed to update order with id {} in search index: {}", order.getId(), e.getMessage());
-        } catch (JsonProcessingException e) {
-            log.error("Failed to serialize order with id {} to JSON: {}", order.getId(), e.getMessage());
-        }
+        orderIndexingBuffer.add(OrderDocument.fromEntity(order));
+    }
+
+    /**
+     * Updates the status and item counts of orders in the search index once the current transaction
+     * commits. Changes of the same order are debounced by the {@link OrderStatusUpdateDebouncer},
+     * and sent as partial documents with the next batch of the {@link OrderIndexingBuffer}.
+     *
+     * @param orderIds the {@link UUID} identifiers of the orders whose item statuses changed
+     */
+    @Override
+    public void updateOrderStatuses(Collection<UUID> orderIds) {
+        orderStatusUpdateDebouncer.scheduleAfterCommit(orderIds);
     }
 
     /**
-     * Removes an order from the search index.
+     * Removes an order from the search index with the next batch of the {@link OrderIndexingBuffer},
+     * cancelling its pending document if any. The removal is buffered once the current transaction
+     * commits, when the order is marked as deleted, so status updates read from then on skip the order
+     * rather than adding it back as a partial document.
      *
      * @param orderId the {@link UUID} identifier of the order to be deleted from the search system
      */
     @Override
-    @Async
     public void deleteOrder(UUID orderId) {
-        try {
-            orderIndex.deleteDocument(orderId.toString());
-            log.debug("Successfully deleted order from search index: {}", orderId);
-        } catch (MeilisearchException e) {
-            log.error("Failed to delete order with id {} from search index: {}", orderId, e.getMessage());
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            orderIndexingBuffer.delete(orderId);
+            return;
         }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                orderIndexingBuffer.delete(orderId);
+            }
+        });
     }
 
     /**
@@ -149,31 +164,62 @@ public class MeilisearchOrderSearchService implements OrderSearchService {
      */
     private void configureIndex() {
         try {
-            // Full-text search attributes
-            orderIndex.updateSearchableAttributesSettings(Arrays.asList(
-                    "customerName",
-                    "description"
-            ).toArray(new String[0]));
-
-            // Filter search attributes
-            orderIndex.updateFilterableAttributesSettings(List.of(
-                    "createdAt"
-            ).toArray(new String[0]));
-
-            // Rankin rules
-            orderIndex.updateRankingRulesSettings(Arrays.asList(
-                    "words",
-                    "typo",
-                    "proximity",
-                    "attribute",
-                    "sort",
-                    "exactness"
-            ).toArray(new String[0]));
+            applySettings(orderIndex);
         } catch (MeilisearchException e) {
             log.error("Failed to configure Meilisearch index: {}", e.getMessage());
         }
     }
 
+    /**
+     * Applies the settings of the order index to an index, such as a reindex shadow index.
+     *
+     * @param index the index to configure
+     * @return the task of the last settings update, the updates are processed in order
+     * @throws MeilisearchException if a settings update cannot be enqueued
+     */
+    static TaskInfo applySettings(Index index) {
+        // Full-text search attributes
+        index.updateSearchableAttributesSettings(Arrays.asList(
+                "customerName",
+                "description"
+        ).toArray(new String[0]));
+
+        // Filter search attributes, the id is filtered on to delete documents
+        index.updateFilterableAttributesSettings(List.of(
+                "id",
+                "createdAt",
+                "status",
+                "processingItems",
+                "processingFailedItems",
+                "confirmedItems",
+                "cancellingItems",
+                "cancelledItems"
+        ).toArray(new String[0]));
+
+        // Rankin rules
+        return index.updateRankingRulesSettings(Arrays.asList(
+                "words",
+                "typo",
+                "proximity",
+                "attribute",
+                "sort",
+                "exactness"
+        ).toArray(new String[0]));
+    }
+
+    /**
+     * Builds the filter matching the documents of the given orders, to delete them with
+     * {@code deleteDocumentsByFilter}.
+     *
+     * @param orderIds the identifiers of the orders, not empty
+     * @return the filter on the {@code id} attribute
+     */
+    static String idFilter(Collection<String> orderIds) {
+        return orderIds.stream()
+                .map(orderId -> "\"" + orderId + "\"")
+                .collect(Collectors.joining(", ", "id IN [", "]"));
+    }
+
     /**
      * Builds Meilisearch filters based on the search criteria.
      */
@@ -192,6 +238,13 @@ public class MeilisearchOrderSearchService implements OrderSearchService {
             log.error("Failed to serialize date range filter: {}", e.getMessage());
         }
 
+        // Add status filter if specified
+        if (searchRequest.getStatuses() != null && !searchRequest.getStatuses().isEmpty()) {
+            filters.add(searchRequest.getStatuses().stream()
+                    .map(status -> "status = " + status.name())
+                    .collect(Collectors.joining(" OR ")));
+        }
+
         return filters;
     }
 
@@ -207,7 +260,10 @@ public class MeilisearchOrderSearchService implements OrderSearchService {
                 .customerName(document.getCustomerName())
                 .description(document.getDescription())
                 .createdAt(document.getCreatedAt())
+                .status(document.getStatus())
                 .totalItems(document.getTotalItems())
+                .confirmedItems(document.getConfirmedItems())
+                .cancelledItems(document.getCancelledItems())
                 .build();
     }
 
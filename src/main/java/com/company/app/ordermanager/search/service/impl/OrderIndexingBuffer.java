@@ -0,0 +1,567 @@
+package com.company.app.ordermanager.search.service.impl;
+
+import com.company.app.ordermanager.search.document.OrderDocument;
+import com.company.app.ordermanager.search.document.OrderStatusDocument;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.meilisearch.sdk.Client;
+import com.meilisearch.sdk.Index;
+import com.meilisearch.sdk.exceptions.MeilisearchException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+import org.springframework.util.Assert;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * In-process buffer of the changes to the order search index, sent to Meilisearch in batches.
+ * <p>
+ * Changes are coalesced per order while pending: the last document of an order replaces the previous
+ * ones, a partial status document is merged into the pending document of its order, and deleting an
+ * order cancels its pending document. A flusher thread sends the pending changes once a batch is full
+ * or the oldest change exceeds the maximum delay, with at most one {@code addDocuments}, one
+ * {@code updateDocuments} and one {@code deleteDocumentsByFilter} request per batch, so Meilisearch
+ * enqueues a few tasks per batch instead of one task per change. Batches are sent by a single thread,
+ * so tasks are enqueued in the order the changes were made. While an {@link OrderShadowIndex} is being
+ * rebuilt, the changes are mirrored to it as well.
+ * <p>
+ * The buffer holds at most the configured number of orders. When it is full, callers changing an
+ * order not pending yet wait for a flush, up to the offer timeout, after which the change is dropped.
+ * A batch which cannot be sent is put back, unless newer changes have been made to its orders
+ * meanwhile, and retried after a backoff.
+ * <p>
+ * Exposes the following metrics:
+ * <ul>
+ *   <li>{@code search.indexing.queue.depth} - number of orders with pending changes.</li>
+ *   <li>{@code search.indexing.flush} - duration of the flushes.</li>
+ *   <li>{@code search.indexing.operations} - number of changes sent, tagged by operation ({@code add}, {@code update} or {@code delete}).</li>
+ *   <li>{@code search.indexing.coalesced} - number of changes replacing a pending change.</li>
+ *   <li>{@code search.indexing.dropped} - number of changes dropped, as the buffer was full.</li>
+ * </ul>
+ */
+@Slf4j
+@Component
+public class OrderIndexingBuffer implements SmartLifecycle {
+    private static final String FLUSHER_THREAD_NAME = "order-indexing-flusher";
+
+    private final Index orderIndex;
+    private final OrderShadowIndex orderShadowIndex;
+    private final ObjectMapper objectMapper;
+
+    private final int batchSize;
+    private final int capacity;
+    private final Duration maxDelay;
+    private final Duration offerTimeout;
+    private final Duration retryBackoff;
+    private final Duration shutdownTimeout;
+
+    private final Timer flushTimer;
+    private final Counter addedCounter;
+    private final Counter updatedCounter;
+    private final Counter deletedCounter;
+    private final Counter coalescedCounter;
+    private final Counter droppedCounter;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition flushDue = lock.newCondition();
+    private final Condition notFull = lock.newCondition();
+
+    // Pending change of each order
+    private final LinkedHashMap<UUID, Change> pending = new LinkedHashMap<>();
+    private long oldestPendingTime;
+
+    private Thread flusher;
+    private volatile boolean running;
+
+    public OrderIndexingBuffer(Client meilisearchClient,
+                               OrderShadowIndex orderShadowIndex,
+                               ObjectMapper objectMapper,
+                               MeterRegistry meterRegistry,
+                               @Value("${meilisearch.indexing.batch-size:1000}") int batchSize,
+                               @Value("${meilisearch.indexing.capacity:10000}") int capacity,
+                               @Value("${meilisearch.indexing.max-delay:500ms}") Duration maxDelay,
+                               @Value("${meilisearch.indexing.offer-timeout:100ms}") Duration offerTimeout,
+                               @Value("${meilisearch.indexing.retry-backoff:1s}") Duration retryBackoff,
+                               @Value("${meilisearch.indexing.shutdown-timeout:10s}") Duration shutdownTimeout) {
+        Assert.isTrue(batchSize > 0, "Indexing batch size must be greater than 0");
+        Assert.isTrue(capacity >= batchSize, "Indexing buffer capacity must not be lower than the batch size");
+
+        this.orderIndex = meilisearchClient.index(MeilisearchOrderSearchService.ORDER_INDEX);
+        this.orderShadowIndex = orderShadowIndex;
+        this.objectMapper = objectMapper;
+        this.batchSize = batchSize;
+        this.capacity = capacity;
+        this.maxDelay = maxDelay;
+        this.offerTimeout = offerTimeout;
+        this.retryBackoff = retryBackoff;
+        this.shutdownTimeout = shutdownTimeout;
+
+        Gauge.builder("search.indexing.queue.depth", this, OrderIndexingBuffer::size)
+                .description("Number of orders with changes not sent to the search index yet")
+                .register(meterRegistry);
+        this.flushTimer = Timer.builder("search.indexing.flush")
+                .description("Duration of the flushes of the order indexing buffer")
+                .register(meterRegistry);
+        this.addedCounter = Counter.builder("search.indexing.operations")
+                .description("Number of order changes sent to the search index")
+                .tag("operation", "add")
+                .register(meterRegistry);
+        this.updatedCounter = Counter.builder("search.indexing.operations")
+                .description("Number of order changes sent to the search index")
+                .tag("operation", "update")
+                .register(meterRegistry);
+        this.deletedCounter = Counter.builder("search.indexing.operations")
+                .description("Number of order changes sent to the search index")
+                .tag("operation", "delete")
+                .register(meterRegistry);
+        this.coalescedCounter = Counter.builder("search.indexing.coalesced")
+                .description("Number of order changes replacing a change not sent yet")
+                .register(meterRegistry);
+        this.droppedCounter = Counter.builder("search.indexing.dropped")
+                .description("Number of order changes dropped as the indexing buffer was full")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Buffers the document of an order, to be added to the index or to replace its current document.
+     *
+     * @param document the document of the order
+     * @return {@code true} if the change has been buffered, {@code false} if it has been dropped
+     * @throws IllegalArgumentException if document or its ID is null
+     */
+    public boolean add(OrderDocument document) {
+        Assert.notNull(document, "Order document must not be null");
+        Assert.notNull(document.getId(), "Order document ID must not be null");
+
+        return offer(document.getId(), new Change(Operation.ADD, document));
+    }
+
+    /**
+     * Buffers a partial status document of an order, to update the status of its current document.
+     * Merged into the pending document of the order if any, and ignored if the order is being deleted.
+     *
+     * @param statusDocument the partial status document of the order
+     * @return {@code true} if the change has been buffered, {@code false} if it has been dropped
+     * @throws IllegalArgumentException if statusDocument or its ID is null
+     */
+    public boolean update(OrderStatusDocument statusDocument) {
+        Assert.notNull(statusDocument, "Order status document must not be null");
+        Assert.notNull(statusDocument.getId(), "Order status document ID must not be null");
+
+        return offer(statusDocument.getId(), new Change(Operation.UPDATE, statusDocument));
+    }
+
+    /**
+     * Buffers the removal of an order from the index, cancelling its pending document if any.
+     *
+     * @param orderId the unique identifier of the order
+     * @return {@code true} if the change has been buffered, {@code false} if it has been dropped
+     * @throws IllegalArgumentException if orderId is null
+     */
+    public boolean delete(UUID orderId) {
+        Assert.notNull(orderId, "Order ID must not be null");
+
+        return offer(orderId, new Change(Operation.DELETE, null));
+    }
+
+    /**
+     * Gets the number of orders with pending changes.
+     *
+     * @return the number of orders with pending changes
+     */
+    public int size() {
+        lock.lock();
+
+        try {
+            return pending.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Sends the pending changes of up to a batch of orders to the index. If they cannot be sent, they
+     * are put back into the buffer.
+     *
+     * @return {@code true} if the batch has been sent, {@code false} if it failed
+     */
+    public boolean flush() {
+        Map<UUID, Change> batch = drain();
+
+        if (batch.isEmpty()) {
+            return true;
+        }
+
+        return Boolean.TRUE.equals(flushTimer.record(() -> send(batch)));
+    }
+
+    /**
+     * Starts the flusher thread.
+     */
+    @Override
+    public synchronized void start() {
+        if (running) {
+            return;
+        }
+
+        running = true;
+
+        flusher = new Thread(this::flushContinuously, FLUSHER_THREAD_NAME);
+        flusher.start();
+
+        log.info("Started order indexing buffer (batch size: {}, max delay: {}, capacity: {})", batchSize, maxDelay, capacity);
+    }
+
+    /**
+     * Stops the flusher thread, then sends the remaining changes until the buffer is empty or a flush fails.
+     */
+    @Override
+    public synchronized void stop() {
+        if (!running) {
+            return;
+        }
+
+        running = false;
+        signalFlush();
+
+        try {
+            flusher.join(shutdownTimeout.toMillis());
+        } catch (InterruptedException e) {
+            log.warn("Interrupted while waiting for the order indexing flusher to stop");
+
+            Thread.currentThread().interrupt();
+        }
+
+        while (size() > 0) {
+            if (!flush()) {
+                log.warn("Failed to flush the order indexing buffer on shutdown, {} orders are left unindexed", size());
+                break;
+            }
+        }
+
+        log.info("Stopped order indexing buffer");
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * Starts before and stops after the web server and the default phase consumers, so the changes
+     * they make until they stop are still flushed.
+     */
+    @Override
+    public int getPhase() {
+        return SmartLifecycle.DEFAULT_PHASE - 4096;
+    }
+
+    /**
+     * Buffers a change, replacing the pending change of the same order. When the buffer is full, waits
+     * for a flush up to the offer timeout.
+     */
+    private boolean offer(UUID orderId, Change change) {
+        lock.lock();
+
+        try {
+            Change pendingChange = pending.get(orderId);
+
+            if (pendingChange != null) {
+                pending.put(orderId, pendingChange.merge(change));
+                coalescedCounter.increment();
+
+                return true;
+            }
+
+            long remainingNanos = offerTimeout.toNanos();
+
+            while (pending.size() >= capacity) {
+                if (remainingNanos <= 0) {
+                    droppedCounter.increment();
+                    log.warn("Order indexing buffer is full, dropped the change of order {}", orderId);
+
+                    return false;
+                }
+
+                remainingNanos = notFull.awaitNanos(remainingNanos);
+            }
+
+            if (pending.isEmpty()) {
+                oldestPendingTime = System.currentTimeMillis();
+            }
+
+            pending.put(orderId, change);
+
+            if (pending.size() >= batchSize) {
+                flushDue.signal();
+            }
+
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            droppedCounter.increment();
+
+            return false;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Removes up to a batch of the oldest pending changes from the buffer.
+     */
+    private Map<UUID, Change> drain() {
+        lock.lock();
+
+        try {
+            Map<UUID, Change> batch = new LinkedHashMap<>();
+            Iterator<Map.Entry<UUID, Change>> iterator = pending.entrySet().iterator();
+
+            while (iterator.hasNext() && batch.size() < batchSize) {
+                Map.Entry<UUID, Change> entry = iterator.next();
+                batch.put(entry.getKey(), entry.getValue());
+                iterator.remove();
+            }
+
+            // The remaining changes are at least as old as the drained ones, so the oldest time is kept
+            notFull.signalAll();
+
+            return batch;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Sends a batch of changes to the index, with at most one request per kind of change. The changes
+     * which could not be sent are put back into the buffer.
+     */
+    private boolean send(Map<UUID, Change> batch) {
+        List<Object> documents = new ArrayList<>(batch.size());
+        List<Object> statusDocuments = new ArrayList<>();
+        List<String> deletedIds = new ArrayList<>();
+
+        batch.forEach((orderId, change) -> {
+            switch (change.operation()) {
+                case ADD -> documents.add(change.document());
+                case UPDATE -> statusDocuments.add(change.document());
+                case DELETE -> deletedIds.add(orderId.toString());
+            }
+        });
+
+        String documentsJson = serialize(documents);
+        String statusDocumentsJson = serialize(statusDocuments);
+
+        // Keep a shadow index being rebuilt up to date as well
+        orderShadowIndex.mirror(batch.keySet(), documentsJson, statusDocumentsJson, deletedIds);
+
+        boolean sent = true;
+
+        if (documentsJson != null) {
+            try {
+                orderIndex.addDocuments(documentsJson);
+                addedCounter.increment(documents.size());
+            } catch (MeilisearchException e) {
+                log.error("Failed to index {} orders, retrying later. Error: {}", documents.size(), e.getMessage());
+
+                requeue(batch, Operation.ADD);
+                sent = false;
+            }
+        }
+
+        if (statusDocumentsJson != null) {
+            try {
+                orderIndex.updateDocuments(statusDocumentsJson);
+                updatedCounter.increment(statusDocuments.size());
+            } catch (MeilisearchException e) {
+                log.error("Failed to update the status of {} orders, retrying later. Error: {}", statusDocuments.size(), e.getMessage());
+
+                requeue(batch, Operation.UPDATE);
+                sent = false;
+            }
+        }
+
+        if (!deletedIds.isEmpty()) {
+            try {
+                orderIndex.deleteDocumentsByFilter(MeilisearchOrderSearchService.idFilter(deletedIds));
+                deletedCounter.increment(deletedIds.size());
+            } catch (MeilisearchException e) {
+                log.error("Failed to delete {} orders from search index, retrying later. Error: {}", deletedIds.size(), e.getMessage());
+
+                requeue(batch, Operation.DELETE);
+                sent = false;
+            }
+        }
+
+        log.debug("Flushed {} indexed, {} updated and {} deleted orders", documents.size(), statusDocuments.size(), deletedIds.size());
+
+        return sent;
+    }
+
+    /**
+     * Serializes documents to a JSON array, dropping them if they cannot be serialized.
+     *
+     * @return the JSON array, or null if there is no document or they cannot be serialized
+     */
+    private String serialize(List<Object> documents) {
+        if (documents.isEmpty()) {
+            return null;
+        }
+
+        try {
+            return objectMapper.writeValueAsString(documents);
+        } catch (JsonProcessingException e) {
+            log.error("Failed to serialize {} orders to JSON, dropping them. Error: {}", documents.size(), e.getMessage());
+
+            droppedCounter.increment(documents.size());
+
+            return null;
+        }
+    }
+
+    /**
+     * Puts the changes of a kind back into the buffer, unless a newer change of the same order is
+     * pending, while the buffer is not full. A newer pending status update is merged into the
+     * document put back.
+     *
+     * @param batch     the changes which have been drained
+     * @param operation the kind of the changes to put back
+     */
+    private void requeue(Map<UUID, Change> batch, Operation operation) {
+        lock.lock();
+
+        try {
+            if (pending.isEmpty()) {
+                oldestPendingTime = System.currentTimeMillis();
+            }
+
+            batch.forEach((orderId, change) -> {
+                if (change.operation() != operation) {
+                    return;
+                }
+
+                Change pendingChange = pending.get(orderId);
+
+                if (pendingChange != null) {
+                    // A newer status update must not be sent without the document it updates
+                    if (pendingChange.operation() == Operation.UPDATE && operation == Operation.ADD) {
+                        pending.put(orderId, change.merge(pendingChange));
+                    }
+
+                    return;
+                }
+
+                if (pending.size() < capacity) {
+                    pending.put(orderId, change);
+                } else {
+                    droppedCounter.increment();
+                }
+            });
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Continuously flushes the buffer whenever a batch is full or the oldest change exceeds the
+     * maximum delay, until {@link #stop()} is invoked. After a failed flush, waits for the retry backoff.
+     */
+    private void flushContinuously() {
+        while (running) {
+            try {
+                if (awaitFlushDue() && !flush()) {
+                    Thread.sleep(retryBackoff.toMillis());
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                running = false;
+            } catch (RuntimeException e) {
+                log.error("Unexpected error flushing the order indexing buffer", e);
+            }
+        }
+    }
+
+    /**
+     * Waits until a batch is full, the oldest change exceeds the maximum delay or the buffer is stopped.
+     *
+     * @return {@code true} if a flush is due
+     */
+    private boolean awaitFlushDue() throws InterruptedException {
+        lock.lock();
+
+        try {
+            while (running) {
+                if (pending.size() >= batchSize) {
+                    return true;
+                }
+
+                long waitMillis = pending.isEmpty()
+                        ? maxDelay.toMillis()
+                        : oldestPendingTime + maxDelay.toMillis() - System.currentTimeMillis();
+
+                if (!pending.isEmpty() && waitMillis <= 0) {
+                    return true;
+                }
+
+                flushDue.await(waitMillis, TimeUnit.MILLISECONDS);
+            }
+
+            return false;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void signalFlush() {
+        lock.lock();
+
+        try {
+            flushDue.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private enum Operation {
+        ADD,
+        UPDATE,
+        DELETE
+    }
+
+    /**
+     * Pending change of an order: the {@link OrderDocument} to add, the {@link OrderStatusDocument}
+     * to update, or no document to delete the order.
+     */
+    private record Change(Operation operation, Object document) {
+        /**
+         * Coalesces a newer change of the same order into this one. A status update is merged into a
+         * pending document and cannot bring back a deleted order, other changes replace this one.
+         */
+        Change merge(Change newer) {
+            if (newer.operation() != Operation.UPDATE) {
+                return newer;
+            }
+
+            return switch (operation) {
+                case ADD -> new Change(Operation.ADD, ((OrderDocument) document).withStatus((OrderStatusDocument) newer.document()));
+                case UPDATE -> newer;
+                case DELETE -> this;
+            };
+        }
+    }
+}
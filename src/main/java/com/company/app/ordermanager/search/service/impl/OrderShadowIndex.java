@@ -0,0 +1,114 @@
+package com.company.app.ordermanager.search.service.impl;
+
+import com.meilisearch.sdk.Client;
+import com.meilisearch.sdk.Index;
+import com.meilisearch.sdk.exceptions.MeilisearchException;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.redisson.api.RedissonClient;
+import org.redisson.client.RedisException;
+import org.redisson.client.codec.StringCodec;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Shadow order index being rebuilt by a reindex, shared by every node through Redis.
+ * <p>
+ * While a shadow index is active, the changes sent to the live index by the
+ * {@link OrderIndexingBuffer} of every node are mirrored to the shadow index, and the IDs of the
+ * changed orders are recorded. The reindex re-reads the recorded orders once the bulk load is done,
+ * as the bulk load may have read them before they changed but written them after.
+ * <p>
+ * The activation expires unless refreshed, so the changes are not mirrored forever after a reindex
+ * stopped without completing.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class OrderShadowIndex {
+    private static final String SHADOW_INDEX_KEY = "search:reindex:shadow";
+    private static final String CHANGED_ORDERS_KEY = "search:reindex:changed";
+
+    private final RedissonClient redissonClient;
+    private final Client meilisearchClient;
+
+    /**
+     * Activates a shadow index, or refreshes its activation.
+     *
+     * @param indexUid the UID of the shadow index
+     * @param ttl      the time after which the activation expires unless refreshed
+     */
+    public void activate(String indexUid, Duration ttl) {
+        redissonClient.<String>getBucket(SHADOW_INDEX_KEY, StringCodec.INSTANCE).set(indexUid, ttl);
+    }
+
+    /**
+     * Deactivates the shadow index and forgets the recorded changes.
+     */
+    public void deactivate() {
+        redissonClient.getKeys().delete(SHADOW_INDEX_KEY, CHANGED_ORDERS_KEY);
+    }
+
+    /**
+     * Gets the UID of the active shadow index.
+     *
+     * @return the UID of the shadow index, or null if none is active
+     * @throws RedisException if the activation cannot be read
+     */
+    public String getActiveIndexUid() {
+        return redissonClient.<String>getBucket(SHADOW_INDEX_KEY, StringCodec.INSTANCE).get();
+    }
+
+    /**
+     * Removes up to the given number of recorded changed orders.
+     *
+     * @param count the maximum number of orders to remove
+     * @return the IDs of the removed orders, empty if no change is recorded
+     */
+    public Set<String> pollChangedOrderIds(int count) {
+        return redissonClient.<String>getSet(CHANGED_ORDERS_KEY, StringCodec.INSTANCE).removeRandom(count);
+    }
+
+    /**
+     * Records the changed orders and mirrors their changes to the active shadow index, if any.
+     * Failures are only logged, a change which could not be mirrored being repaired when the reindex
+     * re-reads the recorded orders.
+     *
+     * @param orderIds            the IDs of every changed order
+     * @param documentsJson       the JSON array of the added documents, or null if none
+     * @param statusDocumentsJson the JSON array of the partial status documents, or null if none
+     * @param deletedIds          the IDs of the deleted orders
+     */
+    public void mirror(Collection<UUID> orderIds, String documentsJson, String statusDocumentsJson, List<String> deletedIds) {
+        try {
+            String indexUid = getActiveIndexUid();
+
+            if (indexUid == null) {
+                return;
+            }
+
+            // Record the orders first, so they are re-read even if mirroring fails
+            redissonClient.<String>getSet(CHANGED_ORDERS_KEY, StringCodec.INSTANCE)
+                    .addAll(orderIds.stream().map(UUID::toString).toList());
+
+            Index shadowIndex = meilisearchClient.index(indexUid);
+
+            if (documentsJson != null) {
+                shadowIndex.addDocuments(documentsJson);
+            }
+            if (statusDocumentsJson != null) {
+                shadowIndex.updateDocuments(statusDocumentsJson);
+            }
+            if (!deletedIds.isEmpty()) {
+                shadowIndex.deleteDocumentsByFilter(MeilisearchOrderSearchService.idFilter(deletedIds));
+            }
+        } catch (RedisException | MeilisearchException e) {
+            log.warn("Failed to mirror {} order changes to the shadow index. Error: {}", orderIds.size(), e.getMessage());
+        }
+    }
+}
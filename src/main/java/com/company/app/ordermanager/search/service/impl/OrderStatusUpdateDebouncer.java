@@ -0,0 +1,276 @@
+package com.company.app.ordermanager.search.service.impl;
+
+import com.company.app.ordermanager.entity.order.Order;
+import com.company.app.ordermanager.repository.api.order.OrderRepository;
+import com.company.app.ordermanager.search.document.OrderStatusDocument;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.util.Assert;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.DelayQueue;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Debounces the status changes of orders before updating their status in the search index.
+ * <p>
+ * The items of an order usually change status in quick succession, each change in its own
+ * transaction. The first change of an order schedules an update once the debounce window elapses,
+ * and the following changes until then are coalesced into it. When the window elapses, the status
+ * and item counts of the due orders are read in one query, so the update reflects every change
+ * committed meanwhile, and sent to the {@link OrderIndexingBuffer} as partial status documents.
+ * <p>
+ * As a partial document of an order missing from the index would be added as is, the updates of
+ * orders marked as deleted in the database are skipped, whichever node deleted them, including those
+ * of changes committed after the deletion, such as the cancellation of the items of the deleted order.
+ * <p>
+ * Exposes the {@code search.indexing.status.debounced} counter, the number of status changes
+ * coalesced into an update already scheduled.
+ */
+@Slf4j
+@Component
+public class OrderStatusUpdateDebouncer implements SmartLifecycle {
+    private static final String PUBLISHER_THREAD_NAME = "order-status-debouncer";
+    private static final Duration POLL_TIMEOUT = Duration.ofSeconds(1);
+
+    private final OrderRepository orderRepository;
+    private final OrderIndexingBuffer orderIndexingBuffer;
+
+    private final Duration debounce;
+    private final int batchSize;
+
+    private final Counter debouncedCounter;
+
+    private final DelayQueue<ScheduledUpdate> scheduledUpdates = new DelayQueue<>();
+    private final Set<UUID> scheduledOrderIds = ConcurrentHashMap.newKeySet();
+
+    private Thread publisher;
+    private volatile boolean running;
+
+    public OrderStatusUpdateDebouncer(OrderRepository orderRepository,
+                                      OrderIndexingBuffer orderIndexingBuffer,
+                                      MeterRegistry meterRegistry,
+                                      @Value("${meilisearch.status-updates.debounce:1s}") Duration debounce,
+                                      @Value("${meilisearch.status-updates.batch-size:1000}") int batchSize) {
+        Assert.isTrue(!debounce.isNegative(), "Status update debounce must not be negative");
+        Assert.isTrue(batchSize > 0, "Status update batch size must be greater than 0");
+
+        this.orderRepository = orderRepository;
+        this.orderIndexingBuffer = orderIndexingBuffer;
+        this.debounce = debounce;
+        this.batchSize = batchSize;
+
+        this.debouncedCounter = Counter.builder("search.indexing.status.debounced")
+                .description("Number of order status changes coalesced into a scheduled search index update")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Schedules the update of the status of orders once the current transaction commits, or right
+     * away when no transaction is active.
+     *
+     * @param orderIds the unique identifiers of the changed orders
+     */
+    public void scheduleAfterCommit(Collection<UUID> orderIds) {
+        Assert.notNull(orderIds, "Order IDs must not be null");
+
+        if (orderIds.isEmpty()) {
+            return;
+        }
+
+        List<UUID> changed = orderIds.stream().filter(Objects::nonNull).distinct().toList();
+
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            schedule(changed);
+            return;
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                schedule(changed);
+            }
+        });
+    }
+
+    /**
+     * Schedules the update of the status of orders once the debounce window elapses, unless an
+     * update of the same order is already scheduled.
+     *
+     * @param orderIds the unique identifiers of the changed orders
+     */
+    public void schedule(Collection<UUID> orderIds) {
+        long dueTime = System.nanoTime() + debounce.toNanos();
+
+        for (UUID orderId : orderIds) {
+            if (scheduledOrderIds.add(orderId)) {
+                scheduledUpdates.add(new ScheduledUpdate(orderId, dueTime));
+            } else {
+                debouncedCounter.increment();
+            }
+        }
+    }
+
+    /**
+     * Updates the status of up to a batch of orders whose debounce window has elapsed.
+     *
+     * @return the number of orders whose update was due
+     */
+    public int publishDue() {
+        List<ScheduledUpdate> due = new ArrayList<>();
+        scheduledUpdates.drainTo(due, batchSize);
+
+        publish(due);
+
+        return due.size();
+    }
+
+    /**
+     * Starts the publisher thread.
+     */
+    @Override
+    public synchronized void start() {
+        if (running) {
+            return;
+        }
+
+        running = true;
+
+        publisher = new Thread(this::publishContinuously, PUBLISHER_THREAD_NAME);
+        publisher.start();
+
+        log.info("Started order status update debouncer (debounce: {})", debounce);
+    }
+
+    /**
+     * Stops the publisher thread, then updates the status of every scheduled order without waiting
+     * for their debounce window.
+     */
+    @Override
+    public synchronized void stop() {
+        if (!running) {
+            return;
+        }
+
+        running = false;
+
+        try {
+            publisher.join(POLL_TIMEOUT.multipliedBy(2).toMillis());
+        } catch (InterruptedException e) {
+            log.warn("Interrupted while waiting for the order status update publisher to stop");
+
+            Thread.currentThread().interrupt();
+        }
+
+        while (!scheduledUpdates.isEmpty()) {
+            List<ScheduledUpdate> remaining = new ArrayList<>(batchSize);
+            Iterator<ScheduledUpdate> iterator = scheduledUpdates.iterator();
+
+            while (iterator.hasNext() && remaining.size() < batchSize) {
+                remaining.add(iterator.next());
+                iterator.remove();
+            }
+
+            publish(remaining);
+        }
+
+        log.info("Stopped order status update debouncer");
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * Starts after and stops before the {@link OrderIndexingBuffer}, so the scheduled updates are
+     * still sent, and stops after the default phase consumers, so their changes are still scheduled.
+     */
+    @Override
+    public int getPhase() {
+        return SmartLifecycle.DEFAULT_PHASE - 2048;
+    }
+
+    /**
+     * Continuously publishes the due updates, until {@link #stop()} is invoked.
+     */
+    private void publishContinuously() {
+        while (running) {
+            try {
+                ScheduledUpdate next = scheduledUpdates.poll(POLL_TIMEOUT.toMillis(), TimeUnit.MILLISECONDS);
+
+                if (next == null) {
+                    continue;
+                }
+
+                List<ScheduledUpdate> due = new ArrayList<>();
+                due.add(next);
+                scheduledUpdates.drainTo(due, batchSize - 1);
+
+                publish(due);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                running = false;
+            } catch (RuntimeException e) {
+                log.error("Unexpected error publishing order status updates", e);
+            }
+        }
+    }
+
+    /**
+     * Reads the current status of the orders and buffers their partial status documents.
+     */
+    private void publish(List<ScheduledUpdate> updates) {
+        if (updates.isEmpty()) {
+            return;
+        }
+
+        List<UUID> orderIds = updates.stream().map(ScheduledUpdate::orderId).toList();
+
+        // Changes committed from now on schedule a new update, as the read may not see them
+        orderIds.forEach(scheduledOrderIds::remove);
+
+        try {
+            List<Order> orders = orderRepository.findAllById(orderIds);
+
+            orders.stream()
+                    .filter(order -> order.getDeletedAt() == null)
+                    .forEach(order -> orderIndexingBuffer.update(OrderStatusDocument.fromEntity(order)));
+
+            log.debug("Published status updates of {} orders", orders.size());
+        } catch (DataAccessException e) {
+            log.error("Failed to read the status of {} orders, their search documents are left stale. Error: {}", orderIds.size(), e.getMessage());
+        }
+    }
+
+    /**
+     * Update of the status of an order, due once its debounce window elapses.
+     */
+    private record ScheduledUpdate(UUID orderId, long dueTime) implements Delayed {
+        @Override
+        public long getDelay(TimeUnit unit) {
+            return unit.convert(dueTime - System.nanoTime(), TimeUnit.NANOSECONDS);
+        }
+
+        @Override
+        public int compareTo(Delayed other) {
+            return Long.compare(dueTime, ((ScheduledUpdate) other).dueTime);
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package com.company.app.ordermanager.service.api.order;
+
+import com.company.app.ordermanager.dto.order.OrderExportFormat;
+import com.querydsl.core.types.Predicate;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+public interface OrderExportService {
+    long export(Predicate predicate, OrderExportFormat format, boolean includeItems, OutputStream outputStream) throws IOException;
+}
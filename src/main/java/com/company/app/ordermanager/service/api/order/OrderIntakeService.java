@@ -0,0 +1,12 @@
+package com.company.app.ordermanager.service.api.order;
+
+import com.company.app.ordermanager.dto.order.CreateOrderDto;
+import com.company.app.ordermanager.dto.order.OrderIntakeStatusDto;
+
+import java.util.UUID;
+
+public interface OrderIntakeService {
+    OrderIntakeStatusDto submit(CreateOrderDto createOrderDto);
+
+    OrderIntakeStatusDto getStatus(UUID orderId);
+}
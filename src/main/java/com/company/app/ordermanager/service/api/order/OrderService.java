@@ -1,19 +1,32 @@
 package com.company.app.ordermanager.service.api.order;
 
+import com.company.app.ordermanager.dto.order.CreateOrderBatchResultDto;
 import com.company.app.ordermanager.dto.order.CreateOrderDto;
+import com.company.app.ordermanager.dto.order.OrderCursorPageDto;
+import com.company.app.ordermanager.dto.order.OrderSummaryDto;
 import com.company.app.ordermanager.entity.order.Order;
 import com.querydsl.core.types.Predicate;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.UUID;
 
 public interface OrderService {
-    Page<Order> findAll(Predicate predicate, Pageable pageable);
+    Page<OrderSummaryDto> findAll(Predicate predicate, Pageable pageable);
+
+    OrderCursorPageDto scroll(Predicate predicate, String cursor, int size);
 
     Order findById(UUID id);
 
+    String findDetailJsonById(UUID id);
+
     void deleteById(UUID id);
 
     Order createOrder(CreateOrderDto createOrderDto);
+
+    CreateOrderBatchResultDto createOrders(List<CreateOrderDto> createOrderDtos);
+
+    CreateOrderBatchResultDto createQueuedOrders(LinkedHashMap<UUID, CreateOrderDto> queuedOrders);
 }
@@ -1,20 +1,33 @@
 package com.company.app.ordermanager.service.api.orderitem;
 
 import com.company.app.ordermanager.dto.orderitem.CreateOrderItemDto;
+import com.company.app.ordermanager.dto.orderitem.OrderItemStatusUpdate;
 import com.company.app.ordermanager.entity.order.Order;
 import com.company.app.ordermanager.entity.orderitem.OrderItem;
 import com.company.app.ordermanager.entity.orderitem.OrderItemStatus;
 import com.company.app.ordermanager.entity.orderitem.OrderItemStatusReason;
+import com.company.app.ordermanager.entity.product.Product;
 
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.UUID;
 
 public interface OrderItemService {
-    Set<OrderItem> createOrderItems(Order order, Set<CreateOrderItemDto> orderItemDtos);
+    Set<OrderItem> buildOrderItems(Order order, Set<CreateOrderItemDto> orderItemDtos);
+
+    Set<OrderItem> buildOrderItems(Order order, Set<CreateOrderItemDto> orderItemDtos, Map<UUID, Product> products);
+
+    Set<OrderItem> saveOrderItems(Set<OrderItem> orderItems);
 
     Set<OrderItem> cancelOrderItems(Set<UUID> orderItemIds);
 
     void updateOrderItemStatus(UUID orderItemId, OrderItemStatus status, long orderItemVersion);
 
     void updateOrderItemStatusAndReason(UUID orderItemId, OrderItemStatus status, long version, OrderItemStatusReason reason);
+
+    List<Boolean> updateOrderItemStatuses(List<OrderItemStatusUpdate> updates);
+
+    Map<UUID, Long> lockOrderItemVersions(Collection<UUID> orderItemIds);
 }
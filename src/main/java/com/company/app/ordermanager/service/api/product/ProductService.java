@@ -14,4 +14,6 @@ public interface ProductService {
     int getProductStockLevel(UUID productId);
 
     void updateProductStockLevel(UUID productId, int newStockLevel);
+
+    void adjustProductStockLevel(UUID productId, int delta);
 }
@@ -0,0 +1,43 @@
+package com.company.app.ordermanager.service.api.stock;
+
+import com.company.app.ordermanager.dto.stock.StockAdjustment;
+import com.company.app.ordermanager.dto.stock.StockAdjustmentResult;
+import com.company.app.ordermanager.dto.stock.StockReservationResult;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Strategy used by the stock update consumer to reserve and release product stock.
+ * <p>
+ * Implementations are responsible for keeping concurrent reservations of the same product
+ * consistent, either by serializing them or by performing the check-and-update atomically.
+ * The active implementation is selected through the {@code stock.reservation.engine} property.
+ */
+public interface StockReservationService {
+    StockAdjustmentResult apply(UUID productId, List<StockAdjustment> adjustments);
+
+    /**
+     * Applies stock adjustments to several products at once, such as the items of an order, while
+     * holding the stock of every product. In all-or-nothing mode, if any reservation is refused,
+     * every reservation is refused and only the releases are applied.
+     *
+     * @param adjustments  the adjustments to apply, in order, keyed by product ID
+     * @param allOrNothing whether reservations must be accepted for every product or for none
+     * @return the {@link StockAdjustmentResult} of each product, keyed by product ID
+     */
+    Map<UUID, StockAdjustmentResult> applyAll(Map<UUID, List<StockAdjustment>> adjustments, boolean allOrNothing);
+
+    default StockReservationResult reserve(UUID productId, int quantity) {
+        StockAdjustmentResult result = apply(productId, List.of(StockAdjustment.reserve(quantity)));
+
+        return result.accepted().get(0)
+                ? StockReservationResult.reserved(result.stockLevel())
+                : StockReservationResult.insufficientStock(result.stockLevel());
+    }
+
+    default int release(UUID productId, int quantity) {
+        return apply(productId, List.of(StockAdjustment.release(quantity))).stockLevel();
+    }
+}
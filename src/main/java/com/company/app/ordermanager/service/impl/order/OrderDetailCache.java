@@ -0,0 +1,268 @@
+package com.company.app.ordermanager.service.impl.order;
+
+import com.company.app.ordermanager.entity.order.Order;
+import com.company.app.ordermanager.entity.view.JsonViews;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.redisson.api.RLock;
+import org.redisson.api.RScript;
+import org.redisson.api.RedissonClient;
+import org.redisson.client.RedisException;
+import org.redisson.client.codec.StringCodec;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.util.Assert;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Read-through cache of the serialized {@link JsonViews.DetailView} of orders, keyed by order ID.
+ * <p>
+ * Entries are evicted once the transaction changing the order commits, and otherwise expire after
+ * a jittered TTL, as a safety net. Every eviction increments a generation counter of the order,
+ * and a loaded payload is only cached if the generation has not changed since the load started,
+ * so a load racing with a change never caches the order as it was before the change.
+ * <p>
+ * On a miss, a single caller per order loads it, under a Redisson lock, while concurrent callers
+ * wait for the lock and then read the payload it cached. A caller which cannot get the lock in
+ * time loads the order itself, so a slow load never blocks readers for long.
+ * <p>
+ * Exposes the {@code order.detail.cache} counter, tagged by result ({@code hit} or {@code miss}).
+ */
+@Slf4j
+@Component
+public class OrderDetailCache {
+    private static final String PAYLOAD_KEY_PREFIX = "order:detail:";
+    private static final String GENERATION_KEY_PREFIX = "order:detail:generation:";
+    private static final String LOCK_KEY_PREFIX = "order:detail:lock:";
+
+    /*
+     * KEYS[1] - payload key, KEYS[2] - generation key,
+     * ARGV[1] - generation when the load started, empty if none, ARGV[2] - payload, ARGV[3] - TTL in milliseconds.
+     * Caches the payload only if the order has not been evicted since the load started.
+     */
+    private static final String CACHE_SCRIPT = """
+            if (redis.call('GET', KEYS[2]) or '') ~= ARGV[1] then
+                return 0
+            end
+            redis.call('SET', KEYS[1], ARGV[2], 'PX', ARGV[3])
+            return 1
+            """;
+
+    /*
+     * KEYS[1] - payload key, KEYS[2] - generation key,
+     * ARGV[1] - TTL of the generation in milliseconds.
+     * Deletes the payload and moves to the next generation, failing the loads in flight.
+     */
+    private static final String EVICT_SCRIPT = """
+            redis.call('DEL', KEYS[1])
+            redis.call('INCR', KEYS[2])
+            redis.call('PEXPIRE', KEYS[2], ARGV[1])
+            return 1
+            """;
+
+    private final RedissonClient redissonClient;
+    private final ObjectMapper objectMapper;
+
+    private final boolean enabled;
+    private final Duration ttl;
+    private final Duration lockWait;
+
+    private final Counter hitCounter;
+    private final Counter missCounter;
+
+    public OrderDetailCache(RedissonClient redissonClient,
+                            ObjectMapper objectMapper,
+                            MeterRegistry meterRegistry,
+                            @Value("${order.detail-cache.enabled:true}") boolean enabled,
+                            @Value("${order.detail-cache.ttl:5m}") Duration ttl,
+                            @Value("${order.detail-cache.lock-wait:2s}") Duration lockWait) {
+        Assert.isTrue(!ttl.isNegative() && !ttl.isZero(), "Order detail cache TTL must be positive");
+
+        this.redissonClient = redissonClient;
+        this.objectMapper = objectMapper;
+        this.enabled = enabled;
+        this.ttl = ttl;
+        this.lockWait = lockWait;
+
+        this.hitCounter = Counter.builder("order.detail.cache")
+                .description("Number of order detail lookups")
+                .tag("result", "hit")
+                .register(meterRegistry);
+        this.missCounter = Counter.builder("order.detail.cache")
+                .description("Number of order detail lookups")
+                .tag("result", "miss")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Gets the serialized detail view of an order, loading and caching it on a miss.
+     * The loader is called outside any lock held on the database, and exceptions it throws,
+     * such as the order not being found, are propagated without caching anything.
+     *
+     * @param orderId the unique identifier of the order
+     * @param loader  loads the order with its items
+     * @return the JSON detail view of the order
+     */
+    public String get(UUID orderId, Supplier<Order> loader) {
+        Assert.notNull(orderId, "Order ID must not be null");
+
+        if (!enabled) {
+            return serialize(loader.get());
+        }
+
+        String payload = getCached(orderId);
+
+        if (payload != null) {
+            hitCounter.increment();
+            return payload;
+        }
+
+        missCounter.increment();
+
+        RLock lock = redissonClient.getLock(LOCK_KEY_PREFIX + orderId);
+        boolean locked = tryLock(lock);
+
+        try {
+            if (locked) {
+                // Another caller may have loaded the order while this one was waiting
+                payload = getCached(orderId);
+
+                if (payload != null) {
+                    return payload;
+                }
+            }
+
+            String generation = getGeneration(orderId);
+
+            payload = serialize(loader.get());
+
+            cache(orderId, generation, payload);
+
+            return payload;
+        } finally {
+            if (locked && lock.isHeldByCurrentThread()) {
+                lock.unlock();
+            }
+        }
+    }
+
+    /**
+     * Evicts the cached detail views of orders once the current transaction commits, or right away
+     * when no transaction is active.
+     *
+     * @param orderIds the unique identifiers of the changed orders
+     */
+    public void evictAfterCommit(Collection<UUID> orderIds) {
+        Assert.notNull(orderIds, "Order IDs must not be null");
+
+        if (!enabled || orderIds.isEmpty()) {
+            return;
+        }
+
+        List<UUID> evicted = orderIds.stream().filter(Objects::nonNull).distinct().toList();
+
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            evict(evicted);
+            return;
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                evict(evicted);
+            }
+        });
+    }
+
+    private void evict(List<UUID> orderIds) {
+        for (UUID orderId : orderIds) {
+            try {
+                redissonClient.getScript(StringCodec.INSTANCE).eval(
+                        RScript.Mode.READ_WRITE,
+                        EVICT_SCRIPT,
+                        RScript.ReturnType.INTEGER,
+                        List.of(PAYLOAD_KEY_PREFIX + orderId, GENERATION_KEY_PREFIX + orderId),
+                        String.valueOf(ttl.multipliedBy(2).toMillis())
+                );
+            } catch (RedisException e) {
+                log.error("Failed to evict cached details of order {}, they expire within {}. Error: {}", orderId, ttl, e.getMessage());
+            }
+        }
+    }
+
+    private String getCached(UUID orderId) {
+        try {
+            return redissonClient.<String>getBucket(PAYLOAD_KEY_PREFIX + orderId, StringCodec.INSTANCE).get();
+        } catch (RedisException e) {
+            log.warn("Failed to read cached details of order {}. Error: {}", orderId, e.getMessage());
+            return null;
+        }
+    }
+
+    private String getGeneration(UUID orderId) {
+        try {
+            String generation = redissonClient.<String>getBucket(GENERATION_KEY_PREFIX + orderId, StringCodec.INSTANCE).get();
+            return generation != null ? generation : "";
+        } catch (RedisException e) {
+            // An unknown generation never matches, so the payload is not cached
+            return null;
+        }
+    }
+
+    private void cache(UUID orderId, String generation, String payload) {
+        if (generation == null) {
+            return;
+        }
+
+        // Jitter the TTL, so entries cached together do not expire together
+        long ttlMillis = ttl.toMillis() + ThreadLocalRandom.current().nextLong(ttl.toMillis() / 10 + 1);
+
+        try {
+            redissonClient.getScript(StringCodec.INSTANCE).eval(
+                    RScript.Mode.READ_WRITE,
+                    CACHE_SCRIPT,
+                    RScript.ReturnType.INTEGER,
+                    List.of(PAYLOAD_KEY_PREFIX + orderId, GENERATION_KEY_PREFIX + orderId),
+                    generation,
+                    payload,
+                    String.valueOf(ttlMillis)
+            );
+        } catch (RedisException e) {
+            log.warn("Failed to cache details of order {}. Error: {}", orderId, e.getMessage());
+        }
+    }
+
+    private boolean tryLock(RLock lock) {
+        try {
+            // Lease the lock for as long as the TTL, so a crashed loader does not hold it forever
+            return lock.tryLock(lockWait.toMillis(), ttl.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        } catch (RedisException e) {
+            log.warn("Failed to acquire lock {}. Error: {}", lock.getName(), e.getMessage());
+            return false;
+        }
+    }
+
+    private String serialize(Order order) {
+        try {
+            return objectMapper.writerWithView(JsonViews.DetailView.class).writeValueAsString(order);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to serialize order " + order.getId(), e);
+        }
+    }
+}
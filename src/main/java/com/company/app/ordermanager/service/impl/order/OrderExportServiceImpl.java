@@ -0,0 +1,211 @@
+package com.company.app.ordermanager.service.impl.order;
+
+import com.company.app.ordermanager.dto.order.OrderExportDto;
+import com.company.app.ordermanager.dto.order.OrderExportFormat;
+import com.company.app.ordermanager.dto.order.OrderExportRow;
+import com.company.app.ordermanager.entity.order.Order;
+import com.company.app.ordermanager.repository.api.order.OrderRepository;
+import com.company.app.ordermanager.service.api.order.OrderExportService;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.querydsl.core.types.Predicate;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.util.Assert;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Objects;
+import java.util.stream.Stream;
+
+/**
+ * Streams exports of {@link Order}s from a forward-only database cursor straight to an output stream.
+ * <p>
+ * Rows are projections fetched a few at a time and written as soon as they are read, so neither the
+ * matching orders nor the export are ever held in memory, whatever their number. When items are
+ * exported, only the items of the order being written are held. No count query is run.
+ */
+@Slf4j
+@Service
+public class OrderExportServiceImpl implements OrderExportService {
+    private static final String[] CSV_ORDER_HEADER = {"order_id", "customer_name", "description", "status", "created_at"};
+    private static final String[] CSV_ITEM_HEADER = {"item_id", "product_id", "quantity", "purchase_price", "item_status"};
+
+    private final OrderRepository orderRepository;
+    private final ObjectWriter ndjsonWriter;
+    private final int fetchSize;
+
+    public OrderExportServiceImpl(OrderRepository orderRepository,
+                                  ObjectMapper objectMapper,
+                                  @Value("${order.export.fetch-size:1000}") int fetchSize) {
+        Assert.isTrue(fetchSize > 0, "Order export fetch size must be greater than 0");
+
+        this.orderRepository = orderRepository;
+        // Lines are terminated explicitly, and flushing is left to the output buffers rather than done every line
+        this.ndjsonWriter = objectMapper.writerFor(OrderExportDto.class)
+                .withRootValueSeparator((String) null)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        this.fetchSize = fetchSize;
+    }
+
+    /**
+     * Writes the {@link Order}s matching the given {@link Predicate} to an output stream, in primary
+     * key order, within a single read-only transaction. The output stream is flushed but not closed.
+     *
+     * @param predicate    the condition to filter orders.
+     * @param format       the format of the export.
+     * @param includeItems whether to export the items of the orders.
+     * @param outputStream the stream to write the export to.
+     * @return the number of exported orders.
+     * @throws IllegalArgumentException if predicate, format or outputStream is null.
+     * @throws IOException              if the export cannot be written, typically because the client disconnected.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public long export(Predicate predicate, OrderExportFormat format, boolean includeItems, OutputStream outputStream) throws IOException {
+        Assert.notNull(predicate, "Predicate must not be null");
+        Assert.notNull(format, "Export format must not be null");
+        Assert.notNull(outputStream, "Output stream must not be null");
+
+        long exported;
+
+        try (Stream<OrderExportRow> rows = orderRepository.streamExportRows(predicate, includeItems, fetchSize)) {
+            exported = switch (format) {
+                case NDJSON -> writeNdjson(rows.iterator(), includeItems, outputStream);
+                case CSV -> writeCsv(rows.iterator(), includeItems, outputStream);
+            };
+        }
+
+        log.debug("Exported {} orders as {}", exported, format);
+
+        return exported;
+    }
+
+    /**
+     * Writes one JSON object per order and line, grouping the adjacent rows of each order.
+     */
+    private long writeNdjson(Iterator<OrderExportRow> rows, boolean includeItems, OutputStream outputStream) throws IOException {
+        long exported = 0;
+
+        try (JsonGenerator generator = ndjsonWriter.createGenerator(outputStream)) {
+            // Keep the response stream open for the caller
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+
+            OrderExportRow order = null;
+            List<OrderExportDto.Item> items = new ArrayList<>();
+
+            while (rows.hasNext()) {
+                OrderExportRow row = rows.next();
+
+                if (order != null && !order.orderId().equals(row.orderId())) {
+                    writeNdjsonLine(generator, order, includeItems ? items : null);
+                    exported++;
+                    items = new ArrayList<>();
+                }
+
+                order = row;
+
+                if (row.hasItem()) {
+                    items.add(new OrderExportDto.Item(row.itemId(), row.productId(), row.quantity(), row.purchasePrice(), row.itemStatus()));
+                }
+            }
+
+            if (order != null) {
+                writeNdjsonLine(generator, order, includeItems ? items : null);
+                exported++;
+            }
+        }
+
+        return exported;
+    }
+
+    private void writeNdjsonLine(JsonGenerator generator, OrderExportRow order, List<OrderExportDto.Item> items) throws IOException {
+        ndjsonWriter.writeValue(generator, new OrderExportDto(
+                order.orderId(), order.customerName(), order.description(), order.status(), order.createdAt(), items));
+        generator.writeRaw('\n');
+    }
+
+    /**
+     * Writes one CSV line per row, that is per order, or per item when items are exported.
+     */
+    private long writeCsv(Iterator<OrderExportRow> rows, boolean includeItems, OutputStream outputStream) throws IOException {
+        long exported = 0;
+        Writer writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8));
+
+        writeCsvLine(writer, includeItems
+                ? Stream.concat(Stream.of(CSV_ORDER_HEADER), Stream.of(CSV_ITEM_HEADER)).toArray(String[]::new)
+                : CSV_ORDER_HEADER);
+
+        Object lastOrderId = null;
+
+        while (rows.hasNext()) {
+            OrderExportRow row = rows.next();
+
+            String[] orderColumns = {
+                    row.orderId().toString(),
+                    row.customerName(),
+                    row.description(),
+                    Objects.toString(row.status(), null),
+                    row.createdAt() != null ? DateTimeFormatter.ISO_INSTANT.format(row.createdAt()) : null
+            };
+
+            writeCsvLine(writer, includeItems
+                    ? Stream.concat(Stream.of(orderColumns), Stream.of(
+                            Objects.toString(row.itemId(), null),
+                            Objects.toString(row.productId(), null),
+                            Objects.toString(row.quantity(), null),
+                            row.purchasePrice() != null ? row.purchasePrice().toPlainString() : null,
+                            Objects.toString(row.itemStatus(), null))).toArray(String[]::new)
+                    : orderColumns);
+
+            if (!row.orderId().equals(lastOrderId)) {
+                lastOrderId = row.orderId();
+                exported++;
+            }
+        }
+
+        writer.flush();
+
+        return exported;
+    }
+
+    /**
+     * Writes a CSV line as defined by RFC 4180, quoting the values containing a separator, a quote
+     * or a line break. Null values are written as empty values.
+     */
+    private void writeCsvLine(Writer writer, String[] values) throws IOException {
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) {
+                writer.write(',');
+            }
+
+            String value = values[i];
+
+            if (value == null) {
+                continue;
+            }
+
+            if (value.indexOf(',') >= 0 || value.indexOf('"') >= 0 || value.indexOf('\n') >= 0 || value.indexOf('\r') >= 0) {
+                writer.write('"');
+                writer.write(value.replace("\"", "\"\""));
+                writer.write('"');
+            } else {
+                writer.write(value);
+            }
+        }
+
+        writer.write("\r\n");
+    }
+}
@@ -0,0 +1,519 @@
+package com.company.app.ordermanager.service.impl.order;
+
+import com.company.app.ordermanager.dto.order.CreateOrderBatchResultDto;
+import com.company.app.ordermanager.dto.order.CreateOrderDto;
+import com.company.app.ordermanager.dto.order.CreateOrderResultDto;
+import com.company.app.ordermanager.dto.order.OrderIntakeStatus;
+import com.company.app.ordermanager.dto.order.OrderIntakeStatusDto;
+import com.company.app.ordermanager.messaging.dto.OrderIntakeMessage;
+import com.company.app.ordermanager.messaging.redis.StreamFields;
+import com.company.app.ordermanager.repository.api.order.OrderRepository;
+import com.company.app.ordermanager.service.api.order.OrderService;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.redisson.api.BatchOptions;
+import org.redisson.api.PendingEntry;
+import org.redisson.api.RBatch;
+import org.redisson.api.RStream;
+import org.redisson.api.RStreamAsync;
+import org.redisson.api.RedissonClient;
+import org.redisson.api.StreamMessageId;
+import org.redisson.api.stream.StreamCreateGroupArgs;
+import org.redisson.api.stream.StreamReadGroupArgs;
+import org.redisson.client.RedisException;
+import org.redisson.client.codec.StringCodec;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+import org.springframework.util.Assert;
+import org.springframework.util.StringUtils;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Pool of intake workers creating the orders queued on the order intake stream in micro-batches.
+ * <p>
+ * Each worker reads up to a batch of queued orders with a blocking {@code XREADGROUP}, creates them
+ * with a single call to {@link OrderService#createQueuedOrders}, that is in a single transaction with
+ * batched inserts, then records the outcome of every order and acknowledges and deletes its entry in
+ * a single pipelined round trip. The number of workers bounds the database connections used by the
+ * intake, whatever the rate orders are submitted at.
+ * <p>
+ * Orders of a batch failing as a whole are retried one by one, so a single order failing on insert
+ * is reported as failed without holding up the others. An order failing for another reason, such as
+ * the database being unavailable, is left pending. Entries left pending for longer than the claim
+ * idle time, including those of a stopped node, are claimed again by any worker. As an order may have
+ * been created before its entry could be acknowledged, orders which already exist are skipped. An
+ * order whose entry has been delivered more than the maximum number of times is reported as failed
+ * and its entry acknowledged, so an order which can never be created does not stay pending forever.
+ * <p>
+ * Workers are named after the configured consumer name, or the host name, so that a restarted node
+ * resumes its own pending entries instead of leaving consumers behind in the consumer group.
+ * <p>
+ * Exposes the {@code order.intake.orders} counter, tagged by result ({@code created} or {@code failed}).
+ */
+@Slf4j
+@Component
+public class OrderIntakeConsumer implements SmartLifecycle {
+    private static final String WORKER_THREAD_NAME_PREFIX = "order-intake-worker-";
+
+    private static final Duration READ_FAILURE_BACKOFF = Duration.ofSeconds(1);
+
+    private static final Comparator<StreamMessageId> MESSAGE_ID_ORDER =
+            Comparator.comparingLong(StreamMessageId::getId0).thenComparingLong(StreamMessageId::getId1);
+
+    private final RedissonClient redissonClient;
+    private final ObjectMapper objectMapper;
+    private final OrderService orderService;
+    private final OrderRepository orderRepository;
+
+    private final int workerCount;
+    private final int batchSize;
+    private final Duration waitTimeout;
+    private final Duration claimInterval;
+    private final Duration claimIdleTime;
+    private final int maxDeliveries;
+    private final Duration statusTtl;
+    private final Duration shutdownTimeout;
+    private final String consumerNamePrefix;
+
+    private final Counter createdCounter;
+    private final Counter failedCounter;
+
+    private final List<Thread> workers = new ArrayList<>();
+
+    private volatile boolean running;
+
+    public OrderIntakeConsumer(RedissonClient redissonClient,
+                               ObjectMapper objectMapper,
+                               OrderService orderService,
+                               OrderRepository orderRepository,
+                               MeterRegistry meterRegistry,
+                               @Value("${order.intake.workers:2}") int workerCount,
+                               @Value("${order.intake.batch-size:100}") int batchSize,
+                               @Value("${order.intake.wait-timeout:2s}") Duration waitTimeout,
+                               @Value("${order.intake.claim-interval:5s}") Duration claimInterval,
+                               @Value("${order.intake.claim-idle-time:1m}") Duration claimIdleTime,
+                               @Value("${order.intake.max-deliveries:5}") int maxDeliveries,
+                               @Value("${order.intake.status-ttl:24h}") Duration statusTtl,
+                               @Value("${order.intake.shutdown-timeout:30s}") Duration shutdownTimeout,
+                               @Value("${order.intake.consumer-name:}") String consumerName) {
+        Assert.isTrue(workerCount >= 0, "Order intake worker count must not be negative");
+        Assert.isTrue(batchSize > 0 && batchSize <= 1000, "Order intake batch size must be between 1 and 1000");
+        Assert.isTrue(maxDeliveries > 0, "Order intake max deliveries must be positive");
+
+        this.redissonClient = redissonClient;
+        this.objectMapper = objectMapper;
+        this.orderService = orderService;
+        this.orderRepository = orderRepository;
+        this.workerCount = workerCount;
+        this.batchSize = batchSize;
+        this.waitTimeout = waitTimeout;
+        this.claimInterval = claimInterval;
+        this.claimIdleTime = claimIdleTime;
+        this.maxDeliveries = maxDeliveries;
+        this.statusTtl = statusTtl;
+        this.shutdownTimeout = shutdownTimeout;
+        this.consumerNamePrefix = resolveConsumerName(consumerName) + "-";
+
+        this.createdCounter = Counter.builder("order.intake.orders")
+                .description("Number of queued orders processed by the intake workers")
+                .tag("result", "created")
+                .register(meterRegistry);
+        this.failedCounter = Counter.builder("order.intake.orders")
+                .description("Number of queued orders processed by the intake workers")
+                .tag("result", "failed")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Creates the consumer group of the intake stream if needed and starts the intake workers.
+     */
+    @Override
+    public synchronized void start() {
+        if (running || workerCount == 0) {
+            return;
+        }
+
+        initializeStream();
+
+        running = true;
+
+        for (int i = 0; i < workerCount; i++) {
+            String consumerName = consumerNamePrefix + i;
+            Thread worker = new Thread(() -> consume(consumerName), WORKER_THREAD_NAME_PREFIX + i);
+            workers.add(worker);
+            worker.start();
+        }
+
+        log.info("Started {} order intake workers (batch size: {}, wait timeout: {})", workerCount, batchSize, waitTimeout);
+    }
+
+    /**
+     * Signals the workers to stop and waits for them to complete their in-flight batch. The consumers
+     * of the workers are removed from the consumer group unless they left entries pending.
+     */
+    @Override
+    public synchronized void stop() {
+        if (!running) {
+            return;
+        }
+
+        running = false;
+
+        try {
+            for (Thread worker : workers) {
+                worker.join(shutdownTimeout.toMillis());
+            }
+        } catch (InterruptedException e) {
+            log.warn("Interrupted while waiting for the order intake workers to drain");
+
+            Thread.currentThread().interrupt();
+        }
+
+        removeIdleConsumers();
+        workers.clear();
+
+        log.info("Stopped order intake workers");
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * Continuously reads new entries and creates their orders, until {@link #stop()} is invoked. Every
+     * claim interval, entries left pending for longer than the claim idle time are claimed and processed
+     * first. The read blocks for at most the configured wait timeout, so the stop flag is re-evaluated
+     * regularly.
+     *
+     * @param consumerName the name of the worker in the consumer group
+     */
+    private void consume(String consumerName) {
+        RStream<String, String> stream = redissonClient.getStream(OrderIntakeServiceImpl.STREAM_KEY);
+        long nextClaim = 0;
+
+        while (running) {
+            try {
+                Map<StreamMessageId, Map<String, String>> entries = Map.of();
+                Set<StreamMessageId> exhaustedIds = Set.of();
+
+                if (System.currentTimeMillis() >= nextClaim) {
+                    entries = stream.autoClaim(
+                            OrderIntakeServiceImpl.GROUP_NAME, consumerName, claimIdleTime.toMillis(), TimeUnit.MILLISECONDS, StreamMessageId.MIN, batchSize
+                    ).getMessages();
+                    exhaustedIds = findExhaustedEntries(stream, consumerName, entries.keySet());
+
+                    // Keep claiming while a full batch was left pending
+                    if (entries.size() < batchSize) {
+                        nextClaim = System.currentTimeMillis() + claimInterval.toMillis();
+                    }
+                }
+
+                if (entries.isEmpty()) {
+                    entries = stream.readGroup(
+                            OrderIntakeServiceImpl.GROUP_NAME,
+                            consumerName,
+                            StreamReadGroupArgs.neverDelivered().count(batchSize).timeout(waitTimeout)
+                    );
+                }
+
+                if (!entries.isEmpty()) {
+                    processEntries(stream, entries, exhaustedIds);
+                }
+            } catch (RedisException e) {
+                log.error("Failed to read queued orders from stream. Error: {}", e.getMessage());
+
+                pause(READ_FAILURE_BACKOFF);
+            }
+        }
+    }
+
+    /**
+     * Finds the claimed entries which have been delivered more than the maximum number of times,
+     * counting the claim itself as a delivery.
+     *
+     * @param stream       the intake stream
+     * @param consumerName the name of the worker which claimed the entries
+     * @param claimedIds   the IDs of the claimed entries
+     * @return the IDs of the entries not to be retried again
+     */
+    private Set<StreamMessageId> findExhaustedEntries(RStream<String, String> stream, String consumerName, Set<StreamMessageId> claimedIds) {
+        if (claimedIds.isEmpty()) {
+            return Set.of();
+        }
+
+        StreamMessageId firstId = claimedIds.stream().min(MESSAGE_ID_ORDER).orElseThrow();
+        StreamMessageId lastId = claimedIds.stream().max(MESSAGE_ID_ORDER).orElseThrow();
+
+        // The claimed entries are now pending on this consumer, along with at most its in-flight batch
+        return stream.listPending(OrderIntakeServiceImpl.GROUP_NAME, consumerName, firstId, lastId, claimedIds.size() + batchSize)
+                .stream()
+                .filter(entry -> entry.getLastTimeDelivered() > maxDeliveries && claimedIds.contains(entry.getId()))
+                .map(PendingEntry::getId)
+                .collect(Collectors.toSet());
+    }
+
+    /**
+     * Creates the orders of a batch of intake entries, then records their outcome and acknowledges the
+     * entries of the processed orders. Malformed entries are acknowledged without further processing,
+     * and orders whose entry has been delivered too many times are reported as failed.
+     *
+     * @param stream       the intake stream
+     * @param entries      the intake entries, keyed by stream message ID
+     * @param exhaustedIds the IDs of the entries which are not to be retried again
+     */
+    private void processEntries(RStream<String, String> stream,
+                                Map<StreamMessageId, Map<String, String>> entries,
+                                Set<StreamMessageId> exhaustedIds) {
+        LinkedHashMap<UUID, CreateOrderDto> queuedOrders = new LinkedHashMap<>();
+        Map<UUID, StreamMessageId> messageIds = new LinkedHashMap<>();
+        List<StreamMessageId> processedIds = new ArrayList<>(entries.size());
+
+        entries.forEach((messageId, fields) -> {
+            try {
+                OrderIntakeMessage message = objectMapper.readValue(fields.get(StreamFields.MESSAGE.getField()), OrderIntakeMessage.class);
+
+                queuedOrders.put(message.orderId(), message.order());
+                messageIds.put(message.orderId(), messageId);
+            } catch (JsonProcessingException | IllegalArgumentException e) {
+                log.error("Failed to parse queued order {}: {}. Error: {}", messageId, fields, e.getMessage());
+
+                // Malformed entry, acknowledge it to avoid reprocessing
+                processedIds.add(messageId);
+            }
+        });
+
+        List<OrderIntakeStatusDto> statuses = new ArrayList<>(queuedOrders.size());
+
+        if (!queuedOrders.isEmpty()) {
+            // Orders created before their entry could be acknowledged are delivered again
+            Set<UUID> existingIds = orderRepository.findExistingIds(queuedOrders.keySet());
+            existingIds.forEach(orderId -> {
+                queuedOrders.remove(orderId);
+                statuses.add(OrderIntakeStatusDto.created(orderId));
+            });
+
+            Set<UUID> exhaustedOrderIds = new HashSet<>();
+            queuedOrders.keySet().removeIf(orderId -> exhaustedIds.contains(messageIds.get(orderId)) && exhaustedOrderIds.add(orderId));
+            exhaustedOrderIds.forEach(orderId -> {
+                log.error("Queued order {} was delivered more than {} times, giving up", orderId, maxDeliveries);
+
+                statuses.add(OrderIntakeStatusDto.failed(orderId, "Order could not be created after " + maxDeliveries + " attempts"));
+            });
+
+            statuses.addAll(createOrders(queuedOrders));
+        }
+
+        statuses.forEach(status -> processedIds.add(messageIds.get(status.orderId())));
+
+        complete(stream, statuses, processedIds);
+    }
+
+    /**
+     * Creates queued orders in a single transaction, or one by one if the batch fails as a whole.
+     *
+     * @param queuedOrders the orders to create, by their assigned identifier
+     * @return the outcome of the processed orders, orders left pending are omitted
+     */
+    private List<OrderIntakeStatusDto> createOrders(LinkedHashMap<UUID, CreateOrderDto> queuedOrders) {
+        if (queuedOrders.isEmpty()) {
+            return List.of();
+        }
+
+        try {
+            return toStatuses(queuedOrders, orderService.createQueuedOrders(queuedOrders));
+        } catch (RuntimeException e) {
+            if (queuedOrders.size() == 1) {
+                return handleFailure(queuedOrders, e);
+            }
+
+            log.warn("Failed to create a batch of {} queued orders, retrying them one by one. Error: {}", queuedOrders.size(), e.getMessage());
+        }
+
+        List<OrderIntakeStatusDto> statuses = new ArrayList<>(queuedOrders.size());
+
+        queuedOrders.forEach((orderId, createOrderDto) -> {
+            LinkedHashMap<UUID, CreateOrderDto> queuedOrder = new LinkedHashMap<>(Map.of(orderId, createOrderDto));
+
+            try {
+                statuses.addAll(toStatuses(queuedOrder, orderService.createQueuedOrders(queuedOrder)));
+            } catch (RuntimeException e) {
+                statuses.addAll(handleFailure(queuedOrder, e));
+            }
+        });
+
+        return statuses;
+    }
+
+    /**
+     * Handles the failure of a single queued order. An order rejected by the database is reported as
+     * failed, while an order failing for another reason is left pending, to be claimed again later.
+     *
+     * @param queuedOrder the single order which failed, by its assigned identifier
+     * @param failure     the cause of the failure
+     * @return the failed status of the order, or nothing if the order is left pending
+     */
+    private List<OrderIntakeStatusDto> handleFailure(LinkedHashMap<UUID, CreateOrderDto> queuedOrder, RuntimeException failure) {
+        UUID orderId = queuedOrder.keySet().iterator().next();
+
+        if (failure instanceof DataIntegrityViolationException || failure instanceof IllegalArgumentException) {
+            log.error("Failed to create queued order {}. Error: {}", orderId, failure.getMessage());
+
+            return List.of(OrderIntakeStatusDto.failed(orderId, "Order rejected by the database"));
+        }
+
+        if (failure instanceof DataAccessException) {
+            log.warn("Failed to create queued order {}, leaving it pending. Error: {}", orderId, failure.getMessage());
+        } else {
+            log.error("Unexpected error creating queued order {}, leaving it pending", orderId, failure);
+        }
+
+        return List.of();
+    }
+
+    private List<OrderIntakeStatusDto> toStatuses(LinkedHashMap<UUID, CreateOrderDto> queuedOrders, CreateOrderBatchResultDto result) {
+        List<UUID> orderIds = new ArrayList<>(queuedOrders.keySet());
+        List<OrderIntakeStatusDto> statuses = new ArrayList<>(orderIds.size());
+
+        for (CreateOrderResultDto orderResult : result.getResults()) {
+            UUID orderId = orderIds.get(orderResult.index());
+
+            statuses.add(orderResult.isCreated()
+                    ? OrderIntakeStatusDto.created(orderId)
+                    : OrderIntakeStatusDto.failed(orderId, orderResult.error()));
+        }
+
+        return statuses;
+    }
+
+    /**
+     * Records the outcome of the processed orders, then acknowledges and deletes their entries, in a
+     * single pipelined round trip. If it fails, the entries stay pending and are claimed again later,
+     * when the orders already created are skipped.
+     *
+     * @param stream       the intake stream
+     * @param statuses     the outcome of the processed orders
+     * @param processedIds the IDs of the entries to acknowledge
+     */
+    private void complete(RStream<String, String> stream, List<OrderIntakeStatusDto> statuses, List<StreamMessageId> processedIds) {
+        if (processedIds.isEmpty()) {
+            return;
+        }
+
+        RBatch batch = redissonClient.createBatch(BatchOptions.defaults());
+
+        for (OrderIntakeStatusDto status : statuses) {
+            try {
+                batch.<String>getBucket(OrderIntakeServiceImpl.statusKey(status.orderId()), StringCodec.INSTANCE)
+                        .setAsync(objectMapper.writeValueAsString(status), statusTtl);
+            } catch (JsonProcessingException e) {
+                log.error("Failed to serialize intake status of order {}. Error: {}", status.orderId(), e.getMessage());
+            }
+        }
+
+        StreamMessageId[] messageIds = processedIds.toArray(new StreamMessageId[0]);
+        RStreamAsync<String, String> batchStream = batch.getStream(stream.getName());
+        batchStream.ackAsync(OrderIntakeServiceImpl.GROUP_NAME, messageIds);
+        batchStream.removeAsync(messageIds);
+
+        try {
+            batch.execute();
+        } catch (RedisException e) {
+            log.error("Failed to acknowledge {} queued orders, they will be claimed again. Error: {}", messageIds.length, e.getMessage());
+            return;
+        }
+
+        long created = statuses.stream().filter(status -> status.status() == OrderIntakeStatus.CREATED).count();
+        createdCounter.increment(created);
+        failedCounter.increment(statuses.size() - created);
+
+        log.debug("Processed {} queued orders, {} created", statuses.size(), created);
+    }
+
+    /**
+     * Removes the consumers of the stopped workers from the consumer group, unless they left entries
+     * pending, which would otherwise never be delivered again.
+     */
+    private void removeIdleConsumers() {
+        RStream<String, String> stream = redissonClient.getStream(OrderIntakeServiceImpl.STREAM_KEY);
+
+        try {
+            Map<String, Long> pendingByConsumer = stream.getPendingInfo(OrderIntakeServiceImpl.GROUP_NAME).getConsumerNames();
+
+            for (int i = 0; i < workers.size(); i++) {
+                String consumerName = consumerNamePrefix + i;
+
+                if (!workers.get(i).isAlive() && pendingByConsumer.getOrDefault(consumerName, 0L) == 0) {
+                    stream.removeConsumer(OrderIntakeServiceImpl.GROUP_NAME, consumerName);
+                }
+            }
+        } catch (RedisException e) {
+            log.warn("Failed to remove order intake consumers. Error: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Resolves the base name of the workers, kept across restarts. The configured name is used if any,
+     * otherwise the host name, which is unique per container in a typical deployment.
+     */
+    private static String resolveConsumerName(String configuredName) {
+        if (StringUtils.hasText(configuredName)) {
+            return configuredName;
+        }
+
+        try {
+            return "intake-" + InetAddress.getLocalHost().getHostName();
+        } catch (UnknownHostException e) {
+            String consumerName = "intake-" + UUID.randomUUID();
+
+            log.warn("Could not resolve host name, using random order intake consumer name {}. Error: {}", consumerName, e.getMessage());
+
+            return consumerName;
+        }
+    }
+
+    private void initializeStream() {
+        RStream<String, String> stream = redissonClient.getStream(OrderIntakeServiceImpl.STREAM_KEY);
+
+        try {
+            // Start from the first entry, orders may have been queued before the group existed
+            stream.createGroup(StreamCreateGroupArgs.name(OrderIntakeServiceImpl.GROUP_NAME).makeStream().id(StreamMessageId.ALL));
+
+            log.info("Created consumer group: {} on stream: {}", OrderIntakeServiceImpl.GROUP_NAME, OrderIntakeServiceImpl.STREAM_KEY);
+        } catch (RedisException e) {
+            if (e.getMessage() != null && e.getMessage().contains("BUSYGROUP")) {
+                log.debug("Consumer group {} already exists on stream: {}", OrderIntakeServiceImpl.GROUP_NAME, OrderIntakeServiceImpl.STREAM_KEY);
+            } else {
+                log.error("Failed to initialize consumer group on stream: {}. Error: {}", OrderIntakeServiceImpl.STREAM_KEY, e.getMessage());
+            }
+        }
+    }
+
+    private void pause(Duration duration) {
+        try {
+            Thread.sleep(duration.toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            running = false;
+        }
+    }
+}
@@ -0,0 +1,136 @@
+package com.company.app.ordermanager.service.impl.order;
+
+import com.company.app.ordermanager.dto.order.CreateOrderDto;
+import com.company.app.ordermanager.dto.order.OrderIntakeStatusDto;
+import com.company.app.ordermanager.entity.common.TimeOrderedUuidGenerator;
+import com.company.app.ordermanager.entity.order.Order;
+import com.company.app.ordermanager.exception.order.OrderIntakeUnavailableException;
+import com.company.app.ordermanager.exception.order.OrderNotFoundException;
+import com.company.app.ordermanager.messaging.dto.OrderIntakeMessage;
+import com.company.app.ordermanager.messaging.redis.StreamFields;
+import com.company.app.ordermanager.repository.api.order.OrderRepository;
+import com.company.app.ordermanager.service.api.order.OrderIntakeService;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.redisson.api.BatchOptions;
+import org.redisson.api.RBatch;
+import org.redisson.api.RedissonClient;
+import org.redisson.api.stream.StreamAddArgs;
+import org.redisson.client.RedisException;
+import org.redisson.client.codec.StringCodec;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.util.Assert;
+
+import java.time.Duration;
+import java.util.UUID;
+
+/**
+ * Queues orders for deferred creation on the order intake stream, and tracks their progress.
+ * <p>
+ * An order is assigned its identifier and appended to the stream along with its {@code QUEUED}
+ * status in a single atomic Redis transaction, without touching the database, so the request
+ * latency does not depend on the database write latency. The {@link OrderIntakeConsumer} then
+ * creates the queued orders in micro-batches and records their outcome. Statuses expire after
+ * the configured TTL, after which the status of a created order is derived from the database.
+ */
+@Slf4j
+@Service
+public class OrderIntakeServiceImpl implements OrderIntakeService {
+    static final String STREAM_KEY = "order:intake:stream";
+    static final String GROUP_NAME = "order-intake-group";
+    private static final String STATUS_KEY_PREFIX = "order:intake:status:";
+
+    private final RedissonClient redissonClient;
+    private final ObjectMapper objectMapper;
+    private final OrderRepository orderRepository;
+
+    private final Duration statusTtl;
+
+    public OrderIntakeServiceImpl(RedissonClient redissonClient,
+                                  ObjectMapper objectMapper,
+                                  OrderRepository orderRepository,
+                                  @Value("${order.intake.status-ttl:24h}") Duration statusTtl) {
+        Assert.isTrue(!statusTtl.isNegative() && !statusTtl.isZero(), "Order intake status TTL must be positive");
+
+        this.redissonClient = redissonClient;
+        this.objectMapper = objectMapper;
+        this.orderRepository = orderRepository;
+        this.statusTtl = statusTtl;
+    }
+
+    /**
+     * Assigns an identifier to a validated order and queues it for creation by the intake workers.
+     *
+     * @param createOrderDto the validated details of the order to create.
+     * @return the {@code QUEUED} status of the order, carrying its assigned identifier.
+     * @throws IllegalArgumentException        if createOrderDto is null.
+     * @throws OrderIntakeUnavailableException if the order cannot be queued.
+     */
+    @Override
+    public OrderIntakeStatusDto submit(CreateOrderDto createOrderDto) {
+        Assert.notNull(createOrderDto, "Create order DTO must not be null");
+
+        UUID orderId = TimeOrderedUuidGenerator.generate();
+        OrderIntakeStatusDto status = OrderIntakeStatusDto.queued(orderId);
+
+        try {
+            String messageJson = objectMapper.writeValueAsString(new OrderIntakeMessage(orderId, createOrderDto));
+
+            // Record the status along with the message, a worker may complete the order right away
+            RBatch batch = redissonClient.createBatch(BatchOptions.defaults().executionMode(BatchOptions.ExecutionMode.IN_MEMORY_ATOMIC));
+            batch.<String>getBucket(statusKey(orderId), StringCodec.INSTANCE).setAsync(objectMapper.writeValueAsString(status), statusTtl);
+            batch.<String, String>getStream(STREAM_KEY).addAsync(StreamAddArgs.entry(StreamFields.MESSAGE.getField(), messageJson));
+            batch.execute();
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to serialize queued order " + orderId, e);
+        } catch (RedisException e) {
+            throw new OrderIntakeUnavailableException("Failed to queue order, please retry", e);
+        }
+
+        log.debug("Queued order {}", orderId);
+
+        return status;
+    }
+
+    /**
+     * Gets the progress of an order submitted for deferred creation. Once its recorded status has
+     * expired, an order is reported as created if it exists.
+     *
+     * @param orderId the identifier assigned to the order when it has been queued.
+     * @return the status of the order.
+     * @throws IllegalArgumentException if orderId is null.
+     * @throws OrderNotFoundException   if the order has neither a recorded status nor been created.
+     */
+    @Override
+    public OrderIntakeStatusDto getStatus(UUID orderId) {
+        Assert.notNull(orderId, "Order ID must not be null");
+
+        String statusJson = redissonClient.<String>getBucket(statusKey(orderId), StringCodec.INSTANCE).get();
+
+        if (statusJson != null) {
+            try {
+                return objectMapper.readValue(statusJson, OrderIntakeStatusDto.class);
+            } catch (JsonProcessingException e) {
+                log.warn("Failed to deserialize intake status of order {}, checking the database. Error: {}", orderId, e.getMessage());
+            }
+        }
+
+        if (!orderRepository.existsById(orderId)) {
+            throw new OrderNotFoundException(orderId);
+        }
+
+        return OrderIntakeStatusDto.created(orderId);
+    }
+
+    /**
+     * Gets the Redis key of the recorded status of a queued {@link Order}.
+     *
+     * @param orderId the identifier assigned to the order
+     * @return the key of the status
+     */
+    static String statusKey(UUID orderId) {
+        return STATUS_KEY_PREFIX + orderId;
+    }
+}
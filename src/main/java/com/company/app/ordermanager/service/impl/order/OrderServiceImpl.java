@@ -1,8 +1,18 @@
 package com.company.app.ordermanager.service.impl.order;
 
+import com.company.app.ordermanager.dto.order.CreateOrderBatchResultDto;
 import com.company.app.ordermanager.dto.order.CreateOrderDto;
+import com.company.app.ordermanager.dto.order.OrderCursor;
+import com.company.app.ordermanager.dto.order.OrderCursorPageDto;
+import com.company.app.ordermanager.dto.order.CreateOrderResultDto;
+import com.company.app.ordermanager.dto.order.OrderSummaryDto;
+import com.company.app.ordermanager.dto.orderitem.CreateOrderItemDto;
 import com.company.app.ordermanager.entity.order.Order;
+import com.company.app.ordermanager.entity.order.OrderItemCounts;
 import com.company.app.ordermanager.entity.orderitem.OrderItem;
+import com.company.app.ordermanager.entity.product.Product;
+import com.company.app.ordermanager.exception.order.InvalidOrderCursorException;
+import com.company.app.ordermanager.exception.order.OrderBatchTooLargeException;
 import com.company.app.ordermanager.exception.order.OrderNotFoundException;
 import com.company.app.ordermanager.exception.product.ProductNotFoundException;
 import com.company.app.ordermanager.messaging.service.api.stock.StockMessageProducerService;
@@ -10,46 +20,97 @@ import com.company.app.ordermanager.repository.api.order.OrderRepository;
 import com.company.app.ordermanager.search.service.api.OrderSearchService;
 import com.company.app.ordermanager.service.api.order.OrderService;
 import com.company.app.ordermanager.service.api.orderitem.OrderItemService;
+import com.company.app.ordermanager.service.api.product.ProductService;
 import com.querydsl.core.types.Predicate;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.KeysetScrollPosition;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Window;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.util.Assert;
 
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.UUID;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Slf4j
 @Service
 @RequiredArgsConstructor
 public class OrderServiceImpl implements OrderService {
+    private static final int MAX_SCROLL_SIZE = 100;
+    private static final int MAX_BATCH_SIZE = 1000;
+
     private final OrderRepository orderRepository;
     private final OrderItemService orderItemService;
+    private final ProductService productService;
     private final StockMessageProducerService stockMessageProducerService;
     private final OrderSearchService orderSearchService;
+    private final OrderDetailCache orderDetailCache;
+    private final Validator validator;
 
     /**
-     * Retrieves a pageable list of {@link Order} entities that match the given {@link Predicate}.
+     * Retrieves a pageable list of summaries of the {@link Order} entities that match the given {@link Predicate}.
      *
      * @param predicate the condition to filter orders.
      * @param pageable  the pagination and sorting information.
-     * @return a page of matching {@link Order} entities.
+     * @return a page of summaries of the matching {@link Order} entities.
      * @throws IllegalArgumentException if predicate or pageable is null.
      */
     @Override
-    public Page<Order> findAll(Predicate predicate, Pageable pageable) {
+    @Transactional(readOnly = true)
+    public Page<OrderSummaryDto> findAll(Predicate predicate, Pageable pageable) {
         Assert.notNull(predicate, "Predicate must not be null");
         Assert.notNull(pageable, "Pageable must not be null");
 
-        return orderRepository.findAll(predicate, pageable);
+        return orderRepository.findSummaries(predicate, pageable);
     }
 
     /**
-     * Finds an {@link Order} entity by its unique identifier.
+     * Retrieves a page of summaries of the {@link Order} entities that match the given {@link Predicate},
+     * newest first, using keyset pagination. The page size is capped at {@value #MAX_SCROLL_SIZE}.
+     *
+     * @param predicate the condition to filter orders.
+     * @param cursor    the continuation token of the page, or null for the first page.
+     * @param size      the maximum number of orders of the page.
+     * @return the page of summaries of the matching {@link Order} entities, with the continuation token of the next page.
+     * @throws IllegalArgumentException    if predicate is null or size is not positive.
+     * @throws InvalidOrderCursorException if the cursor cannot be decoded.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public OrderCursorPageDto scroll(Predicate predicate, String cursor, int size) {
+        Assert.notNull(predicate, "Predicate must not be null");
+        Assert.isTrue(size > 0, "Page size must be greater than 0");
+
+        OrderCursor after = cursor != null ? OrderCursor.decode(cursor) : null;
+
+        Window<OrderSummaryDto> window = orderRepository.scrollSummariesNewestFirst(predicate, after, Math.min(size, MAX_SCROLL_SIZE));
+
+        String nextCursor = window.hasNext() && !window.isEmpty()
+                ? OrderCursor.of((KeysetScrollPosition) window.positionAt(window.size() - 1)).encode()
+                : null;
+
+        return OrderCursorPageDto.builder()
+                .content(window.getContent())
+                .nextCursor(nextCursor)
+                .build();
+    }
+
+    /**
+     * Finds an {@link Order} entity by its unique identifier, along with its items, in a single query.
      *
      * @param id the unique identifier of the {@link Order}.
      * @return the {@link Order} entity associated with the given identifier.
@@ -57,20 +118,41 @@ public class OrderServiceImpl implements OrderService {
      * @throws OrderNotFoundException   if no {@link Order} is found for the given identifier.
      */
     @Override
+    @Transactional(readOnly = true)
     public Order findById(UUID id) {
         Assert.notNull(id, "Order ID must not be null");
 
-        return orderRepository.findById(id).orElseThrow(() -> new OrderNotFoundException(id));
+        return orderRepository.findWithItemsById(id).orElseThrow(() -> new OrderNotFoundException(id));
+    }
+
+    /**
+     * Gets the JSON detail view of an {@link Order}, from the order detail cache when possible.
+     * On a miss, the order is loaded with its items in a single query, and serialized once the
+     * query transaction has completed.
+     *
+     * @param id the unique identifier of the {@link Order}.
+     * @return the JSON detail view of the {@link Order}.
+     * @throws IllegalArgumentException if the provided id is null.
+     * @throws OrderNotFoundException   if no {@link Order} is found for the given identifier.
+     */
+    @Override
+    public String findDetailJsonById(UUID id) {
+        Assert.notNull(id, "Order ID must not be null");
+
+        return orderDetailCache.get(id, () -> orderRepository.findWithItemsById(id).orElseThrow(() -> new OrderNotFoundException(id)));
     }
 
     /**
      * Deletes an {@link Order} identified by its unique identifier and cancels its associated items.
+     * The order is kept, marked as deleted, so it is left out of the search index rebuilds.
+     * The cached order details are evicted once the cancellation has been committed.
      *
      * @param id the unique identifier of the {@link Order} to be deleted.
      * @throws IllegalArgumentException if the provided id is null.
      * @throws OrderNotFoundException   if no {@link Order} is found with the given id.
      */
     @Override
+    @Transactional
     public void deleteById(UUID id) {
         Assert.notNull(id, "Order ID must not be null");
 
@@ -80,8 +162,12 @@ public class OrderServiceImpl implements OrderService {
 
         orderItemService.cancelOrderItems(orderItemIds);
 
+        order.setDeletedAt(Instant.now());
+
         // Remove from search index
         orderSearchService.deleteOrder(id);
+
+        orderDetailCache.evictAfterCommit(Set.of(id));
     }
 
     /**
@@ -104,14 +190,15 @@ public class OrderServiceImpl implements OrderService {
                 .description(createOrderDto.getDescription())
                 .build();
 
-        // Save the order and its items
-        Order savedOrder = orderRepository.save(order);
+        // Build order items, lines of the same product make a single item
+        Set<OrderItem> orderItems = orderItemService.buildOrderItems(order, createOrderDto.getItems());
 
-        // Create order items
-        Set<OrderItem> orderItems = orderItemService.createOrderItems(savedOrder, createOrderDto.getItems());
+        // Every item starts processing, the counts are only inserted, then maintained by the database
+        order.setItemCounts(OrderItemCounts.processing(orderItems.size()));
 
-        // Set order items
-        order.setOrderItems(orderItems);
+        // Save the order and its items
+        Order savedOrder = orderRepository.save(order);
+        order.setOrderItems(orderItemService.saveOrderItems(orderItems));
 
         // Send stock reservation request to queue
         stockMessageProducerService.sendStockReservationMessage(savedOrder.getOrderItems());
@@ -121,4 +208,163 @@ public class OrderServiceImpl implements OrderService {
 
         return savedOrder;
     }
+
+    /**
+     * Creates a batch of {@link Order} entities along with their items, in a single transaction.
+     * <p>
+     * Orders are validated individually, and an order which is invalid or references a missing product is
+     * reported as failed without failing the rest of the batch. The products of the whole batch are fetched
+     * with a single query, the orders and items are inserted with JDBC batches on flush, the stock reservation
+     * messages of every order are written to the outbox at once, and the orders are indexed with a single
+     * search request. The batch size is capped at {@value #MAX_BATCH_SIZE}.
+     *
+     * @param createOrderDtos the data transfer objects containing details of the orders to be created.
+     * @return the outcome of each order, in batch order.
+     * @throws IllegalArgumentException     if createOrderDtos is null.
+     * @throws OrderBatchTooLargeException if createOrderDtos exceeds the maximum batch size.
+     */
+    @Override
+    @Transactional
+    public CreateOrderBatchResultDto createOrders(List<CreateOrderDto> createOrderDtos) {
+        Assert.notNull(createOrderDtos, "Create order DTOs must not be null");
+
+        return createOrders(Collections.nCopies(createOrderDtos.size(), null), createOrderDtos);
+    }
+
+    /**
+     * Creates a batch of queued {@link Order} entities whose identifiers have been assigned when they were
+     * queued, along with their items, in a single transaction. Orders are handled as by {@link #createOrders(List)}.
+     *
+     * @param queuedOrders the data transfer objects containing details of the orders to be created, by their
+     *                     assigned identifier, in batch order.
+     * @return the outcome of each order, in batch order.
+     * @throws IllegalArgumentException     if queuedOrders is null.
+     * @throws OrderBatchTooLargeException if queuedOrders exceeds the maximum batch size.
+     */
+    @Override
+    @Transactional
+    public CreateOrderBatchResultDto createQueuedOrders(LinkedHashMap<UUID, CreateOrderDto> queuedOrders) {
+        Assert.notNull(queuedOrders, "Queued orders must not be null");
+
+        return createOrders(new ArrayList<>(queuedOrders.keySet()), new ArrayList<>(queuedOrders.values()));
+    }
+
+    private CreateOrderBatchResultDto createOrders(List<UUID> orderIds, List<CreateOrderDto> createOrderDtos) {
+        if (createOrderDtos.size() > MAX_BATCH_SIZE) {
+            throw new OrderBatchTooLargeException(createOrderDtos.size(), MAX_BATCH_SIZE);
+        }
+
+        List<CreateOrderResultDto> results = new ArrayList<>(createOrderDtos.size());
+        List<Integer> validIndexes = new ArrayList<>(createOrderDtos.size());
+
+        // Validate every order on its own, so a single invalid order does not fail the batch
+        for (int i = 0; i < createOrderDtos.size(); i++) {
+            String error = validate(createOrderDtos.get(i));
+
+            results.add(error != null ? CreateOrderResultDto.failed(i, error) : null);
+
+            if (error == null) {
+                validIndexes.add(i);
+            }
+        }
+
+        // Fetch the products of the whole batch at once
+        Set<UUID> productIds = validIndexes.stream()
+                .flatMap(i -> createOrderDtos.get(i).getItems().stream())
+                .map(CreateOrderItemDto::getProductId)
+                .collect(Collectors.toSet());
+        Map<UUID, Product> productsMap = productIds.isEmpty()
+                ? Map.of()
+                : productService.findAllById(productIds).stream().collect(Collectors.toMap(Product::getId, Function.identity()));
+
+        List<Order> orders = new ArrayList<>(validIndexes.size());
+        List<Integer> orderIndexes = new ArrayList<>(validIndexes.size());
+        List<Set<OrderItem>> builtItems = new ArrayList<>(validIndexes.size());
+
+        for (Integer i : validIndexes) {
+            CreateOrderDto createOrderDto = createOrderDtos.get(i);
+
+            Set<UUID> missingProducts = createOrderDto.getItems().stream()
+                    .map(CreateOrderItemDto::getProductId)
+                    .filter(productId -> !productsMap.containsKey(productId))
+                    .collect(Collectors.toSet());
+
+            if (!missingProducts.isEmpty()) {
+                results.set(i, CreateOrderResultDto.failed(i, new ProductNotFoundException(missingProducts).getMessage()));
+                continue;
+            }
+
+            Order order = Order.builder()
+                    .id(orderIds.get(i))
+                    .customerName(createOrderDto.getCustomerName())
+                    .description(createOrderDto.getDescription())
+                    .build();
+
+            // Lines of the same product make a single item
+            Set<OrderItem> builtOrderItems = orderItemService.buildOrderItems(order, createOrderDto.getItems(), productsMap);
+
+            // Every item starts processing, the counts are only inserted, then maintained by the database
+            order.setItemCounts(OrderItemCounts.processing(builtOrderItems.size()));
+
+            orders.add(order);
+            orderIndexes.add(i);
+            builtItems.add(builtOrderItems);
+        }
+
+        // Persist the orders, keeping assigned identifiers, inserted along with their items in batches on flush
+        orderRepository.persistAll(orders);
+        Set<OrderItem> orderItems = new HashSet<>();
+
+        for (int i = 0; i < orders.size(); i++) {
+            Order savedOrder = orders.get(i);
+            int index = orderIndexes.get(i);
+
+            Set<OrderItem> savedOrderItems = orderItemService.saveOrderItems(builtItems.get(i));
+            savedOrder.getOrderItems().addAll(savedOrderItems);
+            orderItems.addAll(savedOrderItems);
+
+            results.set(index, CreateOrderResultDto.created(index, savedOrder.getId()));
+        }
+
+        if (!orders.isEmpty()) {
+            // Send the stock reservation requests of every order to the queue at once
+            stockMessageProducerService.sendStockReservationMessage(orderItems);
+
+            // Index the new orders with a single request
+            orderSearchService.indexOrders(orders);
+        }
+
+        int created = orders.size();
+
+        log.debug("Created {} of {} orders of the batch", created, createOrderDtos.size());
+
+        return CreateOrderBatchResultDto.builder()
+                .created(created)
+                .failed(createOrderDtos.size() - created)
+                .results(results)
+                .build();
+    }
+
+    /**
+     * Validates an order of a batch against its bean validation constraints.
+     *
+     * @param createOrderDto the order to validate, possibly null.
+     * @return the validation errors of the order, or null if the order is valid.
+     */
+    private String validate(CreateOrderDto createOrderDto) {
+        if (createOrderDto == null) {
+            return "Order must not be null";
+        }
+
+        Set<ConstraintViolation<CreateOrderDto>> violations = validator.validate(createOrderDto);
+
+        if (violations.isEmpty()) {
+            return null;
+        }
+
+        return violations.stream()
+                .map(violation -> violation.getPropertyPath() + ": " + violation.getMessage())
+                .sorted()
+                .collect(Collectors.joining(", "));
+    }
 }
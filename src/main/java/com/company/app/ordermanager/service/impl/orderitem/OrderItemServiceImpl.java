@@ -1,6 +1,9 @@
 package com.company.app.ordermanager.service.impl.orderitem;
 
 import com.company.app.ordermanager.dto.orderitem.CreateOrderItemDto;
+import com.company.app.ordermanager.dto.orderitem.OrderItemStatusChange;
+import com.company.app.ordermanager.dto.orderitem.OrderItemStatusSnapshot;
+import com.company.app.ordermanager.dto.orderitem.OrderItemStatusUpdate;
 import com.company.app.ordermanager.entity.order.Order;
 import com.company.app.ordermanager.entity.orderitem.OrderItem;
 import com.company.app.ordermanager.entity.orderitem.OrderItemStatus;
@@ -9,15 +12,21 @@ import com.company.app.ordermanager.entity.product.Product;
 import com.company.app.ordermanager.exception.orderitem.OrderItemNotFoundException;
 import com.company.app.ordermanager.exception.product.ProductNotFoundException;
 import com.company.app.ordermanager.messaging.service.api.stock.StockMessageProducerService;
+import com.company.app.ordermanager.repository.api.order.OrderRepository;
 import com.company.app.ordermanager.repository.api.orderitem.OrderItemRepository;
+import com.company.app.ordermanager.search.service.api.OrderSearchService;
 import com.company.app.ordermanager.service.api.orderitem.OrderItemService;
 import com.company.app.ordermanager.service.api.product.ProductService;
+import com.company.app.ordermanager.service.impl.order.OrderDetailCache;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.util.Assert;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.UUID;
@@ -30,20 +39,24 @@ import java.util.stream.Collectors;
 public class OrderItemServiceImpl implements OrderItemService {
     private final ProductService productService;
     private final OrderItemRepository orderItemRepository;
+    private final OrderRepository orderRepository;
+    private final OrderDetailCache orderDetailCache;
+    private final OrderSearchService orderSearchService;
     private final StockMessageProducerService stockMessageProducerService;
 
     /**
-     * Creates a set of {@link OrderItem} entities based on the provided {@link Order} and {@link CreateOrderItemDto}.
+     * Builds the {@link OrderItem} entities of a new {@link Order} based on the provided {@link CreateOrderItemDto},
+     * to be saved with {@link #saveOrderItems} once their order has been counted and saved.
      *
-     * @param order         the {@link Order} to associate with the created {@link OrderItem}s.
+     * @param order         the {@link Order} to associate with the built {@link OrderItem}s.
      * @param orderItemDtos the set of {@link CreateOrderItemDto} containing details for each {@link OrderItem}.
-     * @return A set of newly created and persisted {@link OrderItem} entities.
+     * @return A set of new {@link OrderItem} entities, not persisted yet.
      * @throws IllegalArgumentException        if either the order or orderItemDtos is null.
      * @throws ProductNotFoundException        if any referenced products in orderItemDtos are not found.
      */
     @Override
-    @Transactional
-    public Set<OrderItem> createOrderItems(Order order, Set<CreateOrderItemDto> orderItemDtos) {
+    @Transactional(readOnly = true)
+    public Set<OrderItem> buildOrderItems(Order order, Set<CreateOrderItemDto> orderItemDtos) {
         Assert.notNull(order, "Order must not be null");
         Assert.notNull(orderItemDtos, "Order item DTOs must not be null");
 
@@ -59,10 +72,35 @@ public class OrderItemServiceImpl implements OrderItemService {
             throw new ProductNotFoundException(missingProducts);
         }
 
-        // Create order items
-        Set<OrderItem> orderItems = orderItemDtos.stream()
+        return buildOrderItems(order, orderItemDtos, productsMap);
+    }
+
+    /**
+     * Builds the {@link OrderItem} entities of a new {@link Order} based on the provided {@link CreateOrderItemDto},
+     * using products which have already been resolved, so products shared by many orders are only fetched once.
+     * The items are to be saved with {@link #saveOrderItems} once their order has been counted and saved.
+     *
+     * @param order         the {@link Order} to associate with the built {@link OrderItem}s.
+     * @param orderItemDtos the set of {@link CreateOrderItemDto} containing details for each {@link OrderItem}.
+     * @param products      the referenced {@link Product}s, by their unique identifier.
+     * @return A set of new {@link OrderItem} entities, not persisted yet.
+     * @throws IllegalArgumentException if the order, orderItemDtos or products is null.
+     * @throws ProductNotFoundException if any referenced products in orderItemDtos are missing from products.
+     */
+    @Override
+    public Set<OrderItem> buildOrderItems(Order order, Set<CreateOrderItemDto> orderItemDtos, Map<UUID, Product> products) {
+        Assert.notNull(order, "Order must not be null");
+        Assert.notNull(orderItemDtos, "Order item DTOs must not be null");
+        Assert.notNull(products, "Products must not be null");
+
+        // Lines of the same product with different quantities are equal items, so the set may hold fewer items than lines
+        return orderItemDtos.stream()
                 .map(itemDto -> {
-                    Product product = productsMap.get(itemDto.getProductId());
+                    Product product = products.get(itemDto.getProductId());
+
+                    if (product == null) {
+                        throw new ProductNotFoundException(itemDto.getProductId());
+                    }
 
                     return OrderItem.builder()
                             .order(order)
@@ -73,13 +111,27 @@ public class OrderItemServiceImpl implements OrderItemService {
                             .build();
                 })
                 .collect(Collectors.toSet());
+    }
+
+    /**
+     * Saves the {@link OrderItem} entities built for a new {@link Order}, once the order has been saved.
+     *
+     * @param orderItems the built {@link OrderItem}s.
+     * @return A set of the persisted {@link OrderItem} entities, hashed on their generated identifiers.
+     * @throws IllegalArgumentException if orderItems is null.
+     */
+    @Override
+    @Transactional
+    public Set<OrderItem> saveOrderItems(Set<OrderItem> orderItems) {
+        Assert.notNull(orderItems, "Order items must not be null");
 
         return orderItemRepository.saveAll(orderItems).stream().collect(Collectors.toSet());
     }
 
     /**
      * Cancels the specified order items by updating their status and reason, saving the changes,
-     * and sending a stock cancellation message.
+     * and sending a stock cancellation message. The item counts and status of their orders are
+     * updated in the same transaction.
      *
      * @param orderItemIds a set of unique identifiers for the order items to be canceled
      * @return A set of order items after being updated with the cancellation status and reason
@@ -91,10 +143,13 @@ public class OrderItemServiceImpl implements OrderItemService {
     public Set<OrderItem> cancelOrderItems(Set<UUID> orderItemIds) {
         Assert.notNull(orderItemIds, "Order item IDs must not be null");
 
+        List<OrderItemStatusChange> statusChanges = new ArrayList<>(orderItemIds.size());
+
         // Fetch order items
         Set<OrderItem> orderItems = orderItemRepository.findAllById(orderItemIds).stream()
                 .filter(i -> orderItemIds.contains(i.getId()))
                 .map(orderItem -> {
+                    statusChanges.add(new OrderItemStatusChange(orderItem.getOrder().getId(), orderItem.getStatus(), OrderItemStatus.CANCELLING));
                     orderItem.setStatus(OrderItemStatus.CANCELLING);
                     orderItem.setReason(OrderItemStatusReason.USER_CANCELLED);
                     return orderItem;
@@ -115,6 +170,9 @@ public class OrderItemServiceImpl implements OrderItemService {
         // Update order items
         Set<OrderItem> savedOrderItems = orderItemRepository.saveAll(orderItems).stream().collect(Collectors.toSet());
 
+        // Update the item counts of the orders, rolled back along with the items on a version conflict
+        applyStatusChanges(statusChanges);
+
         // Send stock reservation request to queue
         stockMessageProducerService.sendStockCancellationMessage(savedOrderItems);
 
@@ -122,7 +180,8 @@ public class OrderItemServiceImpl implements OrderItemService {
     }
 
     /**
-     * Updates the status of an order item in the repository to the specified value.
+     * Updates the status of an order item in the repository to the specified value, along with the
+     * item counts and status of its order.
      *
      * @param orderItemId      the unique identifier of the order item to update
      * @param status           the new status to be applied to the order item
@@ -130,19 +189,26 @@ public class OrderItemServiceImpl implements OrderItemService {
      * @throws IllegalArgumentException if {@code orderItemId} or {@code status} is null
      */
     @Override
+    @Transactional
     public void updateOrderItemStatus(UUID orderItemId, OrderItemStatus status, long orderItemVersion) {
         Assert.notNull(orderItemId, "Order item ID must not be null");
         Assert.notNull(status, "Order item status must not be null");
 
+        List<OrderItemStatusSnapshot> snapshots = orderItemRepository.findStatusSnapshotsForUpdate(List.of(orderItemId));
+
         int updatedRows = orderItemRepository.updateStatus(orderItemId, status, orderItemVersion);
 
         if (updatedRows == 0) {
             log.warn("Order item with ID {} not found. Unable to update status.", orderItemId);
+            return;
         }
+
+        applyStatusChanges(snapshots, List.of(OrderItemStatusUpdate.of(orderItemId, orderItemVersion, status)), List.of(true));
     }
 
     /**
-     * Updates the status and reason for a specific order item identified by its ID.
+     * Updates the status and reason for a specific order item identified by its ID, along with the
+     * item counts and status of its order.
      *
      * @param orderItemId the unique identifier of the order item to be updated
      * @param status      the new status to set for the order item
@@ -152,11 +218,105 @@ public class OrderItemServiceImpl implements OrderItemService {
      * @throws OrderItemNotFoundException if the order item with the specified ID is not found
      */
     @Override
+    @Transactional
     public void updateOrderItemStatusAndReason(UUID orderItemId, OrderItemStatus status, long version, OrderItemStatusReason reason) {
+        List<OrderItemStatusSnapshot> snapshots = orderItemRepository.findStatusSnapshotsForUpdate(List.of(orderItemId));
+
         int updatedRows = orderItemRepository.updateStatusAndReason(orderItemId, status, version, reason);
 
         if (updatedRows == 0) {
             log.warn("Order item with ID {} not found. Unable to update status and reason.", orderItemId);
+            return;
         }
+
+        applyStatusChanges(snapshots, List.of(new OrderItemStatusUpdate(orderItemId, version, status, reason)), List.of(true));
+    }
+
+    /**
+     * Applies versioned status transitions to many order items with a single batch, then the applied
+     * transitions to the item counts and status of their orders with a batch per order. The order items
+     * are locked beforehand, so their current status is the one the transitions start from.
+     * Transitions whose order item is missing or has another version are not applied, as with
+     * {@link #updateOrderItemStatus}.
+     *
+     * @param updates the status transitions to apply
+     * @return whether each transition has been applied, in the given order
+     * @throws IllegalArgumentException if {@code updates} is null
+     */
+    @Override
+    @Transactional
+    public List<Boolean> updateOrderItemStatuses(List<OrderItemStatusUpdate> updates) {
+        Assert.notNull(updates, "Order item status updates must not be null");
+
+        List<OrderItemStatusSnapshot> snapshots = orderItemRepository.findStatusSnapshotsForUpdate(
+                updates.stream().map(OrderItemStatusUpdate::orderItemId).toList());
+
+        List<Boolean> applied = orderItemRepository.updateStatuses(updates);
+
+        for (int i = 0; i < updates.size(); i++) {
+            if (!applied.get(i)) {
+                log.warn("Order item with ID {} and version {} not found. Unable to update status to {}.",
+                        updates.get(i).orderItemId(),
+                        updates.get(i).expectedVersion(),
+                        updates.get(i).status());
+            }
+        }
+
+        applyStatusChanges(snapshots, updates, applied);
+
+        return applied;
+    }
+
+    /**
+     * Locks {@link OrderItem}s until the end of the current transaction and retrieves their current version,
+     * so the updates expecting another version can be told apart before any of their side effects is applied.
+     *
+     * @param orderItemIds the unique identifiers of the {@link OrderItem}s to lock.
+     * @return the current versions of the existing {@link OrderItem}s, by their unique identifier.
+     * @throws IllegalArgumentException if orderItemIds is null.
+     */
+    @Override
+    @Transactional
+    public Map<UUID, Long> lockOrderItemVersions(Collection<UUID> orderItemIds) {
+        Assert.notNull(orderItemIds, "Order item IDs must not be null");
+
+        if (orderItemIds.isEmpty()) {
+            return Map.of();
+        }
+
+        return orderItemRepository.findStatusSnapshotsForUpdate(orderItemIds).stream()
+                .collect(Collectors.toMap(OrderItemStatusSnapshot::orderItemId, OrderItemStatusSnapshot::version));
+    }
+
+    private void applyStatusChanges(List<OrderItemStatusSnapshot> snapshots, List<OrderItemStatusUpdate> updates, List<Boolean> applied) {
+        Map<UUID, OrderItemStatusSnapshot> snapshotsById = snapshots.stream()
+                .collect(Collectors.toMap(OrderItemStatusSnapshot::orderItemId, Function.identity()));
+
+        List<OrderItemStatusChange> statusChanges = new ArrayList<>(updates.size());
+
+        for (int i = 0; i < updates.size(); i++) {
+            OrderItemStatusSnapshot snapshot = snapshotsById.get(updates.get(i).orderItemId());
+
+            if (applied.get(i) && snapshot != null) {
+                statusChanges.add(new OrderItemStatusChange(snapshot.orderId(), snapshot.status(), updates.get(i).status()));
+            }
+        }
+
+        if (!statusChanges.isEmpty()) {
+            applyStatusChanges(statusChanges);
+        }
+    }
+
+    /**
+     * Applies status transitions to the item counts of their orders. Once the transaction commits,
+     * evicts the cached details of these orders and schedules the update of their search documents.
+     */
+    private void applyStatusChanges(List<OrderItemStatusChange> statusChanges) {
+        orderRepository.applyItemStatusChanges(statusChanges);
+
+        List<UUID> orderIds = statusChanges.stream().map(OrderItemStatusChange::orderId).toList();
+
+        orderDetailCache.evictAfterCommit(orderIds);
+        orderSearchService.updateOrderStatuses(orderIds);
     }
 }
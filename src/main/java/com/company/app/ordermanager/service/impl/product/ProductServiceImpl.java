@@ -7,7 +7,10 @@ import com.company.app.ordermanager.service.api.product.ProductService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.dao.DataAccessException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 import org.springframework.util.Assert;
 
 import java.time.Duration;
@@ -19,11 +22,11 @@ import java.util.stream.Collectors;
 @Service
 @RequiredArgsConstructor
 public class ProductServiceImpl implements ProductService {
-    private static final String STOCK_VALUE_KEY_PREFIX = "stock:";
     private static final Duration STOCK_VALUE_CACHE_EXPIRY = Duration.ofHours(1);
 
     private final ProductRepository productRepository;
     private final StringRedisTemplate redisTemplate;
+    private final StockWriteBehindFlusher stockWriteBehindFlusher;
 
     /**
      * Retrieves a {@link Product} entity by its unique identifier.
@@ -59,6 +62,7 @@ public class ProductServiceImpl implements ProductService {
      * Retrieves the stock level of a {@link Product} identified by its unique ID.
      * The method checks for the stock data in a Redis cache; if not found, it fetches
      * the stock level from the database, updates the cache, and returns the value.
+     * With write-behind persistence, the cached value does not expire.
      *
      * @param productId A {@link UUID} representing the unique identifier of the product.
      * @return An {@code int} representing the stock level of the product.
@@ -69,7 +73,7 @@ public class ProductServiceImpl implements ProductService {
     public int getProductStockLevel(UUID productId) {
         Assert.notNull(productId, "Product ID must not be null");
 
-        String productStockKey = getStockValueKey(productId);
+        String productStockKey = ProductStockKeys.stockValueKey(productId);
 
         String currentStock = redisTemplate.opsForValue().get(productStockKey);
 
@@ -80,8 +84,14 @@ public class ProductServiceImpl implements ProductService {
 
             currentStock = String.valueOf(product.getStockLevel());
 
-            // Cache the stock with 1 hour expiry
-            redisTemplate.opsForValue().set(productStockKey, currentStock, STOCK_VALUE_CACHE_EXPIRY);
+            if (stockWriteBehindFlusher.isEnabled()) {
+                // Cache the stock without expiry, setIfAbsent to keep a concurrent unflushed change
+                redisTemplate.opsForValue().setIfAbsent(productStockKey, currentStock);
+                currentStock = redisTemplate.opsForValue().get(productStockKey);
+            } else {
+                // Cache the stock with 1 hour expiry
+                redisTemplate.opsForValue().set(productStockKey, currentStock, STOCK_VALUE_CACHE_EXPIRY);
+            }
         }
 
         return Integer.parseInt(currentStock);
@@ -89,6 +99,10 @@ public class ProductServiceImpl implements ProductService {
 
     /**
      * Updates the stock level for a specified product.
+     * With write-behind persistence, only the cached stock level is updated and the product is
+     * marked dirty, the database record is updated by the {@link StockWriteBehindFlusher}.
+     * The cached stock level is updated right away, so the change is reverted if the surrounding
+     * transaction rolls back.
      *
      * @param productId     the unique identifier of the product whose stock level needs to be updated
      * @param newStockLevel the new stock level to set for the product
@@ -99,10 +113,18 @@ public class ProductServiceImpl implements ProductService {
         Assert.notNull(productId, "Product ID must not be null");
         Assert.isTrue(newStockLevel >= 0, "Stock level must be greater than or equal to 0");
 
-        String productStockKey = getStockValueKey(productId);
+        String productStockKey = ProductStockKeys.stockValueKey(productId);
+        String previousStock = redisTemplate.opsForValue().get(productStockKey);
+
+        if (stockWriteBehindFlusher.isEnabled()) {
+            stockWriteBehindFlusher.setStockLevel(productId, newStockLevel);
+            revertOnRollback(productId, previousStock, newStockLevel);
+            return;
+        }
 
         // Update cache
         redisTemplate.opsForValue().set(productStockKey, String.valueOf(newStockLevel));
+        revertOnRollback(productId, previousStock, newStockLevel);
 
         // Update product entity
         int updatedRows = productRepository.updateStockLevel(productId, newStockLevel);
@@ -113,12 +135,71 @@ public class ProductServiceImpl implements ProductService {
     }
 
     /**
-     * Generates a unique key for storing or retrieving stock values in Redis for a specific product.
+     * Applies a relative change to the persisted stock level of a specified product.
+     * Only the database record is updated; the caller is expected to have already applied the
+     * same change to the cached stock level. With write-behind persistence, the product is marked
+     * dirty instead and the database record is updated by the {@link StockWriteBehindFlusher}.
      *
-     * @param productId a {@link UUID} representing the unique identifier of the product.
-     * @return a {@link String} representing the Redis key for the stock value of the product.
+     * @param productId the unique identifier of the product whose stock level needs to be adjusted
+     * @param delta     the quantity to add to the stock level, negative to subtract
+     * @throws IllegalArgumentException if productId is null
      */
-    private String getStockValueKey(UUID productId) {
-        return STOCK_VALUE_KEY_PREFIX + productId.toString();
+    @Override
+    public void adjustProductStockLevel(UUID productId, int delta) {
+        Assert.notNull(productId, "Product ID must not be null");
+
+        if (stockWriteBehindFlusher.isEnabled()) {
+            stockWriteBehindFlusher.markDirty(productId);
+            return;
+        }
+
+        int updatedRows = productRepository.adjustStockLevel(productId, delta);
+
+        if (updatedRows == 0) {
+            log.warn("Product with ID {} not found. Unable to adjust stock level.", productId);
+        }
+    }
+
+    /**
+     * Reverts a change of the cached stock level of a product if the surrounding transaction
+     * rolls back. The change is undone relatively, so that stock changes committed by other
+     * consumers in the meantime are kept. When the stock level was not cached before, the
+     * cached value is evicted, to be loaded again from the database.
+     *
+     * @param productId     the unique identifier of the product
+     * @param previousStock the cached stock level before the change, or null if it was not cached
+     * @param newStockLevel the stock level that has been cached
+     */
+    private void revertOnRollback(UUID productId, String previousStock, int newStockLevel) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status != STATUS_ROLLED_BACK) {
+                    return;
+                }
+
+                String productStockKey = ProductStockKeys.stockValueKey(productId);
+
+                try {
+                    if (previousStock == null) {
+                        redisTemplate.delete(productStockKey);
+                    } else {
+                        redisTemplate.opsForValue().increment(productStockKey, Long.parseLong(previousStock) - newStockLevel);
+                    }
+
+                    if (stockWriteBehindFlusher.isEnabled()) {
+                        stockWriteBehindFlusher.markDirty(productId);
+                    }
+
+                    log.debug("Reverted cached stock level for product: {}. Previous: {}, New: {}", productId, previousStock, newStockLevel);
+                } catch (DataAccessException e) {
+                    log.error("Failed to revert cached stock level for product: {}. Error: {}", productId, e.getMessage());
+                }
+            }
+        });
     }
 }
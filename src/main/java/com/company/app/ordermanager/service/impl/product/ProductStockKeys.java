@@ -0,0 +1,25 @@
+package com.company.app.ordermanager.service.impl.product;
+
+import lombok.AccessLevel;
+import lombok.NoArgsConstructor;
+
+import java.util.UUID;
+
+/**
+ * Builds the Redis keys holding product stock information, so that every component reading or
+ * writing the cached stock level agrees on the same key layout.
+ */
+@NoArgsConstructor(access = AccessLevel.PRIVATE)
+public final class ProductStockKeys {
+    private static final String STOCK_VALUE_KEY_PREFIX = "stock:";
+
+    /**
+     * Generates a unique key for storing or retrieving stock values in Redis for a specific product.
+     *
+     * @param productId a {@link UUID} representing the unique identifier of the product.
+     * @return a {@link String} representing the Redis key for the stock value of the product.
+     */
+    public static String stockValueKey(UUID productId) {
+        return STOCK_VALUE_KEY_PREFIX + productId.toString();
+    }
+}
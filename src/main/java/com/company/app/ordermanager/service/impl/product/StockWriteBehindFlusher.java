@@ -0,0 +1,305 @@
+package com.company.app.ordermanager.service.impl.product;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.redisson.api.RLock;
+import org.redisson.api.RScript;
+import org.redisson.api.RedissonClient;
+import org.redisson.client.RedisException;
+import org.redisson.client.codec.StringCodec;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.util.Assert;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Write-behind persistence of product stock levels.
+ * <p>
+ * When enabled, the cached stock level is authoritative and stock changes only update Redis on
+ * the hot path. Every change marks its product in a dirty sorted set, within the same atomic
+ * script as the stock update itself and scored by the time the product first became dirty.
+ * The flusher periodically persists the latest stock level of every dirty product to the database
+ * with JDBC batches, once enough products are dirty or the oldest change exceeds the flush interval.
+ * <p>
+ * The dirty set is renamed to a flushing set before its products are persisted, and the flushing set
+ * is only deleted once the database batch has been committed. A flush interrupted by a crash is
+ * therefore resumed by the next flush, and no stock change is lost. Changes made during a flush mark
+ * their product in a new dirty set. A Redisson lock ensures a single node flushes at a time.
+ * <p>
+ * Exposes the following metrics:
+ * <ul>
+ *   <li>{@code stock.write-behind.dirty} - number of products waiting to be flushed.</li>
+ *   <li>{@code stock.write-behind.lag} - age of the oldest unflushed stock change, in seconds.</li>
+ *   <li>{@code stock.write-behind.flush} - duration of the flushes.</li>
+ *   <li>{@code stock.write-behind.flushed} - number of stock levels persisted.</li>
+ * </ul>
+ */
+@Slf4j
+@Component
+public class StockWriteBehindFlusher {
+    private static final String DIRTY_PRODUCTS_KEY = "stock:dirty";
+    private static final String FLUSHING_PRODUCTS_KEY = "stock:dirty:flushing";
+    private static final String FLUSH_LOCK_KEY = "stock:dirty:flush:lock";
+
+    private static final String UPDATE_STOCK_LEVEL_SQL = "UPDATE products SET stock_level = ?, version = version + 1 WHERE id = ?";
+
+    /*
+     * KEYS[1] - stock value key, KEYS[2] - dirty products set,
+     * ARGV[1] - stock level, ARGV[2] - current time in milliseconds, ARGV[3] - product ID.
+     * Sets the stock level without expiry and marks the product dirty, keeping its first dirty time.
+     */
+    private static final String SET_STOCK_LEVEL_SCRIPT = """
+            redis.call('SET', KEYS[1], ARGV[1])
+            redis.call('ZADD', KEYS[2], 'NX', ARGV[2], ARGV[3])
+            return 1
+            """;
+
+    /*
+     * KEYS[1] - dirty products set, KEYS[2] - flushing products set.
+     * Returns {dirty count, oldest dirty time, 1 if a flushing set is left over from an interrupted flush}.
+     */
+    private static final String STATUS_SCRIPT = """
+            local oldest = redis.call('ZRANGE', KEYS[1], 0, 0, 'WITHSCORES')
+            local oldestFlushing = redis.call('ZRANGE', KEYS[2], 0, 0, 'WITHSCORES')
+            local since = tonumber(oldest[2] or 0)
+            if oldestFlushing[2] and (since == 0 or tonumber(oldestFlushing[2]) < since) then
+                since = tonumber(oldestFlushing[2])
+            end
+            return {redis.call('ZCARD', KEYS[1]) + redis.call('ZCARD', KEYS[2]), since, redis.call('EXISTS', KEYS[2])}
+            """;
+
+    /*
+     * KEYS[1] - dirty products set, KEYS[2] - flushing products set.
+     * Moves the dirty set to the flushing set, unless a flushing set is left over, and returns its products.
+     */
+    private static final String CLAIM_SCRIPT = """
+            if redis.call('EXISTS', KEYS[2]) == 0 then
+                if redis.call('EXISTS', KEYS[1]) == 0 then
+                    return {}
+                end
+                redis.call('RENAME', KEYS[1], KEYS[2])
+            end
+            return redis.call('ZRANGE', KEYS[2], 0, -1)
+            """;
+
+    private final RedissonClient redissonClient;
+    private final JdbcTemplate jdbcTemplate;
+
+    @Getter
+    private final boolean enabled;
+    private final Duration flushInterval;
+    private final int flushCount;
+    private final int batchSize;
+
+    private final AtomicLong dirtyProducts = new AtomicLong();
+    private final AtomicLong oldestDirtyTime = new AtomicLong();
+    private final Timer flushTimer;
+    private final Counter flushedCounter;
+
+    private volatile boolean leftoversFlushed;
+
+    public StockWriteBehindFlusher(RedissonClient redissonClient,
+                                   JdbcTemplate jdbcTemplate,
+                                   MeterRegistry meterRegistry,
+                                   @Value("${stock.write-behind.enabled:false}") boolean enabled,
+                                   @Value("${stock.write-behind.flush-interval:1s}") Duration flushInterval,
+                                   @Value("${stock.write-behind.flush-count:500}") int flushCount,
+                                   @Value("${stock.write-behind.batch-size:500}") int batchSize) {
+        Assert.isTrue(flushCount > 0, "Write-behind flush count must be greater than 0");
+        Assert.isTrue(batchSize > 0, "Write-behind batch size must be greater than 0");
+
+        this.redissonClient = redissonClient;
+        this.jdbcTemplate = jdbcTemplate;
+        this.enabled = enabled;
+        this.flushInterval = flushInterval;
+        this.flushCount = flushCount;
+        this.batchSize = batchSize;
+
+        Gauge.builder("stock.write-behind.dirty", dirtyProducts, AtomicLong::get)
+                .description("Number of products whose stock level has not been persisted yet")
+                .register(meterRegistry);
+        Gauge.builder("stock.write-behind.lag", oldestDirtyTime, this::flushLagSeconds)
+                .description("Age of the oldest stock change not persisted yet")
+                .baseUnit("seconds")
+                .register(meterRegistry);
+        this.flushTimer = Timer.builder("stock.write-behind.flush")
+                .description("Duration of the stock level flushes")
+                .register(meterRegistry);
+        this.flushedCounter = Counter.builder("stock.write-behind.flushed")
+                .description("Number of stock levels persisted by the flusher")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Atomically sets the cached stock level of a product and marks the product dirty.
+     * The stock level is cached without expiry, as it is not persisted yet.
+     *
+     * @param productId  the unique identifier of the product
+     * @param stockLevel the new stock level
+     */
+    public void setStockLevel(UUID productId, int stockLevel) {
+        redissonClient.getScript(StringCodec.INSTANCE).eval(
+                RScript.Mode.READ_WRITE,
+                SET_STOCK_LEVEL_SCRIPT,
+                RScript.ReturnType.INTEGER,
+                List.of(ProductStockKeys.stockValueKey(productId), DIRTY_PRODUCTS_KEY),
+                String.valueOf(stockLevel),
+                String.valueOf(System.currentTimeMillis()),
+                productId.toString()
+        );
+    }
+
+    /**
+     * Marks a product dirty after its cached stock level has been changed by other means.
+     *
+     * @param productId the unique identifier of the product
+     */
+    public void markDirty(UUID productId) {
+        redissonClient.<String>getScoredSortedSet(DIRTY_PRODUCTS_KEY, StringCodec.INSTANCE)
+                .addIfAbsent(System.currentTimeMillis(), productId.toString());
+    }
+
+    /**
+     * Gets the key of the dirty products set, for scripts marking products dirty themselves.
+     * Such scripts must add the product ID with {@code ZADD NX} scored by the current time in milliseconds.
+     *
+     * @return the Redis key of the dirty products set
+     */
+    public String getDirtyProductsKey() {
+        return DIRTY_PRODUCTS_KEY;
+    }
+
+    /**
+     * Flushes the dirty stock levels if enough products are dirty, if the oldest change exceeds the
+     * flush interval, or if a previous flush has been interrupted. When write-behind is disabled,
+     * stock levels left dirty by a previous run are still flushed once.
+     */
+    @Scheduled(fixedDelayString = "${stock.write-behind.poll-interval:200ms}")
+    public void flushIfDue() {
+        if (!enabled && leftoversFlushed) {
+            return;
+        }
+
+        try {
+            List<Long> status = redissonClient.getScript(StringCodec.INSTANCE).eval(
+                    RScript.Mode.READ_ONLY,
+                    STATUS_SCRIPT,
+                    RScript.ReturnType.MULTI,
+                    List.of(DIRTY_PRODUCTS_KEY, FLUSHING_PRODUCTS_KEY)
+            );
+
+            dirtyProducts.set(status.get(0));
+            oldestDirtyTime.set(status.get(1));
+
+            boolean due = status.get(2) == 1
+                    || status.get(0) >= flushCount
+                    || (status.get(0) > 0 && System.currentTimeMillis() - status.get(1) >= flushInterval.toMillis())
+                    || (!enabled && status.get(0) > 0);
+
+            if (due) {
+                flush();
+            }
+
+            leftoversFlushed = true;
+        } catch (RedisException | DataAccessException e) {
+            log.error("Failed to flush stock levels. Error: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Persists the latest cached stock level of every dirty product, unless another node is flushing.
+     */
+    public void flush() {
+        RLock lock = redissonClient.getLock(FLUSH_LOCK_KEY);
+
+        if (!lock.tryLock()) {
+            return;
+        }
+
+        try {
+            flushTimer.record(this::flushClaimedProducts);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Flushes the remaining dirty stock levels before the application shuts down.
+     */
+    @PreDestroy
+    public void flushOnShutdown() {
+        if (!enabled) {
+            return;
+        }
+
+        try {
+            flush();
+        } catch (RedisException | DataAccessException e) {
+            log.error("Failed to flush stock levels on shutdown, they will be flushed on next start. Error: {}", e.getMessage());
+        }
+    }
+
+    private void flushClaimedProducts() {
+        List<String> productIds = redissonClient.getScript(StringCodec.INSTANCE).eval(
+                RScript.Mode.READ_WRITE,
+                CLAIM_SCRIPT,
+                RScript.ReturnType.MULTI,
+                List.of(DIRTY_PRODUCTS_KEY, FLUSHING_PRODUCTS_KEY)
+        );
+
+        int flushed = 0;
+
+        for (int from = 0; from < productIds.size(); from += batchSize) {
+            List<String> chunk = productIds.subList(from, Math.min(from + batchSize, productIds.size()));
+
+            Map<String, String> stockLevels = redissonClient.getBuckets(StringCodec.INSTANCE).get(
+                    chunk.stream().map(productId -> ProductStockKeys.stockValueKey(UUID.fromString(productId))).toArray(String[]::new));
+
+            List<Object[]> batchArgs = new ArrayList<>(chunk.size());
+
+            for (String productId : chunk) {
+                String stockLevel = stockLevels.get(ProductStockKeys.stockValueKey(UUID.fromString(productId)));
+
+                if (stockLevel == null) {
+                    log.warn("Cached stock level of dirty product {} is missing, skipping its flush", productId);
+                    continue;
+                }
+
+                // MariaDB binds UUID columns from their string form
+                batchArgs.add(new Object[]{Integer.parseInt(stockLevel), productId});
+            }
+
+            jdbcTemplate.batchUpdate(UPDATE_STOCK_LEVEL_SQL, batchArgs);
+            flushed += batchArgs.size();
+        }
+
+        // Only forget the flushed products once they have been persisted
+        redissonClient.getKeys().delete(FLUSHING_PRODUCTS_KEY);
+
+        flushedCounter.increment(flushed);
+
+        if (flushed > 0) {
+            log.debug("Flushed stock levels of {} products", flushed);
+        }
+    }
+
+    private double flushLagSeconds(AtomicLong oldestDirtyTime) {
+        long oldest = oldestDirtyTime.get();
+
+        return oldest == 0 ? 0 : (System.currentTimeMillis() - oldest) / 1000.0;
+    }
+}
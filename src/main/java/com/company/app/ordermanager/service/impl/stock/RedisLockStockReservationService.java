@@ -0,0 +1,215 @@
+package com.company.app.ordermanager.service.impl.stock;
+
+import com.company.app.ordermanager.dto.stock.StockAdjustment;
+import com.company.app.ordermanager.dto.stock.StockAdjustmentResult;
+import com.company.app.ordermanager.exception.product.ProductNotFoundException;
+import com.company.app.ordermanager.exception.stock.StockLockException;
+import com.company.app.ordermanager.service.api.product.ProductService;
+import com.company.app.ordermanager.service.api.stock.StockReservationService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.redisson.RedissonMultiLock;
+import org.redisson.api.RLock;
+import org.redisson.api.RedissonClient;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+import org.springframework.util.Assert;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link StockReservationService} serializing stock updates of the same product through a Redisson
+ * distributed lock. Updates of several products lock them all together, in a canonical order.
+ * The stock level is read and written through the {@link ProductService}, which keeps the cached
+ * and the persisted stock level in sync.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "stock.reservation.engine", havingValue = "lock", matchIfMissing = true)
+public class RedisLockStockReservationService implements StockReservationService {
+    private static final String PRODUCT_LOCK_KEY_PREFIX = "product:lock:";
+    private static final Duration LOCK_TIMEOUT = Duration.ofSeconds(10);
+
+    private final RedissonClient redissonClient;
+    private final ProductService productService;
+
+    /**
+     * Applies a sequence of stock adjustments to a product while holding its lock only once.
+     * Adjustments are decided in the given order against a running stock level, so a release
+     * makes its quantity available to the reservations following it. The resulting stock level
+     * is written once, after every adjustment has been decided.
+     *
+     * @param productId   the unique identifier of the product to adjust the stock for
+     * @param adjustments the adjustments to apply, in order
+     * @return the {@link StockAdjustmentResult} describing which adjustments have been applied
+     * @throws IllegalArgumentException if {@code productId} is null or {@code adjustments} is null or empty
+     * @throws ProductNotFoundException if no product is found with the given identifier
+     * @throws StockLockException       if the product lock could not be acquired
+     */
+    @Override
+    public StockAdjustmentResult apply(UUID productId, List<StockAdjustment> adjustments) {
+        Assert.notNull(productId, "Product ID must not be null");
+        Assert.notEmpty(adjustments, "Stock adjustments must not be empty");
+
+        return applyAll(Map.of(productId, adjustments), false).get(productId);
+    }
+
+    /**
+     * Applies stock adjustments to several products while holding the locks of all of them.
+     * The product locks are acquired as a single multi-lock, in ascending product ID order, so
+     * that consumers locking overlapping sets of products never wait on each other in a cycle.
+     * The stock levels are read and written once per product, after every adjustment has been decided.
+     *
+     * @param adjustments  the adjustments to apply, in order, keyed by product ID
+     * @param allOrNothing whether reservations must be accepted for every product or for none
+     * @return the {@link StockAdjustmentResult} of each product, keyed by product ID
+     * @throws IllegalArgumentException if {@code adjustments} is null or empty, or contains no adjustment for a product
+     * @throws ProductNotFoundException if no product is found with one of the given identifiers
+     * @throws StockLockException       if the product locks could not be acquired
+     */
+    @Override
+    public Map<UUID, StockAdjustmentResult> applyAll(Map<UUID, List<StockAdjustment>> adjustments, boolean allOrNothing) {
+        Assert.notEmpty(adjustments, "Stock adjustments must not be empty");
+        adjustments.values().forEach(productAdjustments -> Assert.notEmpty(productAdjustments, "Stock adjustments must not be empty"));
+
+        // Lock products in a canonical order
+        List<UUID> productIds = adjustments.keySet().stream().sorted().toList();
+        RLock lock = getProductsLock(productIds);
+        boolean locked = false;
+
+        try {
+            tryLock(productIds, lock);
+            locked = true;
+
+            Map<UUID, Integer> available = new LinkedHashMap<>();
+            Map<UUID, StockAdjustmentResult> results = new LinkedHashMap<>();
+            boolean allReserved = true;
+
+            for (UUID productId : productIds) {
+                int stockLevel = productService.getProductStockLevel(productId);
+                StockAdjustmentResult result = StockAdjustmentResult.decide(stockLevel, adjustments.get(productId), false);
+
+                if (!result.allReserved(adjustments.get(productId))) {
+                    log.debug("Insufficient stock for product: {}. Available: {}, Adjustments: {}",
+                            productId,
+                            stockLevel,
+                            adjustments.get(productId).size());
+
+                    allReserved = false;
+                }
+
+                available.put(productId, stockLevel);
+                results.put(productId, result);
+            }
+
+            if (allOrNothing && !allReserved) {
+                // Refuse every reservation, only the releases are applied
+                productIds.forEach(productId -> results.put(productId,
+                        StockAdjustmentResult.decide(available.get(productId), adjustments.get(productId), true)));
+            }
+
+            for (UUID productId : productIds) {
+                int stockLevel = available.get(productId);
+                int updatedStockLevel = results.get(productId).stockLevel();
+
+                if (updatedStockLevel != stockLevel) {
+                    // Update stock level
+                    productService.updateProductStockLevel(productId, updatedStockLevel);
+
+                    log.debug("Updated stock level for product: {}. Available: {}, Adjustments: {}, New: {}",
+                            productId,
+                            stockLevel,
+                            adjustments.get(productId).size(),
+                            updatedStockLevel);
+                }
+            }
+
+            return results;
+        } catch (InterruptedException e) {
+            log.warn("Interrupted while acquiring lock for products: {}. Error: {}", productIds, e.getMessage());
+
+            throw handleStockLockAcquisitionFailure(productIds);
+        } finally {
+            if (locked) {
+                log.debug("Releasing lock for products: {}", productIds);
+
+                releaseLock(lock);
+            }
+        }
+    }
+
+    /**
+     * Attempts to acquire the lock of the given products within a defined timeout period.
+     * Throws an exception if the lock cannot be acquired within the timeout.
+     *
+     * @param productIds the unique identifiers of the products for which the lock is being attempted
+     * @param lock       the lock object representing the lock to be acquired
+     * @throws InterruptedException if the current thread is interrupted while waiting to acquire the lock
+     */
+    private void tryLock(List<UUID> productIds, RLock lock) throws InterruptedException {
+        if (!lock.tryLock(LOCK_TIMEOUT.getSeconds(), TimeUnit.SECONDS)) {
+            throw new StockLockException("Could not acquire lock for " + describeProducts(productIds));
+        }
+    }
+
+    /**
+     * Releases the provided lock if it is held by the current thread. A multi-lock cannot tell
+     * whether it is held, it must only be released once acquired.
+     *
+     * @param lock the RLock instance to be released
+     */
+    private void releaseLock(RLock lock) {
+        if (lock instanceof RedissonMultiLock || lock.isHeldByCurrentThread()) {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Restores the interrupt flag after a failed lock acquisition and builds the exception to throw.
+     *
+     * @param productIds the unique identifiers of the products for which the lock acquisition failed
+     * @return the {@link StockLockException} describing the failure
+     */
+    private StockLockException handleStockLockAcquisitionFailure(List<UUID> productIds) {
+        Thread.currentThread().interrupt();
+        return new StockLockException("Failed to acquire lock for " + describeProducts(productIds));
+    }
+
+    /**
+     * Gets the lock of a single product, or the multi-lock of several products acquiring the
+     * product locks in the given order.
+     *
+     * @param productIds the unique identifiers of the products to lock, in locking order
+     * @return the lock of the products
+     */
+    private RLock getProductsLock(List<UUID> productIds) {
+        if (productIds.size() == 1) {
+            return redissonClient.getLock(getProductLockKey(productIds.get(0)));
+        }
+
+        return redissonClient.getMultiLock(productIds.stream()
+                .map(productId -> redissonClient.getLock(getProductLockKey(productId)))
+                .toArray(RLock[]::new));
+    }
+
+    private String describeProducts(List<UUID> productIds) {
+        return productIds.size() == 1 ? "product: " + productIds.get(0) : "products: " + productIds;
+    }
+
+    /**
+     * Generates a lock key for the given product ID by combining a predefined prefix
+     * with the string representation of the product ID.
+     *
+     * @param productId the UUID of the product for which the lock key is generated
+     * @return the generated lock key as a string
+     */
+    private String getProductLockKey(UUID productId) {
+        return PRODUCT_LOCK_KEY_PREFIX + productId.toString();
+    }
+}
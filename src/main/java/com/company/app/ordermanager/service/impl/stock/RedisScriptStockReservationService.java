@@ -0,0 +1,306 @@
+package com.company.app.ordermanager.service.impl.stock;
+
+import com.company.app.ordermanager.dto.stock.StockAdjustment;
+import com.company.app.ordermanager.dto.stock.StockAdjustmentResult;
+import com.company.app.ordermanager.exception.product.ProductNotFoundException;
+import com.company.app.ordermanager.service.api.product.ProductService;
+import com.company.app.ordermanager.service.api.stock.StockReservationService;
+import com.company.app.ordermanager.service.impl.product.ProductStockKeys;
+import com.company.app.ordermanager.service.impl.product.StockWriteBehindFlusher;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.redisson.api.RScript;
+import org.redisson.api.RedissonClient;
+import org.redisson.client.RedisException;
+import org.redisson.client.codec.StringCodec;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.util.Assert;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * {@link StockReservationService} performing the stock check-and-update as a single server-side
+ * Lua script over the cached integer stock value, so that no distributed lock is needed.
+ * <p>
+ * The cached stock level is authoritative while this engine is active: scripts clear its expiry and
+ * the database record is only adjusted by the reserved or released quantity, which keeps it
+ * consistent regardless of the order in which concurrent consumers commit. With write-behind
+ * persistence, the script marks the product dirty instead, within the same atomic execution.
+ * Adjustments of several products are applied by a single script over all their stock keys, which
+ * therefore must be served by the same Redis node.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "stock.reservation.engine", havingValue = "script")
+public class RedisScriptStockReservationService implements StockReservationService {
+    private static final long STOCK_NOT_CACHED = -1;
+
+    /*
+     * KEYS[1..n] - stock value keys, KEYS[n + 1] - write-behind dirty products set,
+     * ARGV[1] - current time in milliseconds, or 0 without write-behind, ARGV[2] - 1 for all-or-nothing, 0 otherwise,
+     * ARGV[3..] - for each stock value key: product ID, number of deltas, signed stock deltas, negative for reservations.
+     * Returns {1, then for each product: stock level, accepted flag per delta}, or {-1, index of the key}
+     * if a stock level is not cached. Reservations exceeding the running stock level are refused, and in
+     * all-or-nothing mode every reservation is refused if any is. SET drops any expiry left on the keys.
+     */
+    private static final String ADJUST_SCRIPT = """
+            local n = #KEYS - 1
+            local stocks = {}
+            for i = 1, n do
+                local stock = redis.call('GET', KEYS[i])
+                if not stock then
+                    return {-1, i}
+                end
+                stocks[i] = tonumber(stock)
+            end
+            local function decide(refuseReservations)
+                local result = {1}
+                local levels = {}
+                local refused = false
+                local pos = 3
+                for i = 1, n do
+                    local stock = stocks[i]
+                    local count = tonumber(ARGV[pos + 1])
+                    local flags = {}
+                    for j = 1, count do
+                        local delta = tonumber(ARGV[pos + 1 + j])
+                        if delta < 0 and (refuseReservations or stock + delta < 0) then
+                            flags[j] = 0
+                            refused = true
+                        else
+                            stock = stock + delta
+                            flags[j] = 1
+                        end
+                    end
+                    result[#result + 1] = stock
+                    for j = 1, count do
+                        result[#result + 1] = flags[j]
+                    end
+                    levels[i] = stock
+                    pos = pos + 2 + count
+                end
+                return result, levels, refused
+            end
+            local result, levels, refused = decide(false)
+            if refused and ARGV[2] == '1' then
+                result, levels = decide(true)
+            end
+            local pos = 3
+            for i = 1, n do
+                redis.call('SET', KEYS[i], levels[i])
+                if ARGV[1] ~= '0' then
+                    redis.call('ZADD', KEYS[n + 1], 'NX', ARGV[1], ARGV[pos])
+                end
+                pos = pos + 2 + tonumber(ARGV[pos + 1])
+            end
+            return result
+            """;
+
+    private final RedissonClient redissonClient;
+    private final ProductService productService;
+    private final StockWriteBehindFlusher stockWriteBehindFlusher;
+
+    private RScript script;
+    private String adjustScriptSha;
+
+    @PostConstruct
+    private void init() {
+        script = redissonClient.getScript(StringCodec.INSTANCE);
+
+        loadScript();
+    }
+
+    /**
+     * Atomically applies a sequence of stock adjustments to a product with a single script execution.
+     * Adjustments are decided in the given order against a running stock level, and the persisted
+     * stock level is adjusted once by their net change. If the surrounding transaction rolls back,
+     * the net change is reverted on the cached stock level as well.
+     *
+     * @param productId   the unique identifier of the product to adjust the stock for
+     * @param adjustments the adjustments to apply, in order
+     * @return the {@link StockAdjustmentResult} describing which adjustments have been applied
+     * @throws IllegalArgumentException if {@code productId} is null or {@code adjustments} is null or empty
+     * @throws ProductNotFoundException if the stock level is not cached and no product is found with the given identifier
+     */
+    @Override
+    public StockAdjustmentResult apply(UUID productId, List<StockAdjustment> adjustments) {
+        Assert.notNull(productId, "Product ID must not be null");
+        Assert.notEmpty(adjustments, "Stock adjustments must not be empty");
+
+        return applyAll(Map.of(productId, adjustments), false).get(productId);
+    }
+
+    /**
+     * Atomically applies stock adjustments to several products with a single script execution, so
+     * no lock is held and no other adjustment can interleave, even in all-or-nothing mode. The
+     * persisted stock level of each product is adjusted once by its net change.
+     *
+     * @param adjustments  the adjustments to apply, in order, keyed by product ID
+     * @param allOrNothing whether reservations must be accepted for every product or for none
+     * @return the {@link StockAdjustmentResult} of each product, keyed by product ID
+     * @throws IllegalArgumentException if {@code adjustments} is null or empty, or contains no adjustment for a product
+     * @throws ProductNotFoundException if a stock level is not cached and no product is found with its identifier
+     */
+    @Override
+    public Map<UUID, StockAdjustmentResult> applyAll(Map<UUID, List<StockAdjustment>> adjustments, boolean allOrNothing) {
+        Assert.notEmpty(adjustments, "Stock adjustments must not be empty");
+        adjustments.values().forEach(productAdjustments -> Assert.notEmpty(productAdjustments, "Stock adjustments must not be empty"));
+
+        List<UUID> productIds = adjustments.keySet().stream().sorted().toList();
+
+        List<Long> scriptResult = evalAdjustScript(productIds, adjustments, allOrNothing);
+
+        // Each execution reports the first product whose stock level is not cached
+        for (int attempt = 0; scriptResult.get(0) == STOCK_NOT_CACHED && attempt < productIds.size(); attempt++) {
+            initializeCachedStockLevel(productIds.get(Math.toIntExact(scriptResult.get(1)) - 1));
+
+            scriptResult = evalAdjustScript(productIds, adjustments, allOrNothing);
+        }
+
+        if (scriptResult.get(0) == STOCK_NOT_CACHED) {
+            throw new IllegalStateException("Stock level of product " + productIds.get(Math.toIntExact(scriptResult.get(1)) - 1) + " could not be cached");
+        }
+
+        Map<UUID, StockAdjustmentResult> results = new LinkedHashMap<>();
+        int position = 1;
+
+        for (UUID productId : productIds) {
+            List<StockAdjustment> productAdjustments = adjustments.get(productId);
+
+            List<Boolean> accepted = scriptResult.subList(position + 1, position + 1 + productAdjustments.size()).stream()
+                    .map(flag -> flag == 1)
+                    .toList();
+
+            StockAdjustmentResult result = new StockAdjustmentResult(accepted, Math.toIntExact(scriptResult.get(position)));
+            position += 1 + productAdjustments.size();
+
+            persistNetChange(productId, productAdjustments, result);
+            results.put(productId, result);
+        }
+
+        return results;
+    }
+
+    /**
+     * Adjusts the persisted stock level of a product by the net change of its applied adjustments,
+     * and reverts the cached change if the surrounding transaction rolls back.
+     */
+    private void persistNetChange(UUID productId, List<StockAdjustment> adjustments, StockAdjustmentResult result) {
+        int netDelta = result.netDelta(adjustments);
+
+        if (netDelta != 0) {
+            if (!stockWriteBehindFlusher.isEnabled()) {
+                // The script already marked the product dirty otherwise
+                productService.adjustProductStockLevel(productId, netDelta);
+            }
+
+            revertOnRollback(productId, netDelta);
+        }
+
+        log.debug("Adjusted stock for product: {}. Adjustments: {}, Net change: {}, New: {}",
+                productId,
+                adjustments.size(),
+                netDelta,
+                result.stockLevel());
+    }
+
+    /**
+     * Evaluates the cached adjustment script, loading the script again if the Redis server
+     * has lost it (e.g. after a restart or a {@code SCRIPT FLUSH}).
+     */
+    private List<Long> evalAdjustScript(List<UUID> productIds, Map<UUID, List<StockAdjustment>> adjustments, boolean allOrNothing) {
+        List<Object> keys = new ArrayList<>(productIds.size() + 1);
+        productIds.forEach(productId -> keys.add(ProductStockKeys.stockValueKey(productId)));
+        keys.add(stockWriteBehindFlusher.getDirtyProductsKey());
+
+        List<String> args = new ArrayList<>();
+        args.add(stockWriteBehindFlusher.isEnabled() ? String.valueOf(System.currentTimeMillis()) : "0");
+        args.add(allOrNothing ? "1" : "0");
+
+        for (UUID productId : productIds) {
+            args.add(productId.toString());
+            args.add(String.valueOf(adjustments.get(productId).size()));
+            adjustments.get(productId).forEach(adjustment -> args.add(String.valueOf(adjustment.delta())));
+        }
+
+        Object[] scriptArgs = args.toArray();
+
+        try {
+            return script.evalSha(RScript.Mode.READ_WRITE, adjustScriptSha, RScript.ReturnType.MULTI, keys, scriptArgs);
+        } catch (RedisException e) {
+            if (e.getMessage() == null || !e.getMessage().contains("NOSCRIPT")) {
+                throw e;
+            }
+
+            log.info("Stock adjustment script not found on Redis server, loading it again");
+
+            loadScript();
+
+            return script.evalSha(RScript.Mode.READ_WRITE, adjustScriptSha, RScript.ReturnType.MULTI, keys, scriptArgs);
+        }
+    }
+
+    /**
+     * Caches the persisted stock level of a product, unless another consumer cached it in the meantime.
+     *
+     * @param productId the unique identifier of the product
+     * @throws ProductNotFoundException if no product is found with the given identifier
+     */
+    private void initializeCachedStockLevel(UUID productId) {
+        int stockLevel = productService.findById(productId).getStockLevel();
+
+        boolean initialized = redissonClient.<String>getBucket(ProductStockKeys.stockValueKey(productId), StringCodec.INSTANCE)
+                .setIfAbsent(String.valueOf(stockLevel));
+
+        if (initialized) {
+            log.debug("Initialized cached stock level for product: {}. Stock: {}", productId, stockLevel);
+        }
+    }
+
+    /**
+     * Registers a transaction synchronization reverting the cached stock change if the
+     * surrounding transaction rolls back, as the database adjustment is rolled back with it.
+     *
+     * @param productId the unique identifier of the product
+     * @param netDelta  the net change that has been applied to the cached stock level
+     */
+    private void revertOnRollback(UUID productId, int netDelta) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status != STATUS_ROLLED_BACK) {
+                    return;
+                }
+
+                try {
+                    redissonClient.getAtomicLong(ProductStockKeys.stockValueKey(productId)).addAndGet(-netDelta);
+
+                    if (stockWriteBehindFlusher.isEnabled()) {
+                        stockWriteBehindFlusher.markDirty(productId);
+                    }
+
+                    log.debug("Reverted cached stock change for product: {}. Net change: {}", productId, netDelta);
+                } catch (RedisException e) {
+                    log.error("Failed to revert cached stock change for product: {}. Error: {}", productId, e.getMessage());
+                }
+            }
+        });
+    }
+
+    private void loadScript() {
+        adjustScriptSha = script.scriptLoad(ADJUST_SCRIPT);
+    }
+}
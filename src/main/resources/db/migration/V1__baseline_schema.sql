@@ -0,0 +1,39 @@
+-- Schema as previously created by Hibernate with ddl-auto, skipped on databases baselined at V1
+
+CREATE TABLE products
+(
+    id          UUID           NOT NULL,
+    created_at  TIMESTAMP      NULL,
+    updated_at  TIMESTAMP      NULL,
+    name        VARCHAR(255)   NOT NULL,
+    description VARCHAR(1000)  NULL,
+    price       DECIMAL(10, 2) NOT NULL,
+    version     BIGINT         NOT NULL,
+    stock_level INT            NOT NULL,
+    CONSTRAINT pk_products PRIMARY KEY (id)
+) ENGINE = InnoDB;
+
+CREATE TABLE orders
+(
+    id            UUID          NOT NULL,
+    created_at    TIMESTAMP     NULL,
+    updated_at    TIMESTAMP     NULL,
+    customer_name VARCHAR(255)  NOT NULL,
+    description   VARCHAR(1000) NULL,
+    CONSTRAINT pk_orders PRIMARY KEY (id)
+) ENGINE = InnoDB;
+
+CREATE TABLE order_items
+(
+    id             UUID                                                                       NOT NULL,
+    order_id       UUID                                                                       NOT NULL,
+    product_id     UUID                                                                       NOT NULL,
+    quantity       INT                                                                        NOT NULL,
+    purchase_price DECIMAL(10, 2)                                                             NOT NULL,
+    status         ENUM ('PROCESSING', 'PROCESSING_FAILED', 'CONFIRMED', 'CANCELLING', 'CANCELLED') NOT NULL,
+    reason         ENUM ('INSUFFICIENT_STOCK', 'USER_CANCELLED')                              NULL,
+    version        BIGINT                                                                     NOT NULL,
+    CONSTRAINT pk_order_items PRIMARY KEY (id),
+    CONSTRAINT fk_order_items_order FOREIGN KEY (order_id) REFERENCES orders (id),
+    CONSTRAINT fk_order_items_product FOREIGN KEY (product_id) REFERENCES products (id)
+) ENGINE = InnoDB;
@@ -0,0 +1,15 @@
+-- Secondary indexes for the query paths, each index implicitly ends with the primary key
+
+-- Order list filtered by a creation date range, or sorted by creation date
+CREATE INDEX idx_orders_created_at ON orders (created_at, id);
+
+-- Items of an order, with their status to derive the order status without reading the rows.
+-- Leading with order_id, it also serves the order foreign key.
+CREATE INDEX idx_order_items_order_status ON order_items (order_id, status);
+
+-- Items of a product in a given status, e.g. the reserved quantity of a product.
+-- Leading with product_id, it also serves the product foreign key.
+CREATE INDEX idx_order_items_product_status ON order_items (product_id, status, quantity);
+
+-- Items in a given status across orders, e.g. items stuck in PROCESSING or CANCELLING
+CREATE INDEX idx_order_items_status ON order_items (status);
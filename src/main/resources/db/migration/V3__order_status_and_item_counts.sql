@@ -0,0 +1,37 @@
+-- Persisted order status, derived from the number of items in each status
+
+ALTER TABLE orders
+    ADD COLUMN status                  ENUM ('PROCESSING', 'CONFIRMED', 'PARTIALLY_CONFIRMED', 'CANCELLED', 'UNKNOWN') NOT NULL DEFAULT 'CONFIRMED',
+    ADD COLUMN processing_items        INT NOT NULL DEFAULT 0,
+    ADD COLUMN processing_failed_items INT NOT NULL DEFAULT 0,
+    ADD COLUMN confirmed_items         INT NOT NULL DEFAULT 0,
+    ADD COLUMN cancelling_items        INT NOT NULL DEFAULT 0,
+    ADD COLUMN cancelled_items         INT NOT NULL DEFAULT 0;
+
+UPDATE orders o
+    JOIN (SELECT order_id,
+                 SUM(status = 'PROCESSING')        AS processing_items,
+                 SUM(status = 'PROCESSING_FAILED') AS processing_failed_items,
+                 SUM(status = 'CONFIRMED')         AS confirmed_items,
+                 SUM(status = 'CANCELLING')        AS cancelling_items,
+                 SUM(status = 'CANCELLED')         AS cancelled_items
+          FROM order_items
+          GROUP BY order_id) c ON c.order_id = o.id
+SET o.processing_items        = c.processing_items,
+    o.processing_failed_items = c.processing_failed_items,
+    o.confirmed_items         = c.confirmed_items,
+    o.cancelling_items        = c.cancelling_items,
+    o.cancelled_items         = c.cancelled_items;
+
+-- Same derivation as OrderItemCounts.toStatus()
+UPDATE orders
+SET status = CASE
+                 WHEN confirmed_items = processing_items + processing_failed_items + confirmed_items + cancelling_items + cancelled_items THEN 'CONFIRMED'
+                 WHEN cancelled_items = processing_items + processing_failed_items + confirmed_items + cancelling_items + cancelled_items THEN 'CANCELLED'
+                 WHEN processing_items + cancelling_items > 0 THEN 'PROCESSING'
+                 WHEN processing_failed_items + cancelled_items > 0 THEN 'PARTIALLY_CONFIRMED'
+                 ELSE 'UNKNOWN'
+    END;
+
+-- Order list filtered by status, sorted by creation date
+CREATE INDEX idx_orders_status_created_at ON orders (status, created_at, id);
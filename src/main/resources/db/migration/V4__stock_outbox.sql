@@ -0,0 +1,11 @@
+-- Outbox of the stock update messages, written in the transaction of the order item changes.
+-- IDs are taken from a single auto-increment, so they grow in commit order across nodes and
+-- define the relay order.
+
+CREATE TABLE stock_outbox
+(
+    id         BIGINT    NOT NULL AUTO_INCREMENT,
+    payload    LONGTEXT  NOT NULL,
+    created_at TIMESTAMP NOT NULL,
+    CONSTRAINT pk_stock_outbox PRIMARY KEY (id)
+) ENGINE = InnoDB;
@@ -0,0 +1,4 @@
+-- Time the order was deleted, the row is kept so the deletion outlives the search index and its reindexing
+
+ALTER TABLE orders
+    ADD COLUMN deleted_at TIMESTAMP NULL DEFAULT NULL;
@@ -0,0 +1,45 @@
+package com.company.app.ordermanager.unittest.entity;
+
+import com.company.app.ordermanager.entity.common.TimeOrderedUuidGenerator;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TimeOrderedUuidGeneratorTest {
+
+    @Test
+    void generate_ShouldProduceVersion7Uuid() {
+        // Given
+        long before = System.currentTimeMillis();
+
+        // When
+        UUID uuid = TimeOrderedUuidGenerator.generate();
+
+        // Then
+        assertThat(uuid.version()).isEqualTo(7);
+        assertThat(uuid.variant()).isEqualTo(2);
+        assertThat(uuid.getMostSignificantBits() >>> 16).isBetween(before, System.currentTimeMillis() + 1);
+    }
+
+    @Test
+    void generate_WhenCalledRepeatedly_ShouldProduceStrictlyIncreasingUuids() {
+        // Given
+        Set<UUID> generated = new HashSet<>();
+        UUID previous = TimeOrderedUuidGenerator.generate();
+
+        // When/Then
+        for (int i = 0; i < 100_000; i++) {
+            UUID next = TimeOrderedUuidGenerator.generate();
+
+            // Compare as unsigned, as the index does
+            assertThat(Long.compareUnsigned(next.getMostSignificantBits(), previous.getMostSignificantBits())).isPositive();
+            assertThat(generated.add(next)).isTrue();
+
+            previous = next;
+        }
+    }
+}
@@ -0,0 +1,160 @@
+package com.company.app.ordermanager.unittest.messaging.service.outbox;
+
+import com.company.app.ordermanager.entity.outbox.StockOutboxMessage;
+import com.company.app.ordermanager.messaging.dto.OrderStockUpdateMessage;
+import com.company.app.ordermanager.messaging.dto.StockPublishResult;
+import com.company.app.ordermanager.messaging.dto.StockUpdateMessage;
+import com.company.app.ordermanager.messaging.service.impl.stock.outbox.StockOutboxRelay;
+import com.company.app.ordermanager.messaging.service.impl.stock.redis.RedisStreamStockMessageProducer;
+import com.company.app.ordermanager.repository.api.outbox.StockOutboxRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.redisson.api.RLock;
+import org.redisson.api.RedissonClient;
+import org.redisson.client.RedisException;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class StockOutboxRelayTest {
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Mock
+    private RedissonClient redissonClient;
+
+    @Mock
+    private RLock lock;
+
+    @Mock
+    private StockOutboxRepository stockOutboxRepository;
+
+    @Mock
+    private RedisStreamStockMessageProducer redisStreamStockMessageProducer;
+
+    private SimpleMeterRegistry meterRegistry;
+    private StockOutboxRelay relay;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        relay = new StockOutboxRelay(redissonClient, objectMapper, stockOutboxRepository, redisStreamStockMessageProducer, meterRegistry, 2, 5);
+
+        when(redissonClient.getLock("stock:outbox:relay:lock")).thenReturn(lock);
+    }
+
+    @Test
+    void relay_WhenMessagesPublished_ShouldDeleteThemAndContinue() throws Exception {
+        // Given
+        OrderStockUpdateMessage first = message();
+        OrderStockUpdateMessage second = message();
+
+        when(lock.tryLock()).thenReturn(true);
+        when(stockOutboxRepository.findAllByOrderByIdAsc(any()))
+                .thenReturn(List.of(outboxMessage(1L, first), outboxMessage(2L, second)))
+                .thenReturn(List.of());
+        when(redisStreamStockMessageProducer.publishStockUpdateMessages(List.of(first, second))).thenReturn(new StockPublishResult(List.of(
+                StockPublishResult.Outcome.published(first, "1-0"),
+                StockPublishResult.Outcome.published(second, "1-1")
+        )));
+
+        // When
+        relay.relay();
+
+        // Then
+        verify(stockOutboxRepository).deleteAllByIdInBatch(List.of(1L, 2L));
+        verify(stockOutboxRepository, times(2)).findAllByOrderByIdAsc(any());
+        verify(lock).unlock();
+        assertThat(meterRegistry.get("stock.outbox.relayed").counter().count()).isEqualTo(2);
+    }
+
+    @Test
+    void relay_WhenPublishPartiallyFails_ShouldKeepFailedMessagesAndStop() throws Exception {
+        // Given
+        OrderStockUpdateMessage first = message();
+        OrderStockUpdateMessage second = message();
+
+        when(lock.tryLock()).thenReturn(true);
+        when(stockOutboxRepository.findAllByOrderByIdAsc(any()))
+                .thenReturn(List.of(outboxMessage(1L, first), outboxMessage(2L, second)));
+        when(redisStreamStockMessageProducer.publishStockUpdateMessages(List.of(first, second))).thenReturn(new StockPublishResult(List.of(
+                StockPublishResult.Outcome.published(first, "1-0"),
+                StockPublishResult.Outcome.failed(second, new RedisException("Connection reset"))
+        )));
+
+        // When
+        relay.relay();
+
+        // Then
+        verify(stockOutboxRepository).deleteAllByIdInBatch(List.of(1L));
+        verify(stockOutboxRepository, times(1)).findAllByOrderByIdAsc(any());
+        assertThat(meterRegistry.get("stock.outbox.relayed").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void relay_WhenMessageInMiddleOfBatchFails_ShouldOnlyDeletePublishedPrefix() throws Exception {
+        // Given
+        OrderStockUpdateMessage first = message();
+        OrderStockUpdateMessage second = message();
+        OrderStockUpdateMessage third = message();
+        relay = new StockOutboxRelay(redissonClient, objectMapper, stockOutboxRepository, redisStreamStockMessageProducer, meterRegistry, 3, 5);
+
+        when(lock.tryLock()).thenReturn(true);
+        when(stockOutboxRepository.findAllByOrderByIdAsc(any()))
+                .thenReturn(List.of(outboxMessage(1L, first), outboxMessage(2L, second), outboxMessage(3L, third)));
+        when(redisStreamStockMessageProducer.publishStockUpdateMessages(List.of(first, second, third))).thenReturn(new StockPublishResult(List.of(
+                StockPublishResult.Outcome.published(first, "1-0"),
+                StockPublishResult.Outcome.failed(second, new RedisException("Connection reset")),
+                StockPublishResult.Outcome.published(third, "1-1")
+        )));
+
+        // When
+        relay.relay();
+
+        // Then
+        verify(stockOutboxRepository).deleteAllByIdInBatch(List.of(1L));
+        verify(stockOutboxRepository, times(1)).findAllByOrderByIdAsc(any());
+        assertThat(meterRegistry.get("stock.outbox.relayed").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void relay_WhenLockHeldByAnotherNode_ShouldSkip() {
+        // Given
+        when(lock.tryLock()).thenReturn(false);
+
+        // When
+        relay.relay();
+
+        // Then
+        verify(stockOutboxRepository, never()).findAllByOrderByIdAsc(any());
+        verify(redisStreamStockMessageProducer, never()).publishStockUpdateMessages(anyList());
+        verify(lock, never()).unlock();
+    }
+
+    private OrderStockUpdateMessage message() {
+        return OrderStockUpdateMessage.builder()
+                .orderId(UUID.randomUUID())
+                .updateType(StockUpdateMessage.UpdateType.RESERVE)
+                .items(List.of(OrderStockUpdateMessage.Item.builder()
+                        .orderItemId(UUID.randomUUID())
+                        .productId(UUID.randomUUID())
+                        .quantity(1)
+                        .build()))
+                .build();
+    }
+
+    private StockOutboxMessage outboxMessage(long id, OrderStockUpdateMessage message) throws Exception {
+        return new StockOutboxMessage(id, objectMapper.writeValueAsString(message), Instant.now());
+    }
+}
@@ -0,0 +1,114 @@
+package com.company.app.ordermanager.unittest.messaging.service.redis;
+
+import com.company.app.ordermanager.dto.orderitem.OrderItemStatusUpdate;
+import com.company.app.ordermanager.dto.stock.StockAdjustment;
+import com.company.app.ordermanager.dto.stock.StockAdjustmentResult;
+import com.company.app.ordermanager.entity.orderitem.OrderItemStatus;
+import com.company.app.ordermanager.messaging.dto.StockUpdateMessage;
+import com.company.app.ordermanager.messaging.redis.StockStreamPartitioner;
+import com.company.app.ordermanager.messaging.service.impl.stock.redis.RedisStreamStockMessageConsumer;
+import com.company.app.ordermanager.messaging.service.impl.stock.redis.StockPartitionCoordinator;
+import com.company.app.ordermanager.messaging.service.impl.stock.redis.StockPendingMessageReclaimer;
+import com.company.app.ordermanager.messaging.service.impl.stock.redis.StockUpdateWorkerPool;
+import com.company.app.ordermanager.service.api.orderitem.OrderItemService;
+import com.company.app.ordermanager.service.api.stock.StockReservationService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.redisson.api.RedissonClient;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class RedisStreamStockMessageConsumerTest {
+    private static final UUID ORDER_ID = UUID.randomUUID();
+    private static final UUID ORDER_ITEM_ID = UUID.randomUUID();
+    private static final UUID PRODUCT_ID = UUID.randomUUID();
+    private static final long EXPECTED_VERSION = 1L;
+
+    @Mock
+    private RedissonClient redissonClient;
+
+    @Mock
+    private OrderItemService orderItemService;
+
+    @Mock
+    private StockReservationService stockReservationService;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @Mock
+    private StockPartitionCoordinator stockPartitionCoordinator;
+
+    @Mock
+    private StockUpdateWorkerPool stockUpdateWorkerPool;
+
+    @Mock
+    private StockPendingMessageReclaimer stockPendingMessageReclaimer;
+
+    private RedisStreamStockMessageConsumer consumer;
+
+    @BeforeEach
+    void setUp() {
+        consumer = new RedisStreamStockMessageConsumer(
+                redissonClient,
+                new ObjectMapper(),
+                orderItemService,
+                stockReservationService,
+                transactionTemplate,
+                new StockStreamPartitioner(1),
+                stockPartitionCoordinator,
+                stockUpdateWorkerPool,
+                stockPendingMessageReclaimer
+        );
+    }
+
+    @Test
+    void processStockUpdateMessage_WhenItemAtExpectedVersion_ShouldReserveAndConfirm() {
+        // Given
+        when(orderItemService.lockOrderItemVersions(List.of(ORDER_ITEM_ID))).thenReturn(Map.of(ORDER_ITEM_ID, EXPECTED_VERSION));
+        when(stockReservationService.applyAll(Map.of(PRODUCT_ID, List.of(StockAdjustment.reserve(2))), false))
+                .thenReturn(Map.of(PRODUCT_ID, new StockAdjustmentResult(List.of(true), 8)));
+
+        // When
+        consumer.processStockUpdateMessage(reserveMessage());
+
+        // Then
+        verify(orderItemService).updateOrderItemStatuses(List.of(OrderItemStatusUpdate.of(ORDER_ITEM_ID, EXPECTED_VERSION, OrderItemStatus.CONFIRMED)));
+    }
+
+    @Test
+    void processStockUpdateMessage_WhenMessageDeliveredAgain_ShouldNotAdjustStockTwice() {
+        // Given the item has already been confirmed by the first delivery
+        when(orderItemService.lockOrderItemVersions(List.of(ORDER_ITEM_ID))).thenReturn(Map.of(ORDER_ITEM_ID, EXPECTED_VERSION + 1));
+
+        // When
+        consumer.processStockUpdateMessage(reserveMessage());
+
+        // Then
+        verify(stockReservationService, never()).applyAll(any(), anyBoolean());
+        verify(orderItemService, never()).updateOrderItemStatuses(any());
+    }
+
+    private StockUpdateMessage reserveMessage() {
+        return StockUpdateMessage.builder()
+                .orderId(ORDER_ID)
+                .orderItemId(ORDER_ITEM_ID)
+                .expectedOrderItemVersion(EXPECTED_VERSION)
+                .updateType(StockUpdateMessage.UpdateType.RESERVE)
+                .productId(PRODUCT_ID)
+                .quantity(2)
+                .build();
+    }
+}
@@ -1,9 +1,12 @@
 package com.company.app.ordermanager.unittest.messaging.service.redis;
 
+import com.company.app.ordermanager.entity.order.Order;
 import com.company.app.ordermanager.entity.orderitem.OrderItem;
 import com.company.app.ordermanager.entity.product.Product;
-import com.company.app.ordermanager.messaging.common.MessageChannels;
+import com.company.app.ordermanager.messaging.dto.OrderStockUpdateMessage;
+import com.company.app.ordermanager.messaging.dto.StockPublishResult;
 import com.company.app.ordermanager.messaging.dto.StockUpdateMessage;
+import com.company.app.ordermanager.messaging.redis.StockStreamPartitioner;
 import com.company.app.ordermanager.messaging.service.impl.stock.redis.RedisStreamStockMessageProducer;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
@@ -12,20 +15,32 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
-import org.redisson.api.RStream;
+import org.redisson.api.BatchOptions;
+import org.redisson.api.RBatch;
+import org.redisson.api.RFuture;
+import org.redisson.api.RStreamAsync;
 import org.redisson.api.RedissonClient;
+import org.redisson.api.StreamMessageId;
 import org.redisson.api.stream.StreamAddArgs;
+import org.redisson.client.RedisException;
 
+import java.util.List;
 import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
 class RedisStreamStockMessageProducerTest {
+    private static final UUID ORDER_ID = UUID.randomUUID();
     private static final UUID ORDER_ITEM_ID = UUID.randomUUID();
     private static final UUID PRODUCT_ID = UUID.randomUUID();
 
@@ -36,7 +51,16 @@ class RedisStreamStockMessageProducerTest {
     private RedissonClient redissonClient;
 
     @Mock
-    private RStream<Object, Object> stream;
+    private RBatch batch;
+
+    @Mock
+    private RStreamAsync<Object, Object> stream;
+
+    @Mock
+    private RFuture<StreamMessageId> addFuture;
+
+    @Spy
+    private StockStreamPartitioner stockStreamPartitioner = new StockStreamPartitioner(4);
 
     @InjectMocks
     private RedisStreamStockMessageProducer producer;
@@ -52,53 +76,142 @@ class RedisStreamStockMessageProducerTest {
                 .build();
         testOrderItem = OrderItem.builder()
                 .id(ORDER_ITEM_ID)
+                .order(Order.builder().id(ORDER_ID).build())
                 .product(testProduct)
                 .quantity(2)
                 .version(1L)
                 .build();
 
-        when(redissonClient.getStream(MessageChannels.STOCK_UPDATE_QUEUE.getKey())).thenReturn(stream);
+        when(redissonClient.createBatch(any(BatchOptions.class))).thenReturn(batch);
     }
 
     @Test
     void sendStockReservationMessage_ShouldPublishToStream() throws JsonProcessingException {
         // Given
-        StockUpdateMessage expectedMessage = StockUpdateMessage.builder()
-                .orderItemId(ORDER_ITEM_ID)
-                .expectedOrderItemVersion(1L)
+        OrderStockUpdateMessage expectedMessage = OrderStockUpdateMessage.builder()
+                .orderId(ORDER_ID)
                 .updateType(StockUpdateMessage.UpdateType.RESERVE)
-                .productId(PRODUCT_ID)
-                .quantity(2)
+                .items(List.of(item()))
                 .build();
 
         String messageJson = "message-json";
         when(objectMapper.writeValueAsString(expectedMessage)).thenReturn(messageJson);
+        givenStreamAddSucceeds();
 
         // When
-        producer.sendStockReservationMessage(Set.of(testOrderItem));
+        StockPublishResult result = producer.sendStockReservationMessage(Set.of(testOrderItem));
 
         // Then
-        verify(stream).add(any(StreamAddArgs.class));
+        verify(stream).addAsync(any(StreamAddArgs.class));
+        verify(batch).execute();
+        assertThat(result.allPublished()).isTrue();
+        assertThat(result.outcomes()).singleElement().satisfies(outcome -> assertThat(outcome.messageId()).isEqualTo("1-0"));
     }
 
     @Test
     void sendStockCancellationMessage_ShouldPublishToStream() throws JsonProcessingException {
         // Given
-        StockUpdateMessage expectedMessage = StockUpdateMessage.builder()
-                .orderItemId(ORDER_ITEM_ID)
-                .expectedOrderItemVersion(1L)
+        OrderStockUpdateMessage expectedMessage = OrderStockUpdateMessage.builder()
+                .orderId(ORDER_ID)
                 .updateType(StockUpdateMessage.UpdateType.CANCEL)
-                .productId(PRODUCT_ID)
-                .quantity(2)
+                .items(List.of(item()))
                 .build();
 
         String messageJson = "message-json";
         when(objectMapper.writeValueAsString(expectedMessage)).thenReturn(messageJson);
+        givenStreamAddSucceeds();
+
+        // When
+        StockPublishResult result = producer.sendStockCancellationMessage(Set.of(testOrderItem));
+
+        // Then
+        verify(stream).addAsync(any(StreamAddArgs.class));
+        verify(batch).execute();
+        assertThat(result.allPublished()).isTrue();
+    }
+
+    @Test
+    void publishStockUpdateMessages_WhenBatchFails_ShouldReportEachMessage() throws JsonProcessingException {
+        // Given
+        OrderStockUpdateMessage message = OrderStockUpdateMessage.builder()
+                .orderId(ORDER_ID)
+                .updateType(StockUpdateMessage.UpdateType.RESERVE)
+                .items(List.of(item()))
+                .build();
+
+        String streamKey = stockStreamPartitioner.streamKey(ORDER_ID);
+
+        when(objectMapper.writeValueAsString(message)).thenReturn("message-json");
+        doReturn(stream).when(batch).getStream(streamKey);
+        when(stream.addAsync(any(StreamAddArgs.class))).thenReturn(addFuture);
+        when(addFuture.toCompletableFuture()).thenReturn(new CompletableFuture<>());
+        when(batch.execute()).thenThrow(new RedisException("connection lost"));
+
+        // When
+        StockPublishResult result = producer.publishStockUpdateMessages(List.of(message, message));
+
+        // Then
+        assertThat(result.allPublished()).isFalse();
+        assertThat(result.failures()).hasSize(2)
+                .allSatisfy(outcome -> assertThat(outcome.error()).hasMessage("connection lost"));
+    }
+
+    @Test
+    void publishStockUpdateMessages_WhenSerializationFails_ShouldPublishOtherMessages() throws JsonProcessingException {
+        // Given
+        OrderStockUpdateMessage invalid = OrderStockUpdateMessage.builder().orderId(ORDER_ID).items(List.of()).build();
+        OrderStockUpdateMessage valid = OrderStockUpdateMessage.builder().orderId(ORDER_ID).items(List.of(item())).build();
+
+        when(objectMapper.writeValueAsString(invalid)).thenThrow(new JsonProcessingException("invalid") {
+        });
+        when(objectMapper.writeValueAsString(valid)).thenReturn("message-json");
+        givenStreamAddSucceeds();
 
         // When
-        producer.sendStockCancellationMessage(Set.of(testOrderItem));
+        StockPublishResult result = producer.publishStockUpdateMessages(List.of(invalid, valid));
 
         // Then
-        verify(stream).add(any(StreamAddArgs.class));
+        assertThat(result.outcomes()).extracting(StockPublishResult.Outcome::published).containsExactly(false, true);
+        verify(stream, times(1)).addAsync(any(StreamAddArgs.class));
+    }
+
+    @Test
+    void sendStockReservationMessage_WhenItemsOfSameOrder_ShouldPublishSingleMessage() throws JsonProcessingException {
+        // Given
+        OrderItem otherOrderItem = OrderItem.builder()
+                .id(UUID.randomUUID())
+                .order(testOrderItem.getOrder())
+                .product(testOrderItem.getProduct())
+                .quantity(1)
+                .build();
+
+        when(objectMapper.writeValueAsString(any(OrderStockUpdateMessage.class))).thenReturn("message-json");
+        givenStreamAddSucceeds();
+
+        // When
+        StockPublishResult result = producer.sendStockReservationMessage(Set.of(testOrderItem, otherOrderItem));
+
+        // Then
+        verify(stream, times(1)).addAsync(any(StreamAddArgs.class));
+        assertThat(result.outcomes()).singleElement()
+                .satisfies(outcome -> assertThat(outcome.message().getItems()).hasSize(2));
+    }
+
+    private OrderStockUpdateMessage.Item item() {
+        return OrderStockUpdateMessage.Item.builder()
+                .orderItemId(ORDER_ITEM_ID)
+                .expectedOrderItemVersion(1L)
+                .productId(PRODUCT_ID)
+                .quantity(2)
+                .build();
+    }
+
+    private void givenStreamAddSucceeds() {
+        // Computed before stubbing, as the partitioner is a spy
+        String streamKey = stockStreamPartitioner.streamKey(ORDER_ID);
+
+        doReturn(stream).when(batch).getStream(streamKey);
+        when(stream.addAsync(any(StreamAddArgs.class))).thenReturn(addFuture);
+        when(addFuture.toCompletableFuture()).thenReturn(CompletableFuture.completedFuture(new StreamMessageId(1, 0)));
     }
 }
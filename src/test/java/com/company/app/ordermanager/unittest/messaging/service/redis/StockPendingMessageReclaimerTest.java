@@ -0,0 +1,107 @@
+package com.company.app.ordermanager.unittest.messaging.service.redis;
+
+import com.company.app.ordermanager.messaging.redis.StockStreamPartitioner;
+import com.company.app.ordermanager.messaging.service.impl.stock.redis.StockPartitionCoordinator;
+import com.company.app.ordermanager.messaging.service.impl.stock.redis.StockPendingMessageReclaimer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.redisson.api.RMap;
+import org.redisson.api.RScoredSortedSet;
+import org.redisson.api.RedissonClient;
+import org.redisson.api.StreamMessageId;
+import org.redisson.client.codec.Codec;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyDouble;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class StockPendingMessageReclaimerTest {
+    private static final String STREAM_KEY = "stock:update:stream:0";
+    private static final StreamMessageId MESSAGE_ID = new StreamMessageId(1700000000000L, 0);
+    private static final String MEMBER = STREAM_KEY + "|" + MESSAGE_ID;
+
+    @Mock
+    private RedissonClient redissonClient;
+
+    @Mock
+    private StockPartitionCoordinator stockPartitionCoordinator;
+
+    @Mock
+    private RMap<String, Long> retryAttempts;
+
+    @Mock
+    private RScoredSortedSet<String> retryDelays;
+
+    private StockPendingMessageReclaimer reclaimer;
+
+    @BeforeEach
+    void setUp() {
+        reclaimer = new StockPendingMessageReclaimer(
+                redissonClient,
+                new StockStreamPartitioner(1),
+                stockPartitionCoordinator,
+                new SimpleMeterRegistry()
+        );
+
+        ReflectionTestUtils.setField(reclaimer, "maxAttempts", 3);
+        ReflectionTestUtils.setField(reclaimer, "retryInitialBackoff", Duration.ofSeconds(1));
+        ReflectionTestUtils.setField(reclaimer, "retryMaxBackoff", Duration.ofSeconds(10));
+
+        doReturn(retryAttempts).when(redissonClient).getMap(eq("stock:retry:attempts"), any(Codec.class));
+    }
+
+    @Test
+    void scheduleRetry_WhenAttemptsLeft_ShouldAddToDelaySet() {
+        // Given
+        when(retryAttempts.addAndGet(MEMBER, 1L)).thenReturn(2L);
+        doReturn(retryDelays).when(redissonClient).getScoredSortedSet(eq("stock:retry:delayed"), any(Codec.class));
+
+        long before = System.currentTimeMillis();
+
+        // When
+        boolean scheduled = reclaimer.scheduleRetry(STREAM_KEY, MESSAGE_ID);
+
+        // Then
+        assertThat(scheduled).isTrue();
+        // Second attempt waits twice the initial backoff, plus up to a quarter of jitter
+        verify(retryDelays).add(
+                doubleThat(dueAt -> dueAt >= before + 2000 && dueAt <= System.currentTimeMillis() + 2500),
+                eq(MEMBER)
+        );
+    }
+
+    @Test
+    void scheduleRetry_WhenMaxAttemptsReached_ShouldGiveUp() {
+        // Given
+        when(retryAttempts.addAndGet(MEMBER, 1L)).thenReturn(3L);
+
+        // When
+        boolean scheduled = reclaimer.scheduleRetry(STREAM_KEY, MESSAGE_ID);
+
+        // Then
+        assertThat(scheduled).isFalse();
+        verify(redissonClient, never()).getScoredSortedSet(anyString(), any(Codec.class));
+        verify(retryDelays, never()).add(anyDouble(), anyString());
+    }
+
+    @Test
+    void clearRetries_ShouldRemoveAttempts() {
+        // When
+        reclaimer.clearRetries(STREAM_KEY, List.of(MESSAGE_ID));
+
+        // Then
+        verify(retryAttempts).fastRemove(MEMBER);
+    }
+}
@@ -0,0 +1,36 @@
+package com.company.app.ordermanager.unittest.messaging.service.redis;
+
+import com.company.app.ordermanager.messaging.redis.StockStreamPartitioner;
+import org.junit.jupiter.api.Test;
+
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class StockStreamPartitionerTest {
+    private final StockStreamPartitioner partitioner = new StockStreamPartitioner(8);
+
+    @Test
+    void partitionOf_ShouldBeStableAndWithinRange() {
+        for (int i = 0; i < 1000; i++) {
+            UUID productId = UUID.randomUUID();
+
+            int partition = partitioner.partitionOf(productId);
+
+            assertThat(partition).isBetween(0, 7);
+            assertThat(partitioner.partitionOf(UUID.fromString(productId.toString()))).isEqualTo(partition);
+        }
+    }
+
+    @Test
+    void streamKey_ShouldUsePartitionSuffix() {
+        assertThat(partitioner.streamKey(3)).isEqualTo("stock:update:stream:3");
+        assertThat(partitioner.streamKeys()).hasSize(8).first().isEqualTo("stock:update:stream:0");
+    }
+
+    @Test
+    void constructor_WhenPartitionCountNotPositive_ShouldThrowException() {
+        assertThrows(IllegalArgumentException.class, () -> new StockStreamPartitioner(0));
+    }
+}
@@ -0,0 +1,100 @@
+package com.company.app.ordermanager.unittest.messaging.service.redis;
+
+import com.company.app.ordermanager.messaging.redis.StockStreamPartitioner;
+import com.company.app.ordermanager.messaging.service.impl.stock.redis.StockPartitionCoordinator;
+import com.company.app.ordermanager.messaging.service.impl.stock.redis.StockStreamTrimmer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.redisson.api.PendingResult;
+import org.redisson.api.RStream;
+import org.redisson.api.RedissonClient;
+import org.redisson.api.StreamGroup;
+import org.redisson.api.StreamMessageId;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class StockStreamTrimmerTest {
+    private static final String STREAM_KEY = "stock:update:stream:0";
+    private static final String GROUP_NAME = "stock-processor-group";
+
+    @Mock
+    private RedissonClient redissonClient;
+
+    @Mock
+    private StockPartitionCoordinator stockPartitionCoordinator;
+
+    @Mock
+    private RStream<Object, Object> stream;
+
+    private SimpleMeterRegistry meterRegistry;
+    private StockStreamTrimmer trimmer;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        trimmer = new StockStreamTrimmer(redissonClient, new StockStreamPartitioner(1), stockPartitionCoordinator, meterRegistry);
+
+        ReflectionTestUtils.setField(trimmer, "chunkSize", 100);
+        ReflectionTestUtils.setField(trimmer, "maxChunks", 3);
+
+        when(stockPartitionCoordinator.getOwnedPartitions()).thenReturn(List.of(0));
+        when(redissonClient.getStream(STREAM_KEY)).thenReturn(stream);
+    }
+
+    @Test
+    void trimOwnedStreams_WhenEntriesPending_ShouldTrimInBoundedChunks() {
+        // Given
+        StreamMessageId lowestPendingId = new StreamMessageId(100, 0);
+        StreamMessageId lastDeliveredId = new StreamMessageId(200, 0);
+
+        when(stream.listGroups()).thenReturn(List.of(new StreamGroup(GROUP_NAME, 1, 5, lastDeliveredId)));
+        when(stream.getPendingInfo(GROUP_NAME)).thenReturn(new PendingResult(5, lowestPendingId, lastDeliveredId, Map.of()));
+        when(stream.trimNonStrict(any())).thenReturn(100L, 100L, 100L);
+        when(stream.size()).thenReturn(42L);
+
+        // When
+        trimmer.trimOwnedStreams();
+
+        // Then
+        verify(stream, times(3)).trimNonStrict(any());
+        assertThat(meterRegistry.get("stock.stream.trimmed").counter().count()).isEqualTo(300);
+        assertThat(meterRegistry.get("stock.stream.length").tag("partition", "0").gauge().value()).isEqualTo(42);
+    }
+
+    @Test
+    void trimOwnedStreams_WhenNothingToTrim_ShouldStopAfterFirstChunk() {
+        // Given
+        when(stream.listGroups()).thenReturn(List.of(new StreamGroup(GROUP_NAME, 1, 0, new StreamMessageId(200, 0))));
+        when(stream.trimNonStrict(any())).thenReturn(0L);
+
+        // When
+        trimmer.trimOwnedStreams();
+
+        // Then
+        verify(stream, never()).getPendingInfo(any());
+        verify(stream, times(1)).trimNonStrict(any());
+    }
+
+    @Test
+    void trimOwnedStreams_WhenNoConsumerGroup_ShouldNotTrim() {
+        // Given
+        when(stream.listGroups()).thenReturn(List.of());
+
+        // When
+        trimmer.trimOwnedStreams();
+
+        // Then
+        verify(stream, never()).trimNonStrict(any());
+    }
+}
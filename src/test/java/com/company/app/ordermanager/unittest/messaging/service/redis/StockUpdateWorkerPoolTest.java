@@ -0,0 +1,78 @@
+package com.company.app.ordermanager.unittest.messaging.service.redis;
+
+import com.company.app.ordermanager.messaging.service.impl.stock.redis.StockUpdateWorkerPool;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class StockUpdateWorkerPoolTest {
+    private SimpleMeterRegistry meterRegistry;
+    private StockUpdateWorkerPool workerPool;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        workerPool = new StockUpdateWorkerPool(4, 100, meterRegistry);
+    }
+
+    @AfterEach
+    void tearDown() {
+        workerPool.shutdown();
+    }
+
+    @Test
+    void submit_ShouldRunTasksOfSameProductInOrder() throws InterruptedException {
+        // Given
+        List<UUID> productIds = List.of(UUID.randomUUID(), UUID.randomUUID(), UUID.randomUUID());
+        Map<UUID, List<Integer>> executed = new ConcurrentHashMap<>();
+
+        // When
+        for (int i = 0; i < 50; i++) {
+            int sequence = i;
+
+            for (UUID productId : productIds) {
+                workerPool.submit(productId, () ->
+                        executed.computeIfAbsent(productId, id -> Collections.synchronizedList(new ArrayList<>())).add(sequence));
+            }
+        }
+
+        // Then
+        assertThat(workerPool.awaitIdle(Duration.ofSeconds(5))).isTrue();
+        productIds.forEach(productId -> assertThat(executed.get(productId)).isSorted().hasSize(50));
+    }
+
+    @Test
+    void submit_WhenTaskFails_ShouldKeepProcessing() throws InterruptedException {
+        // Given
+        UUID productId = UUID.randomUUID();
+        List<Integer> executed = Collections.synchronizedList(new ArrayList<>());
+
+        // When
+        workerPool.submit(productId, () -> {
+            throw new IllegalStateException("failure");
+        });
+        workerPool.submit(productId, () -> executed.add(1));
+
+        // Then
+        assertThat(workerPool.awaitIdle(Duration.ofSeconds(5))).isTrue();
+        assertThat(executed).containsExactly(1);
+    }
+
+    @Test
+    void constructor_ShouldRegisterGauges() {
+        assertThat(meterRegistry.find("stock.consumer.worker.queue.depth").gauges()).hasSize(4);
+        assertThat(meterRegistry.get("stock.consumer.worker.busy").gauge().value()).isZero();
+        assertThat(meterRegistry.get("stock.consumer.worker.busy.time").functionCounter()).isNotNull();
+    }
+}
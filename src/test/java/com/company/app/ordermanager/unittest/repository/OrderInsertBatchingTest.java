@@ -0,0 +1,90 @@
+package com.company.app.ordermanager.unittest.repository;
+
+import com.company.app.ordermanager.entity.order.Order;
+import com.company.app.ordermanager.entity.orderitem.OrderItem;
+import com.company.app.ordermanager.entity.orderitem.OrderItemStatus;
+import com.company.app.ordermanager.entity.product.Product;
+import com.company.app.ordermanager.repository.api.order.OrderRepository;
+import com.company.app.ordermanager.repository.api.orderitem.OrderItemRepository;
+import jakarta.persistence.EntityManager;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@ActiveProfiles("test")
+class OrderInsertBatchingTest {
+    private static final int ITEM_COUNT = 20;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private OrderItemRepository orderItemRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private Product testProduct;
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        testProduct = Product.builder()
+                .name("Test Product")
+                .description("Test Description")
+                .price(new BigDecimal("99.99"))
+                .stockLevel(100)
+                .build();
+
+        entityManager.persist(testProduct);
+        entityManager.flush();
+
+        statistics = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    void saveOrderWithItems_ShouldInsertItemsWithSingleBatch() {
+        // Given
+        Order order = Order.builder()
+                .customerName("Test Customer")
+                .description("Test Order")
+                .build();
+
+        // When
+        Order savedOrder = orderRepository.save(order);
+
+        List<OrderItem> orderItems = IntStream.range(0, ITEM_COUNT)
+                .mapToObj(i -> OrderItem.builder()
+                        .order(savedOrder)
+                        .product(testProduct)
+                        .quantity(1)
+                        .purchasePrice(testProduct.getPrice())
+                        .status(OrderItemStatus.PROCESSING)
+                        .build())
+                .toList();
+
+        orderItemRepository.saveAll(orderItems);
+
+        // Nothing is sent before the flush, as IDs are generated client-side
+        assertThat(statistics.getPrepareStatementCount()).isZero();
+
+        entityManager.flush();
+
+        // Then
+        assertThat(statistics.getEntityInsertCount()).isEqualTo(ITEM_COUNT + 1);
+        // One statement for the order, one batched statement for all its items
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+    }
+}
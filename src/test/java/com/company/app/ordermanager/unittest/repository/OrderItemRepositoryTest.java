@@ -1,5 +1,6 @@
 package com.company.app.ordermanager.unittest.repository;
 
+import com.company.app.ordermanager.dto.orderitem.OrderItemStatusUpdate;
 import com.company.app.ordermanager.entity.order.Order;
 import com.company.app.ordermanager.entity.orderitem.OrderItem;
 import com.company.app.ordermanager.entity.orderitem.OrderItemStatus;
@@ -14,7 +15,9 @@ import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.test.context.ActiveProfiles;
 
 import java.math.BigDecimal;
+import java.util.List;
 import java.util.Optional;
+import java.util.UUID;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
@@ -169,4 +172,44 @@ class OrderItemRepositoryTest {
         // Then
         assertThat(version).isEmpty();
     }
+
+    @Test
+    void updateStatuses_ShouldReportEachUpdate() {
+        // Given
+        long currentVersion = testOrderItem.getVersion();
+
+        List<OrderItemStatusUpdate> updates = List.of(
+                new OrderItemStatusUpdate(testOrderItem.getId(), currentVersion, OrderItemStatus.CANCELLED, OrderItemStatusReason.INSUFFICIENT_STOCK),
+                OrderItemStatusUpdate.of(UUID.randomUUID(), 0, OrderItemStatus.CONFIRMED)
+        );
+
+        // When
+        List<Boolean> applied = orderItemRepository.updateStatuses(updates);
+
+        // Then
+        assertThat(applied).containsExactly(true, false);
+
+        OrderItem updatedItem = entityManager.find(OrderItem.class, testOrderItem.getId());
+        assertThat(updatedItem.getStatus()).isEqualTo(OrderItemStatus.CANCELLED);
+        assertThat(updatedItem.getReason()).isEqualTo(OrderItemStatusReason.INSUFFICIENT_STOCK);
+        assertThat(updatedItem.getVersion()).isEqualTo(currentVersion + 1);
+    }
+
+    @Test
+    void updateStatuses_WhenVersionDoesNotMatch_ShouldKeepOrderItem() {
+        // Given
+        long wrongVersion = testOrderItem.getVersion() + 1;
+
+        // When
+        List<Boolean> applied = orderItemRepository.updateStatuses(List.of(
+                OrderItemStatusUpdate.of(testOrderItem.getId(), wrongVersion, OrderItemStatus.CONFIRMED)
+        ));
+
+        // Then
+        assertThat(applied).containsExactly(false);
+
+        OrderItem unchangedItem = entityManager.find(OrderItem.class, testOrderItem.getId());
+        assertThat(unchangedItem.getStatus()).isEqualTo(OrderItemStatus.PROCESSING);
+        assertThat(unchangedItem.getVersion()).isEqualTo(testOrderItem.getVersion());
+    }
 }
@@ -0,0 +1,277 @@
+package com.company.app.ordermanager.unittest.repository;
+
+import com.company.app.ordermanager.dto.order.OrderCursor;
+import com.company.app.ordermanager.dto.order.OrderExportRow;
+import com.company.app.ordermanager.dto.order.OrderSummaryDto;
+import com.company.app.ordermanager.dto.orderitem.OrderItemStatusChange;
+import com.company.app.ordermanager.entity.common.TimeOrderedUuidGenerator;
+import com.company.app.ordermanager.entity.order.Order;
+import com.company.app.ordermanager.entity.order.OrderItemCounts;
+import com.company.app.ordermanager.entity.order.OrderStatus;
+import com.company.app.ordermanager.entity.order.QOrder;
+import com.company.app.ordermanager.entity.orderitem.OrderItem;
+import com.company.app.ordermanager.entity.orderitem.OrderItemStatus;
+import com.company.app.ordermanager.entity.product.Product;
+import com.company.app.ordermanager.repository.api.order.OrderRepository;
+import com.querydsl.core.BooleanBuilder;
+import com.querydsl.core.types.Predicate;
+import jakarta.persistence.EntityManager;
+import org.hibernate.Hibernate;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Window;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+@ActiveProfiles("test")
+class OrderRepositoryTest {
+    private static final Instant NOW = Instant.parse("2025-01-01T12:00:00Z");
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @BeforeEach
+    void setUp() {
+        // Two orders share a creation time, so the ID has to break the tie
+        for (Instant createdAt : List.of(NOW, NOW.plusSeconds(1), NOW.plusSeconds(1), NOW.plusSeconds(2), NOW.plusSeconds(3))) {
+            entityManager.persist(Order.builder()
+                    .customerName("Test Customer")
+                    .createdAt(createdAt)
+                    .build());
+        }
+
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    void scrollSummariesNewestFirst_WhenScrollingAllPages_ShouldReturnEveryOrderOnceInStableOrder() {
+        // Given
+        Predicate predicate = new BooleanBuilder();
+        List<UUID> expected = orderRepository.findAll(OrderRepository.KEYSET_SORT).stream().map(Order::getId).toList();
+
+        // When
+        List<UUID> scrolled = new ArrayList<>();
+        OrderCursor after = null;
+        Window<OrderSummaryDto> window;
+
+        do {
+            window = orderRepository.scrollSummariesNewestFirst(predicate, after, 2);
+            window.forEach(summary -> scrolled.add(summary.id()));
+            after = window.isEmpty() ? after : OrderCursor.of((KeysetScrollPosition) window.positionAt(window.size() - 1));
+        } while (window.hasNext());
+
+        // Then
+        assertThat(scrolled).containsExactlyElementsOf(expected);
+        assertThat(expected).hasSize(5);
+    }
+
+    @Test
+    void scrollSummariesNewestFirst_WithPredicate_ShouldOnlyReturnMatchingOrders() {
+        // Given
+        Predicate predicate = QOrder.order.createdAt.between(NOW.plusSeconds(1), NOW.plusSeconds(2));
+
+        // When
+        Window<OrderSummaryDto> window = orderRepository.scrollSummariesNewestFirst(predicate, null, 10);
+
+        // Then
+        assertThat(window.hasNext()).isFalse();
+        assertThat(window.getContent()).hasSize(3);
+        assertThat(window.getContent().get(0).createdAt()).isEqualTo(NOW.plusSeconds(2));
+    }
+
+    @Test
+    void findSummaries_ShouldReturnPageOfProjections() {
+        // Given
+        Predicate predicate = QOrder.order.createdAt.goe(NOW.plusSeconds(1));
+
+        // When
+        Page<OrderSummaryDto> page = orderRepository.findSummaries(predicate, PageRequest.of(0, 2, OrderRepository.KEYSET_SORT));
+
+        // Then
+        assertThat(page.getTotalElements()).isEqualTo(4);
+        assertThat(page.getContent()).extracting(OrderSummaryDto::createdAt).containsExactly(NOW.plusSeconds(3), NOW.plusSeconds(2));
+    }
+
+    @Test
+    void findWithItemsById_ShouldFetchItemsWithTheOrder() {
+        // Given
+        UUID orderId = orderRepository.findAll().get(0).getId();
+        entityManager.clear();
+
+        // When
+        Order order = orderRepository.findWithItemsById(orderId).orElseThrow();
+
+        // Then
+        assertThat(Hibernate.isInitialized(order.getOrderItems())).isTrue();
+    }
+
+    @Test
+    void applyItemStatusChanges_ShouldAdjustItemCountsAndStatus() {
+        // Given
+        Order order = Order.builder()
+                .customerName("Test Customer")
+                .createdAt(NOW)
+                .build();
+        order.setItemCounts(OrderItemCounts.processing(2));
+
+        entityManager.persist(order);
+        entityManager.flush();
+        entityManager.clear();
+
+        // When
+        orderRepository.applyItemStatusChanges(List.of(
+                new OrderItemStatusChange(order.getId(), OrderItemStatus.PROCESSING, OrderItemStatus.CONFIRMED),
+                new OrderItemStatusChange(order.getId(), OrderItemStatus.PROCESSING, OrderItemStatus.CANCELLED)
+        ));
+
+        // Then
+        Order updated = entityManager.find(Order.class, order.getId());
+        assertThat(updated.getItemCounts()).isEqualTo(OrderItemCounts.builder().confirmed(1).cancelled(1).build());
+        assertThat(updated.getStatus()).isEqualTo(OrderStatus.PARTIALLY_CONFIRMED);
+    }
+
+    @Test
+    void persistAll_WhenIdAssigned_ShouldKeepAssignedId() {
+        // Given
+        UUID assignedId = TimeOrderedUuidGenerator.generate();
+        Order assigned = Order.builder()
+                .id(assignedId)
+                .customerName("Queued Customer")
+                .build();
+        Order generated = Order.builder()
+                .customerName("Test Customer")
+                .build();
+
+        // When
+        orderRepository.persistAll(List.of(assigned, generated));
+        entityManager.flush();
+        entityManager.clear();
+
+        // Then
+        assertThat(generated.getId()).isNotNull();
+        assertThat(orderRepository.findExistingIds(Set.of(assignedId, generated.getId(), UUID.randomUUID())))
+                .containsExactlyInAnyOrder(assignedId, generated.getId());
+        assertThat(entityManager.find(Order.class, assignedId).getCustomerName()).isEqualTo("Queued Customer");
+    }
+
+    @Test
+    void streamExportRows_WithoutItems_ShouldStreamOneRowPerOrderInIdOrder() {
+        // Given
+        Predicate predicate = QOrder.order.createdAt.goe(NOW.plusSeconds(1));
+
+        // When
+        List<OrderExportRow> rows;
+
+        try (Stream<OrderExportRow> stream = orderRepository.streamExportRows(predicate, false, 2)) {
+            rows = stream.toList();
+        }
+
+        // Then
+        assertThat(rows).hasSize(4);
+        assertThat(rows).extracting(OrderExportRow::orderId).isSorted();
+        assertThat(rows).noneMatch(OrderExportRow::hasItem);
+    }
+
+    @Test
+    void streamExportRows_WithItems_ShouldStreamOneRowPerItemGroupedByOrder() {
+        // Given
+        Product product = Product.builder()
+                .name("Test Product")
+                .price(new BigDecimal("9.99"))
+                .stockLevel(10)
+                .build();
+        Order order = Order.builder()
+                .customerName("Export Customer")
+                .createdAt(NOW)
+                .build();
+
+        entityManager.persist(product);
+        entityManager.persist(order);
+
+        for (int quantity = 1; quantity <= 2; quantity++) {
+            entityManager.persist(OrderItem.builder()
+                    .order(order)
+                    .product(product)
+                    .quantity(quantity)
+                    .purchasePrice(product.getPrice())
+                    .status(OrderItemStatus.PROCESSING)
+                    .build());
+        }
+
+        entityManager.flush();
+        entityManager.clear();
+
+        // When
+        List<OrderExportRow> rows;
+
+        try (Stream<OrderExportRow> stream = orderRepository.streamExportRows(new BooleanBuilder(), true, 2)) {
+            rows = stream.toList();
+        }
+
+        // Then
+        assertThat(rows).hasSize(7);
+        assertThat(rows).extracting(OrderExportRow::orderId).isSorted();
+        assertThat(rows).filteredOn(OrderExportRow::hasItem)
+                .hasSize(2)
+                .allSatisfy(row -> {
+                    assertThat(row.orderId()).isEqualTo(order.getId());
+                    assertThat(row.productId()).isEqualTo(product.getId());
+                    assertThat(row.customerName()).isEqualTo("Export Customer");
+                });
+    }
+
+    @Test
+    void findChunkAfter_WhenReadingEveryChunk_ShouldReturnEveryOrderOnceInIdOrder() {
+        // Given
+        List<UUID> expected = orderRepository.findAll().stream().map(Order::getId).sorted().toList();
+
+        // When
+        List<UUID> read = new ArrayList<>();
+        List<Order> chunk;
+        UUID after = null;
+
+        do {
+            chunk = orderRepository.findChunkAfter(after, 2);
+            chunk.forEach(order -> read.add(order.getId()));
+            after = chunk.isEmpty() ? after : chunk.get(chunk.size() - 1).getId();
+        } while (!chunk.isEmpty());
+
+        // Then
+        assertThat(read).containsExactlyElementsOf(expected);
+    }
+
+    @Test
+    void findChunkAfter_WhenOrderDeleted_ShouldSkipIt() {
+        // Given
+        Order deleted = orderRepository.findAll().get(0);
+        deleted.setDeletedAt(NOW);
+        orderRepository.saveAndFlush(deleted);
+        entityManager.clear();
+
+        // When
+        List<Order> chunk = orderRepository.findChunkAfter(null, 10);
+
+        // Then
+        assertThat(chunk).hasSize(4).extracting(Order::getId).doesNotContain(deleted.getId());
+        assertThat(orderRepository.countByDeletedAtIsNull()).isEqualTo(4);
+    }
+}
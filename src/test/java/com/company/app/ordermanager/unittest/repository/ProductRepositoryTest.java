@@ -65,4 +65,20 @@ class ProductRepositoryTest {
         // Then
         assertThat(updatedRows).isZero();
     }
+
+    @Test
+    void adjustStockLevel_WhenProductExists_ShouldApplyDelta() {
+        // Given
+        long initialVersion = testProduct.getVersion();
+
+        // When
+        int updatedRows = productRepository.adjustStockLevel(testProduct.getId(), -3);
+
+        // Then
+        assertThat(updatedRows).isEqualTo(1);
+
+        Product updated = entityManager.find(Product.class, testProduct.getId());
+        assertThat(updated.getStockLevel()).isEqualTo(7);
+        assertThat(updated.getVersion()).isEqualTo(initialVersion + 1);
+    }
 }
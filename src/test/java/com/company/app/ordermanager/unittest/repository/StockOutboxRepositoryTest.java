@@ -0,0 +1,39 @@
+package com.company.app.ordermanager.unittest.repository;
+
+import com.company.app.ordermanager.entity.outbox.StockOutboxMessage;
+import com.company.app.ordermanager.repository.api.outbox.StockOutboxRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.Instant;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+@ActiveProfiles("test")
+class StockOutboxRepositoryTest {
+    @Autowired
+    private StockOutboxRepository stockOutboxRepository;
+
+    @Test
+    void insertAll_ShouldAssignIdsInInsertionOrder() {
+        // Given
+        Instant now = Instant.now();
+        List<StockOutboxMessage> messages = List.of(
+                StockOutboxMessage.builder().payload("first").createdAt(now).build(),
+                StockOutboxMessage.builder().payload("second").createdAt(now).build(),
+                StockOutboxMessage.builder().payload("third").createdAt(now).build()
+        );
+
+        // When
+        stockOutboxRepository.insertAll(messages);
+
+        // Then
+        List<StockOutboxMessage> relayed = stockOutboxRepository.findAllByOrderByIdAsc(PageRequest.ofSize(10));
+        assertThat(relayed).extracting(StockOutboxMessage::getPayload).containsExactly("first", "second", "third");
+    }
+}
@@ -0,0 +1,117 @@
+package com.company.app.ordermanager.unittest.search.service;
+
+import com.company.app.ordermanager.repository.api.order.OrderRepository;
+import com.company.app.ordermanager.search.dto.OrderReindexState;
+import com.company.app.ordermanager.search.dto.OrderReindexStatusDto;
+import com.company.app.ordermanager.search.exception.ReindexInProgressException;
+import com.company.app.ordermanager.search.service.impl.MeilisearchOrderReindexService;
+import com.company.app.ordermanager.search.service.impl.OrderShadowIndex;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.meilisearch.sdk.Client;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.redisson.api.RBucket;
+import org.redisson.api.RedissonClient;
+import org.redisson.client.codec.StringCodec;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class MeilisearchOrderReindexServiceTest {
+    private static final String STATUS_KEY = "search:reindex:status";
+    private static final String LEASE_KEY = "search:reindex:lease";
+    private static final Duration LEASE_TTL = Duration.ofMinutes(1);
+
+    @Mock
+    private Client meilisearchClient;
+
+    @Mock
+    private RedissonClient redissonClient;
+
+    @Mock
+    private OrderRepository orderRepository;
+
+    @Mock
+    private OrderShadowIndex orderShadowIndex;
+
+    @Mock
+    private RBucket<Object> statusBucket;
+
+    @Mock
+    private RBucket<Object> leaseBucket;
+
+    private final ObjectMapper objectMapper = JsonMapper.builder().findAndAddModules().build();
+    private MeilisearchOrderReindexService reindexService;
+
+    @BeforeEach
+    void setUp() {
+        reindexService = new MeilisearchOrderReindexService(meilisearchClient, redissonClient, orderRepository, orderShadowIndex,
+                objectMapper, new SimpleMeterRegistry(), 100, 2, LEASE_TTL, Duration.ofHours(1), Duration.ofMillis(10));
+    }
+
+    @AfterEach
+    void tearDown() {
+        reindexService.shutdown();
+    }
+
+    @Test
+    void getStatus_WhenNeverRun_ShouldReturnIdle() {
+        // Given
+        when(redissonClient.getBucket(STATUS_KEY, StringCodec.INSTANCE)).thenReturn(statusBucket);
+        when(statusBucket.get()).thenReturn(null);
+
+        // When
+        OrderReindexStatusDto status = reindexService.getStatus();
+
+        // Then
+        assertThat(status.state()).isEqualTo(OrderReindexState.IDLE);
+    }
+
+    @Test
+    void getStatus_WhenRunningWithoutLease_ShouldReturnInterrupted() throws Exception {
+        // Given
+        OrderReindexStatusDto running = OrderReindexStatusDto.builder()
+                .state(OrderReindexState.RUNNING)
+                .lastOrderId(UUID.randomUUID())
+                .indexedOrders(500)
+                .startedAt(Instant.now())
+                .build();
+
+        when(redissonClient.getBucket(STATUS_KEY, StringCodec.INSTANCE)).thenReturn(statusBucket);
+        when(redissonClient.getBucket(LEASE_KEY, StringCodec.INSTANCE)).thenReturn(leaseBucket);
+        when(statusBucket.get()).thenReturn(objectMapper.writeValueAsString(running));
+        when(leaseBucket.isExists()).thenReturn(false);
+
+        // When
+        OrderReindexStatusDto status = reindexService.getStatus();
+
+        // Then
+        assertThat(status.state()).isEqualTo(OrderReindexState.INTERRUPTED);
+        assertThat(status.lastOrderId()).isEqualTo(running.lastOrderId());
+        assertThat(status.indexedOrders()).isEqualTo(500);
+    }
+
+    @Test
+    void start_WhenLeaseHeld_ShouldThrowReindexInProgressException() {
+        // Given
+        when(redissonClient.getBucket(LEASE_KEY, StringCodec.INSTANCE)).thenReturn(leaseBucket);
+        when(leaseBucket.setIfAbsent(any(), eq(LEASE_TTL))).thenReturn(false);
+
+        // When/Then
+        assertThrows(ReindexInProgressException.class, () -> reindexService.start(true));
+
+        verifyNoInteractions(meilisearchClient, orderRepository);
+    }
+}
@@ -0,0 +1,224 @@
+package com.company.app.ordermanager.unittest.search.service;
+
+import com.company.app.ordermanager.entity.order.OrderStatus;
+import com.company.app.ordermanager.search.document.OrderDocument;
+import com.company.app.ordermanager.search.document.OrderStatusDocument;
+import com.company.app.ordermanager.search.service.impl.OrderIndexingBuffer;
+import com.company.app.ordermanager.search.service.impl.OrderShadowIndex;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.meilisearch.sdk.Client;
+import com.meilisearch.sdk.Index;
+import com.meilisearch.sdk.exceptions.MeilisearchException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class OrderIndexingBufferTest {
+    private static final int BATCH_SIZE = 2;
+    private static final int CAPACITY = 3;
+
+    @Mock
+    private Client meilisearchClient;
+
+    @Mock
+    private Index orderIndex;
+
+    @Mock
+    private OrderShadowIndex orderShadowIndex;
+
+    private final ObjectMapper objectMapper = JsonMapper.builder().findAndAddModules().build();
+    private SimpleMeterRegistry meterRegistry;
+    private OrderIndexingBuffer buffer;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+
+        when(meilisearchClient.index("orders")).thenReturn(orderIndex);
+
+        buffer = new OrderIndexingBuffer(meilisearchClient, orderShadowIndex, objectMapper, meterRegistry,
+                BATCH_SIZE, CAPACITY, Duration.ofMillis(500), Duration.ZERO, Duration.ofSeconds(1), Duration.ofSeconds(1));
+    }
+
+    @Test
+    void flush_WhenOrderChangedTwice_ShouldSendLastDocumentOnly() throws Exception {
+        // Given
+        UUID orderId = UUID.randomUUID();
+        buffer.add(document(orderId, "First Customer"));
+        buffer.add(document(orderId, "Last Customer"));
+
+        // When
+        boolean sent = buffer.flush();
+
+        // Then
+        ArgumentCaptor<String> json = ArgumentCaptor.forClass(String.class);
+        verify(orderIndex).addDocuments(json.capture());
+        verify(orderIndex, never()).deleteDocumentsByFilter(anyString());
+
+        assertThat(sent).isTrue();
+        assertThat(objectMapper.readTree(json.getValue())).hasSize(1);
+        assertThat(objectMapper.readTree(json.getValue()).get(0).get("customerName").asText()).isEqualTo("Last Customer");
+        assertThat(meterRegistry.get("search.indexing.coalesced").counter().count()).isEqualTo(1);
+        assertThat(buffer.size()).isZero();
+    }
+
+    @Test
+    void flush_WhenPendingOrderDeleted_ShouldOnlySendDeletion() {
+        // Given
+        UUID orderId = UUID.randomUUID();
+        buffer.add(document(orderId, "Test Customer"));
+        buffer.delete(orderId);
+
+        // When
+        buffer.flush();
+
+        // Then
+        verify(orderIndex, never()).addDocuments(anyString());
+        verify(orderIndex).deleteDocumentsByFilter("id IN [\"" + orderId + "\"]");
+        verify(orderShadowIndex).mirror(Set.of(orderId), null, null, List.of(orderId.toString()));
+    }
+
+    @Test
+    void flush_WhenStatusUpdatedTwice_ShouldSendLastPartialDocumentOnly() throws Exception {
+        // Given
+        UUID orderId = UUID.randomUUID();
+        buffer.update(statusDocument(orderId, OrderStatus.PROCESSING, 1));
+        buffer.update(statusDocument(orderId, OrderStatus.CONFIRMED, 2));
+
+        // When
+        buffer.flush();
+
+        // Then
+        ArgumentCaptor<String> json = ArgumentCaptor.forClass(String.class);
+        verify(orderIndex).updateDocuments(json.capture());
+        verify(orderIndex, never()).addDocuments(anyString());
+
+        assertThat(objectMapper.readTree(json.getValue())).hasSize(1);
+        assertThat(objectMapper.readTree(json.getValue()).get(0).get("status").asText()).isEqualTo("CONFIRMED");
+        assertThat(objectMapper.readTree(json.getValue()).get(0).has("customerName")).isFalse();
+        assertThat(meterRegistry.get("search.indexing.operations").tag("operation", "update").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void flush_WhenPendingOrderStatusUpdated_ShouldSendMergedDocument() throws Exception {
+        // Given
+        UUID orderId = UUID.randomUUID();
+        buffer.add(document(orderId, "Test Customer"));
+        buffer.update(statusDocument(orderId, OrderStatus.CONFIRMED, 2));
+
+        // When
+        buffer.flush();
+
+        // Then
+        ArgumentCaptor<String> json = ArgumentCaptor.forClass(String.class);
+        verify(orderIndex).addDocuments(json.capture());
+        verify(orderIndex, never()).updateDocuments(anyString());
+
+        assertThat(objectMapper.readTree(json.getValue()).get(0).get("customerName").asText()).isEqualTo("Test Customer");
+        assertThat(objectMapper.readTree(json.getValue()).get(0).get("status").asText()).isEqualTo("CONFIRMED");
+        assertThat(objectMapper.readTree(json.getValue()).get(0).get("confirmedItems").asInt()).isEqualTo(2);
+    }
+
+    @Test
+    void flush_WhenDeletedOrderStatusUpdated_ShouldOnlySendDeletion() {
+        // Given
+        UUID orderId = UUID.randomUUID();
+        buffer.delete(orderId);
+        buffer.update(statusDocument(orderId, OrderStatus.CANCELLED, 0));
+
+        // When
+        buffer.flush();
+
+        // Then
+        verify(orderIndex, never()).updateDocuments(anyString());
+        verify(orderIndex).deleteDocumentsByFilter("id IN [\"" + orderId + "\"]");
+    }
+
+    @Test
+    void flush_ShouldSendAtMostOneBatch() {
+        // Given
+        buffer.add(document(UUID.randomUUID(), "First Customer"));
+        buffer.add(document(UUID.randomUUID(), "Second Customer"));
+        buffer.add(document(UUID.randomUUID(), "Third Customer"));
+
+        // When
+        buffer.flush();
+
+        // Then
+        verify(orderIndex, times(1)).addDocuments(anyString());
+        assertThat(buffer.size()).isEqualTo(1);
+        assertThat(meterRegistry.get("search.indexing.operations").tag("operation", "add").counter().count()).isEqualTo(BATCH_SIZE);
+    }
+
+    @Test
+    void flush_WhenIndexUnavailable_ShouldPutBatchBackUnlessChangedMeanwhile() {
+        // Given
+        UUID orderId = UUID.randomUUID();
+        buffer.add(document(orderId, "Test Customer"));
+
+        when(orderIndex.addDocuments(anyString())).thenAnswer(invocation -> {
+            // The order is deleted while its document is being sent
+            buffer.delete(orderId);
+
+            throw new MeilisearchException("Service unavailable");
+        });
+
+        // When
+        boolean sent = buffer.flush();
+
+        // Then
+        assertThat(sent).isFalse();
+        assertThat(buffer.size()).isEqualTo(1);
+
+        buffer.flush();
+
+        verify(orderIndex).deleteDocumentsByFilter("id IN [\"" + orderId + "\"]");
+    }
+
+    @Test
+    void add_WhenBufferFull_ShouldDropChange() {
+        // Given
+        for (int i = 0; i < CAPACITY; i++) {
+            buffer.add(document(UUID.randomUUID(), "Test Customer"));
+        }
+
+        // When
+        boolean buffered = buffer.add(document(UUID.randomUUID(), "Dropped Customer"));
+
+        // Then
+        assertThat(buffered).isFalse();
+        assertThat(buffer.size()).isEqualTo(CAPACITY);
+        assertThat(meterRegistry.get("search.indexing.dropped").counter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("search.indexing.queue.depth").gauge().value()).isEqualTo(CAPACITY);
+    }
+
+    private OrderStatusDocument statusDocument(UUID orderId, OrderStatus status, int confirmedItems) {
+        return OrderStatusDocument.builder()
+                .id(orderId)
+                .status(status)
+                .totalItems(2)
+                .confirmedItems(confirmedItems)
+                .build();
+    }
+
+    private OrderDocument document(UUID orderId, String customerName) {
+        return OrderDocument.builder()
+                .id(orderId)
+                .customerName(customerName)
+                .build();
+    }
+}
@@ -0,0 +1,136 @@
+package com.company.app.ordermanager.unittest.search.service;
+
+import com.company.app.ordermanager.entity.order.Order;
+import com.company.app.ordermanager.entity.order.OrderItemCounts;
+import com.company.app.ordermanager.entity.order.OrderStatus;
+import com.company.app.ordermanager.repository.api.order.OrderRepository;
+import com.company.app.ordermanager.search.document.OrderStatusDocument;
+import com.company.app.ordermanager.search.service.impl.OrderIndexingBuffer;
+import com.company.app.ordermanager.search.service.impl.OrderStatusUpdateDebouncer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class OrderStatusUpdateDebouncerTest {
+    private static final UUID ORDER_ID = UUID.randomUUID();
+    private static final int ITEM_COUNT = 20;
+
+    @Mock
+    private OrderRepository orderRepository;
+
+    @Mock
+    private OrderIndexingBuffer orderIndexingBuffer;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    @Test
+    void publishDue_WhenOrderChangedManyTimes_ShouldSendSingleUpdate() {
+        // Given
+        OrderStatusUpdateDebouncer debouncer = debouncer(Duration.ZERO);
+        Order order = order(OrderItemCounts.builder().confirmed(ITEM_COUNT).build());
+
+        when(orderRepository.findAllById(List.of(ORDER_ID))).thenReturn(List.of(order));
+
+        for (int i = 0; i < ITEM_COUNT; i++) {
+            debouncer.scheduleAfterCommit(List.of(ORDER_ID));
+        }
+
+        // When
+        int published = debouncer.publishDue();
+
+        // Then
+        ArgumentCaptor<OrderStatusDocument> statusDocument = ArgumentCaptor.forClass(OrderStatusDocument.class);
+        verify(orderIndexingBuffer, times(1)).update(statusDocument.capture());
+
+        assertThat(published).isEqualTo(1);
+        assertThat(statusDocument.getValue().getStatus()).isEqualTo(OrderStatus.CONFIRMED);
+        assertThat(statusDocument.getValue().getConfirmedItems()).isEqualTo(ITEM_COUNT);
+        assertThat(meterRegistry.get("search.indexing.status.debounced").counter().count()).isEqualTo(ITEM_COUNT - 1);
+    }
+
+    @Test
+    void publishDue_WhenDebounceWindowNotElapsed_ShouldNotSendUpdate() {
+        // Given
+        OrderStatusUpdateDebouncer debouncer = debouncer(Duration.ofHours(1));
+        debouncer.scheduleAfterCommit(List.of(ORDER_ID));
+
+        // When
+        int published = debouncer.publishDue();
+
+        // Then
+        assertThat(published).isZero();
+        verifyNoInteractions(orderRepository, orderIndexingBuffer);
+    }
+
+    @Test
+    void scheduleAfterCommit_WhenChangedAfterPublish_ShouldScheduleNewUpdate() {
+        // Given
+        OrderStatusUpdateDebouncer debouncer = debouncer(Duration.ZERO);
+
+        when(orderRepository.findAllById(List.of(ORDER_ID)))
+                .thenReturn(List.of(order(OrderItemCounts.builder().processing(1).confirmed(1).build())))
+                .thenReturn(List.of(order(OrderItemCounts.builder().confirmed(2).build())));
+
+        debouncer.scheduleAfterCommit(List.of(ORDER_ID));
+        debouncer.publishDue();
+
+        // When
+        debouncer.scheduleAfterCommit(List.of(ORDER_ID));
+        int published = debouncer.publishDue();
+
+        // Then
+        assertThat(published).isEqualTo(1);
+        verify(orderIndexingBuffer, times(2)).update(any(OrderStatusDocument.class));
+    }
+
+    @Test
+    void publishDue_WhenOrderDeleted_ShouldNotSendUpdate() {
+        // Given
+        OrderStatusUpdateDebouncer debouncer = debouncer(Duration.ZERO);
+        Order order = order(OrderItemCounts.builder().cancelling(1).build());
+        order.setDeletedAt(Instant.now());
+
+        when(orderRepository.findAllById(List.of(ORDER_ID))).thenReturn(List.of(order));
+
+        debouncer.scheduleAfterCommit(List.of(ORDER_ID));
+
+        // When
+        int published = debouncer.publishDue();
+
+        // Then
+        assertThat(published).isEqualTo(1);
+        verifyNoInteractions(orderIndexingBuffer);
+    }
+
+    private OrderStatusUpdateDebouncer debouncer(Duration debounce) {
+        return new OrderStatusUpdateDebouncer(orderRepository, orderIndexingBuffer, meterRegistry, debounce, 100);
+    }
+
+    private Order order(OrderItemCounts itemCounts) {
+        Order order = Order.builder()
+                .id(ORDER_ID)
+                .customerName("Test Customer")
+                .build();
+        order.setItemCounts(itemCounts);
+
+        return order;
+    }
+}
@@ -0,0 +1,114 @@
+package com.company.app.ordermanager.unittest.service;
+
+import com.company.app.ordermanager.entity.order.Order;
+import com.company.app.ordermanager.service.impl.order.OrderDetailCache;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.redisson.api.RBucket;
+import org.redisson.api.RLock;
+import org.redisson.api.RScript;
+import org.redisson.api.RedissonClient;
+import org.redisson.client.codec.StringCodec;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class OrderDetailCacheTest {
+    private static final UUID ORDER_ID = UUID.randomUUID();
+    private static final String PAYLOAD_KEY = "order:detail:" + ORDER_ID;
+    private static final String GENERATION_KEY = "order:detail:generation:" + ORDER_ID;
+
+    @Mock
+    private RedissonClient redissonClient;
+
+    @Mock
+    private RBucket<Object> payloadBucket;
+
+    @Mock
+    private RBucket<Object> generationBucket;
+
+    @Mock
+    private RLock lock;
+
+    @Mock
+    private RScript script;
+
+    @Mock
+    private Supplier<Order> loader;
+
+    private SimpleMeterRegistry meterRegistry;
+    private OrderDetailCache orderDetailCache;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        orderDetailCache = new OrderDetailCache(redissonClient, JsonMapper.builder().findAndAddModules().build(), meterRegistry,
+                true, Duration.ofMinutes(5), Duration.ofSeconds(2));
+    }
+
+    @Test
+    void get_WhenCached_ShouldNotLoadOrder() {
+        // Given
+        when(redissonClient.getBucket(PAYLOAD_KEY, StringCodec.INSTANCE)).thenReturn(payloadBucket);
+        when(payloadBucket.get()).thenReturn("{\"id\":\"cached\"}");
+
+        // When
+        String payload = orderDetailCache.get(ORDER_ID, loader);
+
+        // Then
+        assertThat(payload).isEqualTo("{\"id\":\"cached\"}");
+        verifyNoInteractions(loader);
+        assertThat(meterRegistry.get("order.detail.cache").tag("result", "hit").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void get_WhenMissing_ShouldLoadOnceUnderLockAndCacheForCurrentGeneration() throws InterruptedException {
+        // Given
+        when(redissonClient.getBucket(PAYLOAD_KEY, StringCodec.INSTANCE)).thenReturn(payloadBucket);
+        when(redissonClient.getBucket(GENERATION_KEY, StringCodec.INSTANCE)).thenReturn(generationBucket);
+        when(redissonClient.getLock("order:detail:lock:" + ORDER_ID)).thenReturn(lock);
+        when(redissonClient.getScript(StringCodec.INSTANCE)).thenReturn(script);
+        when(payloadBucket.get()).thenReturn(null);
+        when(generationBucket.get()).thenReturn("3");
+        when(lock.tryLock(anyLong(), anyLong(), eq(TimeUnit.MILLISECONDS))).thenReturn(true);
+        when(lock.isHeldByCurrentThread()).thenReturn(true);
+        when(loader.get()).thenReturn(Order.builder().id(ORDER_ID).customerName("Test Customer").build());
+
+        // When
+        String payload = orderDetailCache.get(ORDER_ID, loader);
+
+        // Then
+        assertThat(payload).contains("Test Customer");
+        verify(loader, times(1)).get();
+        verify(script).eval(eq(RScript.Mode.READ_WRITE), anyString(), eq(RScript.ReturnType.INTEGER),
+                eq(List.of(PAYLOAD_KEY, GENERATION_KEY)), eq("3"), eq(payload), anyString());
+        verify(lock).unlock();
+        assertThat(meterRegistry.get("order.detail.cache").tag("result", "miss").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void evictAfterCommit_WhenNoTransaction_ShouldEvictRightAway() {
+        // Given
+        when(redissonClient.getScript(StringCodec.INSTANCE)).thenReturn(script);
+
+        // When
+        orderDetailCache.evictAfterCommit(List.of(ORDER_ID));
+
+        // Then
+        verify(script).eval(eq(RScript.Mode.READ_WRITE), anyString(), eq(RScript.ReturnType.INTEGER),
+                eq(List.of(PAYLOAD_KEY, GENERATION_KEY)), anyString());
+    }
+}
@@ -0,0 +1,116 @@
+package com.company.app.ordermanager.unittest.service;
+
+import com.company.app.ordermanager.dto.order.OrderExportFormat;
+import com.company.app.ordermanager.dto.order.OrderExportRow;
+import com.company.app.ordermanager.entity.order.OrderStatus;
+import com.company.app.ordermanager.entity.orderitem.OrderItemStatus;
+import com.company.app.ordermanager.repository.api.order.OrderRepository;
+import com.company.app.ordermanager.service.impl.order.OrderExportServiceImpl;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.querydsl.core.BooleanBuilder;
+import com.querydsl.core.types.Predicate;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class OrderExportServiceImplTest {
+    private static final int FETCH_SIZE = 500;
+    private static final Instant CREATED_AT = Instant.parse("2025-01-01T12:00:00Z");
+    private static final UUID FIRST_ORDER_ID = UUID.fromString("00000000-0000-7000-8000-000000000001");
+    private static final UUID SECOND_ORDER_ID = UUID.fromString("00000000-0000-7000-8000-000000000002");
+
+    @Mock
+    private OrderRepository orderRepository;
+
+    private final ObjectMapper objectMapper = JsonMapper.builder().findAndAddModules().build();
+    private final Predicate predicate = new BooleanBuilder();
+    private final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+
+    private OrderExportServiceImpl orderExportService;
+
+    @BeforeEach
+    void setUp() {
+        orderExportService = new OrderExportServiceImpl(orderRepository, objectMapper, FETCH_SIZE);
+    }
+
+    @Test
+    void export_WhenNdjsonWithItems_ShouldWriteOneLinePerOrder() throws IOException {
+        // Given
+        when(orderRepository.streamExportRows(predicate, true, FETCH_SIZE)).thenReturn(Stream.of(
+                itemRow(FIRST_ORDER_ID, 1),
+                itemRow(FIRST_ORDER_ID, 2),
+                new OrderExportRow(SECOND_ORDER_ID, "Second Customer", null, OrderStatus.PROCESSING, CREATED_AT)
+        ));
+
+        // When
+        long exported = orderExportService.export(predicate, OrderExportFormat.NDJSON, true, outputStream);
+
+        // Then
+        String[] lines = outputStream.toString(StandardCharsets.UTF_8).split("\n");
+
+        assertThat(exported).isEqualTo(2);
+        assertThat(lines).hasSize(2);
+
+        JsonNode first = objectMapper.readTree(lines[0]);
+        assertThat(first.get("id").asText()).isEqualTo(FIRST_ORDER_ID.toString());
+        assertThat(first.get("createdAt").asText()).isEqualTo("2025-01-01T12:00:00.000Z");
+        assertThat(first.get("items")).hasSize(2);
+        assertThat(first.get("items").get(1).get("quantity").asInt()).isEqualTo(2);
+
+        JsonNode second = objectMapper.readTree(lines[1]);
+        assertThat(second.get("id").asText()).isEqualTo(SECOND_ORDER_ID.toString());
+        assertThat(second.get("items")).isEmpty();
+    }
+
+    @Test
+    void export_WhenCsvWithoutItems_ShouldWriteHeaderAndEscapedLines() throws IOException {
+        // Given
+        when(orderRepository.streamExportRows(predicate, false, FETCH_SIZE)).thenReturn(Stream.of(
+                new OrderExportRow(FIRST_ORDER_ID, "Doe, \"Jane\"", null, OrderStatus.CONFIRMED, CREATED_AT)
+        ));
+
+        // When
+        long exported = orderExportService.export(predicate, OrderExportFormat.CSV, false, outputStream);
+
+        // Then
+        assertThat(exported).isEqualTo(1);
+        assertThat(outputStream.toString(StandardCharsets.UTF_8)).isEqualTo(
+                "order_id,customer_name,description,status,created_at\r\n" +
+                        FIRST_ORDER_ID + ",\"Doe, \"\"Jane\"\"\",,CONFIRMED,2025-01-01T12:00:00Z\r\n");
+    }
+
+    @Test
+    void export_WhenNoOrderMatches_ShouldOnlyWriteCsvHeader() throws IOException {
+        // Given
+        when(orderRepository.streamExportRows(predicate, true, FETCH_SIZE)).thenReturn(Stream.empty());
+
+        // When
+        long exported = orderExportService.export(predicate, OrderExportFormat.CSV, true, outputStream);
+
+        // Then
+        assertThat(exported).isZero();
+        assertThat(outputStream.toString(StandardCharsets.UTF_8)).isEqualTo(
+                "order_id,customer_name,description,status,created_at,item_id,product_id,quantity,purchase_price,item_status\r\n");
+    }
+
+    private OrderExportRow itemRow(UUID orderId, int quantity) {
+        return new OrderExportRow(orderId, "First Customer", "First Order", OrderStatus.PROCESSING, CREATED_AT,
+                UUID.randomUUID(), UUID.randomUUID(), quantity, new BigDecimal("9.99"), OrderItemStatus.PROCESSING);
+    }
+}
@@ -0,0 +1,241 @@
+package com.company.app.ordermanager.unittest.service;
+
+import com.company.app.ordermanager.dto.order.CreateOrderBatchResultDto;
+import com.company.app.ordermanager.dto.order.CreateOrderDto;
+import com.company.app.ordermanager.dto.order.CreateOrderResultDto;
+import com.company.app.ordermanager.dto.order.OrderIntakeStatus;
+import com.company.app.ordermanager.dto.order.OrderIntakeStatusDto;
+import com.company.app.ordermanager.dto.orderitem.CreateOrderItemDto;
+import com.company.app.ordermanager.messaging.dto.OrderIntakeMessage;
+import com.company.app.ordermanager.messaging.redis.StreamFields;
+import com.company.app.ordermanager.repository.api.order.OrderRepository;
+import com.company.app.ordermanager.service.api.order.OrderService;
+import com.company.app.ordermanager.service.impl.order.OrderIntakeConsumer;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.redisson.api.BatchOptions;
+import org.redisson.api.PendingEntry;
+import org.redisson.api.RBatch;
+import org.redisson.api.RBucketAsync;
+import org.redisson.api.RStream;
+import org.redisson.api.RStreamAsync;
+import org.redisson.api.RedissonClient;
+import org.redisson.api.StreamMessageId;
+import org.redisson.client.codec.StringCodec;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class OrderIntakeConsumerTest {
+    private static final String STREAM_KEY = "order:intake:stream";
+    private static final String GROUP_NAME = "order-intake-group";
+    private static final String CONSUMER_NAME = "intake-test-0";
+    private static final int MAX_DELIVERIES = 3;
+    private static final Duration STATUS_TTL = Duration.ofHours(24);
+
+    private static final UUID FIRST_ORDER_ID = UUID.randomUUID();
+    private static final UUID SECOND_ORDER_ID = UUID.randomUUID();
+    private static final StreamMessageId FIRST_MESSAGE_ID = new StreamMessageId(1, 0);
+    private static final StreamMessageId SECOND_MESSAGE_ID = new StreamMessageId(2, 0);
+
+    @Mock
+    private RedissonClient redissonClient;
+
+    @Mock
+    private OrderService orderService;
+
+    @Mock
+    private OrderRepository orderRepository;
+
+    @Mock
+    private RStream<String, String> stream;
+
+    @Mock
+    private RBatch batch;
+
+    @Mock
+    private RBucketAsync<String> statusBucket;
+
+    @Mock
+    private RStreamAsync<Object, Object> batchStream;
+
+    private final ObjectMapper objectMapper = JsonMapper.builder().findAndAddModules().build();
+
+    private OrderIntakeConsumer orderIntakeConsumer;
+
+    @BeforeEach
+    void setUp() {
+        // No worker is started, batches are processed by the test thread
+        orderIntakeConsumer = new OrderIntakeConsumer(redissonClient, objectMapper, orderService, orderRepository, new SimpleMeterRegistry(),
+                0, 100, Duration.ofSeconds(2), Duration.ofSeconds(5), Duration.ofMinutes(1), MAX_DELIVERIES, STATUS_TTL, Duration.ofSeconds(30), "intake-test");
+    }
+
+    @Test
+    void processEntries_WhenBatchFails_ShouldRetryOrdersOneByOne() throws JsonProcessingException {
+        // Given the batch fails because of its second order, which the database rejects
+        givenCompletion();
+        when(orderRepository.findExistingIds(Set.of(FIRST_ORDER_ID, SECOND_ORDER_ID))).thenReturn(Set.of());
+        when(orderService.createQueuedOrders(argThat(orders -> orders != null && orders.size() == 2)))
+                .thenThrow(new DataIntegrityViolationException("Duplicate entry"));
+        when(orderService.createQueuedOrders(argThat(orders -> orders != null && orders.keySet().equals(Set.of(FIRST_ORDER_ID)))))
+                .thenReturn(created(FIRST_ORDER_ID));
+        when(orderService.createQueuedOrders(argThat(orders -> orders != null && orders.keySet().equals(Set.of(SECOND_ORDER_ID)))))
+                .thenThrow(new DataIntegrityViolationException("Duplicate entry"));
+
+        // When
+        processEntries(entries(), Set.of());
+
+        // Then
+        assertThat(recordedStatuses()).containsExactlyInAnyOrder(
+                OrderIntakeStatusDto.created(FIRST_ORDER_ID),
+                OrderIntakeStatusDto.failed(SECOND_ORDER_ID, "Order rejected by the database")
+        );
+        verify(batchStream).ackAsync(GROUP_NAME, FIRST_MESSAGE_ID, SECOND_MESSAGE_ID);
+        verify(batchStream).removeAsync(FIRST_MESSAGE_ID, SECOND_MESSAGE_ID);
+    }
+
+    @Test
+    void processEntries_WhenOrderFailsTransiently_ShouldLeaveItPending() throws JsonProcessingException {
+        // Given
+        givenCompletion();
+        when(orderRepository.findExistingIds(Set.of(FIRST_ORDER_ID, SECOND_ORDER_ID))).thenReturn(Set.of());
+        when(orderService.createQueuedOrders(argThat(orders -> orders != null && orders.size() == 2)))
+                .thenThrow(new QueryTimeoutException("Lock wait timeout"));
+        when(orderService.createQueuedOrders(argThat(orders -> orders != null && orders.keySet().equals(Set.of(FIRST_ORDER_ID)))))
+                .thenReturn(created(FIRST_ORDER_ID));
+        when(orderService.createQueuedOrders(argThat(orders -> orders != null && orders.keySet().equals(Set.of(SECOND_ORDER_ID)))))
+                .thenThrow(new QueryTimeoutException("Lock wait timeout"));
+
+        // When
+        processEntries(entries(), Set.of());
+
+        // Then
+        assertThat(recordedStatuses()).containsExactly(OrderIntakeStatusDto.created(FIRST_ORDER_ID));
+        verify(batchStream).ackAsync(GROUP_NAME, FIRST_MESSAGE_ID);
+        verify(batchStream).removeAsync(FIRST_MESSAGE_ID);
+    }
+
+    @Test
+    void processEntries_WhenOrderAlreadyCreated_ShouldSkipItAndAcknowledgeIt() throws JsonProcessingException {
+        // Given the first order was created before its entry could be acknowledged
+        givenCompletion();
+        when(orderRepository.findExistingIds(Set.of(FIRST_ORDER_ID, SECOND_ORDER_ID))).thenReturn(Set.of(FIRST_ORDER_ID));
+        when(orderService.createQueuedOrders(any())).thenReturn(created(SECOND_ORDER_ID));
+
+        // When
+        processEntries(entries(), Set.of());
+
+        // Then
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<LinkedHashMap<UUID, CreateOrderDto>> createdOrders = ArgumentCaptor.forClass(LinkedHashMap.class);
+        verify(orderService).createQueuedOrders(createdOrders.capture());
+
+        assertThat(createdOrders.getValue()).containsOnlyKeys(SECOND_ORDER_ID);
+        assertThat(recordedStatuses()).containsExactlyInAnyOrder(
+                OrderIntakeStatusDto.created(FIRST_ORDER_ID),
+                OrderIntakeStatusDto.created(SECOND_ORDER_ID)
+        );
+        verify(batchStream).ackAsync(GROUP_NAME, FIRST_MESSAGE_ID, SECOND_MESSAGE_ID);
+    }
+
+    @Test
+    void processEntries_WhenEntryDeliveredTooManyTimes_ShouldFailOrderAndAcknowledgeIt() throws JsonProcessingException {
+        // Given the first entry has been claimed once more than the maximum deliveries
+        givenCompletion();
+        when(stream.listPending(GROUP_NAME, CONSUMER_NAME, FIRST_MESSAGE_ID, SECOND_MESSAGE_ID, 102)).thenReturn(List.of(
+                new PendingEntry(FIRST_MESSAGE_ID, CONSUMER_NAME, 0, MAX_DELIVERIES + 1),
+                new PendingEntry(SECOND_MESSAGE_ID, CONSUMER_NAME, 0, MAX_DELIVERIES)
+        ));
+        when(orderRepository.findExistingIds(Set.of(FIRST_ORDER_ID, SECOND_ORDER_ID))).thenReturn(Set.of());
+        when(orderService.createQueuedOrders(any())).thenReturn(created(SECOND_ORDER_ID));
+
+        Set<StreamMessageId> exhaustedIds = ReflectionTestUtils.invokeMethod(orderIntakeConsumer, "findExhaustedEntries",
+                stream, CONSUMER_NAME, Set.of(FIRST_MESSAGE_ID, SECOND_MESSAGE_ID));
+
+        // When
+        processEntries(entries(), exhaustedIds);
+
+        // Then
+        assertThat(exhaustedIds).containsExactly(FIRST_MESSAGE_ID);
+        verify(orderService).createQueuedOrders(argThat(orders -> orders.keySet().equals(Set.of(SECOND_ORDER_ID))));
+        assertThat(recordedStatuses()).containsExactlyInAnyOrder(
+                OrderIntakeStatusDto.failed(FIRST_ORDER_ID, "Order could not be created after " + MAX_DELIVERIES + " attempts"),
+                OrderIntakeStatusDto.created(SECOND_ORDER_ID)
+        );
+        verify(batchStream).ackAsync(GROUP_NAME, FIRST_MESSAGE_ID, SECOND_MESSAGE_ID);
+    }
+
+    private void givenCompletion() {
+        when(stream.getName()).thenReturn(STREAM_KEY);
+        when(redissonClient.createBatch(any(BatchOptions.class))).thenReturn(batch);
+        when(batch.<String>getBucket(anyString(), eq(StringCodec.INSTANCE))).thenReturn(statusBucket);
+        doReturn(batchStream).when(batch).getStream(STREAM_KEY);
+    }
+
+    private void processEntries(Map<StreamMessageId, Map<String, String>> entries, Set<StreamMessageId> exhaustedIds) {
+        ReflectionTestUtils.invokeMethod(orderIntakeConsumer, "processEntries", stream, entries, exhaustedIds);
+    }
+
+    private Map<StreamMessageId, Map<String, String>> entries() throws JsonProcessingException {
+        Map<StreamMessageId, Map<String, String>> entries = new LinkedHashMap<>();
+        entries.put(FIRST_MESSAGE_ID, entry(FIRST_ORDER_ID));
+        entries.put(SECOND_MESSAGE_ID, entry(SECOND_ORDER_ID));
+
+        return entries;
+    }
+
+    private Map<String, String> entry(UUID orderId) throws JsonProcessingException {
+        CreateOrderItemDto itemDto = new CreateOrderItemDto();
+        itemDto.setProductId(UUID.randomUUID());
+        itemDto.setQuantity(1);
+
+        CreateOrderDto createOrderDto = new CreateOrderDto();
+        createOrderDto.setCustomerName("Test Customer");
+        createOrderDto.setItems(Set.of(itemDto));
+
+        return Map.of(StreamFields.MESSAGE.getField(), objectMapper.writeValueAsString(new OrderIntakeMessage(orderId, createOrderDto)));
+    }
+
+    private CreateOrderBatchResultDto created(UUID orderId) {
+        return CreateOrderBatchResultDto.builder()
+                .created(1)
+                .results(List.of(CreateOrderResultDto.created(0, orderId)))
+                .build();
+    }
+
+    private List<OrderIntakeStatusDto> recordedStatuses() throws JsonProcessingException {
+        ArgumentCaptor<String> statusJson = ArgumentCaptor.forClass(String.class);
+        verify(statusBucket, atLeastOnce()).setAsync(statusJson.capture(), eq(STATUS_TTL));
+
+        List<OrderIntakeStatusDto> statuses = new ArrayList<>();
+
+        for (String json : statusJson.getAllValues()) {
+            statuses.add(objectMapper.readValue(json, OrderIntakeStatusDto.class));
+        }
+
+        assertThat(statuses).allMatch(status -> status.status() != OrderIntakeStatus.QUEUED);
+
+        return statuses;
+    }
+}
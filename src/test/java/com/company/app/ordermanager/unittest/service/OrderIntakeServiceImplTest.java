@@ -0,0 +1,153 @@
+package com.company.app.ordermanager.unittest.service;
+
+import com.company.app.ordermanager.dto.order.CreateOrderDto;
+import com.company.app.ordermanager.dto.order.OrderIntakeStatus;
+import com.company.app.ordermanager.dto.order.OrderIntakeStatusDto;
+import com.company.app.ordermanager.dto.orderitem.CreateOrderItemDto;
+import com.company.app.ordermanager.exception.order.OrderIntakeUnavailableException;
+import com.company.app.ordermanager.exception.order.OrderNotFoundException;
+import com.company.app.ordermanager.repository.api.order.OrderRepository;
+import com.company.app.ordermanager.service.impl.order.OrderIntakeServiceImpl;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.redisson.api.BatchOptions;
+import org.redisson.api.RBatch;
+import org.redisson.api.RBucket;
+import org.redisson.api.RBucketAsync;
+import org.redisson.api.RStreamAsync;
+import org.redisson.api.RedissonClient;
+import org.redisson.api.stream.StreamAddArgs;
+import org.redisson.client.RedisException;
+import org.redisson.client.codec.StringCodec;
+
+import java.time.Duration;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class OrderIntakeServiceImplTest {
+    private static final UUID ORDER_ID = UUID.randomUUID();
+    private static final String STATUS_KEY = "order:intake:status:" + ORDER_ID;
+    private static final Duration STATUS_TTL = Duration.ofHours(24);
+
+    @Mock
+    private RedissonClient redissonClient;
+
+    @Mock
+    private OrderRepository orderRepository;
+
+    @Mock
+    private RBatch batch;
+
+    @Mock
+    private RBucketAsync<Object> statusBucketAsync;
+
+    @Mock
+    private RStreamAsync<Object, Object> stream;
+
+    @Mock
+    private RBucket<Object> statusBucket;
+
+    private final ObjectMapper objectMapper = JsonMapper.builder().findAndAddModules().build();
+
+    private OrderIntakeServiceImpl orderIntakeService;
+    private CreateOrderDto createOrderDto;
+
+    @BeforeEach
+    void setUp() {
+        orderIntakeService = new OrderIntakeServiceImpl(redissonClient, objectMapper, orderRepository, STATUS_TTL);
+
+        CreateOrderItemDto itemDto = new CreateOrderItemDto();
+        itemDto.setProductId(UUID.randomUUID());
+        itemDto.setQuantity(2);
+
+        createOrderDto = new CreateOrderDto();
+        createOrderDto.setCustomerName("Test Customer");
+        createOrderDto.setItems(Set.of(itemDto));
+    }
+
+    @Test
+    void submit_ShouldQueueOrderAlongWithItsStatusAtomically() {
+        // Given
+        givenBatch();
+
+        // When
+        OrderIntakeStatusDto status = orderIntakeService.submit(createOrderDto);
+
+        // Then
+        assertThat(status.orderId()).isNotNull();
+        assertThat(status.status()).isEqualTo(OrderIntakeStatus.QUEUED);
+        verify(redissonClient).createBatch(argThat(options -> options.getExecutionMode() == BatchOptions.ExecutionMode.IN_MEMORY_ATOMIC));
+        verify(statusBucketAsync).setAsync(contains("QUEUED"), eq(STATUS_TTL));
+        verify(stream).addAsync(any(StreamAddArgs.class));
+        verify(batch).execute();
+        verifyNoInteractions(orderRepository);
+    }
+
+    @Test
+    void submit_WhenRedisUnavailable_ShouldThrowException() {
+        // Given
+        givenBatch();
+        when(batch.execute()).thenThrow(new RedisException("Connection refused"));
+
+        // When/Then
+        assertThrows(OrderIntakeUnavailableException.class, () ->
+                orderIntakeService.submit(createOrderDto)
+        );
+    }
+
+    @Test
+    void getStatus_WhenStatusRecorded_ShouldReturnIt() throws Exception {
+        // Given
+        when(redissonClient.getBucket(STATUS_KEY, StringCodec.INSTANCE)).thenReturn(statusBucket);
+        when(statusBucket.get()).thenReturn(objectMapper.writeValueAsString(OrderIntakeStatusDto.failed(ORDER_ID, "Products not found")));
+
+        // When
+        OrderIntakeStatusDto status = orderIntakeService.getStatus(ORDER_ID);
+
+        // Then
+        assertThat(status).isEqualTo(OrderIntakeStatusDto.failed(ORDER_ID, "Products not found"));
+        verifyNoInteractions(orderRepository);
+    }
+
+    @Test
+    void getStatus_WhenStatusExpiredAndOrderExists_ShouldReturnCreated() {
+        // Given
+        when(redissonClient.getBucket(STATUS_KEY, StringCodec.INSTANCE)).thenReturn(statusBucket);
+        when(orderRepository.existsById(ORDER_ID)).thenReturn(true);
+
+        // When
+        OrderIntakeStatusDto status = orderIntakeService.getStatus(ORDER_ID);
+
+        // Then
+        assertThat(status).isEqualTo(OrderIntakeStatusDto.created(ORDER_ID));
+    }
+
+    @Test
+    void getStatus_WhenUnknown_ShouldThrowException() {
+        // Given
+        when(redissonClient.getBucket(STATUS_KEY, StringCodec.INSTANCE)).thenReturn(statusBucket);
+        when(orderRepository.existsById(ORDER_ID)).thenReturn(false);
+
+        // When/Then
+        assertThrows(OrderNotFoundException.class, () ->
+                orderIntakeService.getStatus(ORDER_ID)
+        );
+    }
+
+    private void givenBatch() {
+        when(redissonClient.createBatch(any(BatchOptions.class))).thenReturn(batch);
+        doReturn(statusBucketAsync).when(batch).getBucket(startsWith("order:intake:status:"), eq(StringCodec.INSTANCE));
+        doReturn(stream).when(batch).getStream("order:intake:stream");
+    }
+}
@@ -1,6 +1,9 @@
 package com.company.app.ordermanager.unittest.service;
 
 import com.company.app.ordermanager.dto.orderitem.CreateOrderItemDto;
+import com.company.app.ordermanager.dto.orderitem.OrderItemStatusChange;
+import com.company.app.ordermanager.dto.orderitem.OrderItemStatusSnapshot;
+import com.company.app.ordermanager.dto.orderitem.OrderItemStatusUpdate;
 import com.company.app.ordermanager.entity.order.Order;
 import com.company.app.ordermanager.entity.orderitem.OrderItem;
 import com.company.app.ordermanager.entity.orderitem.OrderItemStatus;
@@ -8,8 +11,11 @@ import com.company.app.ordermanager.entity.orderitem.OrderItemStatusReason;
 import com.company.app.ordermanager.entity.product.Product;
 import com.company.app.ordermanager.exception.product.ProductNotFoundException;
 import com.company.app.ordermanager.messaging.service.api.stock.StockMessageProducerService;
+import com.company.app.ordermanager.repository.api.order.OrderRepository;
 import com.company.app.ordermanager.repository.api.orderitem.OrderItemRepository;
+import com.company.app.ordermanager.search.service.api.OrderSearchService;
 import com.company.app.ordermanager.service.api.product.ProductService;
+import com.company.app.ordermanager.service.impl.order.OrderDetailCache;
 import com.company.app.ordermanager.service.impl.orderitem.OrderItemServiceImpl;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -38,6 +44,15 @@ class OrderItemServiceImplTest {
     @Mock
     private OrderItemRepository orderItemRepository;
 
+    @Mock
+    private OrderRepository orderRepository;
+
+    @Mock
+    private OrderDetailCache orderDetailCache;
+
+    @Mock
+    private OrderSearchService orderSearchService;
+
     @Mock
     private StockMessageProducerService stockMessageProducerService;
 
@@ -76,14 +91,13 @@ class OrderItemServiceImplTest {
     }
 
     @Test
-    void createOrderItems_WhenValidInput_ShouldCreateAndReturnItems() {
+    void buildOrderItems_WhenValidInput_ShouldBuildItems() {
         // Given
         Set<CreateOrderItemDto> dtos = Set.of(testOrderItemDto);
         when(productService.findAllById(Set.of(PRODUCT_ID))).thenReturn(Set.of(testProduct));
-        when(orderItemRepository.saveAll(any())).thenReturn(List.of(testOrderItem));
 
         // When
-        Set<OrderItem> result = orderItemService.createOrderItems(testOrder, dtos);
+        Set<OrderItem> result = orderItemService.buildOrderItems(testOrder, dtos);
 
         // Then
         assertThat(result).hasSize(dtos.size());
@@ -94,17 +108,45 @@ class OrderItemServiceImplTest {
     }
 
     @Test
-    void createOrderItems_WhenProductNotFound_ShouldThrowException() {
+    void buildOrderItems_WhenProductNotFound_ShouldThrowException() {
         // Given
         Set<CreateOrderItemDto> dtos = Set.of(testOrderItemDto);
         when(productService.findAllById(Set.of(PRODUCT_ID))).thenReturn(Set.of());
 
         // When/Then
         assertThrows(ProductNotFoundException.class, () ->
-                orderItemService.createOrderItems(testOrder, dtos)
+                orderItemService.buildOrderItems(testOrder, dtos)
         );
     }
 
+    @Test
+    void buildOrderItems_WhenTwoLinesOfSameProduct_ShouldBuildSingleItem() {
+        // Given
+        CreateOrderItemDto otherLineDto = new CreateOrderItemDto();
+        otherLineDto.setProductId(PRODUCT_ID);
+        otherLineDto.setQuantity(5);
+        when(productService.findAllById(Set.of(PRODUCT_ID))).thenReturn(Set.of(testProduct));
+
+        // When
+        Set<OrderItem> result = orderItemService.buildOrderItems(testOrder, Set.of(testOrderItemDto, otherLineDto));
+
+        // Then
+        assertThat(result).hasSize(1);
+        verifyNoInteractions(orderItemRepository);
+    }
+
+    @Test
+    void saveOrderItems_ShouldReturnSavedItems() {
+        // Given
+        when(orderItemRepository.saveAll(Set.of(testOrderItem))).thenReturn(List.of(testOrderItem));
+
+        // When
+        Set<OrderItem> result = orderItemService.saveOrderItems(Set.of(testOrderItem));
+
+        // Then
+        assertThat(result).containsExactly(testOrderItem);
+    }
+
     @Test
     void cancelOrderItems_WhenItemsExist_ShouldCancelAndNotifyStock() {
         // Given
@@ -121,6 +163,10 @@ class OrderItemServiceImplTest {
         assertThat(cancelledItem.getStatus()).isEqualTo(OrderItemStatus.CANCELLING);
         assertThat(cancelledItem.getReason()).isEqualTo(OrderItemStatusReason.USER_CANCELLED);
         verify(stockMessageProducerService).sendStockCancellationMessage(result);
+        verify(orderRepository).applyItemStatusChanges(List.of(
+                new OrderItemStatusChange(testOrder.getId(), OrderItemStatus.PROCESSING, OrderItemStatus.CANCELLING)));
+        verify(orderDetailCache).evictAfterCommit(List.of(testOrder.getId()));
+        verify(orderSearchService).updateOrderStatuses(List.of(testOrder.getId()));
     }
 
     @Test
@@ -162,4 +208,45 @@ class OrderItemServiceImplTest {
                 OrderItemStatusReason.INSUFFICIENT_STOCK
         );
     }
+
+    @Test
+    void updateOrderItemStatuses_ShouldApplyAllUpdatesInOneCall() {
+        // Given
+        List<OrderItemStatusUpdate> updates = List.of(
+                OrderItemStatusUpdate.of(ORDER_ITEM_ID, 1L, OrderItemStatus.CONFIRMED),
+                new OrderItemStatusUpdate(UUID.randomUUID(), 2L, OrderItemStatus.CANCELLED, OrderItemStatusReason.INSUFFICIENT_STOCK)
+        );
+
+        when(orderItemRepository.updateStatuses(updates)).thenReturn(List.of(true, false));
+
+        // When
+        List<Boolean> applied = orderItemService.updateOrderItemStatuses(updates);
+
+        // Then
+        assertThat(applied).containsExactly(true, false);
+        verify(orderItemRepository, times(1)).updateStatuses(updates);
+    }
+
+    @Test
+    void updateOrderItemStatuses_ShouldApplyAppliedTransitionsToOrderItemCounts() {
+        // Given
+        UUID otherOrderItemId = UUID.randomUUID();
+        List<OrderItemStatusUpdate> updates = List.of(
+                OrderItemStatusUpdate.of(ORDER_ITEM_ID, 1L, OrderItemStatus.CONFIRMED),
+                OrderItemStatusUpdate.of(otherOrderItemId, 2L, OrderItemStatus.CONFIRMED)
+        );
+
+        when(orderItemRepository.findStatusSnapshotsForUpdate(List.of(ORDER_ITEM_ID, otherOrderItemId))).thenReturn(List.of(
+                new OrderItemStatusSnapshot(ORDER_ITEM_ID, testOrder.getId(), OrderItemStatus.PROCESSING, 1L),
+                new OrderItemStatusSnapshot(otherOrderItemId, testOrder.getId(), OrderItemStatus.PROCESSING, 1L)
+        ));
+        when(orderItemRepository.updateStatuses(updates)).thenReturn(List.of(true, false));
+
+        // When
+        orderItemService.updateOrderItemStatuses(updates);
+
+        // Then
+        verify(orderRepository).applyItemStatusChanges(List.of(
+                new OrderItemStatusChange(testOrder.getId(), OrderItemStatus.PROCESSING, OrderItemStatus.CONFIRMED)));
+    }
 }
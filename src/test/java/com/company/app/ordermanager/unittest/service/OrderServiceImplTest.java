@@ -1,33 +1,52 @@
 package com.company.app.ordermanager.unittest.service;
 
+import com.company.app.ordermanager.dto.order.CreateOrderBatchResultDto;
 import com.company.app.ordermanager.dto.order.CreateOrderDto;
+import com.company.app.ordermanager.dto.order.CreateOrderResultDto;
+import com.company.app.ordermanager.dto.order.OrderCursor;
+import com.company.app.ordermanager.dto.order.OrderCursorPageDto;
+import com.company.app.ordermanager.dto.order.OrderSummaryDto;
 import com.company.app.ordermanager.dto.orderitem.CreateOrderItemDto;
 import com.company.app.ordermanager.entity.order.Order;
+import com.company.app.ordermanager.entity.order.OrderStatus;
 import com.company.app.ordermanager.entity.order.QOrder;
 import com.company.app.ordermanager.entity.orderitem.OrderItem;
 import com.company.app.ordermanager.entity.orderitem.OrderItemStatus;
 import com.company.app.ordermanager.entity.product.Product;
+import com.company.app.ordermanager.exception.order.InvalidOrderCursorException;
+import com.company.app.ordermanager.exception.order.OrderBatchTooLargeException;
 import com.company.app.ordermanager.exception.order.OrderNotFoundException;
 import com.company.app.ordermanager.exception.product.ProductNotFoundException;
 import com.company.app.ordermanager.messaging.service.api.stock.StockMessageProducerService;
 import com.company.app.ordermanager.repository.api.order.OrderRepository;
 import com.company.app.ordermanager.search.service.api.OrderSearchService;
 import com.company.app.ordermanager.service.api.orderitem.OrderItemService;
+import com.company.app.ordermanager.service.api.product.ProductService;
+import com.company.app.ordermanager.service.impl.order.OrderDetailCache;
 import com.company.app.ordermanager.service.impl.order.OrderServiceImpl;
 import com.querydsl.core.types.Predicate;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Window;
 
 import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 import java.util.UUID;
@@ -46,23 +65,34 @@ class OrderServiceImplTest {
     @Mock
     private OrderItemService orderItemService;
 
+    @Mock
+    private ProductService productService;
+
     @Mock
     private StockMessageProducerService stockMessageProducerService;
 
     @Mock
     private OrderSearchService orderSearchService;
 
+    @Mock
+    private OrderDetailCache orderDetailCache;
+
+    @Spy
+    private Validator validator = Validation.buildDefaultValidatorFactory().getValidator();
+
     @InjectMocks
     private OrderServiceImpl orderService;
 
     private Order testOrder;
+    private OrderSummaryDto testSummary;
+    private Product testProduct;
     private OrderItem testOrderItem;
     private CreateOrderDto createOrderDto;
 
     @BeforeEach
     void setUp() {
         // Create test entities
-        Product testProduct = Product.builder()
+        testProduct = Product.builder()
                 .id(UUID.randomUUID())
                 .price(new BigDecimal("99.99"))
                 .version(1L)
@@ -72,6 +102,7 @@ class OrderServiceImplTest {
                 .customerName("Test Customer")
                 .description("Test Order")
                 .build();
+        testSummary = new OrderSummaryDto(ORDER_ID, "Test Customer", "Test Order", OrderStatus.PROCESSING, Instant.now());
         testOrderItem = OrderItem.builder()
                 .order(testOrder)
                 .product(testProduct)
@@ -95,20 +126,63 @@ class OrderServiceImplTest {
         // Given
         Pageable pageable = PageRequest.of(0, 10);
         Predicate predicate = QOrder.order.customerName.eq("Test");
-        Page<Order> expectedPage = new PageImpl<>(List.of(testOrder));
-        when(orderRepository.findAll(predicate, pageable)).thenReturn(expectedPage);
+        Page<OrderSummaryDto> expectedPage = new PageImpl<>(List.of(testSummary));
+        when(orderRepository.findSummaries(predicate, pageable)).thenReturn(expectedPage);
 
         // When
-        Page<Order> result = orderService.findAll(predicate, pageable);
+        Page<OrderSummaryDto> result = orderService.findAll(predicate, pageable);
 
         // Then
-        assertThat(result.getContent()).containsExactly(testOrder);
+        assertThat(result.getContent()).containsExactly(testSummary);
+    }
+
+    @Test
+    void scroll_WhenMoreOrdersFollow_ShouldReturnCursorOfLastOrder() {
+        // Given
+        Predicate predicate = QOrder.order.customerName.eq("Test");
+        Instant createdAt = Instant.parse("2025-01-01T12:00:00Z");
+        OrderCursor cursor = new OrderCursor(createdAt, UUID.randomUUID());
+        ScrollPosition lastPosition = ScrollPosition.forward(Map.of("createdAt", createdAt, "id", ORDER_ID));
+        when(orderRepository.scrollSummariesNewestFirst(predicate, cursor, 10))
+                .thenReturn(Window.from(List.of(testSummary), index -> lastPosition, true));
+
+        // When
+        OrderCursorPageDto result = orderService.scroll(predicate, cursor.encode(), 10);
+
+        // Then
+        assertThat(result.getContent()).containsExactly(testSummary);
+        assertThat(OrderCursor.decode(result.getNextCursor())).isEqualTo(new OrderCursor(createdAt, ORDER_ID));
+    }
+
+    @Test
+    void scroll_WhenLastPage_ShouldReturnNoCursor() {
+        // Given
+        Predicate predicate = QOrder.order.customerName.eq("Test");
+        when(orderRepository.scrollSummariesNewestFirst(predicate, null, 100))
+                .thenReturn(Window.from(List.of(testSummary), index -> ScrollPosition.keyset()));
+
+        // When
+        OrderCursorPageDto result = orderService.scroll(predicate, null, 1000);
+
+        // Then
+        assertThat(result.getContent()).containsExactly(testSummary);
+        assertThat(result.getNextCursor()).isNull();
+    }
+
+    @Test
+    void scroll_WhenCursorIsMalformed_ShouldThrowException() {
+        // Given
+        Predicate predicate = QOrder.order.customerName.eq("Test");
+
+        // When/Then
+        assertThrows(InvalidOrderCursorException.class, () -> orderService.scroll(predicate, "not-a-cursor", 10));
+        verifyNoInteractions(orderRepository);
     }
 
     @Test
     void findById_WhenOrderExists_ShouldReturnOrder() {
         // Given
-        when(orderRepository.findById(ORDER_ID)).thenReturn(Optional.of(testOrder));
+        when(orderRepository.findWithItemsById(ORDER_ID)).thenReturn(Optional.of(testOrder));
 
         // When
         Order result = orderService.findById(ORDER_ID);
@@ -120,7 +194,7 @@ class OrderServiceImplTest {
     @Test
     void findById_WhenOrderDoesNotExist_ShouldThrowException() {
         // Given
-        when(orderRepository.findById(ORDER_ID)).thenReturn(Optional.empty());
+        when(orderRepository.findWithItemsById(ORDER_ID)).thenReturn(Optional.empty());
 
         // When/Then
         assertThrows(OrderNotFoundException.class, () ->
@@ -129,7 +203,7 @@ class OrderServiceImplTest {
     }
 
     @Test
-    void deleteById_WhenOrderExists_ShouldCancelItems() {
+    void deleteById_WhenOrderExists_ShouldCancelItemsAndMarkDeleted() {
         // Given
         OrderItem item = OrderItem.builder()
                 .id(UUID.randomUUID())
@@ -137,7 +211,7 @@ class OrderServiceImplTest {
                 .build();
         testOrder.setOrderItems(Set.of(item));
 
-        when(orderRepository.findById(ORDER_ID)).thenReturn(Optional.of(testOrder));
+        when(orderRepository.findWithItemsById(ORDER_ID)).thenReturn(Optional.of(testOrder));
         when(orderItemService.cancelOrderItems(Set.of(item.getId()))).thenReturn(Set.of(item));
         doNothing().when(orderSearchService).deleteOrder(any(UUID.class));
 
@@ -146,12 +220,14 @@ class OrderServiceImplTest {
 
         // Then
         verify(orderItemService).cancelOrderItems(Set.of(item.getId()));
+        verify(orderDetailCache).evictAfterCommit(Set.of(ORDER_ID));
+        assertThat(testOrder.getDeletedAt()).isNotNull();
     }
 
     @Test
     void deleteById_WhenOrderDoesNotExist_ShouldThrowException() {
         // Given
-        when(orderRepository.findById(ORDER_ID)).thenReturn(Optional.empty());
+        when(orderRepository.findWithItemsById(ORDER_ID)).thenReturn(Optional.empty());
 
         // When/Then
         assertThrows(OrderNotFoundException.class, () ->
@@ -164,7 +240,8 @@ class OrderServiceImplTest {
     void createOrder_WhenValidInput_ShouldCreateOrderAndItems() {
         // Given
         when(orderRepository.save(any(Order.class))).thenReturn(testOrder);
-        when(orderItemService.createOrderItems(any(), any())).thenReturn(Set.of(testOrderItem));
+        when(orderItemService.buildOrderItems(any(), any())).thenReturn(Set.of(testOrderItem));
+        when(orderItemService.saveOrderItems(Set.of(testOrderItem))).thenReturn(Set.of(testOrderItem));
         doNothing().when(orderSearchService).indexOrder(any(Order.class));
 
         // When
@@ -176,11 +253,31 @@ class OrderServiceImplTest {
         verify(stockMessageProducerService).sendStockReservationMessage(any());
     }
 
+    @Test
+    void createOrder_WhenTwoLinesOfSameProduct_ShouldCountCreatedItems() {
+        // Given
+        CreateOrderItemDto otherLineDto = new CreateOrderItemDto();
+        otherLineDto.setProductId(testProduct.getId());
+        otherLineDto.setQuantity(5);
+        createOrderDto.setItems(Set.of(createOrderDto.getItems().iterator().next(), otherLineDto));
+
+        // Both lines make a single item, as built by the order item service
+        when(orderItemService.buildOrderItems(any(), eq(createOrderDto.getItems()))).thenReturn(Set.of(testOrderItem));
+        when(orderItemService.saveOrderItems(Set.of(testOrderItem))).thenReturn(Set.of(testOrderItem));
+        when(orderRepository.save(any(Order.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // When
+        Order result = orderService.createOrder(createOrderDto);
+
+        // Then
+        assertThat(result.getItemCounts().getProcessing()).isEqualTo(1);
+        assertThat(result.getItemCounts().total()).isEqualTo(result.getOrderItems().size());
+    }
+
     @Test
     void createOrder_WhenProductNotFound_ShouldThrowException() {
         // Given
-        when(orderRepository.save(any(Order.class))).thenReturn(testOrder);
-        when(orderItemService.createOrderItems(any(), any()))
+        when(orderItemService.buildOrderItems(any(), any()))
                 .thenThrow(new ProductNotFoundException(UUID.randomUUID()));
 
         // When/Then
@@ -188,4 +285,94 @@ class OrderServiceImplTest {
                 orderService.createOrder(createOrderDto)
         );
     }
+
+    @Test
+    void createOrders_WhenProductNotFound_ShouldReportFailureAndCreateOtherOrders() {
+        // Given
+        CreateOrderItemDto missingItemDto = new CreateOrderItemDto();
+        missingItemDto.setProductId(UUID.randomUUID());
+        missingItemDto.setQuantity(1);
+
+        CreateOrderDto missingProductDto = new CreateOrderDto();
+        missingProductDto.setCustomerName("Other Customer");
+        missingProductDto.setItems(Set.of(missingItemDto));
+
+        when(productService.findAllById(any())).thenReturn(Set.of(testProduct));
+        when(orderItemService.buildOrderItems(any(), any(), any())).thenReturn(Set.of(testOrderItem));
+        when(orderItemService.saveOrderItems(Set.of(testOrderItem))).thenReturn(Set.of(testOrderItem));
+
+        // When
+        CreateOrderBatchResultDto result = orderService.createOrders(List.of(createOrderDto, missingProductDto));
+
+        // Then
+        assertThat(result.getCreated()).isEqualTo(1);
+        assertThat(result.getFailed()).isEqualTo(1);
+        assertThat(result.getResults().get(0).isCreated()).isTrue();
+        assertThat(result.getResults().get(1).isCreated()).isFalse();
+        assertThat(result.getResults().get(1).error()).contains(missingItemDto.getProductId().toString());
+        verify(productService, times(1)).findAllById(Set.of(testProduct.getId(), missingItemDto.getProductId()));
+        verify(orderRepository, times(1)).persistAll(argThat(orders -> orders.size() == 1));
+        verify(stockMessageProducerService, times(1)).sendStockReservationMessage(Set.of(testOrderItem));
+        verify(orderSearchService, times(1)).indexOrders(anyList());
+    }
+
+    @Test
+    void createOrders_WhenOrderInvalid_ShouldReportViolationsWithoutFailingBatch() {
+        // Given
+        CreateOrderDto invalidDto = new CreateOrderDto();
+        invalidDto.setItems(Set.of());
+
+        when(productService.findAllById(any())).thenReturn(Set.of(testProduct));
+        when(orderItemService.buildOrderItems(any(), any(), any())).thenReturn(Set.of(testOrderItem));
+        when(orderItemService.saveOrderItems(Set.of(testOrderItem))).thenReturn(Set.of(testOrderItem));
+
+        // When
+        CreateOrderBatchResultDto result = orderService.createOrders(List.of(invalidDto, createOrderDto));
+
+        // Then
+        assertThat(result.getCreated()).isEqualTo(1);
+        assertThat(result.getResults().get(0).error()).contains("customerName", "items");
+        assertThat(result.getResults().get(1).isCreated()).isTrue();
+    }
+
+    @Test
+    void createOrders_WhenNoOrderValid_ShouldNotPublishOrIndex() {
+        // Given
+        CreateOrderDto invalidDto = new CreateOrderDto();
+
+        // When
+        CreateOrderBatchResultDto result = orderService.createOrders(List.of(invalidDto));
+
+        // Then
+        assertThat(result.getFailed()).isEqualTo(1);
+        verify(productService, never()).findAllById(any());
+        verify(stockMessageProducerService, never()).sendStockReservationMessage(any());
+        verify(orderSearchService, never()).indexOrders(any());
+    }
+
+    @Test
+    void createQueuedOrders_ShouldKeepAssignedIds() {
+        // Given
+        UUID assignedId = UUID.randomUUID();
+        LinkedHashMap<UUID, CreateOrderDto> queuedOrders = new LinkedHashMap<>(Map.of(assignedId, createOrderDto));
+
+        when(productService.findAllById(any())).thenReturn(Set.of(testProduct));
+        when(orderItemService.buildOrderItems(any(), any(), any())).thenReturn(Set.of(testOrderItem));
+        when(orderItemService.saveOrderItems(Set.of(testOrderItem))).thenReturn(Set.of(testOrderItem));
+
+        // When
+        CreateOrderBatchResultDto result = orderService.createQueuedOrders(queuedOrders);
+
+        // Then
+        assertThat(result.getResults()).containsExactly(CreateOrderResultDto.created(0, assignedId));
+        verify(orderRepository).persistAll(argThat(orders -> orders.iterator().next().getId().equals(assignedId)));
+    }
+
+    @Test
+    void createOrders_WhenBatchTooLarge_ShouldThrowException() {
+        // When/Then
+        assertThrows(OrderBatchTooLargeException.class, () ->
+                orderService.createOrders(Collections.nCopies(1001, createOrderDto))
+        );
+    }
 }
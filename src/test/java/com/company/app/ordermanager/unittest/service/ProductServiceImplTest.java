@@ -4,6 +4,7 @@ import com.company.app.ordermanager.entity.product.Product;
 import com.company.app.ordermanager.exception.product.ProductNotFoundException;
 import com.company.app.ordermanager.repository.api.product.ProductRepository;
 import com.company.app.ordermanager.service.impl.product.ProductServiceImpl;
+import com.company.app.ordermanager.service.impl.product.StockWriteBehindFlusher;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -12,6 +13,8 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.data.redis.core.StringRedisTemplate;
 import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.math.BigDecimal;
 import java.time.Duration;
@@ -38,6 +41,9 @@ class ProductServiceImplTest {
     @Mock
     private ValueOperations<String, String> valueOperations;
 
+    @Mock
+    private StockWriteBehindFlusher stockWriteBehindFlusher;
+
     @InjectMocks
     private ProductServiceImpl productService;
 
@@ -152,4 +158,65 @@ class ProductServiceImplTest {
         verify(valueOperations, never()).set(any(), any());
         verify(productRepository, never()).updateStockLevel(any(), anyInt());
     }
+
+    @Test
+    void adjustProductStockLevel_ShouldOnlyUpdateDB() {
+        // When
+        productService.adjustProductStockLevel(PRODUCT_ID, -2);
+
+        // Then
+        verify(productRepository).adjustStockLevel(PRODUCT_ID, -2);
+        verify(redisTemplate, never()).opsForValue();
+    }
+
+    @Test
+    void updateProductStockLevel_WhenWriteBehind_ShouldOnlyUpdateCache() {
+        // Given
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        when(stockWriteBehindFlusher.isEnabled()).thenReturn(true);
+
+        // When
+        productService.updateProductStockLevel(PRODUCT_ID, 20);
+
+        // Then
+        verify(stockWriteBehindFlusher).setStockLevel(PRODUCT_ID, 20);
+        verify(productRepository, never()).updateStockLevel(any(), anyInt());
+    }
+
+    @Test
+    void updateProductStockLevel_WhenWriteBehindAndRolledBack_ShouldRevertCachedStock() {
+        // Given
+        String stockKey = STOCK_VALUE_KEY_PREFIX + PRODUCT_ID;
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        when(valueOperations.get(stockKey)).thenReturn("10");
+        when(stockWriteBehindFlusher.isEnabled()).thenReturn(true);
+        TransactionSynchronizationManager.initSynchronization();
+
+        try {
+            // When
+            productService.updateProductStockLevel(PRODUCT_ID, 7);
+            TransactionSynchronizationManager.getSynchronizations()
+                    .forEach(synchronization -> synchronization.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        // Then
+        verify(stockWriteBehindFlusher).setStockLevel(PRODUCT_ID, 7);
+        verify(valueOperations).increment(stockKey, 3L);
+        verify(stockWriteBehindFlusher).markDirty(PRODUCT_ID);
+    }
+
+    @Test
+    void adjustProductStockLevel_WhenWriteBehind_ShouldOnlyMarkDirty() {
+        // Given
+        when(stockWriteBehindFlusher.isEnabled()).thenReturn(true);
+
+        // When
+        productService.adjustProductStockLevel(PRODUCT_ID, -2);
+
+        // Then
+        verify(stockWriteBehindFlusher).markDirty(PRODUCT_ID);
+        verify(productRepository, never()).adjustStockLevel(any(), anyInt());
+    }
 }
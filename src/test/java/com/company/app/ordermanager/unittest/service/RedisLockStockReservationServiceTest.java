@@ -0,0 +1,196 @@
+package com.company.app.ordermanager.unittest.service;
+
+import com.company.app.ordermanager.dto.stock.StockAdjustment;
+import com.company.app.ordermanager.dto.stock.StockAdjustmentResult;
+import com.company.app.ordermanager.dto.stock.StockReservationResult;
+import com.company.app.ordermanager.exception.stock.StockLockException;
+import com.company.app.ordermanager.service.api.product.ProductService;
+import com.company.app.ordermanager.service.impl.stock.RedisLockStockReservationService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.redisson.RedissonMultiLock;
+import org.redisson.api.RLock;
+import org.redisson.api.RedissonClient;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class RedisLockStockReservationServiceTest {
+    private static final UUID PRODUCT_ID = UUID.randomUUID();
+
+    @Mock
+    private RedissonClient redissonClient;
+
+    @Mock
+    private ProductService productService;
+
+    @Mock
+    private RLock lock;
+
+    @Mock
+    private RLock otherLock;
+
+    @Mock
+    private RedissonMultiLock multiLock;
+
+    @InjectMocks
+    private RedisLockStockReservationService stockReservationService;
+
+    @BeforeEach
+    void setUp() {
+        when(redissonClient.getLock("product:lock:" + PRODUCT_ID)).thenReturn(lock);
+    }
+
+    @Test
+    void reserve_WhenStockAvailable_ShouldDecrementStock() throws InterruptedException {
+        // Given
+        when(lock.tryLock(anyLong(), eq(TimeUnit.SECONDS))).thenReturn(true);
+        when(lock.isHeldByCurrentThread()).thenReturn(true);
+        when(productService.getProductStockLevel(PRODUCT_ID)).thenReturn(5);
+
+        // When
+        StockReservationResult result = stockReservationService.reserve(PRODUCT_ID, 3);
+
+        // Then
+        assertThat(result.reserved()).isTrue();
+        assertThat(result.stockLevel()).isEqualTo(2);
+        verify(productService).updateProductStockLevel(PRODUCT_ID, 2);
+        verify(lock).unlock();
+    }
+
+    @Test
+    void reserve_WhenInsufficientStock_ShouldNotUpdateStock() throws InterruptedException {
+        // Given
+        when(lock.tryLock(anyLong(), eq(TimeUnit.SECONDS))).thenReturn(true);
+        when(lock.isHeldByCurrentThread()).thenReturn(true);
+        when(productService.getProductStockLevel(PRODUCT_ID)).thenReturn(1);
+
+        // When
+        StockReservationResult result = stockReservationService.reserve(PRODUCT_ID, 3);
+
+        // Then
+        assertThat(result.reserved()).isFalse();
+        assertThat(result.stockLevel()).isEqualTo(1);
+        verify(productService, never()).updateProductStockLevel(any(), anyInt());
+        verify(lock).unlock();
+    }
+
+    @Test
+    void release_ShouldIncrementStock() throws InterruptedException {
+        // Given
+        when(lock.tryLock(anyLong(), eq(TimeUnit.SECONDS))).thenReturn(true);
+        when(lock.isHeldByCurrentThread()).thenReturn(true);
+        when(productService.getProductStockLevel(PRODUCT_ID)).thenReturn(5);
+
+        // When
+        int result = stockReservationService.release(PRODUCT_ID, 3);
+
+        // Then
+        assertThat(result).isEqualTo(8);
+        verify(productService).updateProductStockLevel(PRODUCT_ID, 8);
+    }
+
+    @Test
+    void apply_WhenMultipleAdjustments_ShouldDecideInOrderAndWriteOnce() throws InterruptedException {
+        // Given
+        when(lock.tryLock(anyLong(), eq(TimeUnit.SECONDS))).thenReturn(true);
+        when(lock.isHeldByCurrentThread()).thenReturn(true);
+        when(productService.getProductStockLevel(PRODUCT_ID)).thenReturn(4);
+
+        List<StockAdjustment> adjustments = List.of(
+                StockAdjustment.reserve(3),
+                StockAdjustment.reserve(2),
+                StockAdjustment.release(1),
+                StockAdjustment.reserve(2)
+        );
+
+        // When
+        StockAdjustmentResult result = stockReservationService.apply(PRODUCT_ID, adjustments);
+
+        // Then
+        assertThat(result.accepted()).containsExactly(true, false, true, true);
+        assertThat(result.stockLevel()).isZero();
+        verify(productService, times(1)).getProductStockLevel(PRODUCT_ID);
+        verify(productService, times(1)).updateProductStockLevel(PRODUCT_ID, 0);
+        verify(lock, times(1)).unlock();
+    }
+
+    @Test
+    void reserve_WhenLockNotAcquired_ShouldThrowException() throws InterruptedException {
+        // Given
+        when(lock.tryLock(anyLong(), eq(TimeUnit.SECONDS))).thenReturn(false);
+
+        // When/Then
+        assertThrows(StockLockException.class, () ->
+                stockReservationService.reserve(PRODUCT_ID, 3)
+        );
+
+        verify(productService, never()).getProductStockLevel(any());
+        verify(lock, never()).unlock();
+    }
+
+    @Test
+    void applyAll_WhenSeveralProducts_ShouldLockThemInProductIdOrder() throws InterruptedException {
+        // Given
+        UUID otherProductId = UUID.randomUUID();
+        List<UUID> sortedProductIds = List.of(PRODUCT_ID, otherProductId).stream().sorted().toList();
+
+        when(redissonClient.getLock("product:lock:" + otherProductId)).thenReturn(otherLock);
+        when(redissonClient.getMultiLock(any(RLock[].class))).thenReturn(multiLock);
+        when(multiLock.tryLock(anyLong(), eq(TimeUnit.SECONDS))).thenReturn(true);
+        when(productService.getProductStockLevel(PRODUCT_ID)).thenReturn(5);
+        when(productService.getProductStockLevel(otherProductId)).thenReturn(5);
+
+        // When
+        Map<UUID, StockAdjustmentResult> results = stockReservationService.applyAll(Map.of(
+                PRODUCT_ID, List.of(StockAdjustment.reserve(2)),
+                otherProductId, List.of(StockAdjustment.reserve(3))
+        ), false);
+
+        // Then
+        RLock[] expectedLockOrder = sortedProductIds.get(0).equals(PRODUCT_ID)
+                ? new RLock[]{lock, otherLock}
+                : new RLock[]{otherLock, lock};
+
+        verify(redissonClient).getMultiLock(expectedLockOrder);
+        assertThat(results.get(PRODUCT_ID).stockLevel()).isEqualTo(3);
+        assertThat(results.get(otherProductId).stockLevel()).isEqualTo(2);
+        verify(multiLock).unlock();
+    }
+
+    @Test
+    void applyAll_WhenAllOrNothingAndOneReservationRefused_ShouldRefuseEveryReservation() throws InterruptedException {
+        // Given
+        UUID otherProductId = UUID.randomUUID();
+
+        when(redissonClient.getLock("product:lock:" + otherProductId)).thenReturn(otherLock);
+        when(redissonClient.getMultiLock(any(RLock[].class))).thenReturn(multiLock);
+        when(multiLock.tryLock(anyLong(), eq(TimeUnit.SECONDS))).thenReturn(true);
+        when(productService.getProductStockLevel(PRODUCT_ID)).thenReturn(5);
+        when(productService.getProductStockLevel(otherProductId)).thenReturn(1);
+
+        // When
+        Map<UUID, StockAdjustmentResult> results = stockReservationService.applyAll(Map.of(
+                PRODUCT_ID, List.of(StockAdjustment.reserve(2)),
+                otherProductId, List.of(StockAdjustment.reserve(3))
+        ), true);
+
+        // Then
+        assertThat(results.get(PRODUCT_ID).accepted()).containsExactly(false);
+        assertThat(results.get(PRODUCT_ID).stockLevel()).isEqualTo(5);
+        assertThat(results.get(otherProductId).accepted()).containsExactly(false);
+        verify(productService, never()).updateProductStockLevel(any(), anyInt());
+        verify(multiLock).unlock();
+    }
+}
@@ -0,0 +1,187 @@
+package com.company.app.ordermanager.unittest.service;
+
+import com.company.app.ordermanager.dto.stock.StockAdjustment;
+import com.company.app.ordermanager.dto.stock.StockAdjustmentResult;
+import com.company.app.ordermanager.entity.product.Product;
+import com.company.app.ordermanager.service.api.product.ProductService;
+import com.company.app.ordermanager.service.impl.product.StockWriteBehindFlusher;
+import com.company.app.ordermanager.service.impl.stock.RedisScriptStockReservationService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.redisson.api.RAtomicLong;
+import org.redisson.api.RBucket;
+import org.redisson.api.RScript;
+import org.redisson.api.RedissonClient;
+import org.redisson.client.codec.StringCodec;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class RedisScriptStockReservationServiceTest {
+    private static final String SCRIPT_SHA = "adjust-script-sha";
+    private static final String DIRTY_PRODUCTS_KEY = "stock:dirty";
+    private static final UUID PRODUCT_ID = UUID.randomUUID();
+
+    @Mock
+    private RedissonClient redissonClient;
+
+    @Mock
+    private ProductService productService;
+
+    @Mock
+    private StockWriteBehindFlusher stockWriteBehindFlusher;
+
+    @Mock
+    private RScript script;
+
+    @Mock
+    private RAtomicLong stockValue;
+
+    @Mock
+    private RBucket<String> stockBucket;
+
+    private RedisScriptStockReservationService stockReservationService;
+
+    @BeforeEach
+    void setUp() {
+        when(redissonClient.getScript(StringCodec.INSTANCE)).thenReturn(script);
+        when(script.scriptLoad(anyString())).thenReturn(SCRIPT_SHA);
+        when(stockWriteBehindFlusher.getDirtyProductsKey()).thenReturn(DIRTY_PRODUCTS_KEY);
+
+        stockReservationService = new RedisScriptStockReservationService(redissonClient, productService, stockWriteBehindFlusher);
+        ReflectionTestUtils.invokeMethod(stockReservationService, "init");
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void apply_WhenReservationExceedsStock_ShouldRefuseItAndDecideLaterOnesInOrder() {
+        // Given stock 4, the script refuses the second reservation only
+        List<StockAdjustment> adjustments = List.of(
+                StockAdjustment.reserve(3),
+                StockAdjustment.reserve(2),
+                StockAdjustment.release(1),
+                StockAdjustment.reserve(2)
+        );
+
+        when(script.evalSha(eq(RScript.Mode.READ_WRITE), eq(SCRIPT_SHA), eq(RScript.ReturnType.MULTI), anyList(), any(Object[].class)))
+                .thenReturn(List.of(1L, 0L, 1L, 0L, 1L, 1L));
+
+        // When
+        StockAdjustmentResult result = stockReservationService.apply(PRODUCT_ID, adjustments);
+
+        // Then the deltas are sent in submission order
+        verify(script).evalSha(RScript.Mode.READ_WRITE, SCRIPT_SHA, RScript.ReturnType.MULTI,
+                List.of("stock:" + PRODUCT_ID, DIRTY_PRODUCTS_KEY),
+                "0", "0", PRODUCT_ID.toString(), "4", "-3", "-2", "1", "-2");
+
+        assertThat(result.accepted()).containsExactly(true, false, true, true);
+        assertThat(result.stockLevel()).isZero();
+        verify(productService).adjustProductStockLevel(PRODUCT_ID, -4);
+    }
+
+    @Test
+    void applyAll_WhenAllOrNothingAndOneReservationRefused_ShouldRefuseEveryReservation() {
+        // Given
+        UUID otherProductId = UUID.randomUUID();
+        List<UUID> sortedProductIds = List.of(PRODUCT_ID, otherProductId).stream().sorted().toList();
+
+        // The script refuses both reservations, leaving both stock levels unchanged
+        when(script.evalSha(eq(RScript.Mode.READ_WRITE), eq(SCRIPT_SHA), eq(RScript.ReturnType.MULTI), anyList(), any(Object[].class)))
+                .thenReturn(sortedProductIds.get(0).equals(PRODUCT_ID)
+                        ? List.of(1L, 5L, 0L, 1L, 0L)
+                        : List.of(1L, 1L, 0L, 5L, 0L));
+
+        // When
+        Map<UUID, StockAdjustmentResult> results = stockReservationService.applyAll(Map.of(
+                PRODUCT_ID, List.of(StockAdjustment.reserve(2)),
+                otherProductId, List.of(StockAdjustment.reserve(3))
+        ), true);
+
+        // Then the products are sent in product ID order, in all-or-nothing mode
+        verify(script).evalSha(RScript.Mode.READ_WRITE, SCRIPT_SHA, RScript.ReturnType.MULTI,
+                List.of("stock:" + sortedProductIds.get(0), "stock:" + sortedProductIds.get(1), DIRTY_PRODUCTS_KEY),
+                "0", "1",
+                sortedProductIds.get(0).toString(), "1", sortedProductIds.get(0).equals(PRODUCT_ID) ? "-2" : "-3",
+                sortedProductIds.get(1).toString(), "1", sortedProductIds.get(1).equals(PRODUCT_ID) ? "-2" : "-3");
+
+        assertThat(results.get(PRODUCT_ID).accepted()).containsExactly(false);
+        assertThat(results.get(PRODUCT_ID).stockLevel()).isEqualTo(5);
+        assertThat(results.get(otherProductId).accepted()).containsExactly(false);
+        assertThat(results.get(otherProductId).stockLevel()).isEqualTo(1);
+        verify(productService, never()).adjustProductStockLevel(any(), anyInt());
+    }
+
+    @Test
+    void apply_WhenTransactionRolledBack_ShouldRevertCachedStockChange() {
+        // Given
+        when(script.evalSha(eq(RScript.Mode.READ_WRITE), eq(SCRIPT_SHA), eq(RScript.ReturnType.MULTI), anyList(), any(Object[].class)))
+                .thenReturn(List.of(1L, 3L, 1L));
+        when(redissonClient.getAtomicLong("stock:" + PRODUCT_ID)).thenReturn(stockValue);
+
+        TransactionSynchronizationManager.initSynchronization();
+
+        // When
+        stockReservationService.apply(PRODUCT_ID, List.of(StockAdjustment.reserve(2)));
+        TransactionSynchronizationManager.getSynchronizations()
+                .forEach(synchronization -> synchronization.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+
+        // Then
+        verify(productService).adjustProductStockLevel(PRODUCT_ID, -2);
+        verify(stockValue).addAndGet(2);
+    }
+
+    @Test
+    void apply_WhenTransactionCommitted_ShouldKeepCachedStockChange() {
+        // Given
+        when(script.evalSha(eq(RScript.Mode.READ_WRITE), eq(SCRIPT_SHA), eq(RScript.ReturnType.MULTI), anyList(), any(Object[].class)))
+                .thenReturn(List.of(1L, 3L, 1L));
+
+        TransactionSynchronizationManager.initSynchronization();
+
+        // When
+        stockReservationService.apply(PRODUCT_ID, List.of(StockAdjustment.reserve(2)));
+        TransactionSynchronizationManager.getSynchronizations()
+                .forEach(synchronization -> synchronization.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
+
+        // Then
+        verify(redissonClient, never()).getAtomicLong(anyString());
+    }
+
+    @Test
+    void apply_WhenStockNotCached_ShouldCacheItAndRunScriptAgain() {
+        // Given
+        when(script.evalSha(eq(RScript.Mode.READ_WRITE), eq(SCRIPT_SHA), eq(RScript.ReturnType.MULTI), anyList(), any(Object[].class)))
+                .thenReturn(List.of(-1L, 1L))
+                .thenReturn(List.of(1L, 8L, 1L));
+        when(productService.findById(PRODUCT_ID)).thenReturn(Product.builder().id(PRODUCT_ID).stockLevel(10).build());
+        when(redissonClient.<String>getBucket("stock:" + PRODUCT_ID, StringCodec.INSTANCE)).thenReturn(stockBucket);
+        when(stockBucket.setIfAbsent("10")).thenReturn(true);
+
+        // When
+        StockAdjustmentResult result = stockReservationService.apply(PRODUCT_ID, List.of(StockAdjustment.reserve(2)));
+
+        // Then
+        assertThat(result.accepted()).containsExactly(true);
+        assertThat(result.stockLevel()).isEqualTo(8);
+        verify(stockBucket).setIfAbsent("10");
+        verify(productService).adjustProductStockLevel(PRODUCT_ID, -2);
+    }
+}